@@ -0,0 +1,54 @@
+package knc.simulator.benchmark;
+
+import knc.simulator.model.Elevator;
+import knc.simulator.model.ElevatorAction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many cycles per second a single {@link Elevator} can be progressed while constantly travelling
+ * between the lowest and highest storey.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ElevatorUpdateBenchmark {
+    private static final int CYCLES = 10_000;
+
+    @Param({"8", "200"})
+    private int storeys;
+
+    private Elevator elevator;
+
+    @Setup
+    public void setup() {
+        elevator = new Elevator(1, storeys);
+        elevator.setCyclesToHold(10);
+        elevator.setCyclesToTraverseStorey(10);
+        elevator.registerListener(action -> {
+            if(action == ElevatorAction.IDLE)
+                elevator.setTargetStorey(elevator.getCurrentStorey() == 1 ? storeys : 1);
+        });
+        elevator.setTargetStorey(storeys);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CYCLES)
+    public int update() {
+        for(int i = 0; i < CYCLES; i++)
+            elevator.update();
+
+        return elevator.getCurrentStorey();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CYCLES)
+    public int advance() {
+        elevator.advance(CYCLES);
+        return elevator.getCurrentStorey();
+    }
+}
@@ -0,0 +1,48 @@
+package knc.simulator.benchmark;
+
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.EtaDispatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long an {@link EtaDispatcher} takes to choose a car when every car already has a deep queue of
+ * requests. The estimate for each car should not grow with the depth of its queue.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EtaDispatchBenchmark {
+    private static final int STOREYS = 200;
+
+    @Param({"8", "64"})
+    private int cars;
+
+    @Param({"1", "32", "128"})
+    private int queueDepth;
+
+    private ElevatorBank elevatorBank;
+    private EtaDispatcher dispatcher;
+    private int storey = 1;
+
+    @Setup
+    public void setup() {
+        dispatcher = new EtaDispatcher();
+        elevatorBank = new ElevatorBank(1, STOREYS, cars, dispatcher);
+        for(int i = 0; i < cars; i++) {
+            var manager = elevatorBank.getElevatorRequestManager(i);
+            for(int j = 0; j < queueDepth; j++)
+                manager.createElevatorRequest(2 + (j * 37 + i) % (STOREYS - 1));
+        }
+    }
+
+    @Benchmark
+    public int selectElevator() {
+        storey = storey == STOREYS ? 1 : storey + 1;
+        return dispatcher.selectElevator(elevatorBank, storey);
+    }
+}
@@ -0,0 +1,64 @@
+package knc.simulator.benchmark;
+
+import knc.simulator.model.Elevator;
+import knc.simulator.model.ElevatorAction;
+import knc.simulator.model.ElevatorFleet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to progress every car of a large {@link ElevatorFleet} by one cycle, compared to
+ * updating the same number of standalone {@link Elevator}s.
+ * Every car constantly travels between the lowest and highest storey.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FleetUpdateBenchmark {
+    private static final int STOREYS = 40;
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    private ElevatorFleet fleet;
+    private Elevator[] standalone;
+
+    @Setup
+    public void setup() {
+        fleet = new ElevatorFleet(1, STOREYS, size);
+        standalone = new Elevator[size];
+        for(int i = 0; i < size; i++) {
+            configure(fleet.getElevator(i), i);
+            standalone[i] = new Elevator(1, STOREYS);
+            configure(standalone[i], i);
+        }
+    }
+
+    @Benchmark
+    public ElevatorFleet fleetUpdate() {
+        fleet.update();
+        return fleet;
+    }
+
+    @Benchmark
+    public Elevator[] standaloneUpdate() {
+        for(var elevator : standalone)
+            elevator.update();
+
+        return standalone;
+    }
+
+    private static void configure(Elevator elevator, int index) {
+        elevator.setCyclesToHold(10);
+        elevator.setCyclesToTraverseStorey(5 + index % 10);
+        elevator.registerListener(action -> {
+            if(action == ElevatorAction.IDLE)
+                elevator.setTargetStorey(elevator.getCurrentStorey() == 1 ? STOREYS : 1);
+        });
+        elevator.setTargetStorey(STOREYS);
+    }
+}
@@ -0,0 +1,54 @@
+package knc.simulator.benchmark;
+
+import knc.simulator.engine.AdvanceMode;
+import knc.simulator.engine.SimulationEngine;
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.EtaDispatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures end-to-end headless simulation throughput, in simulated cycles per second,
+ * for an {@link ElevatorBank} receiving random hall calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HeadlessSimulationBenchmark {
+    private static final int CYCLES = 100_000;
+    private static final int CYCLES_BETWEEN_CALLS = 50;
+
+    @Param({"1", "8"})
+    private int elevators;
+
+    @Param({"TICK", "NEXT_EVENT"})
+    private AdvanceMode advanceMode;
+
+    private ElevatorBank elevatorBank;
+    private SimulationEngine simulationEngine;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        elevatorBank = new ElevatorBank(1, 40, elevators, new EtaDispatcher());
+        simulationEngine = new SimulationEngine(elevatorBank);
+        simulationEngine.setAdvanceMode(advanceMode);
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CYCLES)
+    public long run() {
+        for(int i = 0; i < CYCLES; i += CYCLES_BETWEEN_CALLS) {
+            elevatorBank.createHallCall(1 + random.nextInt(40));
+            simulationEngine.run(CYCLES_BETWEEN_CALLS);
+        }
+
+        return simulationEngine.getCurrentCycle();
+    }
+}
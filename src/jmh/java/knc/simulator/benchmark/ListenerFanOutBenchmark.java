@@ -0,0 +1,38 @@
+package knc.simulator.benchmark;
+
+import knc.simulator.model.Elevator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of notifying a growing number of listeners each time an {@link Elevator} changes action.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ListenerFanOutBenchmark {
+    @Param({"1", "4", "16"})
+    private int listeners;
+
+    private Elevator elevator;
+    private int toggle = 0;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        elevator = new Elevator(1, 3, 2);
+        for(int i = 0; i < listeners; i++)
+            elevator.registerListener(blackhole::consume);
+    }
+
+    @Benchmark
+    public Elevator notifyListeners() {
+        toggle ^= 1;
+        elevator.setTargetStorey(toggle == 0 ? 1 : 3);
+        return elevator;
+    }
+}
@@ -0,0 +1,116 @@
+package knc.simulator.benchmark;
+
+import knc.simulator.model.Elevator;
+import knc.simulator.model.ElevatorRequestManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link ElevatorRequestManager#createElevatorRequest(int)} for different storey counts and
+ * queue depths. The elevator is kept travelling so requests accumulate instead of being served.
+ * The requests already queued are above the storeys called by {@link #distinctRequests(FreshManagers)}, so the same
+ * storeys are free to call at every queue depth.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RequestIngestionBenchmark {
+    private static final int REQUESTS = 1_000;
+
+    @Param({"8", "64", "200"})
+    private int storeys;
+
+    @Param({"1", "7"})
+    private int queueDepth;
+
+    private ElevatorRequestManager manager;
+    private int[] storeySequence;
+
+    @Setup
+    public void setup() {
+        manager = createManager();
+
+        // Every storey between the lowest and the queued requests, shuffled, once per fresh manager
+        var random = new Random(1);
+        var permutation = new int[storeys - 1];
+        for(int i = 0; i < permutation.length; i++)
+            permutation[i] = 2 + i;
+        storeySequence = new int[REQUESTS];
+        for(int i = 0; i < REQUESTS; i++) {
+            var position = i % permutation.length;
+            if(position == 0)
+                shuffle(permutation, random);
+            storeySequence[i] = permutation[position];
+        }
+    }
+
+    /**
+     * Calls for storeys that are already queued, the common case during bursts.
+     */
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public ElevatorRequestManager duplicateRequests() {
+        for(int i = 0; i < REQUESTS; i++)
+            manager.createElevatorRequest(storeys + 1 + i % queueDepth);
+
+        return manager;
+    }
+
+    /**
+     * Fresh managers for {@link #distinctRequests(FreshManagers)}, built outside of the measurement before every call.
+     */
+    @State(Scope.Thread)
+    public static class FreshManagers {
+        private ElevatorRequestManager[] managers;
+
+        @Setup(Level.Invocation)
+        public void setup(RequestIngestionBenchmark benchmark) {
+            managers = new ElevatorRequestManager[(REQUESTS + benchmark.storeys - 2) / (benchmark.storeys - 1)];
+            for(int i = 0; i < managers.length; i++)
+                managers[i] = benchmark.createManager();
+        }
+    }
+
+    /**
+     * Calls for storeys that are not queued yet, spread over the whole building in random order. Each manager receives
+     * one call for every free storey before the next manager is used.
+     */
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public ElevatorRequestManager[] distinctRequests(FreshManagers freshManagers) {
+        var managers = freshManagers.managers;
+        var distinctStoreys = storeys - 1;
+        for(int i = 0; i < REQUESTS; i++)
+            managers[i / distinctStoreys].createElevatorRequest(storeySequence[i]);
+
+        return managers;
+    }
+
+    /**
+     * Creates a manager whose elevator travels from the top to the lowest storey, with the queued requests above every
+     * storey called during the benchmark.
+     */
+    private ElevatorRequestManager createManager() {
+        var highestStorey = storeys + queueDepth + 1;
+        var newManager = new ElevatorRequestManager(new Elevator(1, highestStorey, highestStorey));
+        newManager.createElevatorRequest(1);
+        for(int i = 0; i < queueDepth; i++)
+            newManager.createElevatorRequest(storeys + 1 + i);
+
+        return newManager;
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for(int i = values.length - 1; i > 0; i--) {
+            var j = random.nextInt(i + 1);
+            var value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import knc.simulator.controller.StartController;
 public class ElevatorSimulator extends Application {
     private Stage stage;
     private StartController startController;
+    private SimulationController simulationController;
 
     @Override
     public void start(Stage stage) throws Exception {
@@ -20,6 +21,12 @@ public class ElevatorSimulator extends Application {
         showStartScene();
     }
 
+    @Override
+    public void stop() {
+        if(simulationController != null)
+            simulationController.stopSimulation();
+    }
+
     private void showStartScene() {
         try {
             var loader = new FXMLLoader(getClass().getResource("/fxml/start.fxml"));
@@ -35,11 +42,15 @@ public class ElevatorSimulator extends Application {
 
     public void showSimulationScene(int value) {
         try {
+            // The previous simulation must release its metrics before the next one publishes them
+            if(simulationController != null)
+                simulationController.stopSimulation();
+
             var loader = new FXMLLoader(getClass().getResource("/fxml/simulation.fxml"));
-            var controller = new SimulationController(value);
-            loader.setController(controller);
+            simulationController = new SimulationController(value);
+            loader.setController(simulationController);
             stage.setScene(new Scene(loader.load()));
-            controller.startSimulation();
+            simulationController.startSimulation();
         } catch(Exception e) {
             e.printStackTrace();
         }
@@ -0,0 +1,144 @@
+package knc.simulator;
+
+import knc.simulator.eventlog.EventLogWriter;
+import knc.simulator.metrics.MetricsHttpServer;
+import knc.simulator.metrics.MetricsRegistry;
+import knc.simulator.metrics.SimulationMetrics;
+import knc.simulator.scenario.Scenario;
+import knc.simulator.traffic.TraceReader;
+import knc.simulator.traffic.TrafficGenerator;
+import knc.simulator.traffic.TrafficProfile;
+import knc.simulator.traffic.TrafficSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs a simulation without a graphical front end and prints a summary.
+ * Usage: {@code HeadlessMain [storeys] [elevators] [profile] [days] [peakCallsPerCycle] [seed] [eventLog] [capacity] [assignmentWindow]}
+ * or {@code HeadlessMain --scenario <scenarioFile> [eventLog]} to run a {@link Scenario}.
+ * If an event log path is specified, every hall call and elevator transition is recorded to it; pass {@code -} to
+ * skip it. If a capacity is specified, every call creates a passenger and the elevators carry at most that many.
+ * If an assignment window is also specified, passengers are assigned to cars by destination dispatch.
+ * If the {@code metrics.port} system property is set, live metrics are served at {@code http://localhost:<port>/metrics}
+ * while the simulation runs.
+ */
+public class HeadlessMain {
+    private static final long METRICS_UPDATE_CYCLES = 100_000;
+    private static final String SCENARIO_OPTION = "--scenario";
+
+    public static void main(String[] args) {
+        try {
+            var useScenario = args.length > 0 && args[0].equals(SCENARIO_OPTION);
+            if(useScenario && args.length < 2)
+                throw new IllegalArgumentException("Missing scenario file");
+
+            var scenario = useScenario ? Scenario.load(Paths.get(args[1])) : parseScenario(args);
+            var eventLogIndex = useScenario ? 2 : 6;
+            var eventLogPath = args.length > eventLogIndex && !args[eventLogIndex].equals("-") ? Paths.get(args[eventLogIndex]) : null;
+
+            var trafficSource = scenario.openTrafficSource();
+            try {
+                run(scenario, trafficSource, eventLogPath);
+            } finally {
+                if(trafficSource instanceof TraceReader)
+                    ((TraceReader) trafficSource).close();
+            }
+        } catch(IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch(UncheckedIOException e) {
+            System.err.println(e.getCause().getMessage());
+            System.exit(1);
+        } catch(IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: HeadlessMain [storeys] [elevators] [profile] [days] [peakCallsPerCycle] [seed] [eventLog] [capacity] [assignmentWindow]");
+            System.err.println("       HeadlessMain " + SCENARIO_OPTION + " <scenarioFile> [eventLog]");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Builds a {@link Scenario} from positional arguments, keeping the defaults of any left out.
+     */
+    private static Scenario parseScenario(String[] args) throws IllegalArgumentException {
+        var scenario = new Scenario();
+        if(args.length > 0)
+            scenario.setStoreys(1, Integer.parseInt(args[0]));
+        if(args.length > 1)
+            scenario.setElevatorCount(Integer.parseInt(args[1]));
+        if(args.length > 2)
+            scenario.setTrafficProfile(TrafficProfile.valueOf(args[2]));
+        if(args.length > 3)
+            scenario.setCycles(Integer.parseInt(args[3]) * TrafficGenerator.DEFAULT_CYCLES_PER_DAY);
+        if(args.length > 4)
+            scenario.setPeakCallsPerCycle(Double.parseDouble(args[4]));
+        if(args.length > 5)
+            scenario.setSeed(Long.parseLong(args[5]));
+
+        var capacity = args.length > 7 ? Integer.parseInt(args[7]) : 0;
+        if(capacity > 0) {
+            scenario.setPassengerTraffic(true);
+            scenario.setCapacity(capacity);
+            if(args.length > 8)
+                scenario.setAssignmentWindow(Integer.parseInt(args[8]));
+        }
+
+        return scenario;
+    }
+
+    /**
+     * Runs the scenario with the specified traffic and prints a summary.
+     */
+    private static void run(Scenario scenario, TrafficSource trafficSource, Path eventLogPath) throws IOException {
+        var engine = scenario.createSimulationEngine(trafficSource);
+        var elevatorBank = engine.getElevatorBank();
+        var eventLogWriter = eventLogPath != null ? new EventLogWriter(eventLogPath, elevatorBank) : null;
+        var metricsPort = System.getProperty("metrics.port");
+        var start = System.nanoTime();
+        try {
+            if(metricsPort == null) {
+                engine.runToBudget();
+            } else {
+                var metricsRegistry = new MetricsRegistry();
+                var simulationMetrics = new SimulationMetrics(engine, metricsRegistry);
+                try(var server = new MetricsHttpServer(metricsRegistry, Integer.parseInt(metricsPort))) {
+                    System.out.printf("Serving metrics at http://localhost:%d%s%n", server.getPort(), MetricsHttpServer.PATH);
+                    while(!engine.isBudgetExhausted()) {
+                        engine.run(METRICS_UPDATE_CYCLES);
+                        simulationMetrics.update();
+                    }
+                }
+            }
+        } finally {
+            if(eventLogWriter != null)
+                eventLogWriter.close();
+        }
+        var elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Simulated %d cycles in %.2f s%n", engine.getCurrentCycle(), elapsedSeconds);
+        System.out.printf("Requests served: %d%n", elevatorBank.getServedRequests());
+        System.out.printf("Average wait: %.1f cycles%n", elevatorBank.getAverageWaitCycles());
+        var waitHistogram = elevatorBank.getWaitHistogram();
+        System.out.printf("Wait p50/p95/p99/max: %d / %d / %d / %d cycles%n", waitHistogram.getValueAtPercentile(50),
+                waitHistogram.getValueAtPercentile(95), waitHistogram.getValueAtPercentile(99), waitHistogram.getMax());
+        System.out.printf("Throughput: %.6f requests per cycle%n", elevatorBank.getThroughput());
+        System.out.printf("Energy: %.2f kWh%n", elevatorBank.getEnergyConsumption());
+        if(engine.isPassengerTraffic()) {
+            var passengerWaitHistogram = elevatorBank.getPassengerWaitHistogram();
+            var journeyHistogram = elevatorBank.getJourneyHistogram();
+            System.out.printf("Passengers delivered: %d (%d still waiting, %d riding)%n", elevatorBank.getDeliveredPassengers(),
+                    elevatorBank.getWaitingPassengers(), elevatorBank.getRidingPassengers());
+            System.out.printf("Passenger wait p50/p95/p99: %d / %d / %d cycles%n", passengerWaitHistogram.getValueAtPercentile(50),
+                    passengerWaitHistogram.getValueAtPercentile(95), passengerWaitHistogram.getValueAtPercentile(99));
+            System.out.printf("Journey p50/p95/p99: %d / %d / %d cycles%n", journeyHistogram.getValueAtPercentile(50),
+                    journeyHistogram.getValueAtPercentile(95), journeyHistogram.getValueAtPercentile(99));
+        }
+        if(eventLogWriter != null)
+            System.out.printf("Event log: %d events in %d bytes%n", eventLogWriter.getEventCount(), eventLogWriter.getBytesWritten());
+        if(trafficSource instanceof TraceReader)
+            System.out.printf("Trace: %d calls replayed%n", ((TraceReader) trafficSource).getCallCount());
+    }
+}
@@ -3,16 +3,76 @@ package knc.simulator;
 import javafx.animation.AnimationTimer;
 import knc.simulator.controller.SimulationController;
 
+/**
+ * Paces a {@link knc.simulator.engine.SimulationEngine} against the wall clock rather than the frame rate.
+ * The simulation advances in fixed steps of one cycle at {@value #CYCLES_PER_SECOND} cycles per second times the
+ * speed multiplier. Each frame every whole cycle owed since the previous frame is handed to the
+ * {@link SimulationController}, which then renders the state of the engine interpolated by the fraction of a cycle
+ * still owed.
+ */
 public class SimulationTimer extends AnimationTimer {
+    /**
+     * The lowest supported speed multiplier.
+     */
+    public static final int MIN_SPEED_MULTIPLIER = 1;
+
+    /**
+     * The highest supported speed multiplier.
+     */
+    public static final int MAX_SPEED_MULTIPLIER = 1000;
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final int CYCLES_PER_SECOND = 60;
+
     private final SimulationController simulationController;
+    private int speedMultiplier = MIN_SPEED_MULTIPLIER;
+    private long previousFrame = -1;
+    private double owedCycles = 0;
 
     public SimulationTimer(SimulationController simulationController) {
         this.simulationController = simulationController;
     }
 
+    /**
+     * Gets the number of cycles simulated for every cycle of wall clock time.
+     * @return The speed multiplier
+     */
+    public int getSpeedMultiplier() {
+        return speedMultiplier;
+    }
+
+    /**
+     * Sets the number of cycles simulated for every cycle of wall clock time.
+     * @param speedMultiplier The speed multiplier
+     * @throws IllegalArgumentException If speedMultiplier is outside of {@link #MIN_SPEED_MULTIPLIER} and {@link #MAX_SPEED_MULTIPLIER}
+     */
+    public void setSpeedMultiplier(int speedMultiplier) throws IllegalArgumentException {
+        if(speedMultiplier < MIN_SPEED_MULTIPLIER || speedMultiplier > MAX_SPEED_MULTIPLIER)
+            throw new IllegalArgumentException("Speed multiplier must be between " + MIN_SPEED_MULTIPLIER + " and " + MAX_SPEED_MULTIPLIER);
+
+        this.speedMultiplier = speedMultiplier;
+    }
+
+    @Override
+    public void start() {
+        // Time spent paused should not be simulated
+        previousFrame = -1;
+        owedCycles = 0;
+        super.start();
+    }
+
     @Override
     public void handle(long now) {
-        simulationController.progressSimulation();
-        simulationController.updateElevatorPosition();
+        if(previousFrame >= 0) {
+            // At most one second worth of cycles is simulated per frame, so a stalled frame cannot snowball
+            var maxCyclesPerFrame = CYCLES_PER_SECOND * speedMultiplier;
+            owedCycles += (now - previousFrame) * maxCyclesPerFrame / NANOS_PER_SECOND;
+            var cycles = (int) Math.min(owedCycles, maxCyclesPerFrame);
+            owedCycles = Math.min(owedCycles - cycles, 1);
+            simulationController.progressSimulation(cycles);
+        }
+
+        previousFrame = now;
+        simulationController.updateElevatorPosition(Math.min(owedCycles, 1));
     }
 }
@@ -0,0 +1,74 @@
+package knc.simulator.batch;
+
+import knc.simulator.model.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A {@link BatchResult} holds every {@link RunResult} of a sweep and aggregates them per {@link SweepPoint}.
+ */
+public class BatchResult {
+    private final List<SweepPoint> sweepPoints;
+    private final List<RunResult> runResults;
+    private final int repetitions;
+
+    BatchResult(List<SweepPoint> sweepPoints, List<RunResult> runResults, int repetitions) {
+        this.sweepPoints = Collections.unmodifiableList(new ArrayList<>(sweepPoints));
+        this.runResults = Collections.unmodifiableList(new ArrayList<>(runResults));
+        this.repetitions = repetitions;
+    }
+
+    /**
+     * Gets the parameter combinations of the sweep, in sweep order.
+     * @return The sweep points
+     */
+    public List<SweepPoint> getSweepPoints() {
+        return sweepPoints;
+    }
+
+    /**
+     * Gets the results of all runs, ordered by sweep point and repetition.
+     * @return The run results
+     */
+    public List<RunResult> getRunResults() {
+        return runResults;
+    }
+
+    /**
+     * Gets the results of every repetition of the sweep point with the specified index.
+     * @param pointIndex The index of the sweep point
+     * @return The run results
+     */
+    public List<RunResult> getRunResults(int pointIndex) {
+        return runResults.subList(pointIndex * repetitions, (pointIndex + 1) * repetitions);
+    }
+
+    /**
+     * Merges the wait times of every repetition of the sweep point with the specified index.
+     * Percentiles of a sweep point must be read from this histogram, as percentiles of the single runs cannot be averaged.
+     * @param pointIndex The index of the sweep point
+     * @return A new histogram holding the wait times of all repetitions
+     */
+    public LatencyHistogram getWaitHistogram(int pointIndex) {
+        var waitHistogram = new LatencyHistogram();
+        for(var runResult : getRunResults(pointIndex))
+            waitHistogram.add(runResult.getWaitHistogram());
+
+        return waitHistogram;
+    }
+
+    /**
+     * Averages a metric over every repetition of the sweep point with the specified index.
+     * Only use this for metrics that can be averaged, such as {@code RunResult::getTrips}, and
+     * {@link #getWaitHistogram(int)} for wait time percentiles.
+     * @param pointIndex The index of the sweep point
+     * @param metric The metric to average, e.g. {@code RunResult::getIdleRatio}
+     * @return The average value
+     */
+    public double getAverage(int pointIndex, ToDoubleFunction<RunResult> metric) {
+        return getRunResults(pointIndex).stream().mapToDouble(metric).average().orElse(0);
+    }
+}
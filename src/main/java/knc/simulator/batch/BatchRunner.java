@@ -0,0 +1,62 @@
+package knc.simulator.batch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link BatchRunner} executes every run of a {@link SweepSpec} on a {@link ForkJoinPool}.
+ * Runs are independent and seeded from the spec, so the results are identical regardless of parallelism.
+ */
+public class BatchRunner {
+    private final int parallelism;
+
+    /**
+     * Constructs a {@link BatchRunner} using every available processor.
+     */
+    public BatchRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a {@link BatchRunner} using the specified number of worker threads.
+     * @param parallelism The number of worker threads
+     * @throws IllegalArgumentException If parallelism < 1
+     */
+    public BatchRunner(int parallelism) throws IllegalArgumentException {
+        if(parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be >= 1");
+
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs every simulation of the specified sweep and waits for them to complete.
+     * @param sweepSpec The sweep to run
+     * @return The results of the sweep
+     * @throws InterruptedException If interrupted while waiting for the runs
+     * @throws ExecutionException If a run fails
+     */
+    public BatchResult run(SweepSpec sweepSpec) throws InterruptedException, ExecutionException {
+        var repetitions = sweepSpec.getRepetitions();
+        var pool = new ForkJoinPool(parallelism);
+
+        try {
+            var runResults = pool.submit(() -> IntStream.range(0, sweepSpec.getRunCount())
+                    .parallel()
+                    .mapToObj(runIndex -> new SimulationRun(sweepSpec.getPoint(runIndex / repetitions),
+                            sweepSpec.getTrafficProfile(), sweepSpec.getRunSeed(runIndex), sweepSpec.getCyclesPerRun()).run())
+                    .toArray(RunResult[]::new)).get();
+
+            var sweepPoints = new ArrayList<SweepPoint>();
+            for(int i = 0; i < sweepSpec.getPointCount(); i++)
+                sweepPoints.add(runResults[i * repetitions].getSweepPoint());
+
+            return new BatchResult(sweepPoints, Arrays.asList(runResults), repetitions);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
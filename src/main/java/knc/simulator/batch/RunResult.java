@@ -0,0 +1,74 @@
+package knc.simulator.batch;
+
+import knc.simulator.model.LatencyHistogram;
+
+/**
+ * A {@link RunResult} holds the outcome of a single simulation run in a batch.
+ */
+public class RunResult {
+    private final SweepPoint sweepPoint;
+    private final long seed;
+    private final LatencyHistogram waitHistogram;
+    private final long trips;
+    private final double idleRatio;
+
+    RunResult(SweepPoint sweepPoint, long seed, LatencyHistogram waitHistogram, long trips, double idleRatio) {
+        this.sweepPoint = sweepPoint;
+        this.seed = seed;
+        this.waitHistogram = waitHistogram;
+        this.trips = trips;
+        this.idleRatio = idleRatio;
+    }
+
+    public SweepPoint getSweepPoint() {
+        return sweepPoint;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getServedRequests() {
+        return waitHistogram.getTotalCount();
+    }
+
+    public double getMeanWaitCycles() {
+        return waitHistogram.getMean();
+    }
+
+    public long getP95WaitCycles() {
+        return waitHistogram.getValueAtPercentile(95);
+    }
+
+    public long getP99WaitCycles() {
+        return waitHistogram.getValueAtPercentile(99);
+    }
+
+    public long getMaxWaitCycles() {
+        return waitHistogram.getMax();
+    }
+
+    /**
+     * Gets the wait times of every request served in the run. The histogram must not be modified.
+     * @return The wait histogram
+     */
+    public LatencyHistogram getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    /**
+     * Gets the number of times the elevator departed from a standstill.
+     * @return The number of trips
+     */
+    public long getTrips() {
+        return trips;
+    }
+
+    /**
+     * Gets the share of cycles the elevator spent in {@link knc.simulator.model.ElevatorAction#IDLE}.
+     * @return The idle ratio between 0 and 1
+     */
+    public double getIdleRatio() {
+        return idleRatio;
+    }
+}
@@ -0,0 +1,61 @@
+package knc.simulator.batch;
+
+import knc.simulator.engine.AdvanceMode;
+import knc.simulator.engine.SimulationEngine;
+import knc.simulator.model.Elevator;
+import knc.simulator.model.ElevatorAction;
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.ElevatorRequestManager;
+import knc.simulator.model.ElevatorTransitionListener;
+import knc.simulator.model.NearestCarDispatcher;
+import knc.simulator.traffic.TrafficGenerator;
+import knc.simulator.traffic.TrafficProfile;
+
+/**
+ * A {@link SimulationRun} simulates one {@link SweepPoint} with a single elevator and hall calls from a
+ * {@link TrafficGenerator}. Each run owns all of its state, so any number of runs can execute concurrently.
+ */
+class SimulationRun implements ElevatorTransitionListener {
+    private final SweepPoint sweepPoint;
+    private final TrafficProfile trafficProfile;
+    private final long seed;
+    private final long cycles;
+    private long trips = 0;
+
+    SimulationRun(SweepPoint sweepPoint, TrafficProfile trafficProfile, long seed, long cycles) {
+        this.sweepPoint = sweepPoint;
+        this.trafficProfile = trafficProfile;
+        this.seed = seed;
+        this.cycles = cycles;
+    }
+
+    RunResult run() {
+        var elevator = new Elevator(1, sweepPoint.getStoreyCount());
+        elevator.setCyclesToHold(sweepPoint.getCyclesToHold());
+        elevator.setCyclesToTraverseStorey(sweepPoint.getCyclesToTraverseStorey());
+        elevator.registerTransitionListener(this);
+        var manager = new ElevatorRequestManager(elevator);
+
+        var engine = new SimulationEngine(new ElevatorBank(new NearestCarDispatcher(), manager));
+        engine.setAdvanceMode(AdvanceMode.NEXT_EVENT);
+        engine.setTrafficSource(new TrafficGenerator(1, sweepPoint.getStoreyCount(), trafficProfile,
+                sweepPoint.getTrafficIntensity(), seed));
+        engine.setCycleBudget(cycles);
+        engine.runToBudget();
+
+        var idleRatio = (double) elevator.getCyclesInAction(ElevatorAction.IDLE) / elevator.getCurrentCycle();
+
+        // The run is over, so its result can keep the manager's histogram instead of a copy
+        return new RunResult(sweepPoint, seed, manager.getWaitHistogram(), trips, idleRatio);
+    }
+
+    @Override
+    public void onTransition(ElevatorAction previousAction, ElevatorAction newAction, int storey, long cycle) {
+        if(!isMoving(previousAction) && isMoving(newAction))
+            trips++;
+    }
+
+    private static boolean isMoving(ElevatorAction action) {
+        return action == ElevatorAction.ASCENDING || action == ElevatorAction.DESCENDING;
+    }
+}
@@ -0,0 +1,47 @@
+package knc.simulator.batch;
+
+/**
+ * A {@link SweepPoint} is one combination of parameters in a {@link SweepSpec}.
+ */
+public class SweepPoint {
+    private final int storeyCount;
+    private final int cyclesToHold;
+    private final int cyclesToTraverseStorey;
+    private final double trafficIntensity;
+
+    /**
+     * Constructs a {@link SweepPoint} with the specified parameters.
+     * @param storeyCount The number of storeys in the building
+     * @param cyclesToHold The number of cycles the elevator holds at a storey
+     * @param cyclesToTraverseStorey The number of cycles needed to traverse one storey
+     * @param trafficIntensity The mean number of hall calls per cycle at the peak of the traffic profile
+     */
+    public SweepPoint(int storeyCount, int cyclesToHold, int cyclesToTraverseStorey, double trafficIntensity) {
+        this.storeyCount = storeyCount;
+        this.cyclesToHold = cyclesToHold;
+        this.cyclesToTraverseStorey = cyclesToTraverseStorey;
+        this.trafficIntensity = trafficIntensity;
+    }
+
+    public int getStoreyCount() {
+        return storeyCount;
+    }
+
+    public int getCyclesToHold() {
+        return cyclesToHold;
+    }
+
+    public int getCyclesToTraverseStorey() {
+        return cyclesToTraverseStorey;
+    }
+
+    public double getTrafficIntensity() {
+        return trafficIntensity;
+    }
+
+    @Override
+    public String toString() {
+        return "storeys=" + storeyCount + ", hold=" + cyclesToHold + ", traverse=" + cyclesToTraverseStorey
+                + ", intensity=" + trafficIntensity;
+    }
+}
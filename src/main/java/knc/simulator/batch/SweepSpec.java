@@ -0,0 +1,191 @@
+package knc.simulator.batch;
+
+import knc.simulator.traffic.TrafficProfile;
+
+/**
+ * A {@link SweepSpec} describes a parameter sweep for a {@link BatchRunner}.
+ * Every combination of storey count, hold cycles, traversal cycles and traffic intensity forms a {@link SweepPoint},
+ * and each point is simulated {@link #getRepetitions()} times with different seeds.
+ */
+public class SweepSpec {
+    private int[] storeyCounts = {8};
+    private int[] cyclesToHold = {60};
+    private int[] cyclesToTraverseStorey = {60};
+    private double[] trafficIntensities = {0.001};
+    private TrafficProfile trafficProfile = TrafficProfile.UNIFORM;
+    private int repetitions = 1;
+    private long cyclesPerRun = 1_000_000;
+    private long seed = 0;
+
+    public int[] getStoreyCounts() {
+        return storeyCounts.clone();
+    }
+
+    /**
+     * Sets the storey counts to sweep over.
+     * @param storeyCounts The storey counts
+     * @throws IllegalArgumentException If no values are specified or any value < 2
+     */
+    public void setStoreyCounts(int... storeyCounts) throws IllegalArgumentException {
+        requireValues(storeyCounts, 2, "Storey count must be >= 2");
+        this.storeyCounts = storeyCounts.clone();
+    }
+
+    public int[] getCyclesToHold() {
+        return cyclesToHold.clone();
+    }
+
+    /**
+     * Sets the hold cycles to sweep over.
+     * @param cyclesToHold The hold cycles
+     * @throws IllegalArgumentException If no values are specified or any value < 1
+     */
+    public void setCyclesToHold(int... cyclesToHold) throws IllegalArgumentException {
+        requireValues(cyclesToHold, 1, "Cycles to hold must be >= 1");
+        this.cyclesToHold = cyclesToHold.clone();
+    }
+
+    public int[] getCyclesToTraverseStorey() {
+        return cyclesToTraverseStorey.clone();
+    }
+
+    /**
+     * Sets the traversal cycles to sweep over.
+     * @param cyclesToTraverseStorey The traversal cycles
+     * @throws IllegalArgumentException If no values are specified or any value < 1
+     */
+    public void setCyclesToTraverseStorey(int... cyclesToTraverseStorey) throws IllegalArgumentException {
+        requireValues(cyclesToTraverseStorey, 1, "Cycles to traverse a storey must be >= 1");
+        this.cyclesToTraverseStorey = cyclesToTraverseStorey.clone();
+    }
+
+    public double[] getTrafficIntensities() {
+        return trafficIntensities.clone();
+    }
+
+    public TrafficProfile getTrafficProfile() {
+        return trafficProfile;
+    }
+
+    /**
+     * Sets the {@link TrafficProfile} used by every run.
+     * @param trafficProfile The traffic profile
+     */
+    public void setTrafficProfile(TrafficProfile trafficProfile) {
+        this.trafficProfile = trafficProfile;
+    }
+
+    /**
+     * Sets the traffic intensities, in mean hall calls per cycle at the peak of the profile, to sweep over.
+     * @param trafficIntensities The traffic intensities
+     * @throws IllegalArgumentException If no values are specified or any value <= 0
+     */
+    public void setTrafficIntensities(double... trafficIntensities) throws IllegalArgumentException {
+        if(trafficIntensities.length == 0)
+            throw new IllegalArgumentException("At least one traffic intensity is required");
+        for(var intensity : trafficIntensities) {
+            if(!(intensity > 0))
+                throw new IllegalArgumentException("Traffic intensity must be > 0");
+        }
+
+        this.trafficIntensities = trafficIntensities.clone();
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    /**
+     * Sets the number of times each {@link SweepPoint} is simulated.
+     * @param repetitions The number of repetitions
+     * @throws IllegalArgumentException If repetitions < 1
+     */
+    public void setRepetitions(int repetitions) throws IllegalArgumentException {
+        if(repetitions < 1)
+            throw new IllegalArgumentException("Repetitions must be >= 1");
+
+        this.repetitions = repetitions;
+    }
+
+    public long getCyclesPerRun() {
+        return cyclesPerRun;
+    }
+
+    /**
+     * Sets the number of cycles simulated in each run.
+     * @param cyclesPerRun The number of cycles
+     * @throws IllegalArgumentException If cyclesPerRun < 1
+     */
+    public void setCyclesPerRun(long cyclesPerRun) throws IllegalArgumentException {
+        if(cyclesPerRun < 1)
+            throw new IllegalArgumentException("Cycles per run must be >= 1");
+
+        this.cyclesPerRun = cyclesPerRun;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the base seed from which the seed of every run is derived.
+     * @param seed The base seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Gets the number of parameter combinations in this sweep.
+     * @return The number of sweep points
+     */
+    public int getPointCount() {
+        return storeyCounts.length * cyclesToHold.length * cyclesToTraverseStorey.length * trafficIntensities.length;
+    }
+
+    /**
+     * Gets the total number of simulations in this sweep.
+     * @return The number of runs
+     */
+    public int getRunCount() {
+        return getPointCount() * repetitions;
+    }
+
+    /**
+     * Gets the parameter combination with the specified index.
+     * @param index The index, between 0 and {@link #getPointCount()}
+     * @return The sweep point
+     */
+    public SweepPoint getPoint(int index) {
+        var intensity = trafficIntensities[index % trafficIntensities.length];
+        index /= trafficIntensities.length;
+        var traverse = cyclesToTraverseStorey[index % cyclesToTraverseStorey.length];
+        index /= cyclesToTraverseStorey.length;
+        var hold = cyclesToHold[index % cyclesToHold.length];
+        index /= cyclesToHold.length;
+        return new SweepPoint(storeyCounts[index], hold, traverse, intensity);
+    }
+
+    /**
+     * Derives the seed of the run with the specified index.
+     * The seed depends only on the base seed and the index, so results do not depend on scheduling.
+     * @param runIndex The index of the run
+     * @return The seed of the run
+     */
+    public long getRunSeed(int runIndex) {
+        // SplitMix64 finaliser
+        var z = seed + (runIndex + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void requireValues(int[] values, int minimum, String message) {
+        if(values.length == 0)
+            throw new IllegalArgumentException("At least one value is required");
+        for(var value : values) {
+            if(value < minimum)
+                throw new IllegalArgumentException(message);
+        }
+    }
+}
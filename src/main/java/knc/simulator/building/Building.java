@@ -0,0 +1,290 @@
+package knc.simulator.building;
+
+import knc.simulator.engine.AdvanceMode;
+import knc.simulator.model.LatencyHistogram;
+import knc.simulator.traffic.TrafficSource;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link Building} simulates every {@link Zone} of a {@link BuildingTopology}, carrying passengers between them.
+ * <p>
+ * A passenger changing zones walks across the transfer storey, taking {@link #getTransferCycles()} cycles before
+ * arriving in the next zone. No event in one zone can therefore affect another zone sooner than that, so the zones
+ * are simulated independently in epochs no longer than the transfer time, in parallel on a {@link ForkJoinPool}.
+ * Between epochs the passengers who reached a transfer storey are handed to their next zone, and passengers from the
+ * {@link TrafficSource} are routed to their first zone. Each zone is fed its arrivals at exactly their cycle, so the
+ * results are identical regardless of parallelism and of how the simulated cycles are split into calls to
+ * {@link #run(long)}. The pool is created by the first parallel run and kept until the building is closed.
+ * <p>
+ * Passengers are identified across zones by the tag they are created with in each {@link knc.simulator.model.ElevatorBank},
+ * which indexes primitive arrays of their final destination and arrival cycle.
+ */
+public class Building implements Closeable {
+    /**
+     * The number of cycles taken to transfer between zones, unless specified.
+     */
+    public static final int DEFAULT_TRANSFER_CYCLES = 300;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final BuildingTopology topology;
+    private final ZoneTraffic[] zoneTraffic;
+    private final int transferCycles;
+    private final int parallelism;
+    private ForkJoinPool pool;
+    private boolean closed = false;
+    private final LatencyHistogram journeyHistogram = new LatencyHistogram();
+    private int[] destinations = new int[INITIAL_CAPACITY];
+    private long[] arrivalCycles = new long[INITIAL_CAPACITY];
+    private int[] nextFree = new int[INITIAL_CAPACITY];
+    private int freeHead = BuildingTopology.NONE;
+    private int used = 0;
+    private TrafficSource trafficSource;
+    private long currentCycle = 0;
+    private long deliveredPassengers = 0;
+    private long transfers = 0;
+    private int passengersInBuilding = 0;
+
+    /**
+     * Constructs a {@link Building} with the default transfer time, using every available processor.
+     * @param topology The zones of the building
+     */
+    public Building(BuildingTopology topology) {
+        this(topology, DEFAULT_TRANSFER_CYCLES, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a {@link Building}.
+     * @param topology The zones of the building
+     * @param transferCycles The number of cycles taken to transfer between zones
+     * @param parallelism The number of zones simulated at once
+     * @throws IllegalArgumentException If transferCycles < 1 or parallelism < 1
+     */
+    public Building(BuildingTopology topology, int transferCycles, int parallelism) throws IllegalArgumentException {
+        if(transferCycles < 1)
+            throw new IllegalArgumentException("Transfer cycles must be >= 1");
+        if(parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be >= 1");
+
+        this.topology = topology;
+        this.transferCycles = transferCycles;
+        this.parallelism = parallelism;
+        this.zoneTraffic = new ZoneTraffic[topology.getZoneCount()];
+        for(int i = 0; i < zoneTraffic.length; i++)
+            zoneTraffic[i] = new ZoneTraffic(topology.getZone(i));
+    }
+
+    public BuildingTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Gets the number of cycles taken to transfer between zones, which is also the length of an epoch.
+     * @return The transfer cycles
+     */
+    public int getTransferCycles() {
+        return transferCycles;
+    }
+
+    /**
+     * Gets the number of cycles simulated so far.
+     * @return The current cycle
+     */
+    public long getCurrentCycle() {
+        return currentCycle;
+    }
+
+    /**
+     * Sets the {@link AdvanceMode} of the engine driving every zone.
+     * @param advanceMode The advance mode
+     */
+    public void setAdvanceMode(AdvanceMode advanceMode) {
+        for(int i = 0; i < topology.getZoneCount(); i++)
+            topology.getZone(i).getSimulationEngine().setAdvanceMode(advanceMode);
+    }
+
+    /**
+     * Gets the {@link TrafficSource} feeding passengers to the building.
+     * @return The traffic source, or null if there is none
+     */
+    public TrafficSource getTrafficSource() {
+        return trafficSource;
+    }
+
+    /**
+     * Sets the {@link TrafficSource} feeding passengers to the building.
+     * Each call creates a passenger travelling from its origin to its destination at the cycle it is scheduled for.
+     * @param trafficSource The traffic source, or null to stop feeding passengers
+     */
+    public void setTrafficSource(TrafficSource trafficSource) {
+        this.trafficSource = trafficSource;
+    }
+
+    /**
+     * Makes a passenger arrive at the specified storey at the current cycle, to travel to another storey.
+     * @param origin The storey the passenger arrives at
+     * @param destination The storey the passenger wants to travel to
+     * @throws IllegalArgumentException If either storey is outside of the building, or they are equal
+     */
+    public void createPassenger(int origin, int destination) throws IllegalArgumentException {
+        createPassenger(origin, destination, currentCycle);
+    }
+
+    /**
+     * Simulates the specified number of cycles, running the zones in parallel.
+     * @param cycles The number of cycles to simulate
+     * @throws IllegalArgumentException If cycles < 0
+     * @throws IllegalStateException If the building has been closed
+     * @throws InterruptedException If interrupted while waiting for the zones
+     * @throws ExecutionException If a zone fails
+     */
+    public void run(long cycles) throws IllegalArgumentException, IllegalStateException, InterruptedException,
+            ExecutionException {
+        if(cycles < 0)
+            throw new IllegalArgumentException("Cycles must be >= 0");
+        if(closed)
+            throw new IllegalStateException("The building has been closed");
+
+        if(pool == null && parallelism > 1 && zoneTraffic.length > 1)
+            pool = new ForkJoinPool(parallelism);
+
+        var endCycle = currentCycle + cycles;
+        while(currentCycle < endCycle) {
+            var epochEnd = Math.min(endCycle, currentCycle + transferCycles);
+            makeDueCalls(epochEnd);
+
+            if(pool == null) {
+                for(var traffic : zoneTraffic)
+                    traffic.run(epochEnd);
+            } else {
+                pool.submit(() -> IntStream.range(0, zoneTraffic.length)
+                        .parallel()
+                        .forEach(i -> zoneTraffic[i].run(epochEnd))).get();
+            }
+
+            transferPassengers();
+            currentCycle = epochEnd;
+        }
+    }
+
+    /**
+     * Shuts down the threads simulating the zones. The results remain readable, but the building cannot run again.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if(pool != null)
+            pool.shutdown();
+    }
+
+    /**
+     * Gets the number of passengers who have arrived but not yet reached their final destination.
+     * @return The number of passengers
+     */
+    public int getPassengersInBuilding() {
+        return passengersInBuilding;
+    }
+
+    /**
+     * Gets the number of passengers who have reached their final destination.
+     * @return The number of delivered passengers
+     */
+    public long getDeliveredPassengers() {
+        return deliveredPassengers;
+    }
+
+    /**
+     * Gets the number of times a passenger has changed zones.
+     * @return The number of transfers
+     */
+    public long getTransfers() {
+        return transfers;
+    }
+
+    /**
+     * Gets the histogram of cycles between passengers arriving and reaching their final destination, including the
+     * time spent transferring between zones.
+     * @return The journey histogram
+     */
+    public LatencyHistogram getJourneyHistogram() {
+        return journeyHistogram;
+    }
+
+    private void createPassenger(int origin, int destination, long cycle) {
+        var zone = topology.selectZone(origin, destination);
+        if(origin == destination)
+            throw new IllegalArgumentException("Origin and destination must differ");
+
+        var passenger = allocate();
+        destinations[passenger] = destination;
+        arrivalCycles[passenger] = cycle;
+        passengersInBuilding++;
+        zoneTraffic[zone].addArrival(cycle, origin, topology.getLegDestination(zone, destination), passenger);
+    }
+
+    /**
+     * Routes every call from the traffic source made before the specified cycle to the zone it starts in.
+     */
+    private void makeDueCalls(long endCycle) {
+        if(trafficSource == null)
+            return;
+
+        while(trafficSource.getNextCallCycle() < endCycle) {
+            createPassenger(trafficSource.getNextOrigin(), trafficSource.getNextDestination(), trafficSource.getNextCallCycle());
+            trafficSource.next();
+        }
+    }
+
+    /**
+     * Hands every passenger who reached a transfer storey during the last epoch to their next zone, in zone order.
+     */
+    private void transferPassengers() {
+        for(var traffic : zoneTraffic) {
+            for(int i = 0; i < traffic.getDeliveryCount(); i++) {
+                var passenger = traffic.getDeliveryTag(i);
+                var storey = traffic.getDeliveryStorey(i);
+                var cycle = traffic.getDeliveryCycle(i);
+
+                if(storey == destinations[passenger]) {
+                    journeyHistogram.record(cycle - arrivalCycles[passenger]);
+                    deliveredPassengers++;
+                    passengersInBuilding--;
+                    release(passenger);
+                } else {
+                    var zone = topology.selectZone(storey, destinations[passenger]);
+                    transfers++;
+                    zoneTraffic[zone].addArrival(cycle + transferCycles, storey,
+                            topology.getLegDestination(zone, destinations[passenger]), passenger);
+                }
+            }
+
+            traffic.clearDeliveries();
+        }
+    }
+
+    private int allocate() {
+        if(freeHead != BuildingTopology.NONE) {
+            var passenger = freeHead;
+            freeHead = nextFree[passenger];
+            return passenger;
+        }
+
+        if(used == destinations.length) {
+            destinations = Arrays.copyOf(destinations, used * 2);
+            arrivalCycles = Arrays.copyOf(arrivalCycles, used * 2);
+            nextFree = Arrays.copyOf(nextFree, used * 2);
+        }
+
+        return used++;
+    }
+
+    private void release(int passenger) {
+        nextFree[passenger] = freeHead;
+        freeHead = passenger;
+    }
+}
@@ -0,0 +1,197 @@
+package knc.simulator.building;
+
+import java.util.Arrays;
+
+/**
+ * A {@link BuildingTopology} composes several {@link Zone}s into one building.
+ * Zones are connected wherever they stop at the same storey, which is a transfer storey such as a sky lobby.
+ * Passengers travelling between storeys no single zone serves ride from zone to zone, changing at transfer storeys,
+ * along the route with the fewest transfers. Routes between every pair of zones are computed once on construction.
+ */
+public class BuildingTopology {
+    /**
+     * Returned when no zone or storey matches a query.
+     */
+    public static final int NONE = -1;
+
+    private final Zone[] zones;
+    private final int lowestStorey;
+    private final int highestStorey;
+    private final int[] hops;
+    private final int[] transferStoreys;
+
+    /**
+     * Constructs a {@link BuildingTopology} from the specified zones.
+     * @param zones The zones of the building
+     * @throws IllegalArgumentException If no zones are specified, a storey between the lowest and highest is not
+     * served by any zone, or a zone cannot be reached from every other zone
+     */
+    public BuildingTopology(Zone... zones) throws IllegalArgumentException {
+        if(zones.length == 0)
+            throw new IllegalArgumentException("At least one zone is required");
+
+        this.zones = zones.clone();
+        var lowest = Integer.MAX_VALUE;
+        var highest = Integer.MIN_VALUE;
+        for(var zone : zones) {
+            lowest = Math.min(lowest, zone.getLowestStorey());
+            highest = Math.max(highest, zone.getHighestStorey());
+        }
+        this.lowestStorey = lowest;
+        this.highestStorey = highest;
+
+        for(var storey = lowestStorey; storey <= highestStorey; storey++) {
+            if(findServingZone(storey) == NONE)
+                throw new IllegalArgumentException("Storey " + storey + " is not served by any zone");
+        }
+
+        var count = zones.length;
+        this.hops = new int[count * count];
+        this.transferStoreys = new int[count * count];
+        for(int from = 0; from < count; from++)
+            findRoutes(from);
+    }
+
+    public int getLowestStorey() {
+        return lowestStorey;
+    }
+
+    public int getHighestStorey() {
+        return highestStorey;
+    }
+
+    /**
+     * Gets the number of zones in the building.
+     * @return The number of zones
+     */
+    public int getZoneCount() {
+        return zones.length;
+    }
+
+    /**
+     * Gets the zone at the specified index.
+     * @param index The index of the zone
+     * @return The zone
+     */
+    public Zone getZone(int index) {
+        return zones[index];
+    }
+
+    /**
+     * Gets the number of transfers needed to travel from one zone to another.
+     * @param from The index of the zone travelled from
+     * @param to The index of the zone travelled to
+     * @return The number of transfers
+     */
+    public int getTransfers(int from, int to) {
+        return hops[from * zones.length + to];
+    }
+
+    /**
+     * Selects the zone a passenger should board first, which is the zone serving the origin with the fewest transfers
+     * to a zone serving the destination. Ties are broken in favour of the zone added first.
+     * @param origin The storey the passenger is waiting at
+     * @param destination The storey the passenger wants to travel to
+     * @return The index of the zone
+     * @throws IllegalArgumentException If either storey is outside of the building
+     */
+    public int selectZone(int origin, int destination) throws IllegalArgumentException {
+        if(origin < lowestStorey || origin > highestStorey || destination < lowestStorey || destination > highestStorey)
+            throw new IllegalArgumentException("Storey outside building");
+
+        var selected = NONE;
+        var selectedTransfers = Integer.MAX_VALUE;
+        for(int from = 0; from < zones.length; from++) {
+            if(!zones[from].isServing(origin))
+                continue;
+
+            for(int to = 0; to < zones.length; to++) {
+                if(zones[to].isServing(destination) && getTransfers(from, to) < selectedTransfers) {
+                    selected = from;
+                    selectedTransfers = getTransfers(from, to);
+                }
+            }
+        }
+
+        return selected;
+    }
+
+    /**
+     * Gets the storey a passenger riding the specified zone towards a destination should alight at.
+     * This is the destination itself if the zone serves it, otherwise the storey to transfer at.
+     * @param zone The index of the zone
+     * @param destination The storey the passenger wants to travel to
+     * @return The storey to alight at
+     */
+    public int getLegDestination(int zone, int destination) {
+        if(zones[zone].isServing(destination))
+            return destination;
+
+        var target = NONE;
+        for(int to = 0; to < zones.length; to++) {
+            if(zones[to].isServing(destination) && (target == NONE || getTransfers(zone, to) < getTransfers(zone, target)))
+                target = to;
+        }
+
+        return transferStoreys[zone * zones.length + target];
+    }
+
+    private int findServingZone(int storey) {
+        for(int i = 0; i < zones.length; i++) {
+            if(zones[i].isServing(storey))
+                return i;
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Finds the number of transfers and the first transfer storey on the route from one zone to every other zone with a breadth first
+     * search over the zones.
+     */
+    private void findRoutes(int from) {
+        var count = zones.length;
+        var queue = new int[count];
+        var queueHead = 0;
+        var queueTail = 0;
+        Arrays.fill(hops, from * count, (from + 1) * count, NONE);
+        hops[from * count + from] = 0;
+        transferStoreys[from * count + from] = NONE;
+        queue[queueTail++] = from;
+
+        while(queueHead < queueTail) {
+            var zone = queue[queueHead++];
+            for(int neighbour = 0; neighbour < count; neighbour++) {
+                if(hops[from * count + neighbour] != NONE)
+                    continue;
+
+                var transferStorey = findTransferStorey(zone, neighbour);
+                if(transferStorey == NONE)
+                    continue;
+
+                var route = from * count + neighbour;
+                hops[route] = hops[from * count + zone] + 1;
+                // The first transfer of the route is inherited from the zone it is reached through
+                transferStoreys[route] = zone == from ? transferStorey : transferStoreys[from * count + zone];
+                queue[queueTail++] = neighbour;
+            }
+        }
+
+        if(queueTail < count)
+            throw new IllegalArgumentException("Every zone must be reachable from every other zone");
+    }
+
+    /**
+     * Gets the lowest storey both zones stop at.
+     */
+    private int findTransferStorey(int first, int second) {
+        var lowest = Math.max(zones[first].getLowestStorey(), zones[second].getLowestStorey());
+        var highest = Math.min(zones[first].getHighestStorey(), zones[second].getHighestStorey());
+        for(var storey = lowest; storey <= highest; storey++) {
+            if(zones[first].isServing(storey) && zones[second].isServing(storey))
+                return storey;
+        }
+
+        return NONE;
+    }
+}
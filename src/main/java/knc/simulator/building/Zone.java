@@ -0,0 +1,99 @@
+package knc.simulator.building;
+
+import knc.simulator.engine.SimulationEngine;
+import knc.simulator.model.Dispatcher;
+import knc.simulator.model.ElevatorBank;
+
+/**
+ * A {@link Zone} is a group of elevators serving one contiguous part of a {@link BuildingTopology}.
+ * Each zone has its own {@link ElevatorBank}, with its own request managers and dispatcher, driven by its own
+ * {@link SimulationEngine}. A local zone stops at every storey of its range, while an express zone only stops at its
+ * lowest and highest storey, as a shuttle between a lobby and a sky lobby does.
+ */
+public class Zone {
+    private final String name;
+    private final boolean express;
+    private final ElevatorBank elevatorBank;
+    private final SimulationEngine simulationEngine;
+
+    /**
+     * Constructs a local {@link Zone} stopping at every storey of its range.
+     * @param name The name of the zone
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @param elevatorCount The number of elevators in the zone
+     * @param dispatcher The dispatcher assigning hall calls to elevators
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey or elevatorCount < 1
+     */
+    public Zone(String name, int lowestStorey, int highestStorey, int elevatorCount, Dispatcher dispatcher)
+            throws IllegalArgumentException {
+        this(name, lowestStorey, highestStorey, elevatorCount, dispatcher, false);
+    }
+
+    /**
+     * Constructs a {@link Zone}.
+     * @param name The name of the zone
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @param elevatorCount The number of elevators in the zone
+     * @param dispatcher The dispatcher assigning hall calls to elevators
+     * @param express True if the elevators only stop at the lowest and highest storey
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey or elevatorCount < 1
+     */
+    public Zone(String name, int lowestStorey, int highestStorey, int elevatorCount, Dispatcher dispatcher, boolean express)
+            throws IllegalArgumentException {
+        this.name = name;
+        this.express = express;
+        this.elevatorBank = new ElevatorBank(lowestStorey, highestStorey, elevatorCount, dispatcher);
+        this.simulationEngine = new SimulationEngine(elevatorBank);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks whether the elevators of this zone only stop at its lowest and highest storey.
+     * @return True if this is an express zone
+     */
+    public boolean isExpress() {
+        return express;
+    }
+
+    /**
+     * Checks whether the elevators of this zone stop at the specified storey.
+     * @param storey The storey
+     * @return True if passengers can board and alight at the storey
+     */
+    public boolean isServing(int storey) {
+        if(express)
+            return storey == getLowestStorey() || storey == getHighestStorey();
+
+        return storey >= getLowestStorey() && storey <= getHighestStorey();
+    }
+
+    public int getLowestStorey() {
+        return elevatorBank.getLowestStorey();
+    }
+
+    public int getHighestStorey() {
+        return elevatorBank.getHighestStorey();
+    }
+
+    /**
+     * Gets the {@link ElevatorBank} of this zone.
+     * @return The elevator bank
+     */
+    public ElevatorBank getElevatorBank() {
+        return elevatorBank;
+    }
+
+    /**
+     * Gets the {@link SimulationEngine} driving the elevators of this zone.
+     * The engine is driven by the {@link Building} the zone belongs to and must not be run directly.
+     * @return The simulation engine
+     */
+    public SimulationEngine getSimulationEngine() {
+        return simulationEngine;
+    }
+}
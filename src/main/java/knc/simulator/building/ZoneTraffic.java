@@ -0,0 +1,143 @@
+package knc.simulator.building;
+
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.PassengerListener;
+
+import java.util.Arrays;
+
+/**
+ * A {@link ZoneTraffic} holds the passengers due to arrive in one {@link Zone} and records the passengers it delivers.
+ * Arrivals are kept in cycle order in primitive arrays and fed to the zone at exactly their cycle while it runs.
+ * Deliveries are recorded by the thread running the zone and read by the {@link Building} once every zone has
+ * finished an epoch, so the two sides never access them at the same time.
+ */
+class ZoneTraffic implements PassengerListener {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Zone zone;
+    private long[] arrivalCycles = new long[INITIAL_CAPACITY];
+    private int[] arrivalOrigins = new int[INITIAL_CAPACITY];
+    private int[] arrivalDestinations = new int[INITIAL_CAPACITY];
+    private int[] arrivalTags = new int[INITIAL_CAPACITY];
+    private int arrivalHead = 0;
+    private int arrivalTail = 0;
+    private long[] deliveryCycles = new long[INITIAL_CAPACITY];
+    private int[] deliveryStoreys = new int[INITIAL_CAPACITY];
+    private int[] deliveryTags = new int[INITIAL_CAPACITY];
+    private int deliveries = 0;
+
+    /**
+     * Constructs a {@link ZoneTraffic} and registers it with the bank of the specified zone.
+     * @param zone The zone
+     */
+    ZoneTraffic(Zone zone) {
+        this.zone = zone;
+        zone.getElevatorBank().registerPassengerListener(this);
+    }
+
+    /**
+     * Schedules a passenger to arrive in the zone. Passengers arriving at the same cycle arrive in the order they
+     * were scheduled.
+     * @param cycle The cycle at which the passenger arrives
+     * @param origin The storey the passenger arrives at
+     * @param destination The storey the passenger alights at
+     * @param tag The tag of the passenger
+     */
+    void addArrival(long cycle, int origin, int destination, int tag) {
+        if(arrivalTail == arrivalCycles.length)
+            growArrivals();
+
+        // Arrivals are scheduled almost in order, so the insertion point is searched for from the back
+        var index = arrivalTail;
+        while(index > arrivalHead && arrivalCycles[index - 1] > cycle)
+            index--;
+
+        System.arraycopy(arrivalCycles, index, arrivalCycles, index + 1, arrivalTail - index);
+        System.arraycopy(arrivalOrigins, index, arrivalOrigins, index + 1, arrivalTail - index);
+        System.arraycopy(arrivalDestinations, index, arrivalDestinations, index + 1, arrivalTail - index);
+        System.arraycopy(arrivalTags, index, arrivalTags, index + 1, arrivalTail - index);
+        arrivalCycles[index] = cycle;
+        arrivalOrigins[index] = origin;
+        arrivalDestinations[index] = destination;
+        arrivalTags[index] = tag;
+        arrivalTail++;
+    }
+
+    /**
+     * Gets the number of passengers scheduled to arrive who have not yet arrived.
+     * @return The number of passengers
+     */
+    int getPendingArrivals() {
+        return arrivalTail - arrivalHead;
+    }
+
+    /**
+     * Runs the zone up to the specified cycle, making every passenger due before it arrive at their cycle.
+     * @param endCycle The cycle to stop at
+     */
+    void run(long endCycle) {
+        var engine = zone.getSimulationEngine();
+        var elevatorBank = zone.getElevatorBank();
+        while(arrivalHead < arrivalTail && arrivalCycles[arrivalHead] < endCycle) {
+            engine.run(arrivalCycles[arrivalHead] - engine.getCurrentCycle());
+            elevatorBank.createPassenger(arrivalOrigins[arrivalHead], arrivalDestinations[arrivalHead], arrivalTags[arrivalHead]);
+            arrivalHead++;
+        }
+
+        engine.run(endCycle - engine.getCurrentCycle());
+    }
+
+    @Override
+    public void onPassengerDelivered(int tag, int origin, int destination, long arrivalCycle, long cycle) {
+        if(tag == ElevatorBank.NO_TAG)
+            return;
+
+        if(deliveries == deliveryTags.length) {
+            deliveryCycles = Arrays.copyOf(deliveryCycles, deliveries * 2);
+            deliveryStoreys = Arrays.copyOf(deliveryStoreys, deliveries * 2);
+            deliveryTags = Arrays.copyOf(deliveryTags, deliveries * 2);
+        }
+
+        deliveryCycles[deliveries] = cycle;
+        deliveryStoreys[deliveries] = destination;
+        deliveryTags[deliveries] = tag;
+        deliveries++;
+    }
+
+    int getDeliveryCount() {
+        return deliveries;
+    }
+
+    long getDeliveryCycle(int delivery) {
+        return deliveryCycles[delivery];
+    }
+
+    int getDeliveryStorey(int delivery) {
+        return deliveryStoreys[delivery];
+    }
+
+    int getDeliveryTag(int delivery) {
+        return deliveryTags[delivery];
+    }
+
+    /**
+     * Forgets every recorded delivery.
+     */
+    void clearDeliveries() {
+        deliveries = 0;
+    }
+
+    /**
+     * Moves the pending arrivals to the front of the arrays, growing them if more than half is in use.
+     */
+    private void growArrivals() {
+        var pending = arrivalTail - arrivalHead;
+        var capacity = pending * 2 > arrivalCycles.length ? arrivalCycles.length * 2 : arrivalCycles.length;
+        arrivalCycles = Arrays.copyOfRange(arrivalCycles, arrivalHead, arrivalHead + capacity);
+        arrivalOrigins = Arrays.copyOfRange(arrivalOrigins, arrivalHead, arrivalHead + capacity);
+        arrivalDestinations = Arrays.copyOfRange(arrivalDestinations, arrivalHead, arrivalHead + capacity);
+        arrivalTags = Arrays.copyOfRange(arrivalTags, arrivalHead, arrivalHead + capacity);
+        arrivalHead = 0;
+        arrivalTail = pending;
+    }
+}
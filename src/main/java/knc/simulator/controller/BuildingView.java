@@ -0,0 +1,195 @@
+package knc.simulator.controller;
+
+import javafx.fxml.FXMLLoader;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.layout.Region;
+import javafx.scene.shape.Rectangle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * A {@link BuildingView} draws the storeys of a building and the elevator travelling through it.
+ * Only enough storey rows to fill the visible area are ever created; as the view is scrolled the rows are moved and
+ * given new storey numbers, so the cost of building and laying out the view does not depend on the building height.
+ * Buildings lower than the view rest on its bottom edge.
+ */
+public class BuildingView extends Region {
+    private static final double STOREY_HEIGHT = 100;
+    private static final double STOREY_WIDTH = 400;
+    private static final double SHAFT_WIDTH = 100;
+
+    private final int storeys;
+    private final Node elevator;
+    private final IntConsumer callHandler;
+    private final boolean[] activeCalls;
+    private final List<StoreyController> rows = new ArrayList<>();
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final Rectangle clip = new Rectangle();
+    private double elevatorPosition = 0;
+    private boolean followElevator = false;
+    private boolean scrollToGround = true;
+
+    /**
+     * Constructs a {@link BuildingView}.
+     * @param storeys The number of storeys, numbered from 1 at the bottom
+     * @param elevator The node drawing the elevator
+     * @param callHandler Called with the storey number when a call button is clicked
+     */
+    public BuildingView(int storeys, Node elevator, IntConsumer callHandler) {
+        this.storeys = storeys;
+        this.elevator = elevator;
+        this.callHandler = callHandler;
+        this.activeCalls = new boolean[storeys + 1];
+
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.setUnitIncrement(STOREY_HEIGHT / 4);
+        scrollBar.setBlockIncrement(STOREY_HEIGHT);
+        scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> requestLayout());
+        setOnScroll(event -> scrollBar.setValue(clampScroll(scrollBar.getValue() - event.getDeltaY())));
+
+        setClip(clip);
+        getChildren().addAll(elevator, scrollBar);
+    }
+
+    /**
+     * Sets the position of the elevator.
+     * @param storiesFromBottom The position as number of storeys from bottom
+     */
+    public void setElevatorPosition(double storiesFromBottom) {
+        elevatorPosition = storiesFromBottom;
+
+        if(followElevator) {
+            var elevatorTop = (storeys - 1 - storiesFromBottom) * STOREY_HEIGHT;
+            var scroll = scrollBar.getValue();
+            if(elevatorTop < scroll || elevatorTop + STOREY_HEIGHT > scroll + getHeight())
+                scrollBar.setValue(clampScroll(elevatorTop - (getHeight() - STOREY_HEIGHT) / 2));
+        }
+
+        elevator.setLayoutY(getBuildingTop() + (storeys - 1 - storiesFromBottom) * STOREY_HEIGHT);
+    }
+
+    /**
+     * Sets whether the view scrolls to keep the elevator visible.
+     * @param followElevator True to follow the elevator
+     */
+    public void setFollowElevator(boolean followElevator) {
+        this.followElevator = followElevator;
+    }
+
+    /**
+     * Checks whether the view scrolls to keep the elevator visible.
+     * @return True if the elevator is followed
+     */
+    public boolean isFollowElevator() {
+        return followElevator;
+    }
+
+    /**
+     * Sets whether the call button of the specified storey is lit.
+     * @param storey The storey
+     * @param isActive True if a call is outstanding
+     */
+    public void setCallActive(int storey, boolean isActive) {
+        activeCalls[storey] = isActive;
+
+        for(var row : rows) {
+            if(row.getRoot().isVisible() && row.getStoreyNumber() == storey)
+                row.setButtonActiveState(isActive);
+        }
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return STOREY_WIDTH + scrollBar.prefWidth(-1);
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return STOREY_HEIGHT;
+    }
+
+    @Override
+    protected double computeMinHeight(double width) {
+        return 0;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        var width = getWidth();
+        var height = getHeight();
+        clip.setWidth(width);
+        clip.setHeight(height);
+
+        var maxScroll = Math.max(0, storeys * STOREY_HEIGHT - height);
+        scrollBar.setMax(maxScroll);
+        scrollBar.setVisibleAmount(maxScroll * height / (storeys * STOREY_HEIGHT));
+        scrollBar.setValue(clampScroll(scrollBar.getValue()));
+        if(scrollToGround && height > 0) {
+            // Start at the ground floor
+            scrollBar.setValue(maxScroll);
+            scrollToGround = false;
+        }
+        scrollBar.setVisible(maxScroll > 0);
+        var scrollBarWidth = scrollBar.prefWidth(-1);
+        scrollBar.resizeRelocate(width - scrollBarWidth, 0, scrollBarWidth, height);
+
+        var visibleRows = Math.min(storeys, (int) Math.ceil(height / STOREY_HEIGHT) + 1);
+        while(rows.size() < visibleRows)
+            rows.add(createRow());
+
+        var buildingTop = getBuildingTop();
+        var firstRow = Math.max(0, (int) Math.floor(-buildingTop / STOREY_HEIGHT));
+        for(int i = 0; i < rows.size(); i++) {
+            var row = rows.get(i);
+            var rowIndex = firstRow + i;
+            var isShown = rowIndex < storeys;
+            row.getRoot().setVisible(isShown);
+
+            if(isShown) {
+                var storey = storeys - rowIndex;
+                row.setStoreyNumber(storey);
+                row.setButtonActiveState(activeCalls[storey]);
+                row.getRoot().resizeRelocate(0, buildingTop + rowIndex * STOREY_HEIGHT, STOREY_WIDTH, STOREY_HEIGHT);
+            }
+        }
+
+        elevator.resizeRelocate(STOREY_WIDTH - SHAFT_WIDTH, 0, SHAFT_WIDTH, STOREY_HEIGHT);
+        setElevatorPosition(elevatorPosition);
+    }
+
+    /**
+     * Gets the top of the highest storey in local coordinates.
+     */
+    private double getBuildingTop() {
+        var buildingHeight = storeys * STOREY_HEIGHT;
+        return buildingHeight < getHeight() ? getHeight() - buildingHeight : -scrollBar.getValue();
+    }
+
+    private double clampScroll(double value) {
+        return Math.max(0, Math.min(value, scrollBar.getMax()));
+    }
+
+    private StoreyController createRow() {
+        try {
+            var loader = new FXMLLoader(getClass().getResource("/fxml/storey.fxml"));
+            var controller = new StoreyController(storeys);
+            loader.setController(controller);
+            // Rows are drawn beneath the elevator and the scroll bar
+            getChildren().add(0, loader.load());
+            controller.getCallButton().setOnMouseClicked(e -> {
+                var storey = controller.getStoreyNumber();
+                callHandler.accept(storey);
+                setCallActive(storey, true);
+            });
+            return controller;
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
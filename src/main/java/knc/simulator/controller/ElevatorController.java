@@ -12,9 +12,8 @@ public class ElevatorController {
         door.setVisible(false);
     }
 
-    public void setTranslate(double x, double y) {
-        root.setTranslateX(x);
-        root.setTranslateY(y);
+    public Pane getRoot() {
+        return root;
     }
 
     public void setDoorVisibility(boolean isOpen) {
@@ -10,12 +10,26 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 import knc.simulator.SimulationTimer;
+import knc.simulator.engine.AdvanceMode;
+import knc.simulator.engine.SimulationEngine;
+import knc.simulator.metrics.MetricsHttpServer;
+import knc.simulator.metrics.MetricsRegistry;
+import knc.simulator.metrics.SimulationMetrics;
 import knc.simulator.model.Elevator;
 import knc.simulator.model.ElevatorAction;
-import knc.simulator.model.ElevatorActionListener;
-import knc.simulator.model.ElevatorRequestManager;
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.ElevatorTransitionListener;
+import knc.simulator.model.NearestCarDispatcher;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+
+public class SimulationController implements ElevatorTransitionListener {
+    private static final int[] SPEED_MULTIPLIERS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+    private static final String METRICS_OBJECT_NAME = "knc.simulator:type=Metrics";
+    private static final String METRICS_PORT_PROPERTY = "metrics.port";
 
-public class SimulationController implements ElevatorActionListener {
     @FXML private Pane root;
     @FXML private ImageView sun;
     @FXML private ImageView tree;
@@ -25,91 +39,144 @@ public class SimulationController implements ElevatorActionListener {
     @FXML private Text currentActionText;
     @FXML private Text queueSizeText;
     @FXML private Text currentTargetText;
+    @FXML private Text waitPercentilesText;
+    @FXML private Text speedText;
 
     private final int storeys;
     private Elevator elevator;
-    private ElevatorRequestManager elevatorRequestManager;
+    private ElevatorBank elevatorBank;
+    private SimulationEngine simulationEngine;
     private ElevatorController elevatorController;
-    private StoreyController[] storeyControllers;
+    private BuildingView buildingView;
     private SimulationTimer simulationTimer;
+    private SimulationMetrics simulationMetrics;
+    private MetricsRegistry metricsRegistry;
+    private ObjectName metricsObjectName;
+    private MetricsHttpServer metricsHttpServer;
     private SimulationStatus simulationStatus;
+    private int speedIndex = 0;
+
+    // Last values shown in the status bar, so that text is only rebuilt when something changed
+    private SimulationStatus shownStatus;
+    private ElevatorAction shownAction;
+    private int shownQueueSize = -1;
+    private int shownTarget = Integer.MIN_VALUE;
+    private long shownServedRequests = -1;
 
     public SimulationController(int storeys) {
         this.storeys = storeys;
     }
 
     public void startSimulation() {
-        elevator = new Elevator(1, storeys);
-        elevatorRequestManager = new ElevatorRequestManager(elevator);
-        storeyControllers = new StoreyController[storeys];
+        stopSimulation();
+        elevatorBank = new ElevatorBank(1, storeys, 1, new NearestCarDispatcher());
+        elevator = elevatorBank.getElevator(0);
+        simulationEngine = new SimulationEngine(elevatorBank);
+        simulationEngine.setAdvanceMode(AdvanceMode.NEXT_EVENT);
         simulationTimer = new SimulationTimer(this);
+        startMetrics();
 
         sun.setImage(new Image("/images/sun.png"));
         tree.setImage(new Image("/images/tree.png"));
 
-        createSpacer();
-        createStoreys();
         createElevator();
+        createBuilding();
 
-        elevator.registerListener(this);
+        elevator.registerTransitionListener(this);
         simulationStatus = SimulationStatus.RUNNING;
         root.getScene().setOnKeyPressed(event -> {
             if(event.getCode() == KeyCode.SPACE) {
                 togglePause();
+            } else if(event.getCode() == KeyCode.UP || event.getCode() == KeyCode.ADD || event.getCode() == KeyCode.PLUS) {
+                changeSpeed(1);
+            } else if(event.getCode() == KeyCode.DOWN || event.getCode() == KeyCode.SUBTRACT || event.getCode() == KeyCode.MINUS) {
+                changeSpeed(-1);
+            } else if(event.getCode() == KeyCode.F) {
+                buildingView.setFollowElevator(!buildingView.isFollowElevator());
             }
         });
 
+        updateSpeedText();
+        updateStatusBar();
         simulationTimer.start();
     }
 
-    public void updateElevatorPosition() {
-        // Place elevator relative to bottom shaft
-        var bottomShaft = storeyControllers[0].getShaft();
-        var boundsInScene = bottomShaft.localToScene(bottomShaft.getBoundsInLocal());
+    /**
+     * Stops the running simulation and releases its metrics endpoints, so that another simulation can publish its
+     * metrics under the same JMX name and port.
+     */
+    public void stopSimulation() {
+        if(simulationTimer != null)
+            simulationTimer.stop();
 
-        var offsetY = elevator.getElevatorPositionAsStoriesFromBottom() * bottomShaft.getHeight();
-        elevatorController.setTranslate(boundsInScene.getMinX(), boundsInScene.getMinY() - offsetY);
+        stopMetrics();
     }
 
-    public void progressSimulation() {
-        elevator.update();
-        sun.setRotate(sun.getRotate() + 1);
+    public void updateElevatorPosition(double cycleFraction) {
+        buildingView.setElevatorPosition(elevator.getElevatorPositionAsStoriesFromBottom(cycleFraction));
+    }
+
+    public void progressSimulation(int cycles) {
+        if(cycles == 0)
+            return;
+
+        simulationEngine.run(cycles);
+        sun.setRotate((sun.getRotate() + cycles) % 360);
         updateStatusBar();
+        simulationMetrics.update();
     }
 
     @Override
-    public void onChange(ElevatorAction newElevatorAction) {
-        if(newElevatorAction == ElevatorAction.HOLD) {
-            storeyControllers[elevator.getCurrentStorey()-1].setButtonActiveState(false);
+    public void onTransition(ElevatorAction previousAction, ElevatorAction newAction, int storey, long cycle) {
+        if(newAction == ElevatorAction.HOLD) {
+            buildingView.setCallActive(storey, false);
             elevatorController.setDoorVisibility(true);
         } else {
             elevatorController.setDoorVisibility(false);
         }
     }
 
-    private void createSpacer() {
-        var spacer = new Pane();
-        VBox.setVgrow(spacer, Priority.ALWAYS);
-        building.getChildren().add(spacer);
-    }
+    private void startMetrics() {
+        metricsRegistry = new MetricsRegistry();
+        simulationMetrics = new SimulationMetrics(simulationEngine, metricsRegistry);
 
-    private void createStoreys() {
         try {
-            for(int i = storeys; i > 0; i--) {
-                var loader = new FXMLLoader(getClass().getResource("/fxml/storey.fxml"));
-                var controller = new StoreyController(i);
-                loader.setController(controller);
-                building.getChildren().add(loader.load());
-                storeyControllers[i-1] = controller;
-
-                controller.getCallButton().setOnMouseClicked( e -> {
-                    elevatorRequestManager.createElevatorRequest(controller.getStoreyNumber());
-                    controller.setButtonActiveState(true);
-                });
-            }
-        } catch(Exception e) {
+            metricsObjectName = metricsRegistry.registerMBean(METRICS_OBJECT_NAME);
+        } catch(JMException e) {
             e.printStackTrace();
         }
+
+        var port = System.getProperty(METRICS_PORT_PROPERTY);
+        if(port != null) {
+            try {
+                metricsHttpServer = new MetricsHttpServer(metricsRegistry, Integer.parseInt(port));
+            } catch(IOException | NumberFormatException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void stopMetrics() {
+        if(metricsObjectName != null) {
+            try {
+                metricsRegistry.unregisterMBean(metricsObjectName);
+            } catch(JMException e) {
+                e.printStackTrace();
+            }
+            metricsObjectName = null;
+        }
+
+        if(metricsHttpServer != null) {
+            metricsHttpServer.close();
+            metricsHttpServer = null;
+        }
+    }
+
+    private void createBuilding() {
+        buildingView = new BuildingView(storeys, elevatorController.getRoot(),
+                storey -> simulationEngine.submitHallCall(storey));
+        VBox.setVgrow(buildingView, Priority.ALWAYS);
+        building.getChildren().add(buildingView);
     }
 
     private void createElevator() {
@@ -117,17 +184,50 @@ public class SimulationController implements ElevatorActionListener {
             var loader = new FXMLLoader(getClass().getResource("/fxml/elevator.fxml"));
             elevatorController = new ElevatorController();
             loader.setController(elevatorController);
-            root.getChildren().add(loader.load());
+            loader.load();
         } catch(Exception e) {
             e.printStackTrace();
         }
     }
 
     private void updateStatusBar() {
-        simulationStatusText.setText(simulationStatus.toString());
-        currentActionText.setText(elevator.getCurrentAction().toString());
-        queueSizeText.setText(String.valueOf(elevatorRequestManager.getElevatorRequestsSize()));
-        currentTargetText.setText(String.valueOf(elevator.getTargetStorey()));
+        if(simulationStatus != shownStatus) {
+            shownStatus = simulationStatus;
+            simulationStatusText.setText(simulationStatus.toString());
+        }
+
+        if(elevator.getCurrentAction() != shownAction) {
+            shownAction = elevator.getCurrentAction();
+            currentActionText.setText(shownAction.toString());
+        }
+
+        if(elevatorBank.getElevatorRequestsSize() != shownQueueSize) {
+            shownQueueSize = elevatorBank.getElevatorRequestsSize();
+            queueSizeText.setText(String.valueOf(shownQueueSize));
+        }
+
+        if(elevator.getTargetStorey() != shownTarget) {
+            shownTarget = elevator.getTargetStorey();
+            currentTargetText.setText(String.valueOf(shownTarget));
+        }
+
+        // Percentiles can only change when a request is served
+        var waitHistogram = elevatorBank.getWaitHistogram();
+        if(waitHistogram.getTotalCount() != shownServedRequests) {
+            shownServedRequests = waitHistogram.getTotalCount();
+            waitPercentilesText.setText(String.format("%d / %d / %d", waitHistogram.getValueAtPercentile(50),
+                    waitHistogram.getValueAtPercentile(95), waitHistogram.getValueAtPercentile(99)));
+        }
+    }
+
+    private void changeSpeed(int steps) {
+        speedIndex = Math.max(0, Math.min(SPEED_MULTIPLIERS.length - 1, speedIndex + steps));
+        simulationTimer.setSpeedMultiplier(SPEED_MULTIPLIERS[speedIndex]);
+        updateSpeedText();
+    }
+
+    private void updateSpeedText() {
+        speedText.setText(SPEED_MULTIPLIERS[speedIndex] + "x");
     }
 
     private void togglePause() {
@@ -10,7 +10,7 @@ public class StartController {
     @FXML private Button createButton;
 
     public void initialize() {
-        var availableFloors = new ImmutableObservableList<>(2, 3, 4, 5, 6, 7, 8);
+        var availableFloors = new ImmutableObservableList<>(2, 3, 4, 5, 6, 7, 8, 10, 15, 20, 30, 50, 75, 100, 150, 200);
         storeysChoice.setItems(availableFloors);
         storeysChoice.setValue(availableFloors.get(0));
     }
@@ -3,32 +3,45 @@ package knc.simulator.controller;
 import javafx.fxml.FXML;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.Pane;
 import javafx.scene.text.Text;
 
+/**
+ * Controls one row of a {@link BuildingView}.
+ * Rows are recycled as the view scrolls, so the storey a row shows can change through {@link #setStoreyNumber(int)}.
+ */
 public class StoreyController {
+    // Decoded once and shared by every row
+    private static final Image INACTIVE_BUTTON_IMAGE = new Image("images/button_inactive.png");
+    private static final Image ACTIVE_BUTTON_IMAGE = new Image("images/button_active.png");
+    private static final Image DOOR_IMAGE = new Image("images/door.png");
+
+    @FXML private AnchorPane root;
     @FXML private ImageView callButton;
     @FXML private ImageView door1;
     @FXML private ImageView door2;
     @FXML private Text storeyText;
     @FXML private Pane shaft;
 
-    private final int storeyNumber;
-    private Image inactiveButtonImage = new Image("images/button_inactive.png");
-    private Image activeButtonImage = new Image("images/button_active.png");
-    private Image doorImage = new Image("images/door.png");
+    private int storeyNumber;
+    private boolean buttonActive = false;
 
     public StoreyController(int storeyNumber) {
         this.storeyNumber = storeyNumber;
     }
 
     public void initialize() {
-        callButton.setImage(inactiveButtonImage);
-        door1.setImage(doorImage);
-        door2.setImage(doorImage);
+        callButton.setImage(INACTIVE_BUTTON_IMAGE);
+        door1.setImage(DOOR_IMAGE);
+        door2.setImage(DOOR_IMAGE);
         storeyText.setText(Integer.toString(storeyNumber));
     }
 
+    public AnchorPane getRoot() {
+        return root;
+    }
+
     public ImageView getCallButton() {
         return callButton;
     }
@@ -41,10 +54,17 @@ public class StoreyController {
         return storeyNumber;
     }
 
+    public void setStoreyNumber(int storeyNumber) {
+        if(storeyNumber != this.storeyNumber) {
+            this.storeyNumber = storeyNumber;
+            storeyText.setText(Integer.toString(storeyNumber));
+        }
+    }
+
     public void setButtonActiveState(boolean isActive) {
-        if(isActive)
-            callButton.setImage(activeButtonImage);
-        else
-            callButton.setImage(inactiveButtonImage);
+        if(isActive != buttonActive) {
+            buttonActive = isActive;
+            callButton.setImage(isActive ? ACTIVE_BUTTON_IMAGE : INACTIVE_BUTTON_IMAGE);
+        }
     }
 }
@@ -0,0 +1,16 @@
+package knc.simulator.engine;
+
+/**
+ * The way a {@link SimulationEngine} moves simulated time forward.
+ * Both modes produce cycle-for-cycle identical results.
+ */
+public enum AdvanceMode {
+    /**
+     * Every elevator is updated once per cycle.
+     */
+    TICK,
+    /**
+     * Time jumps directly to the next cycle at which something changes, such as a storey arrival or the end of a hold.
+     */
+    NEXT_EVENT;
+}
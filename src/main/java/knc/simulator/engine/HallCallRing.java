@@ -0,0 +1,101 @@
+package knc.simulator.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * A {@link HallCallRing} is a bounded queue of storeys through which any number of threads can submit hall calls to a
+ * single simulation thread.
+ * Producers claim a slot with a single compare-and-set and never block; the consumer drains the calls in the order
+ * their slots were claimed. Each slot carries a sequence number telling producers when it is free and the consumer
+ * when it has been written, so no locks are taken on either side.
+ */
+public final class HallCallRing {
+    private final int[] storeys;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;
+
+    /**
+     * Constructs a {@link HallCallRing}.
+     * @param capacity The maximum number of calls waiting to be drained
+     * @throws IllegalArgumentException If capacity is not a positive power of two
+     */
+    public HallCallRing(int capacity) throws IllegalArgumentException {
+        if(capacity <= 0 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+
+        this.storeys = new int[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for(int i = 0; i < capacity; i++)
+            sequences.set(i, i);
+    }
+
+    /**
+     * Gets the maximum number of calls waiting to be drained.
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return storeys.length;
+    }
+
+    /**
+     * Submits a call. May be called from any thread.
+     * @param storey The storey the call is made from
+     * @return True if the call was queued, false if the ring is full
+     */
+    public boolean offer(int storey) {
+        while(true) {
+            var position = tail.get();
+            var index = (int) position & mask;
+            var sequence = sequences.get(index);
+            if(sequence == position) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    storeys[index] = storey;
+                    // Publishes the storey to the consumer
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if(sequence < position) {
+                // The slot still holds a call from the previous lap
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Passes every call written so far to the specified consumer, in submission order.
+     * Must only be called from the consuming thread.
+     * @param consumer The consumer of the storeys
+     * @return The number of calls drained
+     */
+    public int drain(IntConsumer consumer) {
+        var count = 0;
+        while(count < storeys.length) {
+            var index = (int) head & mask;
+            if(sequences.get(index) != head + 1)
+                break;
+
+            var storey = storeys[index];
+            // Frees the slot for the producer one lap ahead
+            sequences.lazySet(index, head + storeys.length);
+            head++;
+            count++;
+            consumer.accept(storey);
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks whether no calls are waiting to be drained.
+     * Must only be called from the consuming thread, and calls submitted concurrently may not yet be visible.
+     * @return True if the ring is empty
+     */
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
@@ -0,0 +1,342 @@
+package knc.simulator.engine;
+
+import knc.simulator.model.Elevator;
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.ElevatorFleet;
+import knc.simulator.traffic.TrafficSource;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A {@link SimulationEngine} advances one or more {@link Elevator}s without any dependency on a graphical front end.
+ * The engine can be driven one cycle at a time through {@link #step()}, or as fast as the CPU allows through
+ * {@link #run(long)} and {@link #runToBudget()}.
+ * A cycle budget can be specified through {@link #setCycleBudget(long)} to limit the total number of cycles simulated.
+ * Long runs can be sped up considerably by switching to {@link AdvanceMode#NEXT_EVENT}.
+ * When driving an {@link ElevatorBank}, calls from a {@link TrafficSource} are fed to the bank as their cycle is reached.
+ * When the elevators driven are exactly the cars of one {@link ElevatorFleet}, the fleet is progressed as a whole.
+ * <p>
+ * Each cycle, the elevators are progressed one after another in the order they were specified, whether or not they
+ * share a fleet. An elevator changing {@link knc.simulator.model.ElevatorAction} notifies its listeners before the
+ * next elevator is progressed, so a listener retargeting a later elevator lets that elevator move in the same cycle,
+ * while an earlier elevator only moves from the next cycle on.
+ * <p>
+ * The engine and the model it drives are confined to the thread calling {@link #step()} and {@link #run(long)}.
+ * Other threads can make hall calls through {@link #submitHallCall(int)}; the calls are queued on a
+ * {@link HallCallRing} and made by the simulation thread at the start of the next cycle it simulates, or with
+ * {@link AdvanceMode#NEXT_EVENT} at the start of the next cycle the engine stops at.
+ */
+public class SimulationEngine {
+    /**
+     * Budget used when no limit has been specified.
+     */
+    public static final long UNLIMITED_BUDGET = Long.MAX_VALUE;
+
+    /**
+     * Number of submitted hall calls that can wait for the simulation thread before further calls are rejected.
+     */
+    public static final int SUBMITTED_CALL_CAPACITY = 4096;
+
+    private final Elevator[] elevators;
+    private final ElevatorFleet fleet;
+    private final ElevatorBank elevatorBank;
+    private final HallCallRing submittedCalls;
+    private final IntConsumer hallCallMaker;
+    private TrafficSource trafficSource;
+    private AdvanceMode advanceMode = AdvanceMode.TICK;
+    private boolean passengerTraffic = false;
+    private long cycleBudget = UNLIMITED_BUDGET;
+    private long currentCycle = 0;
+
+    /**
+     * Constructs a {@link SimulationEngine} driving the specified elevators.
+     * @param elevators The elevators to drive
+     * @throws IllegalArgumentException If no elevators are specified
+     */
+    public SimulationEngine(Elevator... elevators) throws IllegalArgumentException {
+        this(null, elevators);
+    }
+
+    /**
+     * Constructs a {@link SimulationEngine} driving every elevator of the specified fleet.
+     * @param fleet The fleet to drive
+     */
+    public SimulationEngine(ElevatorFleet fleet) {
+        this(null, fleet.getElevators());
+    }
+
+    /**
+     * Constructs a {@link SimulationEngine} driving every elevator of the specified bank.
+     * @param elevatorBank The bank to drive
+     */
+    public SimulationEngine(ElevatorBank elevatorBank) {
+        this(elevatorBank, elevatorBank.getElevators());
+    }
+
+    private SimulationEngine(ElevatorBank elevatorBank, Elevator[] elevators) throws IllegalArgumentException {
+        if(elevators.length == 0)
+            throw new IllegalArgumentException("At least one elevator is required");
+
+        this.elevatorBank = elevatorBank;
+        this.elevators = elevators.clone();
+        this.fleet = findCommonFleet(elevators);
+        this.submittedCalls = elevatorBank != null ? new HallCallRing(SUBMITTED_CALL_CAPACITY) : null;
+        this.hallCallMaker = elevatorBank != null ? elevatorBank::createHallCall : null;
+    }
+
+    /**
+     * Gets the number of cycles simulated so far.
+     * @return The current cycle
+     */
+    public long getCurrentCycle() {
+        return currentCycle;
+    }
+
+    void setCurrentCycle(long currentCycle) {
+        this.currentCycle = currentCycle;
+    }
+
+    /**
+     * Gets the {@link ElevatorBank} driven by this engine.
+     * @return The bank, or null if this engine drives individual elevators
+     */
+    public ElevatorBank getElevatorBank() {
+        return elevatorBank;
+    }
+
+    /**
+     * Gets the elevators driven by this engine.
+     * @return A copy of the elevator array
+     */
+    public Elevator[] getElevators() {
+        return elevators.clone();
+    }
+
+    /**
+     * Gets the {@link AdvanceMode} used by {@link #run(long)}.
+     * @return The advance mode
+     */
+    public AdvanceMode getAdvanceMode() {
+        return advanceMode;
+    }
+
+    /**
+     * Sets the {@link AdvanceMode} used by {@link #run(long)}.
+     * @param advanceMode The advance mode
+     */
+    public void setAdvanceMode(AdvanceMode advanceMode) {
+        this.advanceMode = advanceMode;
+    }
+
+    /**
+     * Gets the {@link TrafficSource} feeding hall calls to the bank.
+     * @return The traffic source, or null if there is none
+     */
+    public TrafficSource getTrafficSource() {
+        return trafficSource;
+    }
+
+    /**
+     * Sets the {@link TrafficSource} feeding hall calls to the bank.
+     * A call is made at the start of the cycle it is scheduled for, before the elevators are updated.
+     * @param trafficSource The traffic source, or null to stop feeding calls
+     * @throws IllegalStateException If this engine is not driving an {@link ElevatorBank}
+     */
+    public void setTrafficSource(TrafficSource trafficSource) throws IllegalStateException {
+        if(elevatorBank == null)
+            throw new IllegalStateException("A traffic source requires an elevator bank");
+
+        this.trafficSource = trafficSource;
+    }
+
+    /**
+     * Submits a hall call to be made at the start of the next simulated cycle. May be called from any thread.
+     * Calls are made in the order they were submitted, before any call from the {@link TrafficSource}.
+     * @param storey The storey the call is made from
+     * @return True if the call was queued, false if too many calls are already waiting
+     * @throws IllegalArgumentException If storey is outside of the range served by the bank
+     * @throws IllegalStateException If this engine is not driving an {@link ElevatorBank}
+     */
+    public boolean submitHallCall(int storey) throws IllegalArgumentException, IllegalStateException {
+        if(elevatorBank == null)
+            throw new IllegalStateException("Hall calls require an elevator bank");
+        if(storey < elevatorBank.getLowestStorey() || storey > elevatorBank.getHighestStorey())
+            throw new IllegalArgumentException("Storey outside elevator range");
+
+        return submittedCalls.offer(storey);
+    }
+
+    /**
+     * Checks whether calls from the {@link TrafficSource} create passengers.
+     * @return True if passengers are created, false if only hall calls are made
+     */
+    public boolean isPassengerTraffic() {
+        return passengerTraffic;
+    }
+
+    /**
+     * Sets whether calls from the {@link TrafficSource} create passengers travelling from the origin to the destination
+     * of each call, through {@link ElevatorBank#createPassenger(int, int)}, rather than only making a hall call.
+     * Passengers enter their destination at the hall if the bank has a {@link knc.simulator.model.DestinationDispatcher}.
+     * @param passengerTraffic True to create passengers
+     */
+    public void setPassengerTraffic(boolean passengerTraffic) {
+        this.passengerTraffic = passengerTraffic;
+    }
+
+    /**
+     * Gets the total number of cycles this engine is allowed to simulate.
+     * @return The cycle budget
+     */
+    public long getCycleBudget() {
+        return cycleBudget;
+    }
+
+    /**
+     * Sets the total number of cycles this engine is allowed to simulate.
+     * @param cycleBudget The cycle budget, or {@link #UNLIMITED_BUDGET}
+     * @throws IllegalArgumentException If cycleBudget < 0
+     */
+    public void setCycleBudget(long cycleBudget) throws IllegalArgumentException {
+        if(cycleBudget < 0)
+            throw new IllegalArgumentException("Cycle budget must be >= 0");
+
+        this.cycleBudget = cycleBudget;
+    }
+
+    /**
+     * Gets the number of cycles left before the cycle budget is exhausted.
+     * @return The remaining cycles
+     */
+    public long getRemainingCycles() {
+        return Math.max(0, cycleBudget - currentCycle);
+    }
+
+    /**
+     * Checks whether the cycle budget has been used up.
+     * @return True if no more cycles may be simulated
+     */
+    public boolean isBudgetExhausted() {
+        return currentCycle >= cycleBudget;
+    }
+
+    /**
+     * Progresses every elevator by one cycle, unless the cycle budget is exhausted.
+     * @return True if a cycle was simulated
+     */
+    public boolean step() {
+        if(isBudgetExhausted())
+            return false;
+
+        tick(1);
+        return true;
+    }
+
+    /**
+     * Simulates up to the specified number of cycles as fast as possible.
+     * Fewer cycles are simulated if the cycle budget runs out.
+     * @param cycles The number of cycles to simulate
+     * @return The number of cycles actually simulated
+     * @throws IllegalArgumentException If cycles < 0
+     */
+    public long run(long cycles) throws IllegalArgumentException {
+        if(cycles < 0)
+            throw new IllegalArgumentException("Cycles must be >= 0");
+
+        var cyclesToRun = Math.min(cycles, getRemainingCycles());
+        if(advanceMode == AdvanceMode.NEXT_EVENT)
+            runToNextEvents(currentCycle + cyclesToRun);
+        else
+            tick(cyclesToRun);
+
+        return cyclesToRun;
+    }
+
+    /**
+     * Simulates cycles until the cycle budget is exhausted.
+     * @return The number of cycles simulated
+     * @throws IllegalStateException If no cycle budget has been specified
+     */
+    public long runToBudget() throws IllegalStateException {
+        if(cycleBudget == UNLIMITED_BUDGET)
+            throw new IllegalStateException("A cycle budget must be specified");
+
+        return run(getRemainingCycles());
+    }
+
+    private void tick(long cycles) {
+        for(long i = 0; i < cycles; i++) {
+            makeDueCalls();
+
+            if(fleet != null) {
+                fleet.update();
+            } else {
+                for(var elevator : elevators)
+                    elevator.update();
+            }
+
+            currentCycle++;
+        }
+    }
+
+    private void runToNextEvents(long endCycle) {
+        while(currentCycle < endCycle) {
+            makeDueCalls();
+
+            var cycles = endCycle - currentCycle;
+            if(trafficSource != null)
+                cycles = Math.min(cycles, trafficSource.getNextCallCycle() - currentCycle);
+            if(elevatorBank != null)
+                cycles = Math.min(cycles, elevatorBank.getNextAssignmentCycle() - currentCycle);
+            if(fleet != null) {
+                cycles = Math.min(cycles, fleet.getCyclesUntilNextTransition());
+                fleet.advance(cycles);
+            } else {
+                for(var elevator : elevators)
+                    cycles = Math.min(cycles, elevator.getCyclesUntilNextTransition());
+
+                // No elevator changes before the last cycle, which is updated elevator by elevator as in a tick
+                for(var elevator : elevators)
+                    elevator.advance(cycles - 1);
+                for(var elevator : elevators)
+                    elevator.update();
+            }
+
+            currentCycle += cycles;
+        }
+    }
+
+    private void makeDueCalls() {
+        if(elevatorBank == null)
+            return;
+
+        submittedCalls.drain(hallCallMaker);
+        if(trafficSource != null) {
+            while(trafficSource.getNextCallCycle() <= currentCycle) {
+                if(passengerTraffic)
+                    elevatorBank.createPassenger(trafficSource.getNextOrigin(), trafficSource.getNextDestination());
+                else
+                    elevatorBank.createHallCall(trafficSource.getNextOrigin());
+                trafficSource.next();
+            }
+        }
+
+        elevatorBank.assignDestinationCalls();
+    }
+
+    /**
+     * Gets the fleet whose cars are exactly the specified elevators, in order, or null if there is none.
+     */
+    private static ElevatorFleet findCommonFleet(Elevator[] elevators) {
+        var fleet = elevators[0].getFleet();
+        if(fleet.getSize() != elevators.length)
+            return null;
+
+        for(int i = 0; i < elevators.length; i++) {
+            if(elevators[i].getFleet() != fleet || elevators[i].getFleetIndex() != i)
+                return null;
+        }
+
+        return fleet;
+    }
+}
@@ -0,0 +1,121 @@
+package knc.simulator.engine;
+
+import knc.simulator.model.Elevator;
+import knc.simulator.traffic.TrafficGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves the complete state of a {@link SimulationEngine} to a memory-mapped file, and restores it into an engine
+ * with the same elevators.
+ * The snapshot holds the current cycle, every elevator, the pending requests and statistics of the bank, the calls
+ * learned by its {@link knc.simulator.model.ParkingPolicy}, and the random state of a {@link TrafficGenerator}. Configuration such as dispatchers, scheduling policies, traffic
+ * profiles and listeners is not saved, so one snapshot can be restored into several differently configured engines
+ * to compare what-if scenarios from the same starting point.
+ */
+public final class SimulationSnapshot {
+    private static final int MAGIC = 0x534E4150;
+    private static final byte VERSION = 7;
+    private static final byte HAS_BANK = 1;
+    private static final byte HAS_TRAFFIC = 2;
+    private static final int HEADER_SIZE = Integer.BYTES + 2 + Long.BYTES + Integer.BYTES;
+
+    private SimulationSnapshot() {
+    }
+
+    /**
+     * Saves the state of the specified engine, replacing any existing file at the path.
+     * @param engine The engine to save
+     * @param path The path of the snapshot file
+     * @throws IOException If the file cannot be written
+     */
+    public static void save(SimulationEngine engine, Path path) throws IOException {
+        var elevatorBank = engine.getElevatorBank();
+        var elevators = engine.getElevators();
+        var trafficGenerator = getTrafficGenerator(engine);
+
+        long size = HEADER_SIZE;
+        if(elevatorBank != null)
+            size += elevatorBank.getStateSize();
+        else
+            size += (long) elevators.length * Elevator.STATE_SIZE;
+        if(trafficGenerator != null)
+            size += TrafficGenerator.STATE_SIZE;
+
+        try(var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC);
+            buffer.put(VERSION);
+            buffer.put((byte) ((elevatorBank != null ? HAS_BANK : 0) | (trafficGenerator != null ? HAS_TRAFFIC : 0)));
+            buffer.putLong(engine.getCurrentCycle());
+            buffer.putInt(elevators.length);
+
+            if(elevatorBank != null) {
+                elevatorBank.saveState(buffer);
+            } else {
+                for(var elevator : elevators)
+                    elevator.saveState(buffer);
+            }
+            if(trafficGenerator != null)
+                trafficGenerator.saveState(buffer);
+
+            buffer.force();
+        }
+    }
+
+    /**
+     * Restores a snapshot into the specified engine.
+     * The engine must drive the same number of elevators serving the same storeys as the saved engine, and must have
+     * a {@link TrafficGenerator} exactly when the saved engine had one.
+     * Listeners are not notified of the restored state.
+     * @param engine The engine to restore into
+     * @param path The path of the snapshot file
+     * @throws IOException If the file cannot be read or is not a snapshot
+     * @throws IllegalArgumentException If the engine does not match the saved engine
+     */
+    public static void restore(SimulationEngine engine, Path path) throws IOException, IllegalArgumentException {
+        ByteBuffer buffer;
+        try(var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if(buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC)
+            throw new IOException("Not a simulation snapshot: " + path);
+        if(buffer.get() != VERSION)
+            throw new IOException("Unsupported simulation snapshot version: " + path);
+
+        var flags = buffer.get();
+        var elevatorBank = engine.getElevatorBank();
+        var elevators = engine.getElevators();
+        var trafficGenerator = getTrafficGenerator(engine);
+        if(((flags & HAS_BANK) != 0) != (elevatorBank != null))
+            throw new IllegalArgumentException("The snapshot and the engine must both drive an elevator bank or neither");
+        if(((flags & HAS_TRAFFIC) != 0) != (trafficGenerator != null))
+            throw new IllegalArgumentException("The snapshot and the engine must both have a traffic generator or neither");
+
+        var currentCycle = buffer.getLong();
+        if(buffer.getInt() != elevators.length)
+            throw new IllegalArgumentException("The snapshot was saved from an engine with a different number of elevators");
+
+        if(elevatorBank != null) {
+            elevatorBank.restoreState(buffer);
+        } else {
+            for(var elevator : elevators)
+                elevator.restoreState(buffer);
+        }
+        if(trafficGenerator != null)
+            trafficGenerator.restoreState(buffer);
+
+        engine.setCurrentCycle(currentCycle);
+    }
+
+    private static TrafficGenerator getTrafficGenerator(SimulationEngine engine) {
+        var trafficSource = engine.getTrafficSource();
+        return trafficSource instanceof TrafficGenerator ? (TrafficGenerator) trafficSource : null;
+    }
+}
@@ -0,0 +1,62 @@
+package knc.simulator.eventlog;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and encoding helpers shared by {@link EventLogWriter} and {@link EventLogReader}.
+ * A log starts with a header holding the storey range and the initial storey and action of every elevator,
+ * followed by one record per event. A record is a tag byte holding the {@link EventType} and, for transitions, the
+ * previous and new action, followed by the zigzag varint cycle delta to the previous event, the varint elevator
+ * index and the zigzag varint storey.
+ */
+final class EventLogFormat {
+    static final int MAGIC = 0x454C4F47;
+    static final byte VERSION = 1;
+    static final int BUFFER_SIZE = 1 << 16;
+    static final int MAX_RECORD_SIZE = 1 + 10 + 5 + 5;
+
+    private EventLogFormat() {
+    }
+
+    static byte transitionTag(int previousAction, int newAction) {
+        return (byte) (1 | previousAction << 1 | newAction << 3);
+    }
+
+    static EventType typeOf(byte tag) {
+        return (tag & 1) == 0 ? EventType.HALL_CALL : EventType.TRANSITION;
+    }
+
+    static int previousActionOf(byte tag) {
+        return tag >> 1 & 3;
+    }
+
+    static int newActionOf(byte tag) {
+        return tag >> 3 & 3;
+    }
+
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for(int shift = 0; ; shift += 7) {
+            var b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if(b >= 0)
+                return value;
+        }
+    }
+
+    static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
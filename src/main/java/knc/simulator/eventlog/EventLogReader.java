@@ -0,0 +1,211 @@
+package knc.simulator.eventlog;
+
+import knc.simulator.model.ElevatorAction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An {@link EventLogReader} reads the events of a log written by {@link EventLogWriter} one at a time.
+ * Each call to {@link #next()} moves to the next event, whose details are then available through the getters.
+ * Reading an event does not allocate.
+ */
+public class EventLogReader implements Closeable {
+    private static final ElevatorAction[] ACTIONS = ElevatorAction.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(EventLogFormat.BUFFER_SIZE);
+    private final int lowestStorey;
+    private final int highestStorey;
+    private final long startCycle;
+    private final int[] initialStoreys;
+    private final ElevatorAction[] initialActions;
+    private boolean endOfFile = false;
+    private byte tag;
+    private long cycle;
+    private int elevatorIndex;
+    private int storey;
+
+    /**
+     * Constructs an {@link EventLogReader} positioned before the first event of the specified log.
+     * @param path The path of the log file
+     * @throws IOException If the file cannot be read or is not an event log
+     */
+    public EventLogReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            buffer.flip();
+            fill();
+            if(buffer.remaining() < 5 || buffer.getInt() != EventLogFormat.MAGIC)
+                throw new IOException("Not an event log: " + path);
+            if(buffer.get() != EventLogFormat.VERSION)
+                throw new IOException("Unsupported event log version: " + path);
+
+            lowestStorey = (int) EventLogFormat.unzigzag(EventLogFormat.getVarLong(buffer));
+            highestStorey = (int) EventLogFormat.unzigzag(EventLogFormat.getVarLong(buffer));
+            var elevatorCount = (int) EventLogFormat.getVarLong(buffer);
+            startCycle = EventLogFormat.unzigzag(EventLogFormat.getVarLong(buffer));
+            cycle = startCycle;
+
+            initialStoreys = new int[elevatorCount];
+            initialActions = new ElevatorAction[elevatorCount];
+            for(int i = 0; i < elevatorCount; i++) {
+                fill();
+                initialStoreys[i] = (int) EventLogFormat.unzigzag(EventLogFormat.getVarLong(buffer));
+                initialActions[i] = ACTIONS[buffer.get()];
+            }
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the lowest storey served by the recorded bank.
+     * @return The lowest storey
+     */
+    public int getLowestStorey() {
+        return lowestStorey;
+    }
+
+    /**
+     * Gets the highest storey served by the recorded bank.
+     * @return The highest storey
+     */
+    public int getHighestStorey() {
+        return highestStorey;
+    }
+
+    /**
+     * Gets the number of elevators in the recorded bank.
+     * @return The number of elevators
+     */
+    public int getElevatorCount() {
+        return initialStoreys.length;
+    }
+
+    /**
+     * Gets the cycle at which recording started.
+     * @return The start cycle
+     */
+    public long getStartCycle() {
+        return startCycle;
+    }
+
+    /**
+     * Gets the storey of the specified elevator when recording started.
+     * @param elevatorIndex The index of the elevator
+     * @return The storey
+     */
+    public int getInitialStorey(int elevatorIndex) {
+        return initialStoreys[elevatorIndex];
+    }
+
+    /**
+     * Gets the {@link ElevatorAction} of the specified elevator when recording started.
+     * @param elevatorIndex The index of the elevator
+     * @return The action
+     */
+    public ElevatorAction getInitialAction(int elevatorIndex) {
+        return initialActions[elevatorIndex];
+    }
+
+    /**
+     * Moves to the next event in the log.
+     * @return True if there was another event, false if the end of the log has been reached
+     * @throws IOException If the file cannot be read or ends in the middle of an event
+     */
+    public boolean next() throws IOException {
+        fill();
+        if(!buffer.hasRemaining())
+            return false;
+
+        try {
+            tag = buffer.get();
+            cycle += EventLogFormat.unzigzag(EventLogFormat.getVarLong(buffer));
+            elevatorIndex = (int) EventLogFormat.getVarLong(buffer);
+            storey = (int) EventLogFormat.unzigzag(EventLogFormat.getVarLong(buffer));
+        } catch(RuntimeException e) {
+            throw new IOException("Truncated event log", e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the {@link EventType} of the current event.
+     * @return The event type
+     */
+    public EventType getType() {
+        return EventLogFormat.typeOf(tag);
+    }
+
+    /**
+     * Gets the cycle at which the current event happened.
+     * @return The cycle
+     */
+    public long getCycle() {
+        return cycle;
+    }
+
+    /**
+     * Gets the index of the elevator involved in the current event.
+     * For a hall call this is the elevator the call was assigned to.
+     * @return The elevator index
+     */
+    public int getElevatorIndex() {
+        return elevatorIndex;
+    }
+
+    /**
+     * Gets the storey of the current event.
+     * For a hall call this is the storey the call was made from, for a transition the storey of the elevator.
+     * @return The storey
+     */
+    public int getStorey() {
+        return storey;
+    }
+
+    /**
+     * Gets the action the elevator was performing before the current transition.
+     * @return The previous action, only meaningful for {@link EventType#TRANSITION} events
+     */
+    public ElevatorAction getPreviousAction() {
+        return ACTIONS[EventLogFormat.previousActionOf(tag)];
+    }
+
+    /**
+     * Gets the action the elevator is performing after the current transition.
+     * @return The new action, only meaningful for {@link EventType#TRANSITION} events
+     */
+    public ElevatorAction getNewAction() {
+        return ACTIONS[EventLogFormat.newActionOf(tag)];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads more of the file once fewer bytes than a full record remain in the buffer.
+     */
+    private void fill() throws IOException {
+        if(endOfFile || buffer.remaining() >= EventLogFormat.MAX_RECORD_SIZE)
+            return;
+
+        buffer.compact();
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer) < 0) {
+                endOfFile = true;
+                break;
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,206 @@
+package knc.simulator.eventlog;
+
+import knc.simulator.model.ElevatorAction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * An {@link EventLogReplay} rebuilds the state of a recorded {@link knc.simulator.model.ElevatorBank} from its event
+ * log without simulating it again.
+ * Calling {@link #advanceTo(long)} applies every event up to and including the specified cycle, after which the
+ * action of each elevator, the storey of its last transition and the outstanding hall calls can be inspected.
+ */
+public class EventLogReplay implements Closeable {
+    private final EventLogReader reader;
+    private final int[] storeys;
+    private final ElevatorAction[] actions;
+    private final long[] transitionCycles;
+    private final boolean[] pendingCalls;
+    private final int storeyCount;
+    private long currentCycle;
+    private boolean eventBuffered = false;
+    private boolean finished = false;
+    private int pendingCallCount = 0;
+    private long hallCalls = 0;
+    private long servedCalls = 0;
+
+    /**
+     * Constructs an {@link EventLogReplay} positioned at the start of the specified log.
+     * @param path The path of the log file
+     * @throws IOException If the file cannot be read or is not an event log
+     */
+    public EventLogReplay(Path path) throws IOException {
+        this.reader = new EventLogReader(path);
+
+        var elevatorCount = reader.getElevatorCount();
+        this.storeyCount = reader.getHighestStorey() - reader.getLowestStorey() + 1;
+        this.storeys = new int[elevatorCount];
+        this.actions = new ElevatorAction[elevatorCount];
+        this.transitionCycles = new long[elevatorCount];
+        this.pendingCalls = new boolean[elevatorCount * storeyCount];
+        this.currentCycle = reader.getStartCycle();
+
+        for(int i = 0; i < elevatorCount; i++) {
+            storeys[i] = reader.getInitialStorey(i);
+            actions[i] = reader.getInitialAction(i);
+            transitionCycles[i] = currentCycle;
+        }
+    }
+
+    /**
+     * Applies every event that happened up to and including the specified cycle.
+     * @param cycle The cycle to advance to
+     * @throws IOException If the log cannot be read
+     * @throws IllegalArgumentException If cycle is before the current cycle
+     */
+    public void advanceTo(long cycle) throws IOException, IllegalArgumentException {
+        if(cycle < currentCycle)
+            throw new IllegalArgumentException("Cannot replay backwards");
+
+        while(eventBuffered || (!finished && readNext())) {
+            if(reader.getCycle() > cycle)
+                break;
+
+            apply();
+            eventBuffered = false;
+        }
+
+        currentCycle = cycle;
+    }
+
+    /**
+     * Applies every remaining event of the log.
+     * @throws IOException If the log cannot be read
+     */
+    public void advanceToEnd() throws IOException {
+        advanceTo(Long.MAX_VALUE);
+    }
+
+    /**
+     * Checks whether every event of the log has been applied.
+     * @return True if the end of the log has been reached
+     */
+    public boolean isFinished() {
+        return finished && !eventBuffered;
+    }
+
+    /**
+     * Gets the cycle the replay has been advanced to.
+     * @return The current cycle
+     */
+    public long getCurrentCycle() {
+        return currentCycle;
+    }
+
+    /**
+     * Gets the number of elevators in the recorded bank.
+     * @return The number of elevators
+     */
+    public int getElevatorCount() {
+        return storeys.length;
+    }
+
+    /**
+     * Gets the {@link ElevatorAction} of the specified elevator at the current cycle.
+     * @param elevatorIndex The index of the elevator
+     * @return The action
+     */
+    public ElevatorAction getAction(int elevatorIndex) {
+        return actions[elevatorIndex];
+    }
+
+    /**
+     * Gets the storey of the specified elevator at its last transition.
+     * While the elevator is idle or holding, this is its current storey.
+     * @param elevatorIndex The index of the elevator
+     * @return The storey
+     */
+    public int getStorey(int elevatorIndex) {
+        return storeys[elevatorIndex];
+    }
+
+    /**
+     * Gets the cycle of the last transition of the specified elevator.
+     * @param elevatorIndex The index of the elevator
+     * @return The cycle
+     */
+    public long getLastTransitionCycle(int elevatorIndex) {
+        return transitionCycles[elevatorIndex];
+    }
+
+    /**
+     * Checks whether a hall call from the specified storey is outstanding at the current cycle.
+     * @param storey The storey
+     * @return True if any elevator has yet to serve a call from the storey
+     */
+    public boolean isCallPending(int storey) {
+        var storeyIndex = storey - reader.getLowestStorey();
+        for(int i = 0; i < storeys.length; i++) {
+            if(pendingCalls[i * storeyCount + storeyIndex])
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the number of hall calls outstanding at the current cycle.
+     * @return The number of calls
+     */
+    public int getPendingCallCount() {
+        return pendingCallCount;
+    }
+
+    /**
+     * Gets the number of hall calls made up to the current cycle, including duplicate calls.
+     * @return The number of calls
+     */
+    public long getHallCalls() {
+        return hallCalls;
+    }
+
+    /**
+     * Gets the number of hall calls served up to the current cycle.
+     * @return The number of calls
+     */
+    public long getServedCalls() {
+        return servedCalls;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean readNext() throws IOException {
+        eventBuffered = reader.next();
+        finished = !eventBuffered;
+        return eventBuffered;
+    }
+
+    private void apply() {
+        var elevatorIndex = reader.getElevatorIndex();
+        var pendingIndex = elevatorIndex * storeyCount + reader.getStorey() - reader.getLowestStorey();
+
+        if(reader.getType() == EventType.HALL_CALL) {
+            hallCalls++;
+            if(!pendingCalls[pendingIndex]) {
+                pendingCalls[pendingIndex] = true;
+                pendingCallCount++;
+            }
+            return;
+        }
+
+        storeys[elevatorIndex] = reader.getStorey();
+        actions[elevatorIndex] = reader.getNewAction();
+        transitionCycles[elevatorIndex] = reader.getCycle();
+
+        if(actions[elevatorIndex] == ElevatorAction.HOLD && pendingCalls[pendingIndex]) {
+            pendingCalls[pendingIndex] = false;
+            pendingCallCount--;
+            servedCalls++;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package knc.simulator.eventlog;
+
+import knc.simulator.model.Elevator;
+import knc.simulator.model.ElevatorAction;
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.ElevatorTransitionListener;
+import knc.simulator.model.HallCallListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An {@link EventLogWriter} records every hall call and {@link ElevatorAction} transition of an {@link ElevatorBank}
+ * to a compact binary log, which can later be read through {@link EventLogReader} or {@link EventLogReplay}.
+ * Records are encoded into a buffer and written to the file channel once the buffer is nearly full, so most events
+ * are recorded without touching the file system. The write of a full buffer is synchronous and happens on the thread
+ * recording the event, which is usually the simulation thread.
+ * The log is only complete once the writer has been closed.
+ */
+public class EventLogWriter implements HallCallListener, Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(EventLogFormat.BUFFER_SIZE);
+    private final ElevatorBank elevatorBank;
+    private final Elevator[] elevators;
+    private final ElevatorTransitionListener[] recorders;
+    private long previousCycle;
+    private long eventCount = 0;
+    private long bytesWritten = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructs an {@link EventLogWriter} recording the specified bank to a new file.
+     * An existing file at the path is overwritten.
+     * @param path The path of the log file
+     * @param elevatorBank The bank to record
+     * @throws IOException If the file cannot be opened or written
+     */
+    public EventLogWriter(Path path, ElevatorBank elevatorBank) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.elevatorBank = elevatorBank;
+        this.elevators = elevatorBank.getElevators();
+        this.recorders = new ElevatorTransitionListener[elevators.length];
+        this.previousCycle = elevators[0].getCurrentCycle();
+
+        try {
+            writeHeader(elevatorBank);
+        } catch(IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        for(int i = 0; i < elevators.length; i++) {
+            var elevatorIndex = i;
+            recorders[i] = (previousAction, newAction, storey, cycle) ->
+                    recordTransition(elevatorIndex, previousAction, newAction, storey, cycle);
+            elevators[i].registerTransitionListener(recorders[i]);
+        }
+        elevatorBank.registerHallCallListener(this);
+    }
+
+    /**
+     * Gets the number of events recorded so far.
+     * @return The number of events
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Gets the number of bytes written to the file so far, not counting buffered records.
+     * @return The number of bytes
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void onHallCall(int storey, int elevatorIndex, long cycle) {
+        if(closed)
+            return;
+
+        ensureCapacity(EventLogFormat.MAX_RECORD_SIZE);
+        buffer.put((byte) 0);
+        putEvent(cycle, elevatorIndex, storey);
+    }
+
+    /**
+     * Writes every buffered record to the file.
+     * @throws IOException If the file cannot be written
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining())
+            bytesWritten += channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Stops recording, writes every buffered record and closes the file.
+     * @throws IOException If the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if(closed)
+            return;
+
+        closed = true;
+        for(int i = 0; i < elevators.length; i++)
+            elevators[i].unregisterListener(recorders[i]);
+        elevatorBank.unregisterHallCallListener(this);
+
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void recordTransition(int elevatorIndex, ElevatorAction previousAction, ElevatorAction newAction,
+                                  int storey, long cycle) {
+        if(closed)
+            return;
+
+        ensureCapacity(EventLogFormat.MAX_RECORD_SIZE);
+        buffer.put(EventLogFormat.transitionTag(previousAction.ordinal(), newAction.ordinal()));
+        putEvent(cycle, elevatorIndex, storey);
+    }
+
+    private void putEvent(long cycle, int elevatorIndex, int storey) {
+        EventLogFormat.putVarLong(buffer, EventLogFormat.zigzag(cycle - previousCycle));
+        EventLogFormat.putVarLong(buffer, elevatorIndex);
+        EventLogFormat.putVarLong(buffer, EventLogFormat.zigzag(storey));
+        previousCycle = cycle;
+        eventCount++;
+    }
+
+    private void writeHeader(ElevatorBank elevatorBank) throws IOException {
+        buffer.putInt(EventLogFormat.MAGIC);
+        buffer.put(EventLogFormat.VERSION);
+        EventLogFormat.putVarLong(buffer, EventLogFormat.zigzag(elevatorBank.getLowestStorey()));
+        EventLogFormat.putVarLong(buffer, EventLogFormat.zigzag(elevatorBank.getHighestStorey()));
+        EventLogFormat.putVarLong(buffer, elevators.length);
+        EventLogFormat.putVarLong(buffer, EventLogFormat.zigzag(previousCycle));
+
+        for(var elevator : elevators) {
+            if(buffer.remaining() < EventLogFormat.MAX_RECORD_SIZE)
+                flush();
+
+            EventLogFormat.putVarLong(buffer, EventLogFormat.zigzag(elevator.getCurrentStorey()));
+            buffer.put((byte) elevator.getCurrentAction().ordinal());
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if(buffer.remaining() >= bytes)
+            return;
+
+        try {
+            flush();
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
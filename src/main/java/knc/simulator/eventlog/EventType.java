@@ -0,0 +1,9 @@
+package knc.simulator.eventlog;
+
+/**
+ * The kinds of event recorded in an event log.
+ */
+public enum EventType {
+    HALL_CALL,
+    TRANSITION;
+}
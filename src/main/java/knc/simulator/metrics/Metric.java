@@ -0,0 +1,72 @@
+package knc.simulator.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Metric} is a single named value published through a {@link MetricsRegistry}.
+ * A metric is meant to be written by one thread, normally the simulation thread, and read by any number of others.
+ * Writing is an ordered store without locks or compare-and-swap, so updating a metric is about as cheap as writing
+ * a field.
+ */
+public final class Metric {
+    private final String name;
+    private final String labels;
+    private final String help;
+    private final MetricType type;
+    private final AtomicLong bits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    Metric(String name, String labels, String help, MetricType type) {
+        this.name = name;
+        this.labels = labels;
+        this.help = help;
+        this.type = type;
+    }
+
+    /**
+     * Gets the name of this metric, shared by every metric of the same family.
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the labels distinguishing this metric from others of the same family.
+     * @return The labels in Prometheus notation, such as {@code {action="HOLD"}}, or an empty string
+     */
+    public String getLabels() {
+        return labels;
+    }
+
+    /**
+     * Gets the description of this metric.
+     * @return The description
+     */
+    public String getHelp() {
+        return help;
+    }
+
+    /**
+     * Gets the {@link MetricType} of this metric.
+     * @return The type
+     */
+    public MetricType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the most recently published value.
+     * @return The value
+     */
+    public double get() {
+        return Double.longBitsToDouble(bits.get());
+    }
+
+    /**
+     * Publishes a new value. Must only be called from a single thread.
+     * @param value The value
+     */
+    public void set(double value) {
+        bits.lazySet(Double.doubleToRawLongBits(value));
+    }
+}
@@ -0,0 +1,15 @@
+package knc.simulator.metrics;
+
+/**
+ * The kinds of {@link Metric} held by a {@link MetricsRegistry}.
+ */
+public enum MetricType {
+    /**
+     * A value that only ever increases, such as the number of requests served.
+     */
+    COUNTER,
+    /**
+     * A value that can go up and down, such as the current queue depth.
+     */
+    GAUGE;
+}
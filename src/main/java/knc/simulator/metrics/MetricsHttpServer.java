@@ -0,0 +1,84 @@
+package knc.simulator.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A {@link MetricsHttpServer} serves the metrics of a {@link MetricsRegistry} in the Prometheus text format at
+ * {@code /metrics}. The server only listens on the loopback interface and answers requests on its own daemon thread,
+ * so scraping never blocks the simulation.
+ */
+public class MetricsHttpServer implements Closeable {
+    /**
+     * The path the metrics are served at.
+     */
+    public static final String PATH = "/metrics";
+
+    private final MetricsRegistry metricsRegistry;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Starts a {@link MetricsHttpServer} on the specified port of the loopback interface.
+     * @param metricsRegistry The registry to serve
+     * @param port The port, or 0 to pick a free one
+     * @throws IOException If the server cannot be started
+     */
+    public MetricsHttpServer(MetricsRegistry metricsRegistry, int port) throws IOException {
+        this.metricsRegistry = metricsRegistry;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     * @return The port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if(!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            var text = new StringBuilder();
+            metricsRegistry.writePrometheusText(text);
+            var body = text.toString().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package knc.simulator.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link MetricsRegistry} holds the {@link Metric}s describing a running simulation.
+ * The registry can be published over JMX through {@link #registerMBean(String)}, where every metric is a read-only
+ * attribute, and rendered in the Prometheus text format through {@link #writePrometheusText(Appendable)}.
+ */
+public class MetricsRegistry implements DynamicMBean {
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new counter.
+     * @param name The name of the metric family
+     * @param help The description of the metric
+     * @param labels Alternating label names and values distinguishing this metric within its family
+     * @return The counter
+     * @throws IllegalArgumentException If a metric with the same name and labels exists, or labels has odd length
+     */
+    public Metric counter(String name, String help, String... labels) throws IllegalArgumentException {
+        return register(name, help, MetricType.COUNTER, labels);
+    }
+
+    /**
+     * Creates a new gauge.
+     * @param name The name of the metric family
+     * @param help The description of the metric
+     * @param labels Alternating label names and values distinguishing this metric within its family
+     * @return The gauge
+     * @throws IllegalArgumentException If a metric with the same name and labels exists, or labels has odd length
+     */
+    public Metric gauge(String name, String help, String... labels) throws IllegalArgumentException {
+        return register(name, help, MetricType.GAUGE, labels);
+    }
+
+    /**
+     * Gets every metric in the order they were created.
+     * @return An unmodifiable view of the metrics
+     */
+    public List<Metric> getMetrics() {
+        return List.copyOf(metrics);
+    }
+
+    /**
+     * Writes the current value of every metric in the Prometheus text exposition format.
+     * @param out The destination
+     * @throws IOException If writing fails
+     */
+    public void writePrometheusText(Appendable out) throws IOException {
+        String family = null;
+        for(var metric : metrics) {
+            if(!metric.getName().equals(family)) {
+                family = metric.getName();
+                out.append("# HELP ").append(family).append(' ').append(metric.getHelp()).append('\n');
+                out.append("# TYPE ").append(family).append(' ')
+                        .append(metric.getType().name().toLowerCase(Locale.ROOT)).append('\n');
+            }
+
+            out.append(metric.getName()).append(metric.getLabels()).append(' ')
+                    .append(formatValue(metric.get())).append('\n');
+        }
+    }
+
+    /**
+     * Registers this registry with the platform MBean server.
+     * @param objectName The JMX object name, such as {@code knc.simulator:type=Metrics}
+     * @return The registered name
+     * @throws JMException If the name is invalid or already registered
+     */
+    public ObjectName registerMBean(String objectName) throws JMException {
+        var name = new ObjectName(objectName);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    /**
+     * Unregisters this registry from the platform MBean server, so that the name can be registered again.
+     * @param objectName The name returned by {@link #registerMBean(String)}
+     * @throws JMException If nothing is registered under the name
+     */
+    public void unregisterMBean(ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        for(var metric : metrics) {
+            if(getAttributeName(metric).equals(attribute))
+                return metric.get();
+        }
+
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        var list = new AttributeList();
+        for(var attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch(AttributeNotFoundException e) {
+                // Unknown attributes are left out, as specified by DynamicMBean
+            }
+        }
+
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        // Metrics have no operations
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        var snapshot = getMetrics();
+        var attributes = new MBeanAttributeInfo[snapshot.size()];
+        for(int i = 0; i < attributes.length; i++) {
+            var metric = snapshot.get(i);
+            attributes[i] = new MBeanAttributeInfo(getAttributeName(metric), "double", metric.getHelp(),
+                    true, false, false);
+        }
+
+        return new MBeanInfo(getClass().getName(), "Elevator simulator metrics", attributes, null, null, null);
+    }
+
+    private Metric register(String name, String help, MetricType type, String[] labels) throws IllegalArgumentException {
+        if(labels.length % 2 != 0)
+            throw new IllegalArgumentException("Labels must be name and value pairs");
+
+        var renderedLabels = new StringBuilder();
+        for(int i = 0; i < labels.length; i += 2) {
+            renderedLabels.append(i == 0 ? '{' : ',').append(labels[i]).append("=\"").append(labels[i + 1]).append('"');
+            if(i == labels.length - 2)
+                renderedLabels.append('}');
+        }
+
+        var metric = new Metric(name, renderedLabels.toString(), help, type);
+        synchronized(metrics) {
+            for(var existing : metrics) {
+                if(existing.getName().equals(name) && existing.getLabels().equals(metric.getLabels()))
+                    throw new IllegalArgumentException("Metric already registered: " + name + metric.getLabels());
+            }
+
+            // Keep families together so that each is rendered with a single header
+            var index = metrics.size();
+            while(index > 0 && !metrics.get(index - 1).getName().equals(name))
+                index--;
+            metrics.add(index == 0 ? metrics.size() : index, metric);
+        }
+
+        return metric;
+    }
+
+    /**
+     * Gets the JMX attribute name of a metric, which is its name followed by its label values.
+     */
+    private static String getAttributeName(Metric metric) {
+        var attributeName = new StringBuilder(metric.getName());
+        var labels = metric.getLabels();
+        var start = labels.indexOf('"');
+        while(start >= 0) {
+            var end = labels.indexOf('"', start + 1);
+            attributeName.append('_').append(labels, start + 1, end);
+            start = labels.indexOf('"', end + 1);
+        }
+
+        return attributeName.toString();
+    }
+
+    private static String formatValue(double value) {
+        if(value == Math.rint(value) && Math.abs(value) < 1e15)
+            return Long.toString((long) value);
+
+        return Double.toString(value);
+    }
+}
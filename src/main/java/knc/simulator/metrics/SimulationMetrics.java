@@ -0,0 +1,132 @@
+package knc.simulator.metrics;
+
+import knc.simulator.engine.SimulationEngine;
+import knc.simulator.model.Elevator;
+import knc.simulator.model.ElevatorAction;
+import knc.simulator.model.ElevatorBank;
+
+/**
+ * A {@link SimulationMetrics} publishes the state of a {@link SimulationEngine} to a {@link MetricsRegistry}.
+ * Nothing is recorded while the engine runs; instead {@link #update()} copies the counters already kept by the model
+ * into the registry. It must be called from the thread driving the engine, typically after each frame or each chunk
+ * of a long run, and leaves the simulation loop itself untouched.
+ */
+public class SimulationMetrics {
+    private static final String PREFIX = "elevator_simulator_";
+    private static final double[] WAIT_PERCENTILES = {50, 95, 99, 100};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final SimulationEngine simulationEngine;
+    private final ElevatorBank elevatorBank;
+    private final Elevator[] elevators;
+    private final Metric cycles;
+    private final Metric cyclesPerSecond;
+    private final Metric energy;
+    private final Metric hallCalls;
+    private final Metric duplicateHallCalls;
+    private final Metric servedRequests;
+    private final Metric missedDeadlines;
+    private final Metric queueDepth;
+    private final Metric waitingPassengers;
+    private final Metric deliveredPassengers;
+    private final Metric[] actionTimeShares = new Metric[ElevatorAction.values().length];
+    private final Metric[] waitPercentiles = new Metric[WAIT_PERCENTILES.length];
+    private long previousNanoTime = -1;
+    private long previousCycle;
+
+    /**
+     * Constructs a {@link SimulationMetrics} and creates its metrics in the specified registry.
+     * Request metrics are only published when the engine drives an {@link ElevatorBank}.
+     * @param simulationEngine The engine to observe
+     * @param metricsRegistry The registry to publish to
+     */
+    public SimulationMetrics(SimulationEngine simulationEngine, MetricsRegistry metricsRegistry) {
+        this.simulationEngine = simulationEngine;
+        this.elevatorBank = simulationEngine.getElevatorBank();
+        this.elevators = simulationEngine.getElevators();
+        this.previousCycle = simulationEngine.getCurrentCycle();
+
+        cycles = metricsRegistry.counter(PREFIX + "cycles_total", "Cycles simulated");
+        cyclesPerSecond = metricsRegistry.gauge(PREFIX + "cycles_per_second", "Cycles simulated per second of wall clock time");
+        energy = metricsRegistry.gauge(PREFIX + "energy_kwh", "Energy drawn by every elevator, less energy recovered");
+        for(var action : ElevatorAction.values()) {
+            actionTimeShares[action.ordinal()] = metricsRegistry.gauge(PREFIX + "action_time_share",
+                    "Share of elevator time spent performing an action", "action", action.name());
+        }
+
+        if(elevatorBank == null) {
+            hallCalls = null;
+            duplicateHallCalls = null;
+            servedRequests = null;
+            missedDeadlines = null;
+            queueDepth = null;
+            waitingPassengers = null;
+            deliveredPassengers = null;
+            return;
+        }
+
+        hallCalls = metricsRegistry.counter(PREFIX + "hall_calls_total", "Hall calls made, including duplicates");
+        duplicateHallCalls = metricsRegistry.counter(PREFIX + "duplicate_hall_calls_total",
+                "Hall calls ignored because the storey was already being served");
+        servedRequests = metricsRegistry.counter(PREFIX + "requests_served_total", "Requests served");
+        missedDeadlines = metricsRegistry.counter(PREFIX + "missed_deadlines_total", "Requests served after their deadline");
+        queueDepth = metricsRegistry.gauge(PREFIX + "queue_depth", "Requests waiting to be dispatched");
+        waitingPassengers = metricsRegistry.gauge(PREFIX + "passengers_waiting", "Passengers waiting for an elevator");
+        deliveredPassengers = metricsRegistry.counter(PREFIX + "passengers_delivered_total", "Passengers delivered to their destination");
+        for(int i = 0; i < WAIT_PERCENTILES.length; i++) {
+            waitPercentiles[i] = metricsRegistry.gauge(PREFIX + "wait_cycles",
+                    "Cycles between a request being made and an elevator arriving",
+                    "quantile", Double.toString(WAIT_PERCENTILES[i] / 100));
+        }
+    }
+
+    /**
+     * Publishes the current state of the engine.
+     */
+    public void update() {
+        update(System.nanoTime());
+    }
+
+    void update(long nanoTime) {
+        var currentCycle = simulationEngine.getCurrentCycle();
+        cycles.set(currentCycle);
+        if(previousNanoTime >= 0 && nanoTime > previousNanoTime)
+            cyclesPerSecond.set((currentCycle - previousCycle) * NANOS_PER_SECOND / (nanoTime - previousNanoTime));
+        previousNanoTime = nanoTime;
+        previousCycle = currentCycle;
+
+        updateActionTimeShares();
+        double energyConsumption = 0;
+        for(var elevator : elevators)
+            energyConsumption += elevator.getEnergyConsumption();
+        energy.set(energyConsumption);
+
+        if(elevatorBank != null) {
+            hallCalls.set(elevatorBank.getHallCalls());
+            duplicateHallCalls.set(elevatorBank.getDuplicateHallCalls());
+            servedRequests.set(elevatorBank.getServedRequests());
+            missedDeadlines.set(elevatorBank.getMissedDeadlines());
+            queueDepth.set(elevatorBank.getElevatorRequestsSize());
+            waitingPassengers.set(elevatorBank.getWaitingPassengers());
+            deliveredPassengers.set(elevatorBank.getDeliveredPassengers());
+
+            var waitHistogram = elevatorBank.getWaitHistogram();
+            for(int i = 0; i < WAIT_PERCENTILES.length; i++)
+                waitPercentiles[i].set(waitHistogram.getValueAtPercentile(WAIT_PERCENTILES[i]));
+        }
+    }
+
+    private void updateActionTimeShares() {
+        long total = 0;
+        for(var elevator : elevators)
+            total += elevator.getCurrentCycle();
+
+        for(var action : ElevatorAction.values()) {
+            long cyclesInAction = 0;
+            for(var elevator : elevators)
+                cyclesInAction += elevator.getCyclesInAction(action);
+
+            actionTimeShares[action.ordinal()].set(total == 0 ? 0 : (double) cyclesInAction / total);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package knc.simulator.model;
+
+/**
+ * A {@link DestinationDispatcher} assigns passengers who entered their destination at the hall panel to a car.
+ * Calls are collected for an assignment window and then assigned together, grouped by origin and destination, so
+ * that passengers travelling to the same storey are placed in the same car. Each car is scored by its estimated time
+ * of arrival at the origin plus a penalty for every stop the passenger would add to its trip, which trades a slightly
+ * longer wait for fewer stops per round trip. Cars whose assigned passengers already fill them are passed over.
+ */
+public class DestinationDispatcher {
+    /**
+     * The number of cycles calls are collected for before they are assigned, unless specified.
+     */
+    public static final int DEFAULT_ASSIGNMENT_WINDOW = 60;
+
+    /**
+     * The penalty in cycles for adding a stop to a car, unless specified.
+     */
+    public static final int DEFAULT_STOP_PENALTY = 240;
+
+    private final int assignmentWindow;
+    private final int stopPenalty;
+
+    /**
+     * Constructs a {@link DestinationDispatcher} with the default assignment window and stop penalty.
+     */
+    public DestinationDispatcher() {
+        this(DEFAULT_ASSIGNMENT_WINDOW, DEFAULT_STOP_PENALTY);
+    }
+
+    /**
+     * Constructs a {@link DestinationDispatcher}.
+     * @param assignmentWindow The number of cycles calls are collected for before they are assigned
+     * @param stopPenalty The penalty in cycles for adding a stop to a car
+     * @throws IllegalArgumentException If assignmentWindow < 0 or stopPenalty < 0
+     */
+    public DestinationDispatcher(int assignmentWindow, int stopPenalty) throws IllegalArgumentException {
+        if(assignmentWindow < 0)
+            throw new IllegalArgumentException("Assignment window must be >= 0");
+        if(stopPenalty < 0)
+            throw new IllegalArgumentException("Stop penalty must be >= 0");
+
+        this.assignmentWindow = assignmentWindow;
+        this.stopPenalty = stopPenalty;
+    }
+
+    /**
+     * Gets the number of cycles calls are collected for before they are assigned.
+     * @return The assignment window
+     */
+    public int getAssignmentWindow() {
+        return assignmentWindow;
+    }
+
+    /**
+     * Gets the penalty in cycles for adding a stop to a car.
+     * @return The stop penalty
+     */
+    public int getStopPenalty() {
+        return stopPenalty;
+    }
+
+    /**
+     * Selects the car a passenger should board.
+     * Passengers assigned earlier in the same window are already reflected by the bank.
+     * @param elevatorBank The bank containing the candidate elevators
+     * @param origin The storey the passenger is waiting at
+     * @param destination The storey the passenger wants to travel to
+     * @return The index of the selected elevator within the bank
+     */
+    public int selectElevator(ElevatorBank elevatorBank, int origin, int destination) {
+        var selected = 0;
+        var selectedCost = Long.MAX_VALUE;
+        var skipFull = false;
+        for(int i = 0; i < elevatorBank.getElevatorCount() && !skipFull; i++)
+            skipFull = elevatorBank.getAssignedPassengers(i) < elevatorBank.getElevator(i).getCapacity();
+
+        for(int i = 0; i < elevatorBank.getElevatorCount(); i++) {
+            if(skipFull && elevatorBank.getAssignedPassengers(i) >= elevatorBank.getElevator(i).getCapacity())
+                continue;
+
+            var cost = elevatorBank.getElevatorRequestManager(i).estimateCyclesToServe(origin);
+            if(!elevatorBank.isStopAssigned(i, origin))
+                cost += stopPenalty;
+            if(!elevatorBank.isStopAssigned(i, destination))
+                cost += stopPenalty;
+
+            if(cost < selectedCost) {
+                selected = i;
+                selectedCost = cost;
+            }
+        }
+
+        return selected;
+    }
+}
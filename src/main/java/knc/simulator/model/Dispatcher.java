@@ -0,0 +1,16 @@
+package knc.simulator.model;
+
+/**
+ * A {@link Dispatcher} decides which elevator of an {@link ElevatorBank} should serve a hall call.
+ * Elevators that are full should only be selected when {@link ElevatorBank#isEveryElevatorFull()}, as passengers
+ * cannot board them.
+ */
+public interface Dispatcher {
+    /**
+     * Selects the elevator that should serve a hall call made at the specified storey.
+     * @param elevatorBank The bank containing the candidate elevators
+     * @param storey The storey the call was made from
+     * @return The index of the selected elevator within the bank
+     */
+    int selectElevator(ElevatorBank elevatorBank, int storey);
+}
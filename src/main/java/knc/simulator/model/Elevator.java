@@ -1,25 +1,44 @@
 package knc.simulator.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * An {@link Elevator} contains very limited logic and should be managed through a {@link ElevatorRequestManager}.
  * Each time {@link #update()} is called the elevator will move towards any storey designated through {@link #setTargetStorey(int)}.
  * When the elevator reaches its destination it will enter {@link ElevatorAction#HOLD} status for a certain time.
  * The speed of the elevator and the hold time can be specified through {@link #setCyclesToTraverseStorey(int)} and {@link #setCyclesToHold(int)}.
+ * With {@link #setAccelerationCycles(int)} the elevator accelerates to that speed and decelerates again over each run,
+ * so longer runs take fewer cycles per storey than single storey hops.
+ * The energy drawn while travelling is metered according to an {@link EnergyModel}, taking the load and direction
+ * of each storey travelled into account.
+ * An elevator has a passenger capacity and tracks its current load; the hold is extended by
+ * {@link #getCyclesPerPassenger()} for each passenger boarding or alighting.
+ * The state of an elevator is stored in an {@link ElevatorFleet}; an elevator constructed on its own is the only car
+ * of a fleet of one.
  */
 public class Elevator {
-    private final int lowestStorey;
-    private final int highestStorey;
-    private List<ElevatorActionListener> listeners = new ArrayList<>();
-    private ElevatorAction currentAction = ElevatorAction.IDLE;
-    private int cyclesToHold = 60;
-    private int currentHoldCycles = 0;
-    private int cyclesToTraverseStorey = 60;
-    private int currentTraversalCycles = 0;
-    private int currentStorey;
-    private int targetStorey;
+    /**
+     * Returned by {@link #getCyclesUntilNextTransition()} when the elevator is idle and will not change by itself.
+     */
+    public static final long NO_TRANSITION = Long.MAX_VALUE;
+
+    /**
+     * The number of bytes written by {@link #saveState(ByteBuffer)}.
+     */
+    public static final int STATE_SIZE = ElevatorFleet.STATE_SIZE;
+
+    private static final int INITIAL_QUEUED_TRANSITIONS = 4;
+
+    private final ElevatorFleet fleet;
+    private final int index;
+    private volatile ElevatorTransitionListener[] listeners = new ElevatorTransitionListener[0];
+    private ElevatorAction[] queuedPreviousActions = new ElevatorAction[INITIAL_QUEUED_TRANSITIONS];
+    private ElevatorAction[] queuedNewActions = new ElevatorAction[INITIAL_QUEUED_TRANSITIONS];
+    private int[] queuedStoreys = new int[INITIAL_QUEUED_TRANSITIONS];
+    private long[] queuedCycles = new long[INITIAL_QUEUED_TRANSITIONS];
+    private int queuedTransitions = 0;
+    private boolean notifying = false;
 
     /**
      * Constructs an {@link Elevator} with the specified lowest, highest, and starting storey.
@@ -29,12 +48,8 @@ public class Elevator {
      * @throws IllegalArgumentException If lowestStorey >=  highestStorey
      */
     public Elevator(int lowestStorey, int highestStorey, int startingStorey) {
-        if(lowestStorey >= highestStorey)
-            throw new IllegalArgumentException("The highest storey must be at least one level above the lowest storey");
-
-        this.lowestStorey = lowestStorey;
-        this.highestStorey = highestStorey;
-        this.currentStorey = startingStorey;
+        this(new ElevatorFleet(lowestStorey, highestStorey, 1), 0);
+        fleet.setCurrentStorey(index, startingStorey);
     }
 
     /**
@@ -48,12 +63,38 @@ public class Elevator {
         this(lowestStorey, highestStorey, lowestStorey);
     }
 
+    /**
+     * Constructs the {@link Elevator} view of a car in an {@link ElevatorFleet}.
+     */
+    Elevator(ElevatorFleet fleet, int index) {
+        this.fleet = fleet;
+        this.index = index;
+        fleet.attach(this, index);
+    }
+
+    /**
+     * Gets the {@link ElevatorFleet} holding the state of this {@link Elevator}.
+     * A standalone elevator is the only car of its own fleet.
+     * @return The fleet
+     */
+    public ElevatorFleet getFleet() {
+        return fleet;
+    }
+
+    /**
+     * Gets the index of this {@link Elevator} within its {@link ElevatorFleet}.
+     * @return The index
+     */
+    public int getFleetIndex() {
+        return index;
+    }
+
     /**
      * Gets the lowest storey this {@link Elevator} can travel to.
      * @return The lowest storey
      */
     public int getLowestStorey() {
-        return lowestStorey;
+        return fleet.getLowestStorey();
     }
 
     /**
@@ -61,7 +102,7 @@ public class Elevator {
      * @return The highest storey
      */
     public int getHighestStorey() {
-        return highestStorey;
+        return fleet.getHighestStorey();
     }
 
     /**
@@ -69,7 +110,7 @@ public class Elevator {
      * @return The target storey
      */
     public int getTargetStorey() {
-        return targetStorey;
+        return fleet.getTargetStorey(index);
     }
 
     /**
@@ -78,17 +119,7 @@ public class Elevator {
      * @param targetStorey The target storey
      */
     public void setTargetStorey(int targetStorey) {
-        this.targetStorey = targetStorey;
-
-        if(targetStorey > currentStorey) {
-            currentAction = ElevatorAction.ASCENDING;
-            notifyListeners();
-        } else if(targetStorey < currentStorey) {
-            currentAction = ElevatorAction.DESCENDING;
-            notifyListeners();
-        } else {
-            startHold();
-        }
+        fleet.setTargetStorey(index, targetStorey);
     }
 
     /**
@@ -97,7 +128,7 @@ public class Elevator {
      * @return The number of cycles that the elevator will hold
      */
     public int getCyclesToHold() {
-        return cyclesToHold;
+        return fleet.getCyclesToHold(index);
     }
 
     /**
@@ -110,7 +141,91 @@ public class Elevator {
         if(cyclesToHold < 1)
             throw new IllegalArgumentException("Cycles to hold must be >= 1");
 
-        this.cyclesToHold = cyclesToHold;
+        fleet.setCyclesToHold(index, cyclesToHold);
+    }
+
+    /**
+     * Gets the number of cycles the current {@link ElevatorAction#HOLD} lasts in total, including any extension
+     * for passengers boarding and alighting.
+     * @return The duration of the current hold, or of the last hold if the elevator is not holding
+     */
+    public int getCurrentHoldDuration() {
+        return fleet.getHoldDuration(index);
+    }
+
+    /**
+     * Lengthens the current {@link ElevatorAction#HOLD}.
+     * @param cycles The number of cycles to add
+     * @throws IllegalArgumentException If cycles < 0
+     * @throws IllegalStateException If the elevator is not holding
+     */
+    public void extendHold(int cycles) throws IllegalArgumentException, IllegalStateException {
+        if(cycles < 0)
+            throw new IllegalArgumentException("Cycles must be >= 0");
+        if(getCurrentAction() != ElevatorAction.HOLD)
+            throw new IllegalStateException("Only a hold in progress can be extended");
+
+        fleet.extendHold(index, cycles);
+    }
+
+    /**
+     * Gets the maximum number of passengers this {@link Elevator} can carry. Defaults to 13.
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return fleet.getCapacity(index);
+    }
+
+    /**
+     * Sets the maximum number of passengers this {@link Elevator} can carry.
+     * @param capacity The capacity
+     * @throws IllegalArgumentException If capacity < 1
+     */
+    public void setCapacity(int capacity) throws IllegalArgumentException {
+        if(capacity < 1)
+            throw new IllegalArgumentException("Capacity must be >= 1");
+
+        fleet.setCapacity(index, capacity);
+    }
+
+    /**
+     * Gets the number of passengers currently in this {@link Elevator}.
+     * @return The load
+     */
+    public int getLoad() {
+        return fleet.getLoad(index);
+    }
+
+    void setLoad(int load) {
+        fleet.setLoad(index, load);
+    }
+
+    /**
+     * Checks whether this {@link Elevator} has no room for another passenger.
+     * @return True if the load has reached the capacity
+     */
+    public boolean isFull() {
+        return getLoad() >= getCapacity();
+    }
+
+    /**
+     * Gets the number of cycles the hold is extended by for each passenger boarding or alighting. Defaults to 60.
+     * @return The cycles per passenger
+     */
+    public int getCyclesPerPassenger() {
+        return fleet.getCyclesPerPassenger(index);
+    }
+
+    /**
+     * Sets the number of cycles the hold is extended by for each passenger boarding or alighting.
+     * @param cyclesPerPassenger The cycles per passenger
+     * @throws IllegalArgumentException If cyclesPerPassenger < 0
+     */
+    public void setCyclesPerPassenger(int cyclesPerPassenger) throws IllegalArgumentException {
+        if(cyclesPerPassenger < 0)
+            throw new IllegalArgumentException("Cycles per passenger must be >= 0");
+
+        fleet.setCyclesPerPassenger(index, cyclesPerPassenger);
     }
 
     /**
@@ -118,7 +233,7 @@ public class Elevator {
      * @return The cycles required
      */
     public double getCyclesToTraverseStorey() {
-        return cyclesToTraverseStorey;
+        return fleet.getCyclesToTraverseStorey(index);
     }
 
     /**
@@ -130,7 +245,60 @@ public class Elevator {
         if(cyclesToTraverseStorey < 1)
             throw new IllegalArgumentException("Cycles to traverse a storey must be >= 1");
 
-        this.cyclesToTraverseStorey = cyclesToTraverseStorey;
+        fleet.setCyclesToTraverseStorey(index, cyclesToTraverseStorey);
+    }
+
+    /**
+     * Gets the cycles needed for the {@link Elevator} to reach full speed from rest, and to stop from full speed.
+     * Defaults to 0, which moves the elevator at constant speed.
+     * @return The acceleration cycles
+     */
+    public int getAccelerationCycles() {
+        return fleet.getAccelerationCycles(index);
+    }
+
+    /**
+     * Sets the cycles needed for the {@link Elevator} to reach full speed from rest, and to stop from full speed.
+     * Full speed is one storey per {@link #getCyclesToTraverseStorey()} cycles.
+     * @param accelerationCycles The acceleration cycles
+     * @throws IllegalArgumentException If accelerationCycles < 0
+     */
+    public void setAccelerationCycles(int accelerationCycles) throws IllegalArgumentException {
+        if(accelerationCycles < 0)
+            throw new IllegalArgumentException("Acceleration cycles must be >= 0");
+
+        fleet.setAccelerationCycles(index, accelerationCycles);
+    }
+
+    /**
+     * Gets the {@link EnergyModel} metering the energy drawn by this {@link Elevator}.
+     * @return The energy model
+     */
+    public EnergyModel getEnergyModel() {
+        return fleet.getEnergyModel(index);
+    }
+
+    /**
+     * Sets the {@link EnergyModel} metering the energy drawn by this {@link Elevator} from now on.
+     * @param energyModel The energy model
+     * @throws IllegalArgumentException If energyModel is null
+     */
+    public void setEnergyModel(EnergyModel energyModel) throws IllegalArgumentException {
+        if(energyModel == null)
+            throw new IllegalArgumentException("Energy model must not be null");
+
+        fleet.setEnergyModel(index, energyModel);
+    }
+
+    /**
+     * Gets the energy drawn by this {@link Elevator} since it was constructed, less any energy recovered.
+     * Standby energy is worked out from the total number of cycles at the standby power of the current
+     * {@link EnergyModel}.
+     * @return The energy in kilowatt hours
+     */
+    public double getEnergyConsumption() {
+        var joules = fleet.getTravelEnergy(index) + getEnergyModel().getStandbyEnergy(getCurrentCycle());
+        return joules / EnergyModel.JOULES_PER_KILOWATT_HOUR;
     }
 
     /**
@@ -138,7 +306,7 @@ public class Elevator {
      * @return The current cycle
      */
     public int getCurrentHoldCycles() {
-        return currentHoldCycles;
+        return fleet.getCurrentHoldCycles(index);
     }
 
     /**
@@ -146,7 +314,7 @@ public class Elevator {
      * @return The current cycle
      */
     public int getCurrentTraversalCycles() {
-        return currentTraversalCycles;
+        return fleet.getCurrentTraversalCycles(index);
     }
 
     /**
@@ -154,7 +322,7 @@ public class Elevator {
      * @return The current action
      */
     public ElevatorAction getCurrentAction() {
-        return currentAction;
+        return fleet.getCurrentAction(index);
     }
 
     /**
@@ -162,24 +330,50 @@ public class Elevator {
      * @return The current position
      */
     public int getCurrentStorey() {
-        return currentStorey;
+        return fleet.getCurrentStorey(index);
+    }
+
+    /**
+     * Gets the number of times {@link #update()} has been called on this {@link Elevator}.
+     * @return The current cycle
+     */
+    public long getCurrentCycle() {
+        return fleet.getCurrentCycle(index);
+    }
+
+    /**
+     * Gets the number of cycles this {@link Elevator} has spent performing the specified {@link ElevatorAction}.
+     * @param action The action
+     * @return The number of cycles
+     */
+    public long getCyclesInAction(ElevatorAction action) {
+        return fleet.getCyclesInAction(index, action);
     }
 
     /**
      * Progresses the movement or hold timer of this {@link Elevator} by one cycle.
      */
     public void update() {
-        switch(currentAction) {
-            case IDLE:
-                break;
-            case HOLD:
-                hold();
-                break;
-            case ASCENDING:
-            case DESCENDING:
-                traverse();
-                break;
-        }
+        fleet.update(index);
+    }
+
+    /**
+     * Progresses this {@link Elevator} by the specified number of cycles.
+     * The result is identical to calling {@link #update()} the same number of times, but instead of ticking through
+     * every cycle the elevator jumps directly from one state change to the next.
+     * @param cycles The number of cycles to progress
+     */
+    public void advance(long cycles) {
+        fleet.advance(index, cycles);
+    }
+
+    /**
+     * Gets the number of calls to {@link #update()} needed before this {@link Elevator} changes {@link ElevatorAction},
+     * provided that no new target is set in the meantime.
+     * @return The number of cycles, or {@link #NO_TRANSITION} if the elevator is idle
+     */
+    public long getCyclesUntilNextTransition() {
+        return fleet.getCyclesUntilNextTransition(index);
     }
 
     /**
@@ -188,12 +382,12 @@ public class Elevator {
      */
     public void updateUntilNextHold() {
         // Update until elevator leaves hold
-        while(currentAction == ElevatorAction.HOLD)
-            update();
+        while(getCurrentAction() == ElevatorAction.HOLD)
+            advance(getCyclesUntilNextTransition());
 
         // Update until next hold
-        while(currentAction != ElevatorAction.HOLD && currentAction != ElevatorAction.IDLE)
-            update();
+        while(getCurrentAction() != ElevatorAction.HOLD && getCurrentAction() != ElevatorAction.IDLE)
+            advance(getCyclesUntilNextTransition());
     }
 
     /**
@@ -202,59 +396,135 @@ public class Elevator {
      * @return The number of stories from bottom
      */
     public double getElevatorPositionAsStoriesFromBottom() {
-        var storiesFromBottom = currentStorey - lowestStorey;
-        var progressToNextStorey = (double) currentTraversalCycles / cyclesToTraverseStorey;
+        return getElevatorPositionAsStoriesFromBottom(0);
+    }
+
+    /**
+     * Gets the position of this {@link Elevator} a fraction of a cycle after the current one, represented as number
+     * of storeys from bottom.
+     * Useful when rendering the elevator between two calls to {@link #update()}.
+     * @param cycleFraction The fraction of the next cycle that has passed, between 0 and 1
+     * @return The number of stories from bottom
+     */
+    public double getElevatorPositionAsStoriesFromBottom(double cycleFraction) {
+        var storiesFromBottom = getCurrentStorey() - getLowestStorey();
+        var action = getCurrentAction();
+        var traversalCycles = (double) getCurrentTraversalCycles();
+        if(action == ElevatorAction.ASCENDING || action == ElevatorAction.DESCENDING)
+            traversalCycles += cycleFraction;
+
+        double progressToNextStorey;
+        if((action == ElevatorAction.ASCENDING || action == ElevatorAction.DESCENDING) && getAccelerationCycles() > 0) {
+            // Follow the motion profile of the whole run rather than moving evenly through the storey
+            var cyclesToTraverseStorey = fleet.getCyclesToTraverseStorey(index);
+            var runStartStorey = fleet.getRunStartStorey(index);
+            var runStoreys = Math.abs(getTargetStorey() - runStartStorey);
+            var storey = Math.abs(getCurrentStorey() - runStartStorey);
+            var time = MotionProfile.getCycles(runStoreys, storey, cyclesToTraverseStorey, getAccelerationCycles()) + traversalCycles;
+            var position = MotionProfile.getPosition(runStoreys, time, cyclesToTraverseStorey, getAccelerationCycles());
+            progressToNextStorey = Math.max(0, Math.min(1, position - storey));
+        } else {
+            progressToNextStorey = traversalCycles / fleet.getStoreyCycles(index);
+        }
 
-        if(currentAction == ElevatorAction.DESCENDING)
+        if(action == ElevatorAction.DESCENDING)
             progressToNextStorey = -progressToNextStorey;
 
         return storiesFromBottom + progressToNextStorey;
     }
 
+    /**
+     * Writes the position, action, timings and counters of this {@link Elevator}.
+     * Listeners are not part of the state.
+     * @param buffer The buffer to write to
+     */
+    public void saveState(ByteBuffer buffer) {
+        fleet.saveState(index, buffer);
+    }
+
+    /**
+     * Replaces the state of this {@link Elevator} with one written by {@link #saveState(ByteBuffer)}.
+     * Listeners are not notified of the change.
+     * @param buffer The buffer to read from
+     */
+    public void restoreState(ByteBuffer buffer) {
+        fleet.restoreState(index, buffer);
+    }
+
     /**
      * Registers a listener to be notified each time this {@link Elevator} changes {@link ElevatorAction}.
      * @param listener The listener to register
      */
     public void registerListener(ElevatorActionListener listener) {
-        listeners.add(listener);
+        registerTransitionListener(listener);
     }
 
-    private void notifyListeners() {
-        listeners.forEach(listener -> listener.onChange(currentAction));
+    /**
+     * Registers a listener to be notified with the full details of each {@link ElevatorAction} change.
+     * Listeners may be registered and unregistered at any time, including from within a notification.
+     * A transition caused by a listener, such as by setting a new target, is only notified once every listener has
+     * received the transition being notified, so all listeners receive every transition in the same order.
+     * @param listener The listener to register
+     */
+    public synchronized void registerTransitionListener(ElevatorTransitionListener listener) {
+        var newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
     }
 
-    private void hold() {
-        if(++currentHoldCycles >= cyclesToHold) {
-            exitHold();
+    /**
+     * Unregisters a previously registered listener.
+     * @param listener The listener to unregister
+     * @return True if the listener was registered
+     */
+    public synchronized boolean unregisterListener(ElevatorTransitionListener listener) {
+        for(int i = 0; i < listeners.length; i++) {
+            if(listeners[i] == listener) {
+                var newListeners = new ElevatorTransitionListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, newListeners, 0, i);
+                System.arraycopy(listeners, i + 1, newListeners, i, newListeners.length - i);
+                listeners = newListeners;
+                return true;
+            }
         }
-    }
 
-    private void traverse() {
-        if(++currentTraversalCycles >= cyclesToTraverseStorey) {
-            storeyChanged();
-        }
+        return false;
     }
 
-    private void storeyChanged() {
-        currentTraversalCycles = 0;
-
-        if(currentAction == ElevatorAction.ASCENDING)
-            currentStorey++;
-        else if(currentAction == ElevatorAction.DESCENDING)
-            currentStorey--;
-
-        if(currentStorey == targetStorey)
-            startHold();
+    void notifyListeners(ElevatorAction previousAction) {
+        queueTransition(previousAction);
+        if(notifying)
+            return;
+
+        notifying = true;
+        try {
+            for(int i = 0; i < queuedTransitions; i++) {
+                // Iterate over a snapshot so that listeners can safely register or unregister during notification
+                var snapshot = listeners;
+                for(var listener : snapshot)
+                    listener.onTransition(queuedPreviousActions[i], queuedNewActions[i], queuedStoreys[i], queuedCycles[i]);
+            }
+        } finally {
+            queuedTransitions = 0;
+            notifying = false;
+        }
     }
 
-    private void startHold() {
-        currentHoldCycles = 0;
-        currentAction = ElevatorAction.HOLD;
-        notifyListeners();
-    }
+    /**
+     * Records the transition into the current state, to be notified once the transitions before it have been.
+     */
+    private void queueTransition(ElevatorAction previousAction) {
+        if(queuedTransitions == queuedCycles.length) {
+            queuedPreviousActions = Arrays.copyOf(queuedPreviousActions, queuedTransitions * 2);
+            queuedNewActions = Arrays.copyOf(queuedNewActions, queuedTransitions * 2);
+            queuedStoreys = Arrays.copyOf(queuedStoreys, queuedTransitions * 2);
+            queuedCycles = Arrays.copyOf(queuedCycles, queuedTransitions * 2);
+        }
 
-    private void exitHold() {
-        currentAction = ElevatorAction.IDLE;
-        notifyListeners();
+        queuedPreviousActions[queuedTransitions] = previousAction;
+        queuedNewActions[queuedTransitions] = getCurrentAction();
+        queuedStoreys[queuedTransitions] = getCurrentStorey();
+        queuedCycles[queuedTransitions] = getCurrentCycle();
+        queuedTransitions++;
     }
 }
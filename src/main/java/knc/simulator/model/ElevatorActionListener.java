@@ -1,5 +1,10 @@
 package knc.simulator.model;
 
-public interface ElevatorActionListener {
+public interface ElevatorActionListener extends ElevatorTransitionListener {
     void onChange(ElevatorAction newElevatorAction);
+
+    @Override
+    default void onTransition(ElevatorAction previousAction, ElevatorAction newAction, int storey, long cycle) {
+        onChange(newAction);
+    }
 }
@@ -0,0 +1,854 @@
+package knc.simulator.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An {@link ElevatorBank} groups several elevators serving the same storeys.
+ * Each elevator is managed by its own {@link ElevatorRequestManager}, and hall calls made through
+ * {@link #createHallCall(int)} are assigned to one of them by a pluggable {@link Dispatcher}.
+ * The bank also aggregates wait time and throughput so that dispatchers can be compared on the same traffic.
+ * <p>
+ * Passengers made through {@link #createPassenger(int, int)} wait at their origin until a car with room for them
+ * holds there, ride to their destination and alight. Each boarding passenger makes a car call for their destination,
+ * and each passenger boarding or alighting extends the hold of the car. Passengers left behind by a full car make a
+ * new hall call as the car departs.
+ * <p>
+ * When a {@link DestinationDispatcher} is set, passengers enter their destination at the hall instead. Their calls
+ * are collected for the assignment window of the dispatcher, then each passenger is assigned a car, which is sent to
+ * their origin. Passengers only board the car they were assigned. The window must be closed by calling
+ * {@link #assignDestinationCalls()} each cycle, which {@link knc.simulator.engine.SimulationEngine} does.
+ * <p>
+ * When a {@link ParkingPolicy} is set, every hall call is recorded by it, and each elevator left idle without requests
+ * is sent to the storey the policy expects the next call from.
+ */
+public class ElevatorBank implements RequestListener {
+    /**
+     * Returned by {@link #getNextAssignmentCycle()} when no destination calls are waiting to be assigned.
+     */
+    public static final long NO_ASSIGNMENT = Long.MAX_VALUE;
+
+    /**
+     * The tag of passengers made through {@link #createPassenger(int, int)}.
+     */
+    public static final int NO_TAG = -1;
+
+    private static final int INITIAL_PENDING_CALLS = 16;
+
+    private final ElevatorRequestManager[] elevatorRequestManagers;
+    private final Elevator[] elevators;
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+    private final LatencyHistogram serviceHistogram = new LatencyHistogram();
+    private final LatencyHistogram passengerWaitHistogram = new LatencyHistogram();
+    private final LatencyHistogram journeyHistogram = new LatencyHistogram();
+    private final PassengerQueues passengerQueues;
+    private final int[] assignedPassengers;
+    private final int[] assignedStops;
+    private int[] pendingOrigins = new int[INITIAL_PENDING_CALLS];
+    private int[] pendingDestinations = new int[INITIAL_PENDING_CALLS];
+    private long[] pendingArrivalCycles = new long[INITIAL_PENDING_CALLS];
+    private int[] pendingTags = new int[INITIAL_PENDING_CALLS];
+    private int pendingCalls = 0;
+    private long nextAssignmentCycle = NO_ASSIGNMENT;
+    private DestinationDispatcher destinationDispatcher;
+    private ParkingPolicy parkingPolicy;
+    private HallCallListener[] hallCallListeners = new HallCallListener[0];
+    private PassengerListener[] passengerListeners = new PassengerListener[0];
+    private Dispatcher dispatcher;
+    private long hallCalls = 0;
+    private long duplicateHallCalls = 0;
+    private long deliveredPassengers = 0;
+
+    /**
+     * Constructs an {@link ElevatorBank} with the specified number of elevators, all starting at the lowest storey.
+     * The elevators are the cars of a single {@link ElevatorFleet}.
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @param elevatorCount The number of elevators in the bank
+     * @param dispatcher The dispatcher assigning hall calls to elevators
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey or elevatorCount < 1
+     */
+    public ElevatorBank(int lowestStorey, int highestStorey, int elevatorCount, Dispatcher dispatcher)
+            throws IllegalArgumentException {
+        this(dispatcher, createManagers(lowestStorey, highestStorey, elevatorCount));
+    }
+
+    /**
+     * Constructs an {@link ElevatorBank} from existing request managers.
+     * All elevators must serve the same range of storeys.
+     * @param dispatcher The dispatcher assigning hall calls to elevators
+     * @param elevatorRequestManagers The request managers of the elevators in the bank
+     * @throws IllegalArgumentException If no managers are specified or their elevators serve different storeys
+     */
+    public ElevatorBank(Dispatcher dispatcher, ElevatorRequestManager... elevatorRequestManagers)
+            throws IllegalArgumentException {
+        if(elevatorRequestManagers.length == 0)
+            throw new IllegalArgumentException("At least one elevator is required");
+
+        var first = elevatorRequestManagers[0].getElevator();
+        for(var manager : elevatorRequestManagers) {
+            var elevator = manager.getElevator();
+            if(elevator.getLowestStorey() != first.getLowestStorey() || elevator.getHighestStorey() != first.getHighestStorey())
+                throw new IllegalArgumentException("All elevators in a bank must serve the same storeys");
+        }
+
+        this.dispatcher = dispatcher;
+        this.elevatorRequestManagers = elevatorRequestManagers.clone();
+        this.elevators = new Elevator[elevatorRequestManagers.length];
+        for(int i = 0; i < elevators.length; i++) {
+            var index = i;
+            elevators[i] = elevatorRequestManagers[i].getElevator();
+            elevatorRequestManagers[i].registerRequestListener(this);
+            elevators[i].registerTransitionListener((previousAction, newAction, storey, cycle) ->
+                    onElevatorTransition(index, newAction, storey, cycle));
+        }
+        this.passengerQueues = new PassengerQueues(first.getLowestStorey(), first.getHighestStorey(), elevators.length);
+        this.assignedPassengers = new int[elevators.length];
+        this.assignedStops = new int[elevators.length * (first.getHighestStorey() - first.getLowestStorey() + 1)];
+    }
+
+    /**
+     * Makes a hall call from the specified storey.
+     * The call is ignored if any elevator in the bank already has an outstanding request for the storey,
+     * otherwise it is assigned to the elevator selected by the {@link Dispatcher}.
+     * @param storey The storey the call is made from
+     * @throws IllegalArgumentException If storey is outside of the range served by the bank
+     */
+    public void createHallCall(int storey) throws IllegalArgumentException {
+        createHallCall(storey, RequestPriority.NORMAL, ElevatorRequestManager.NO_DEADLINE);
+    }
+
+    /**
+     * Makes a hall call with a priority and a deadline from the specified storey.
+     * If an elevator already has an outstanding request for the storey, that request is escalated instead.
+     * @param storey The storey the call is made from
+     * @param priority The priority of the call
+     * @param deadline The cycle by which an elevator should arrive, or {@link ElevatorRequestManager#NO_DEADLINE}
+     * @throws IllegalArgumentException If storey is outside of the range served by the bank or priority is null
+     */
+    public void createHallCall(int storey, RequestPriority priority, long deadline) throws IllegalArgumentException {
+        if(storey < getLowestStorey() || storey > getHighestStorey())
+            throw new IllegalArgumentException("Storey outside elevator range");
+        if(priority == null)
+            throw new IllegalArgumentException("Priority must not be null");
+
+        hallCalls++;
+        if(parkingPolicy != null)
+            parkingPolicy.recordCall(storey, elevators[0].getCurrentCycle());
+        for(int i = 0; i < elevatorRequestManagers.length; i++) {
+            if(elevatorRequestManagers[i].isRequestPending(storey)) {
+                duplicateHallCalls++;
+                notifyHallCallListeners(storey, i);
+                elevatorRequestManagers[i].createElevatorRequest(storey, priority, deadline);
+                return;
+            }
+        }
+
+        // Listeners are notified first so that the call precedes any transition it causes
+        var elevatorIndex = dispatcher.selectElevator(this, storey);
+        notifyHallCallListeners(storey, elevatorIndex);
+        elevatorRequestManagers[elevatorIndex].createElevatorRequest(storey, priority, deadline);
+    }
+
+    /**
+     * Cancels the outstanding hall call from the specified storey.
+     * Passengers already waiting at the storey keep waiting, and are picked up by the next car to stop there.
+     * A car still stopping at the storey for a passenger, whether riding to it or assigned to board or alight there,
+     * keeps its request.
+     * @param storey The storey the call was made from
+     * @return True if a call was cancelled
+     * @throws IllegalArgumentException If storey is outside of the range served by the bank
+     */
+    public boolean cancelHallCall(int storey) throws IllegalArgumentException {
+        if(storey < getLowestStorey() || storey > getHighestStorey())
+            throw new IllegalArgumentException("Storey outside elevator range");
+
+        var cancelled = false;
+        for(int i = 0; i < elevatorRequestManagers.length; i++) {
+            if(!passengerQueues.isRidingTo(i, storey) && assignedStops[getStopIndex(i, storey)] == 0)
+                cancelled |= elevatorRequestManagers[i].cancelElevatorRequest(storey);
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * Makes a passenger arrive at the specified storey and make a hall call to travel to another.
+     * If a car with room is already holding at the storey, the passenger boards it without making a call.
+     * With a {@link DestinationDispatcher} set, the passenger instead waits to be assigned a car.
+     * @param origin The storey the passenger arrives at
+     * @param destination The storey the passenger wants to travel to
+     * @throws IllegalArgumentException If either storey is outside of the range served by the bank, or they are equal
+     */
+    public void createPassenger(int origin, int destination) throws IllegalArgumentException {
+        createPassenger(origin, destination, NO_TAG);
+    }
+
+    /**
+     * Makes a tagged passenger arrive at the specified storey, as {@link #createPassenger(int, int)} does.
+     * The tag is passed to every {@link PassengerListener} once the passenger reaches their destination.
+     * @param origin The storey the passenger arrives at
+     * @param destination The storey the passenger wants to travel to
+     * @param tag The tag of the passenger
+     * @throws IllegalArgumentException If either storey is outside of the range served by the bank, or they are equal
+     */
+    public void createPassenger(int origin, int destination, int tag) throws IllegalArgumentException {
+        if(origin < getLowestStorey() || origin > getHighestStorey() || destination < getLowestStorey() || destination > getHighestStorey())
+            throw new IllegalArgumentException("Storey outside elevator range");
+        if(origin == destination)
+            throw new IllegalArgumentException("Origin and destination must differ");
+
+        if(destinationDispatcher != null) {
+            createDestinationCall(origin, destination, tag);
+            return;
+        }
+
+        // The passenger must be waiting before the call, which may make an idle car hold at the origin at once
+        passengerQueues.addWaiting(origin, destination, elevators[0].getCurrentCycle(), PassengerQueues.NONE, tag);
+        for(int i = 0; i < elevators.length; i++) {
+            var elevator = elevators[i];
+            if(elevator.getCurrentAction() == ElevatorAction.HOLD && elevator.getCurrentStorey() == origin && !elevator.isFull()) {
+                exchangePassengers(i, origin, elevator.getCurrentCycle());
+                return;
+            }
+        }
+
+        createHallCall(origin);
+    }
+
+    /**
+     * Gets the {@link DestinationDispatcher} assigning passengers to cars.
+     * @return The destination dispatcher, or null if passengers make plain hall calls
+     */
+    public DestinationDispatcher getDestinationDispatcher() {
+        return destinationDispatcher;
+    }
+
+    /**
+     * Sets the {@link DestinationDispatcher} assigning subsequent passengers to cars.
+     * Calls collected by the previous dispatcher are assigned at once.
+     * @param destinationDispatcher The destination dispatcher, or null to make plain hall calls
+     */
+    public void setDestinationDispatcher(DestinationDispatcher destinationDispatcher) {
+        if(pendingCalls > 0) {
+            nextAssignmentCycle = elevators[0].getCurrentCycle();
+            assignDestinationCalls();
+        }
+
+        this.destinationDispatcher = destinationDispatcher;
+    }
+
+    /**
+     * Gets the {@link ParkingPolicy} sending idle elevators to park.
+     * @return The parking policy, or null if idle elevators stay where they stopped
+     */
+    public ParkingPolicy getParkingPolicy() {
+        return parkingPolicy;
+    }
+
+    /**
+     * Sets the {@link ParkingPolicy} sending idle elevators to park. Elevators that are already idle are parked at once.
+     * @param parkingPolicy The parking policy, or null to leave idle elevators where they stopped
+     * @throws IllegalArgumentException If the policy covers different storeys than the bank
+     */
+    public void setParkingPolicy(ParkingPolicy parkingPolicy) throws IllegalArgumentException {
+        if(parkingPolicy != null && (parkingPolicy.getLowestStorey() != getLowestStorey() || parkingPolicy.getHighestStorey() != getHighestStorey()))
+            throw new IllegalArgumentException("The parking policy must cover the storeys of the bank");
+
+        this.parkingPolicy = parkingPolicy;
+        for(int i = 0; i < elevators.length; i++)
+            park(i);
+    }
+
+    /**
+     * Gets the cycle at which the destination calls collected so far will be assigned.
+     * @return The cycle, or {@link #NO_ASSIGNMENT} if no calls are waiting
+     */
+    public long getNextAssignmentCycle() {
+        return nextAssignmentCycle;
+    }
+
+    /**
+     * Assigns the destination calls collected so far to cars if their assignment window has ended.
+     * Calls are assigned grouped by origin and then destination, so passengers sharing a trip are assigned in turn.
+     */
+    public void assignDestinationCalls() {
+        var cycle = elevators[0].getCurrentCycle();
+        if(cycle < nextAssignmentCycle)
+            return;
+
+        sortPendingCalls();
+        var count = pendingCalls;
+        pendingCalls = 0;
+        nextAssignmentCycle = NO_ASSIGNMENT;
+
+        for(int i = 0; i < count; i++) {
+            var origin = pendingOrigins[i];
+            var destination = pendingDestinations[i];
+            var index = destinationDispatcher.selectElevator(this, origin, destination);
+            passengerQueues.addWaiting(origin, destination, pendingArrivalCycles[i], index, pendingTags[i]);
+            assignedPassengers[index]++;
+            assignedStops[getStopIndex(index, origin)]++;
+            assignedStops[getStopIndex(index, destination)]++;
+            notifyHallCallListeners(origin, index);
+
+            var elevator = elevators[index];
+            if(elevator.getCurrentAction() == ElevatorAction.HOLD && elevator.getCurrentStorey() == origin)
+                exchangePassengers(index, origin, cycle);
+            else if(!elevatorRequestManagers[index].isRequestPending(origin))
+                elevatorRequestManagers[index].createElevatorRequest(origin);
+        }
+    }
+
+    /**
+     * Gets the number of passengers assigned to the elevator at the specified index by destination dispatch who
+     * have not yet alighted.
+     * @param index The index of the elevator
+     * @return The number of assigned passengers
+     */
+    public int getAssignedPassengers(int index) {
+        return assignedPassengers[index];
+    }
+
+    /**
+     * Checks whether the elevator at the specified index has to stop at the specified storey to pick up or drop off
+     * a passenger assigned by destination dispatch.
+     * @param index The index of the elevator
+     * @param storey The storey
+     * @return True if the stop is assigned
+     */
+    public boolean isStopAssigned(int index, int storey) {
+        return assignedStops[getStopIndex(index, storey)] > 0;
+    }
+
+    /**
+     * Registers a listener to be notified of every hall call made to this bank, including duplicate calls.
+     * @param listener The listener to register
+     */
+    public void registerHallCallListener(HallCallListener listener) {
+        hallCallListeners = Arrays.copyOf(hallCallListeners, hallCallListeners.length + 1);
+        hallCallListeners[hallCallListeners.length - 1] = listener;
+    }
+
+    /**
+     * Unregisters a previously registered hall call listener.
+     * @param listener The listener to unregister
+     * @return True if the listener was registered
+     */
+    public boolean unregisterHallCallListener(HallCallListener listener) {
+        for(int i = 0; i < hallCallListeners.length; i++) {
+            if(hallCallListeners[i] == listener) {
+                var newListeners = new HallCallListener[hallCallListeners.length - 1];
+                System.arraycopy(hallCallListeners, 0, newListeners, 0, i);
+                System.arraycopy(hallCallListeners, i + 1, newListeners, i, newListeners.length - i);
+                hallCallListeners = newListeners;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Registers a listener to be notified of every passenger reaching their destination.
+     * @param listener The listener to register
+     */
+    public void registerPassengerListener(PassengerListener listener) {
+        passengerListeners = Arrays.copyOf(passengerListeners, passengerListeners.length + 1);
+        passengerListeners[passengerListeners.length - 1] = listener;
+    }
+
+    /**
+     * Gets the {@link Dispatcher} currently assigning hall calls.
+     * @return The dispatcher
+     */
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Sets the {@link Dispatcher} that assigns subsequent hall calls.
+     * @param dispatcher The dispatcher
+     */
+    public void setDispatcher(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Sets the {@link SchedulingPolicy} of every elevator in this bank.
+     * @param schedulingPolicy The scheduling policy
+     */
+    public void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        for(var manager : elevatorRequestManagers)
+            manager.setSchedulingPolicy(schedulingPolicy);
+    }
+
+    /**
+     * Gets the number of elevators in this bank.
+     * @return The number of elevators
+     */
+    public int getElevatorCount() {
+        return elevators.length;
+    }
+
+    /**
+     * Gets the elevator at the specified index.
+     * @param index The index of the elevator
+     * @return The elevator
+     */
+    public Elevator getElevator(int index) {
+        return elevators[index];
+    }
+
+    /**
+     * Gets all elevators in this bank.
+     * @return A copy of the elevator array
+     */
+    public Elevator[] getElevators() {
+        return elevators.clone();
+    }
+
+    /**
+     * Gets the {@link ElevatorRequestManager} of the elevator at the specified index.
+     * @param index The index of the elevator
+     * @return The request manager
+     */
+    public ElevatorRequestManager getElevatorRequestManager(int index) {
+        return elevatorRequestManagers[index];
+    }
+
+    /**
+     * Gets the lowest storey served by this bank.
+     * @return The lowest storey
+     */
+    public int getLowestStorey() {
+        return elevators[0].getLowestStorey();
+    }
+
+    /**
+     * Gets the highest storey served by this bank.
+     * @return The highest storey
+     */
+    public int getHighestStorey() {
+        return elevators[0].getHighestStorey();
+    }
+
+    /**
+     * Gets the number of requests queued up across all elevators.
+     * @return The number of requests
+     */
+    public int getElevatorRequestsSize() {
+        var size = 0;
+        for(var manager : elevatorRequestManagers)
+            size += manager.getElevatorRequestsSize();
+
+        return size;
+    }
+
+    /**
+     * Gets the number of hall calls made to this bank, including duplicate calls.
+     * @return The number of hall calls
+     */
+    public long getHallCalls() {
+        return hallCalls;
+    }
+
+    /**
+     * Gets the number of hall calls that were ignored because an elevator was already serving the storey.
+     * @return The number of duplicate hall calls
+     */
+    public long getDuplicateHallCalls() {
+        return duplicateHallCalls;
+    }
+
+    /**
+     * Gets the number of passengers waiting at any storey, including those not yet assigned a car.
+     * @return The number of waiting passengers
+     */
+    public int getWaitingPassengers() {
+        return passengerQueues.getWaitingCount() + pendingCalls;
+    }
+
+    /**
+     * Gets the number of passengers riding in any elevator.
+     * @return The number of riding passengers
+     */
+    public int getRidingPassengers() {
+        return passengerQueues.getRidingCount();
+    }
+
+    /**
+     * Gets the number of passengers that have reached their destination.
+     * @return The number of delivered passengers
+     */
+    public long getDeliveredPassengers() {
+        return deliveredPassengers;
+    }
+
+    /**
+     * Checks whether every elevator in this bank is full.
+     * Dispatchers pass over full elevators unless this is the case.
+     * @return True if no elevator has room for another passenger
+     */
+    public boolean isEveryElevatorFull() {
+        for(var elevator : elevators) {
+            if(!elevator.isFull())
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the number of requests served across all elevators.
+     * @return The number of served requests
+     */
+    public long getServedRequests() {
+        long served = 0;
+        for(var manager : elevatorRequestManagers)
+            served += manager.getServedRequests();
+
+        return served;
+    }
+
+    /**
+     * Gets the number of requests served after their deadline across all elevators.
+     * @return The number of missed deadlines
+     */
+    public long getMissedDeadlines() {
+        long missed = 0;
+        for(var manager : elevatorRequestManagers)
+            missed += manager.getMissedDeadlines();
+
+        return missed;
+    }
+
+    /**
+     * Gets the average number of cycles served requests waited for an elevator to arrive.
+     * @return The average wait in cycles, or 0 if no request has been served
+     */
+    public double getAverageWaitCycles() {
+        long totalWaitCycles = 0;
+        for(var manager : elevatorRequestManagers)
+            totalWaitCycles += manager.getTotalWaitCycles();
+
+        var served = getServedRequests();
+        return served == 0 ? 0 : (double) totalWaitCycles / served;
+    }
+
+    /**
+     * Gets the histogram of cycles between the creation of a request and the arrival of an elevator,
+     * across all elevators in this bank.
+     * @return The wait time histogram
+     */
+    public LatencyHistogram getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    /**
+     * Gets the histogram of cycles between an elevator being sent towards a requested storey and its arrival,
+     * across all elevators in this bank.
+     * @return The service time histogram
+     */
+    public LatencyHistogram getServiceHistogram() {
+        return serviceHistogram;
+    }
+
+    /**
+     * Gets the histogram of cycles between a passenger arriving and boarding an elevator.
+     * @return The passenger wait time histogram
+     */
+    public LatencyHistogram getPassengerWaitHistogram() {
+        return passengerWaitHistogram;
+    }
+
+    /**
+     * Gets the histogram of cycles between a passenger arriving and alighting at their destination.
+     * @return The journey time histogram
+     */
+    public LatencyHistogram getJourneyHistogram() {
+        return journeyHistogram;
+    }
+
+    /**
+     * Gets the energy drawn by every elevator in this bank, less any energy recovered.
+     * @return The energy in kilowatt hours
+     * @see Elevator#getEnergyConsumption()
+     */
+    public double getEnergyConsumption() {
+        double energy = 0;
+        for(var elevator : elevators)
+            energy += elevator.getEnergyConsumption();
+
+        return energy;
+    }
+
+    /**
+     * Gets the number of requests served per cycle since the elevators were created.
+     * @return The throughput in requests per cycle, or 0 if no cycles have passed
+     */
+    public double getThroughput() {
+        var cycles = elevators[0].getCurrentCycle();
+        return cycles == 0 ? 0 : (double) getServedRequests() / cycles;
+    }
+
+    /**
+     * Gets the number of bytes written by {@link #saveState(ByteBuffer)}.
+     * @return The number of bytes
+     */
+    public int getStateSize() {
+        var size = 3 * Integer.BYTES + waitHistogram.getStateSize() + serviceHistogram.getStateSize()
+                + 3 * Long.BYTES + passengerWaitHistogram.getStateSize() + journeyHistogram.getStateSize()
+                + passengerQueues.getStateSize()
+                + (1 + assignedPassengers.length + assignedStops.length) * Integer.BYTES + Long.BYTES
+                + pendingCalls * (3 * Integer.BYTES + Long.BYTES)
+                + 1 + (parkingPolicy != null ? parkingPolicy.getStateSize() : 0);
+        for(var manager : elevatorRequestManagers)
+            size += Elevator.STATE_SIZE + manager.getStateSize();
+
+        return size;
+    }
+
+    /**
+     * Writes the state of every elevator and request manager in this bank, along with the aggregated statistics and
+     * the calls learned by the {@link ParkingPolicy}, if one is set.
+     * The {@link Dispatcher}, scheduling policies and listeners are not included.
+     * @param buffer The buffer to write to
+     */
+    public void saveState(ByteBuffer buffer) {
+        buffer.putInt(getLowestStorey());
+        buffer.putInt(getHighestStorey());
+        buffer.putInt(elevators.length);
+        for(int i = 0; i < elevators.length; i++) {
+            elevators[i].saveState(buffer);
+            elevatorRequestManagers[i].saveState(buffer);
+        }
+        waitHistogram.saveState(buffer);
+        serviceHistogram.saveState(buffer);
+        buffer.putLong(hallCalls);
+        buffer.putLong(duplicateHallCalls);
+        buffer.putLong(deliveredPassengers);
+        passengerWaitHistogram.saveState(buffer);
+        journeyHistogram.saveState(buffer);
+        passengerQueues.saveState(buffer);
+        for(var assigned : assignedPassengers)
+            buffer.putInt(assigned);
+        for(var assigned : assignedStops)
+            buffer.putInt(assigned);
+        buffer.putLong(nextAssignmentCycle);
+        buffer.putInt(pendingCalls);
+        for(int i = 0; i < pendingCalls; i++) {
+            buffer.putInt(pendingOrigins[i]);
+            buffer.putInt(pendingDestinations[i]);
+            buffer.putLong(pendingArrivalCycles[i]);
+            buffer.putInt(pendingTags[i]);
+        }
+        buffer.put((byte) (parkingPolicy != null ? 1 : 0));
+        if(parkingPolicy != null)
+            parkingPolicy.saveState(buffer);
+    }
+
+    /**
+     * Replaces the state of this bank with one written by {@link #saveState(ByteBuffer)}.
+     * The learned calls of a saved {@link ParkingPolicy} are restored into the policy of this bank, or skipped if this
+     * bank has none. A policy set on this bank keeps its calls if none were saved.
+     * @param buffer The buffer to read from
+     * @throws IllegalArgumentException If the state was written by a bank with different storeys or elevator count
+     */
+    public void restoreState(ByteBuffer buffer) throws IllegalArgumentException {
+        if(buffer.getInt() != getLowestStorey() || buffer.getInt() != getHighestStorey() || buffer.getInt() != elevators.length)
+            throw new IllegalArgumentException("The state was saved from a bank with different storeys or elevators");
+
+        for(int i = 0; i < elevators.length; i++) {
+            elevators[i].restoreState(buffer);
+            elevatorRequestManagers[i].restoreState(buffer);
+        }
+        waitHistogram.restoreState(buffer);
+        serviceHistogram.restoreState(buffer);
+        hallCalls = buffer.getLong();
+        duplicateHallCalls = buffer.getLong();
+        deliveredPassengers = buffer.getLong();
+        passengerWaitHistogram.restoreState(buffer);
+        journeyHistogram.restoreState(buffer);
+        passengerQueues.restoreState(buffer);
+        for(int i = 0; i < assignedPassengers.length; i++)
+            assignedPassengers[i] = buffer.getInt();
+        for(int i = 0; i < assignedStops.length; i++)
+            assignedStops[i] = buffer.getInt();
+        nextAssignmentCycle = buffer.getLong();
+        var count = buffer.getInt();
+        pendingCalls = 0;
+        for(int i = 0; i < count; i++)
+            addPendingCall(buffer.getInt(), buffer.getInt(), buffer.getLong(), buffer.getInt());
+        if(buffer.get() != 0) {
+            if(parkingPolicy != null)
+                parkingPolicy.restoreState(buffer);
+            else
+                ParkingPolicy.skipState(buffer);
+        }
+    }
+
+    @Override
+    public void onRequestServed(int storey, long creationCycle, long dispatchCycle, long serviceCycle) {
+        waitHistogram.record(serviceCycle - creationCycle);
+        serviceHistogram.record(serviceCycle - dispatchCycle);
+    }
+
+    private void onElevatorTransition(int index, ElevatorAction newAction, int storey, long cycle) {
+        if(newAction == ElevatorAction.IDLE)
+            park(index);
+        if(passengerQueues.isEmpty())
+            return;
+
+        if(newAction == ElevatorAction.HOLD) {
+            exchangePassengers(index, storey, cycle);
+        } else if(newAction != ElevatorAction.IDLE && passengerQueues.getWaitingCount(storey) > 0) {
+            // Passengers left behind by a full car call again as it departs, or wait for their assigned car to return
+            if(passengerQueues.isWaitingFor(storey, index)) {
+                if(!elevatorRequestManagers[index].isRequestPending(storey))
+                    elevatorRequestManagers[index].createElevatorRequest(storey);
+            } else if(passengerQueues.isWaitingFor(storey, PassengerQueues.NONE) && !isHallCallPending(storey)) {
+                createHallCall(storey);
+            }
+        }
+    }
+
+    /**
+     * Sends the elevator at the specified index to the storey selected by the parking policy, if it is idle and has
+     * no requests or assigned passengers.
+     */
+    private void park(int index) {
+        var elevator = elevators[index];
+        if(parkingPolicy == null || elevator.getCurrentAction() != ElevatorAction.IDLE
+                || elevatorRequestManagers[index].hasRequests() || assignedPassengers[index] > 0)
+            return;
+
+        var storey = parkingPolicy.selectParkingStorey(this, index);
+        if(storey != ParkingPolicy.NONE && storey != elevator.getCurrentStorey())
+            elevator.setTargetStorey(storey);
+    }
+
+    /**
+     * Lets passengers alight from and board the car holding at the specified storey, extending its hold accordingly.
+     */
+    private void exchangePassengers(int index, int storey, long cycle) {
+        var elevator = elevators[index];
+        var movedPassengers = 0;
+
+        for(var passenger = passengerQueues.alight(index, storey); passenger != PassengerQueues.NONE;
+                passenger = passengerQueues.alight(index, storey)) {
+            journeyHistogram.record(cycle - passengerQueues.getArrivalCycle(passenger));
+            deliveredPassengers++;
+            for(var listener : passengerListeners) {
+                listener.onPassengerDelivered(passengerQueues.getTag(passenger), passengerQueues.getOrigin(passenger),
+                        storey, passengerQueues.getArrivalCycle(passenger), cycle);
+            }
+            if(passengerQueues.getAssignedCar(passenger) == index) {
+                assignedPassengers[index]--;
+                assignedStops[getStopIndex(index, storey)]--;
+            }
+            passengerQueues.release(passenger);
+            movedPassengers++;
+        }
+
+        while(passengerQueues.getRidingCount(index) < elevator.getCapacity()) {
+            var passenger = passengerQueues.board(index, storey, cycle);
+            if(passenger == PassengerQueues.NONE)
+                break;
+
+            passengerWaitHistogram.record(cycle - passengerQueues.getArrivalCycle(passenger));
+            if(passengerQueues.getAssignedCar(passenger) == index)
+                assignedStops[getStopIndex(index, storey)]--;
+            elevatorRequestManagers[index].createElevatorRequest(passengerQueues.getDestination(passenger));
+            movedPassengers++;
+        }
+
+        elevator.setLoad(passengerQueues.getRidingCount(index));
+        if(movedPassengers > 0)
+            elevator.extendHold(movedPassengers * elevator.getCyclesPerPassenger());
+    }
+
+    private void createDestinationCall(int origin, int destination, int tag) {
+        hallCalls++;
+        var cycle = elevators[0].getCurrentCycle();
+        if(parkingPolicy != null)
+            parkingPolicy.recordCall(origin, cycle);
+        if(pendingCalls == 0)
+            nextAssignmentCycle = cycle + destinationDispatcher.getAssignmentWindow();
+
+        addPendingCall(origin, destination, cycle, tag);
+        assignDestinationCalls();
+    }
+
+    private void addPendingCall(int origin, int destination, long arrivalCycle, int tag) {
+        if(pendingCalls == pendingOrigins.length) {
+            pendingOrigins = Arrays.copyOf(pendingOrigins, pendingCalls * 2);
+            pendingDestinations = Arrays.copyOf(pendingDestinations, pendingCalls * 2);
+            pendingArrivalCycles = Arrays.copyOf(pendingArrivalCycles, pendingCalls * 2);
+            pendingTags = Arrays.copyOf(pendingTags, pendingCalls * 2);
+        }
+
+        pendingOrigins[pendingCalls] = origin;
+        pendingDestinations[pendingCalls] = destination;
+        pendingArrivalCycles[pendingCalls] = arrivalCycle;
+        pendingTags[pendingCalls] = tag;
+        pendingCalls++;
+    }
+
+    /**
+     * Sorts the pending destination calls by origin and then destination, keeping arrival order otherwise.
+     * Windows hold only a handful of calls, so an insertion sort is used.
+     */
+    private void sortPendingCalls() {
+        for(int i = 1; i < pendingCalls; i++) {
+            var origin = pendingOrigins[i];
+            var destination = pendingDestinations[i];
+            var arrivalCycle = pendingArrivalCycles[i];
+            var tag = pendingTags[i];
+            var j = i - 1;
+            while(j >= 0 && (pendingOrigins[j] > origin || (pendingOrigins[j] == origin && pendingDestinations[j] > destination))) {
+                pendingOrigins[j + 1] = pendingOrigins[j];
+                pendingDestinations[j + 1] = pendingDestinations[j];
+                pendingArrivalCycles[j + 1] = pendingArrivalCycles[j];
+                pendingTags[j + 1] = pendingTags[j];
+                j--;
+            }
+
+            pendingOrigins[j + 1] = origin;
+            pendingDestinations[j + 1] = destination;
+            pendingArrivalCycles[j + 1] = arrivalCycle;
+            pendingTags[j + 1] = tag;
+        }
+    }
+
+    private int getStopIndex(int index, int storey) {
+        return index * (getHighestStorey() - getLowestStorey() + 1) + storey - getLowestStorey();
+    }
+
+    private boolean isHallCallPending(int storey) {
+        for(var manager : elevatorRequestManagers) {
+            if(manager.isRequestPending(storey))
+                return true;
+        }
+
+        return false;
+    }
+
+    private void notifyHallCallListeners(int storey, int elevatorIndex) {
+        var cycle = elevators[0].getCurrentCycle();
+        for(var listener : hallCallListeners)
+            listener.onHallCall(storey, elevatorIndex, cycle);
+    }
+
+    private static ElevatorRequestManager[] createManagers(int lowestStorey, int highestStorey, int elevatorCount) {
+        if(elevatorCount < 1)
+            throw new IllegalArgumentException("At least one elevator is required");
+
+        var fleet = new ElevatorFleet(lowestStorey, highestStorey, elevatorCount);
+        var managers = new ElevatorRequestManager[elevatorCount];
+        for(int i = 0; i < elevatorCount; i++)
+            managers[i] = new ElevatorRequestManager(fleet.getElevator(i));
+
+        return managers;
+    }
+}
@@ -0,0 +1,511 @@
+package knc.simulator.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An {@link ElevatorFleet} stores the state of many elevators in parallel primitive arrays rather than one object
+ * per elevator, so that {@link #update()} can progress thousands of cars in a single tight loop.
+ * Every car serves the same range of storeys and is accessed through an {@link Elevator} view returned by
+ * {@link #getElevator(int)}, which behaves exactly like a standalone {@link Elevator}.
+ * Updating the fleet is identical to updating each of its elevators in index order: a car changing
+ * {@link ElevatorAction} notifies the listeners registered on its view before the next car is progressed, so any
+ * change a listener makes to a later car already applies to that car in the same cycle.
+ * <p>
+ * Cars follow a {@link MotionProfile}: the cycles to traverse each storey of a run are worked out as the car enters
+ * it, so the update loop only compares two counters, and the energy of each storey is metered as the car leaves it.
+ */
+public class ElevatorFleet {
+    private static final int ACTION_COUNT = ElevatorAction.values().length;
+    private static final byte IDLE = (byte) ElevatorAction.IDLE.ordinal();
+    private static final byte HOLD = (byte) ElevatorAction.HOLD.ordinal();
+    private static final byte ASCENDING = (byte) ElevatorAction.ASCENDING.ordinal();
+    private static final byte DESCENDING = (byte) ElevatorAction.DESCENDING.ordinal();
+    private static final ElevatorAction[] ACTIONS = ElevatorAction.values();
+
+    /**
+     * The number of bytes written for each car by {@link Elevator#saveState(ByteBuffer)}.
+     */
+    static final int STATE_SIZE = 1 + 12 * Integer.BYTES + (2 + ACTION_COUNT) * Long.BYTES;
+
+    private final int lowestStorey;
+    private final int highestStorey;
+    private final int size;
+    private final Elevator[] elevators;
+    private final byte[] actions;
+    private final int[] currentStoreys;
+    private final int[] targetStoreys;
+    private final int[] cyclesToHold;
+    private final int[] holdDurations;
+    private final int[] currentHoldCycles;
+    private final int[] cyclesToTraverseStorey;
+    private final int[] accelerationCycles;
+    private final int[] runStartStoreys;
+    private final int[] storeyCycles;
+    private final int[] currentTraversalCycles;
+    private final long[] currentCycles;
+    private final long[] cyclesPerAction;
+    private final int[] capacities;
+    private final int[] loads;
+    private final int[] cyclesPerPassenger;
+    private final double[] travelEnergies;
+    private final EnergyModel[] energyModels;
+
+    /**
+     * Constructs an {@link ElevatorFleet} with the specified number of elevators, all starting idle at the lowest storey.
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @param size The number of elevators in the fleet
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey or size < 1
+     */
+    public ElevatorFleet(int lowestStorey, int highestStorey, int size) throws IllegalArgumentException {
+        if(lowestStorey >= highestStorey)
+            throw new IllegalArgumentException("The highest storey must be at least one level above the lowest storey");
+        if(size < 1)
+            throw new IllegalArgumentException("At least one elevator is required");
+
+        this.lowestStorey = lowestStorey;
+        this.highestStorey = highestStorey;
+        this.size = size;
+        this.elevators = new Elevator[size];
+        this.actions = new byte[size];
+        this.currentStoreys = new int[size];
+        this.targetStoreys = new int[size];
+        this.cyclesToHold = new int[size];
+        this.holdDurations = new int[size];
+        this.currentHoldCycles = new int[size];
+        this.cyclesToTraverseStorey = new int[size];
+        this.accelerationCycles = new int[size];
+        this.runStartStoreys = new int[size];
+        this.storeyCycles = new int[size];
+        this.currentTraversalCycles = new int[size];
+        this.currentCycles = new long[size];
+        this.cyclesPerAction = new long[size * ACTION_COUNT];
+        this.capacities = new int[size];
+        this.loads = new int[size];
+        this.cyclesPerPassenger = new int[size];
+        this.travelEnergies = new double[size];
+        this.energyModels = new EnergyModel[size];
+
+        Arrays.fill(currentStoreys, lowestStorey);
+        Arrays.fill(runStartStoreys, lowestStorey);
+        Arrays.fill(cyclesToHold, 60);
+        Arrays.fill(cyclesToTraverseStorey, 60);
+        Arrays.fill(storeyCycles, 60);
+        Arrays.fill(energyModels, EnergyModel.DEFAULT);
+        Arrays.fill(capacities, 13);
+        Arrays.fill(cyclesPerPassenger, 60);
+    }
+
+    /**
+     * Gets the lowest storey the elevators of this {@link ElevatorFleet} can travel to.
+     * @return The lowest storey
+     */
+    public int getLowestStorey() {
+        return lowestStorey;
+    }
+
+    /**
+     * Gets the highest storey the elevators of this {@link ElevatorFleet} can travel to.
+     * @return The highest storey
+     */
+    public int getHighestStorey() {
+        return highestStorey;
+    }
+
+    /**
+     * Gets the number of elevators in this {@link ElevatorFleet}.
+     * @return The number of elevators
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the {@link Elevator} view of the car at the specified index.
+     * The same view is returned every time.
+     * @param index The index of the car
+     * @return The elevator
+     */
+    public Elevator getElevator(int index) {
+        var elevator = elevators[index];
+        return elevator != null ? elevator : new Elevator(this, index);
+    }
+
+    /**
+     * Gets the {@link Elevator} views of every car in this {@link ElevatorFleet}.
+     * @return The elevators, in index order
+     */
+    public Elevator[] getElevators() {
+        var result = new Elevator[size];
+        for(int i = 0; i < size; i++)
+            result[i] = getElevator(i);
+
+        return result;
+    }
+
+    /**
+     * Progresses every elevator of this {@link ElevatorFleet} by one cycle, in index order.
+     * Any car reaching a storey or finishing its hold changes {@link ElevatorAction} and notifies its listeners
+     * before the next car is progressed.
+     */
+    public void update() {
+        for(int i = 0; i < size; i++)
+            update(i);
+    }
+
+    /**
+     * Progresses every elevator of this {@link ElevatorFleet} by the specified number of cycles.
+     * The result is identical to calling {@link #update()} the same number of times, but the fleet jumps directly
+     * to the cycle of the next state change of any car, which is then updated car by car.
+     * @param cycles The number of cycles to progress
+     */
+    public void advance(long cycles) {
+        while(cycles > 0) {
+            var cyclesUntilTransition = getCyclesUntilNextTransition();
+
+            if(cycles < cyclesUntilTransition) {
+                for(int i = 0; i < size; i++)
+                    skip(i, cycles);
+                return;
+            }
+
+            // No car changes before the last cycle, which may notify listeners that change the cars after it
+            for(int i = 0; i < size; i++)
+                skip(i, cyclesUntilTransition - 1);
+            update();
+            cycles -= cyclesUntilTransition;
+        }
+    }
+
+    /**
+     * Gets the lowest number of cycles before any elevator of this {@link ElevatorFleet} changes {@link ElevatorAction}.
+     * @return The number of cycles, or {@link Elevator#NO_TRANSITION} if every elevator is idle
+     */
+    public long getCyclesUntilNextTransition() {
+        var cycles = Elevator.NO_TRANSITION;
+        for(int i = 0; i < size; i++)
+            cycles = Math.min(cycles, getCyclesUntilNextTransition(i));
+
+        return cycles;
+    }
+
+    void attach(Elevator elevator, int index) {
+        elevators[index] = elevator;
+    }
+
+    ElevatorAction getCurrentAction(int index) {
+        return ACTIONS[actions[index]];
+    }
+
+    int getCurrentStorey(int index) {
+        return currentStoreys[index];
+    }
+
+    void setCurrentStorey(int index, int storey) {
+        currentStoreys[index] = storey;
+        runStartStoreys[index] = storey;
+    }
+
+    int getTargetStorey(int index) {
+        return targetStoreys[index];
+    }
+
+    int getCyclesToHold(int index) {
+        return cyclesToHold[index];
+    }
+
+    void setCyclesToHold(int index, int cycles) {
+        // A hold in progress is lengthened or shortened by the same amount
+        if(actions[index] == HOLD)
+            holdDurations[index] += cycles - cyclesToHold[index];
+        cyclesToHold[index] = cycles;
+    }
+
+    int getHoldDuration(int index) {
+        return holdDurations[index];
+    }
+
+    void extendHold(int index, int cycles) {
+        holdDurations[index] += cycles;
+    }
+
+    int getCurrentHoldCycles(int index) {
+        return currentHoldCycles[index];
+    }
+
+    int getCyclesToTraverseStorey(int index) {
+        return cyclesToTraverseStorey[index];
+    }
+
+    void setCyclesToTraverseStorey(int index, int cycles) {
+        cyclesToTraverseStorey[index] = cycles;
+        updateStoreyCycles(index);
+    }
+
+    int getAccelerationCycles(int index) {
+        return accelerationCycles[index];
+    }
+
+    void setAccelerationCycles(int index, int cycles) {
+        accelerationCycles[index] = cycles;
+        updateStoreyCycles(index);
+    }
+
+    int getStoreyCycles(int index) {
+        return storeyCycles[index];
+    }
+
+    int getRunStartStorey(int index) {
+        return runStartStoreys[index];
+    }
+
+    int getCurrentTraversalCycles(int index) {
+        return currentTraversalCycles[index];
+    }
+
+    int getCapacity(int index) {
+        return capacities[index];
+    }
+
+    void setCapacity(int index, int capacity) {
+        capacities[index] = capacity;
+    }
+
+    int getLoad(int index) {
+        return loads[index];
+    }
+
+    void setLoad(int index, int load) {
+        loads[index] = load;
+    }
+
+    int getCyclesPerPassenger(int index) {
+        return cyclesPerPassenger[index];
+    }
+
+    void setCyclesPerPassenger(int index, int cycles) {
+        cyclesPerPassenger[index] = cycles;
+    }
+
+    EnergyModel getEnergyModel(int index) {
+        return energyModels[index];
+    }
+
+    void setEnergyModel(int index, EnergyModel energyModel) {
+        energyModels[index] = energyModel;
+    }
+
+    double getTravelEnergy(int index) {
+        return travelEnergies[index];
+    }
+
+    long getCurrentCycle(int index) {
+        return currentCycles[index];
+    }
+
+    long getCyclesInAction(int index, ElevatorAction action) {
+        return cyclesPerAction[index * ACTION_COUNT + action.ordinal()];
+    }
+
+    void setTargetStorey(int index, int targetStorey) {
+        targetStoreys[index] = targetStorey;
+        var previousAction = actions[index];
+        var action = targetStorey > currentStoreys[index] ? ASCENDING : DESCENDING;
+
+        if(targetStorey != currentStoreys[index]) {
+            // A new run starts from rest, while a car already moving the same way carries on with its current run
+            if(previousAction != action)
+                runStartStoreys[index] = currentStoreys[index];
+            actions[index] = action;
+            updateStoreyCycles(index);
+            notifyListeners(index, previousAction);
+        } else {
+            startHold(index);
+        }
+    }
+
+    void update(int index) {
+        currentCycles[index]++;
+        cyclesPerAction[index * ACTION_COUNT + actions[index]]++;
+
+        var action = actions[index];
+        if(action == HOLD) {
+            if(++currentHoldCycles[index] >= holdDurations[index])
+                exitHold(index);
+        } else if(action != IDLE) {
+            if(++currentTraversalCycles[index] >= storeyCycles[index])
+                storeyChanged(index);
+        }
+    }
+
+    void advance(int index, long cycles) {
+        while(cycles > 0) {
+            var cyclesUntilTransition = getCyclesUntilNextTransition(index);
+
+            if(cycles < cyclesUntilTransition) {
+                skip(index, cycles);
+                return;
+            }
+
+            skip(index, cyclesUntilTransition - 1);
+            update(index);
+            cycles -= cyclesUntilTransition;
+        }
+    }
+
+    long getCyclesUntilNextTransition(int index) {
+        var action = actions[index];
+        if(action == HOLD)
+            return Math.max(1, holdDurations[index] - currentHoldCycles[index]);
+        if(action == IDLE)
+            return Elevator.NO_TRANSITION;
+
+        var runStoreys = Math.abs(targetStoreys[index] - runStartStoreys[index]);
+        var nextStorey = Math.abs(currentStoreys[index] - runStartStoreys[index]) + 1;
+        return Math.max(1, storeyCycles[index] - currentTraversalCycles[index])
+                + getRunCycles(index, runStoreys, runStoreys) - getRunCycles(index, runStoreys, nextStorey);
+    }
+
+    void saveState(int index, ByteBuffer buffer) {
+        buffer.put(actions[index]);
+        buffer.putInt(currentStoreys[index]);
+        buffer.putInt(targetStoreys[index]);
+        buffer.putInt(cyclesToHold[index]);
+        buffer.putInt(holdDurations[index]);
+        buffer.putInt(currentHoldCycles[index]);
+        buffer.putInt(cyclesToTraverseStorey[index]);
+        buffer.putInt(currentTraversalCycles[index]);
+        buffer.putLong(currentCycles[index]);
+        for(int i = 0; i < ACTION_COUNT; i++)
+            buffer.putLong(cyclesPerAction[index * ACTION_COUNT + i]);
+        buffer.putInt(capacities[index]);
+        buffer.putInt(loads[index]);
+        buffer.putInt(cyclesPerPassenger[index]);
+        buffer.putInt(accelerationCycles[index]);
+        buffer.putInt(runStartStoreys[index]);
+        buffer.putDouble(travelEnergies[index]);
+    }
+
+    void restoreState(int index, ByteBuffer buffer) {
+        actions[index] = buffer.get();
+        currentStoreys[index] = buffer.getInt();
+        targetStoreys[index] = buffer.getInt();
+        cyclesToHold[index] = buffer.getInt();
+        holdDurations[index] = buffer.getInt();
+        currentHoldCycles[index] = buffer.getInt();
+        cyclesToTraverseStorey[index] = buffer.getInt();
+        currentTraversalCycles[index] = buffer.getInt();
+        currentCycles[index] = buffer.getLong();
+        for(int i = 0; i < ACTION_COUNT; i++)
+            cyclesPerAction[index * ACTION_COUNT + i] = buffer.getLong();
+        capacities[index] = buffer.getInt();
+        loads[index] = buffer.getInt();
+        cyclesPerPassenger[index] = buffer.getInt();
+        accelerationCycles[index] = buffer.getInt();
+        runStartStoreys[index] = buffer.getInt();
+        travelEnergies[index] = buffer.getDouble();
+        updateStoreyCycles(index);
+    }
+
+    /**
+     * Progresses the counters of a car by the specified number of cycles, which must be fewer than the cycles until
+     * its next transition.
+     */
+    private void skip(int index, long cycles) {
+        var action = actions[index];
+        currentCycles[index] += cycles;
+        cyclesPerAction[index * ACTION_COUNT + action] += cycles;
+
+        if(action == HOLD) {
+            currentHoldCycles[index] += (int) cycles;
+        } else if(action != IDLE) {
+            var cyclesToNextStorey = Math.max(1, storeyCycles[index] - currentTraversalCycles[index]);
+            if(cycles < cyclesToNextStorey) {
+                currentTraversalCycles[index] += (int) cycles;
+                return;
+            }
+
+            cycles -= cyclesToNextStorey;
+            var runStoreys = Math.abs(targetStoreys[index] - runStartStoreys[index]);
+            var storey = Math.abs(currentStoreys[index] - runStartStoreys[index]) + 1;
+            var reached = getRunCycles(index, runStoreys, storey);
+
+            // Find the last storey of the run reached within the remaining cycles, which is before the target
+            var low = storey;
+            var high = runStoreys - 1;
+            while(low < high) {
+                var middle = (low + high + 1) >>> 1;
+                if(getRunCycles(index, runStoreys, middle) - reached <= cycles)
+                    low = middle;
+                else
+                    high = middle - 1;
+            }
+
+            var storeysPassed = low - storey + 1;
+            meterTravel(index, storeysPassed);
+            currentStoreys[index] += action == ASCENDING ? storeysPassed : -storeysPassed;
+            currentTraversalCycles[index] = (int) (cycles - (getRunCycles(index, runStoreys, low) - reached));
+            updateStoreyCycles(index);
+        }
+    }
+
+    private void storeyChanged(int index) {
+        currentTraversalCycles[index] = 0;
+        meterTravel(index, 1);
+
+        if(actions[index] == ASCENDING)
+            currentStoreys[index]++;
+        else if(actions[index] == DESCENDING)
+            currentStoreys[index]--;
+
+        if(currentStoreys[index] == targetStoreys[index])
+            startHold(index);
+        else
+            updateStoreyCycles(index);
+    }
+
+    /**
+     * Works out the cycles to traverse the storey a moving car is in from its position within the current run.
+     */
+    private void updateStoreyCycles(int index) {
+        if(accelerationCycles[index] == 0 || (actions[index] != ASCENDING && actions[index] != DESCENDING)) {
+            storeyCycles[index] = cyclesToTraverseStorey[index];
+            return;
+        }
+
+        var runStoreys = Math.abs(targetStoreys[index] - runStartStoreys[index]);
+        var storey = Math.abs(currentStoreys[index] - runStartStoreys[index]);
+        storeyCycles[index] = (int) (getRunCycles(index, runStoreys, storey + 1) - getRunCycles(index, runStoreys, storey));
+    }
+
+    private long getRunCycles(int index, int runStoreys, int storeys) {
+        return MotionProfile.getCycles(runStoreys, storeys, cyclesToTraverseStorey[index], accelerationCycles[index]);
+    }
+
+    /**
+     * Adds the energy of travelling the specified number of storeys in the current direction with the current load.
+     */
+    private void meterTravel(int index, int storeys) {
+        travelEnergies[index] += storeys * energyModels[index].getStoreyEnergy(loads[index], capacities[index], actions[index] == ASCENDING);
+    }
+
+    private void startHold(int index) {
+        var previousAction = actions[index];
+        currentHoldCycles[index] = 0;
+        holdDurations[index] = cyclesToHold[index];
+        actions[index] = HOLD;
+        notifyListeners(index, previousAction);
+    }
+
+    private void exitHold(int index) {
+        actions[index] = IDLE;
+        notifyListeners(index, HOLD);
+    }
+
+    private void notifyListeners(int index, byte previousAction) {
+        var elevator = elevators[index];
+        if(elevator != null)
+            elevator.notifyListeners(ACTIONS[previousAction]);
+    }
+}
@@ -1,21 +1,47 @@
 package knc.simulator.model;
 
-import java.util.*;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * An {@link ElevatorRequestManager} manages requests sent to an {@link Elevator}.
- * Requests will be processed on a first-in-first-out basis.
+ * By default requests will be processed on a first-in-first-out basis,
+ * other orders can be selected through {@link #setSchedulingPolicy(SchedulingPolicy)}.
+ * Requests with a {@link RequestPriority} above normal or a deadline are urgent, and are served before any other
+ * request: the highest priority first, then the earliest deadline. A new urgent request redirects the elevator if it
+ * is more urgent than the request being served. Requests can be cancelled until the elevator arrives.
  */
-public class ElevatorRequestManager implements ElevatorActionListener {
-    private final Queue<ElevatorRequest> elevatorRequests = new LinkedBlockingQueue<>();
+public class ElevatorRequestManager implements ElevatorTransitionListener {
+    /**
+     * The deadline of a request that has none.
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final StoreyRequestQueue elevatorRequests;
+    private final UrgentRequestHeap urgentRequests;
     private final Elevator elevator;
+    private RequestListener[] requestListeners = new RequestListener[0];
+    private int activeStorey = StoreyRequestQueue.NONE;
+    private long activeCreationCycle;
+    private long activeDispatchCycle;
+    private int activePriority;
+    private long activeDeadline = NO_DEADLINE;
+    private SchedulingPolicy schedulingPolicy = SchedulingPolicy.FIFO;
+    private ElevatorAction sweepDirection = ElevatorAction.ASCENDING;
+    private long servedRequests = 0;
+    private long totalWaitCycles = 0;
+    private long missedDeadlines = 0;
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+    private final LatencyHistogram serviceHistogram = new LatencyHistogram();
+
     /**
      * Constructs a {@link ElevatorRequestManager} with an attached {@link Elevator} that can travel between the stories specified.
      */
     public ElevatorRequestManager(Elevator elevator) throws IllegalArgumentException {
         this.elevator = elevator;
-        elevator.registerListener(this);
+        this.elevatorRequests = new StoreyRequestQueue(elevator.getLowestStorey(), elevator.getHighestStorey());
+        this.urgentRequests = new UrgentRequestHeap(elevator.getLowestStorey(), elevator.getHighestStorey());
+        elevator.registerTransitionListener(this);
     }
 
     /**
@@ -25,14 +51,98 @@ public class ElevatorRequestManager implements ElevatorActionListener {
      * @throws IllegalArgumentException If target storey is outside of elevator range
      */
     public void createElevatorRequest(int targetStorey) throws IllegalArgumentException {
+        createElevatorRequest(targetStorey, RequestPriority.NORMAL, NO_DEADLINE);
+    }
+
+    /**
+     * Send a request with a priority and a deadline to this elevator manager.
+     * A duplicate request escalates the outstanding one to the higher priority and the earlier deadline.
+     * @param targetStorey The requested destination storey
+     * @param priority The priority of the request
+     * @param deadline The cycle by which the elevator should arrive, or {@link #NO_DEADLINE}
+     * @throws IllegalArgumentException If target storey is outside of elevator range or priority is null
+     */
+    public void createElevatorRequest(int targetStorey, RequestPriority priority, long deadline) throws IllegalArgumentException {
         if(targetStorey < elevator.getLowestStorey() || targetStorey > elevator.getHighestStorey())
             throw new IllegalArgumentException("Target storey outside elevator range");
+        if(priority == null)
+            throw new IllegalArgumentException("Priority must not be null");
 
-        var newRequest = new ElevatorRequest(targetStorey);
-        if(!elevatorRequests.contains(newRequest)) {
-            elevatorRequests.add(newRequest);
+        var urgent = priority != RequestPriority.NORMAL || deadline != NO_DEADLINE;
+        if(activeStorey == targetStorey) {
+            activePriority = Math.max(activePriority, priority.ordinal());
+            activeDeadline = Math.min(activeDeadline, deadline);
+            return;
+        }
+
+        var added = elevatorRequests.add(targetStorey, elevator.getCurrentCycle());
+        if(!added && !urgent)
+            return;
+        if(urgent)
+            urgentRequests.offer(targetStorey, priority.ordinal(), deadline, elevatorRequests.getCreationCycle(targetStorey));
+
+        if(activeStorey == StoreyRequestQueue.NONE)
             calculateNextTarget();
+        else if(urgent && isMoreUrgentThanActive(targetStorey))
+            redirect(targetStorey);
+        else if(!urgent && isActiveNormal() && schedulingPolicy == SchedulingPolicy.COLLECTIVE && isOnCurrentSweep(targetStorey))
+            redirect(targetStorey);
+    }
+
+    /**
+     * Cancels the outstanding request for the specified storey.
+     * If the elevator is travelling to serve it, the elevator turns towards its next request instead, or otherwise
+     * completes its move without serving anyone.
+     * @param targetStorey The storey to cancel the request for
+     * @return True if a request was cancelled
+     * @throws IllegalArgumentException If target storey is outside of elevator range
+     */
+    public boolean cancelElevatorRequest(int targetStorey) throws IllegalArgumentException {
+        if(targetStorey < elevator.getLowestStorey() || targetStorey > elevator.getHighestStorey())
+            throw new IllegalArgumentException("Target storey outside elevator range");
+
+        if(activeStorey != StoreyRequestQueue.NONE && activeStorey == targetStorey) {
+            activeStorey = StoreyRequestQueue.NONE;
+            calculateNextTarget();
+            return true;
         }
+
+        urgentRequests.remove(targetStorey);
+        return elevatorRequests.remove(targetStorey);
+    }
+
+    /**
+     * Gets the {@link SchedulingPolicy} used to pick the next request to serve.
+     * @return The scheduling policy
+     */
+    public SchedulingPolicy getSchedulingPolicy() {
+        return schedulingPolicy;
+    }
+
+    /**
+     * Sets the {@link SchedulingPolicy} used to pick the next request to serve.
+     * @param schedulingPolicy The scheduling policy
+     */
+    public void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy = schedulingPolicy;
+    }
+
+    /**
+     * Checks whether a request for the specified storey is queued or currently being served.
+     * @param targetStorey The storey to check
+     * @return True if the storey has an outstanding request
+     */
+    public boolean isRequestPending(int targetStorey) {
+        return activeStorey == targetStorey || elevatorRequests.contains(targetStorey);
+    }
+
+    /**
+     * Checks whether a request is queued or currently being served.
+     * An elevator without requests is idle, or travelling to a storey it was sent to directly, such as to park.
+     * @return True if the manager has an outstanding request
+     */
+    public boolean hasRequests() {
+        return activeStorey != StoreyRequestQueue.NONE || !elevatorRequests.isEmpty();
     }
 
     /**
@@ -43,6 +153,125 @@ public class ElevatorRequestManager implements ElevatorActionListener {
         return elevatorRequests.size();
     }
 
+    /**
+     * Gets the number of requests that have been served, i.e. the elevator has arrived and opened its doors.
+     * @return The number of served requests
+     */
+    public long getServedRequests() {
+        return servedRequests;
+    }
+
+    /**
+     * Gets the number of requests that were served after their deadline.
+     * @return The number of missed deadlines
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    /**
+     * Gets the sum of cycles that served requests waited between creation and the arrival of the elevator.
+     * @return The total wait in cycles
+     */
+    public long getTotalWaitCycles() {
+        return totalWaitCycles;
+    }
+
+    /**
+     * Gets the average number of cycles served requests waited for the elevator to arrive.
+     * @return The average wait in cycles, or 0 if no request has been served
+     */
+    public double getAverageWaitCycles() {
+        return servedRequests == 0 ? 0 : (double) totalWaitCycles / servedRequests;
+    }
+
+    /**
+     * Gets the histogram of cycles between the creation of a request and the arrival of the elevator.
+     * @return The wait time histogram
+     */
+    public LatencyHistogram getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    /**
+     * Gets the histogram of cycles between the elevator being sent towards a requested storey and its arrival.
+     * @return The service time histogram
+     */
+    public LatencyHistogram getServiceHistogram() {
+        return serviceHistogram;
+    }
+
+    /**
+     * Estimates the number of cycles until the attached {@link Elevator} could arrive at the specified storey
+     * if a request for it was appended to the queue now.
+     * The queue keeps the length of its trip up to date, so the estimate takes constant time regardless of how many
+     * requests are queued. Each queued run is charged the acceleration cycles of the elevator on top of its distance,
+     * which is exact for runs long enough to reach full speed and an overestimate for shorter ones.
+     * Urgent requests are charged in the order they were made, although they are served first.
+     * @param targetStorey The storey to estimate arrival at
+     * @return The estimated number of cycles
+     */
+    public long estimateCyclesToServe(int targetStorey) {
+        var cyclesToTraverseStorey = (long) elevator.getCyclesToTraverseStorey();
+        var cyclesToHold = elevator.getCyclesToHold();
+        var accelerationCycles = elevator.getAccelerationCycles();
+        var position = elevator.getCurrentStorey();
+        long cycles = 0;
+        long storeys = 0;
+
+        switch(elevator.getCurrentAction()) {
+            case HOLD:
+                cycles += elevator.getCurrentHoldDuration() - elevator.getCurrentHoldCycles();
+                break;
+            case ASCENDING:
+            case DESCENDING:
+                // A car travelling without a request is parking, and turns towards the first request at once
+                if(activeStorey == StoreyRequestQueue.NONE)
+                    break;
+                position = elevator.getTargetStorey();
+                cycles += elevator.getCyclesUntilNextTransition() + cyclesToHold;
+                break;
+            default:
+                break;
+        }
+
+        if(!elevatorRequests.isEmpty()) {
+            storeys += Math.abs(elevatorRequests.first() - position) + elevatorRequests.getPathLength();
+            cycles += (long) elevatorRequests.size() * (cyclesToHold + accelerationCycles);
+            position = elevatorRequests.last();
+        }
+
+        if(targetStorey != position)
+            cycles += accelerationCycles;
+
+        return cycles + (storeys + Math.abs(targetStorey - position)) * cyclesToTraverseStorey;
+    }
+
+    /**
+     * Estimates the energy the attached {@link Elevator} would draw travelling to the specified storey once it has
+     * served every queued request, carrying its current load.
+     * @param targetStorey The storey to estimate the energy of reaching
+     * @return The estimated energy in kilowatt hours, negative if energy would be recovered
+     */
+    public double estimateEnergyToServe(int targetStorey) {
+        var position = elevator.getCurrentAction() == ElevatorAction.ASCENDING || elevator.getCurrentAction() == ElevatorAction.DESCENDING
+                ? elevator.getTargetStorey() : elevator.getCurrentStorey();
+        if(!elevatorRequests.isEmpty())
+            position = elevatorRequests.last();
+
+        var storeyEnergy = elevator.getEnergyModel().getStoreyEnergy(elevator.getLoad(), elevator.getCapacity(), targetStorey > position);
+        return Math.abs(targetStorey - position) * storeyEnergy / EnergyModel.JOULES_PER_KILOWATT_HOUR;
+    }
+
+    /**
+     * Registers a listener to be notified each time a request is served by the attached {@link Elevator}.
+     * @param listener The listener to register
+     */
+    public void registerRequestListener(RequestListener listener) {
+        requestListeners = Arrays.copyOf(requestListeners, requestListeners.length + 1);
+        requestListeners[requestListeners.length - 1] = listener;
+    }
+
     /**
      * Returns the attached {@link Elevator}.
      * @return The elevator
@@ -51,14 +280,195 @@ public class ElevatorRequestManager implements ElevatorActionListener {
         return elevator;
     }
 
+    /**
+     * Gets the number of bytes written by {@link #saveState(ByteBuffer)}.
+     * @return The number of bytes
+     */
+    public int getStateSize() {
+        return elevatorRequests.getStateSize() + urgentRequests.getStateSize() + 2 * Integer.BYTES + 6 * Long.BYTES + 1
+                + waitHistogram.getStateSize() + serviceHistogram.getStateSize();
+    }
+
+    /**
+     * Writes the pending requests, the request being served and the statistics of this manager.
+     * The state of the {@link Elevator} and the {@link SchedulingPolicy} are not included.
+     * @param buffer The buffer to write to
+     */
+    public void saveState(ByteBuffer buffer) {
+        elevatorRequests.saveState(buffer);
+        urgentRequests.saveState(buffer);
+        buffer.putInt(activeStorey);
+        buffer.putLong(activeCreationCycle);
+        buffer.putLong(activeDispatchCycle);
+        buffer.putInt(activePriority);
+        buffer.putLong(activeDeadline);
+        buffer.put((byte) sweepDirection.ordinal());
+        buffer.putLong(servedRequests);
+        buffer.putLong(totalWaitCycles);
+        buffer.putLong(missedDeadlines);
+        waitHistogram.saveState(buffer);
+        serviceHistogram.saveState(buffer);
+    }
+
+    /**
+     * Replaces the state of this manager with one written by {@link #saveState(ByteBuffer)}.
+     * @param buffer The buffer to read from
+     */
+    public void restoreState(ByteBuffer buffer) {
+        elevatorRequests.restoreState(buffer);
+        urgentRequests.restoreState(buffer);
+        activeStorey = buffer.getInt();
+        activeCreationCycle = buffer.getLong();
+        activeDispatchCycle = buffer.getLong();
+        activePriority = buffer.getInt();
+        activeDeadline = buffer.getLong();
+        sweepDirection = ElevatorAction.values()[buffer.get()];
+        servedRequests = buffer.getLong();
+        totalWaitCycles = buffer.getLong();
+        missedDeadlines = buffer.getLong();
+        waitHistogram.restoreState(buffer);
+        serviceHistogram.restoreState(buffer);
+    }
+
     @Override
-    public void onChange(ElevatorAction newElevatorAction) {
-        if(newElevatorAction == ElevatorAction.IDLE)
+    public void onTransition(ElevatorAction previousAction, ElevatorAction newAction, int storey, long cycle) {
+        if(newAction == ElevatorAction.HOLD)
+            requestServed(storey, cycle);
+        else if(newAction == ElevatorAction.IDLE)
             calculateNextTarget();
+        else
+            sweepDirection = newAction;
+    }
+
+    private void requestServed(int storey, long cycle) {
+        if(activeStorey != StoreyRequestQueue.NONE && activeStorey == storey) {
+            var waitCycles = cycle - activeCreationCycle;
+            servedRequests++;
+            totalWaitCycles += waitCycles;
+            waitHistogram.record(waitCycles);
+            serviceHistogram.record(cycle - activeDispatchCycle);
+            if(cycle > activeDeadline)
+                missedDeadlines++;
+            activeStorey = StoreyRequestQueue.NONE;
+
+            for(var listener : requestListeners)
+                listener.onRequestServed(storey, activeCreationCycle, activeDispatchCycle, cycle);
+        }
     }
 
     private void calculateNextTarget() {
-        if(!elevatorRequests.isEmpty() && elevator.getCurrentAction() == ElevatorAction.IDLE)
-            elevator.setTargetStorey(elevatorRequests.remove().getTargetStorey());
+        if(!elevatorRequests.isEmpty() && (elevator.getCurrentAction() == ElevatorAction.IDLE || isParking())) {
+            if(!urgentRequests.isEmpty())
+                activate(urgentRequests.peek());
+            else if(schedulingPolicy == SchedulingPolicy.COLLECTIVE)
+                activate(nextOnSweep());
+            else
+                activate(elevatorRequests.first());
+
+            elevator.setTargetStorey(activeStorey);
+        }
+    }
+
+    /**
+     * Checks whether the elevator is moving without serving a request, having been sent somewhere directly.
+     */
+    private boolean isParking() {
+        var action = elevator.getCurrentAction();
+        return activeStorey == StoreyRequestQueue.NONE && (action == ElevatorAction.ASCENDING || action == ElevatorAction.DESCENDING);
+    }
+
+    /**
+     * Checks whether the elevator is moving and will pass the specified storey before reaching its current target.
+     */
+    private boolean isOnCurrentSweep(int storey) {
+        var currentStorey = elevator.getCurrentStorey();
+        var targetStorey = elevator.getTargetStorey();
+
+        switch(elevator.getCurrentAction()) {
+            case ASCENDING:
+                return storey > currentStorey && storey < targetStorey;
+            case DESCENDING:
+                return storey < currentStorey && storey > targetStorey;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks whether the request being served is neither prioritised nor has a deadline.
+     */
+    private boolean isActiveNormal() {
+        return activePriority == RequestPriority.NORMAL.ordinal() && activeDeadline == NO_DEADLINE;
+    }
+
+    /**
+     * Checks whether the queued urgent request for the specified storey should be served before the active request.
+     */
+    private boolean isMoreUrgentThanActive(int storey) {
+        return urgentRequests.peek() == storey && (isActiveNormal() || UrgentRequestHeap.compare(urgentRequests.getPriority(storey),
+                urgentRequests.getDeadline(storey), activePriority, activeDeadline) < 0);
+    }
+
+    /**
+     * Makes the specified queued storey the new target, returning the previous target to the queue.
+     */
+    private void redirect(int storey) {
+        var previousStorey = activeStorey;
+        var previousCreationCycle = activeCreationCycle;
+        var previousPriority = activePriority;
+        var previousDeadline = activeDeadline;
+        var previousUrgent = !isActiveNormal();
+        activate(storey);
+
+        if(previousStorey != StoreyRequestQueue.NONE) {
+            // In FIFO order the previous target was the oldest request, so it goes back to the front
+            if(schedulingPolicy == SchedulingPolicy.FIFO)
+                elevatorRequests.addFirst(previousStorey, previousCreationCycle);
+            else
+                elevatorRequests.add(previousStorey, previousCreationCycle);
+            if(previousUrgent)
+                urgentRequests.offer(previousStorey, previousPriority, previousDeadline, previousCreationCycle);
+        }
+
+        elevator.setTargetStorey(storey);
+    }
+
+    /**
+     * Moves the specified storey from the queue to the active request.
+     */
+    private void activate(int storey) {
+        activeStorey = storey;
+        activeCreationCycle = elevatorRequests.getCreationCycle(storey);
+        activeDispatchCycle = elevator.getCurrentCycle();
+        if(urgentRequests.contains(storey)) {
+            activePriority = urgentRequests.getPriority(storey);
+            activeDeadline = urgentRequests.getDeadline(storey);
+            urgentRequests.remove(storey);
+        } else {
+            activePriority = RequestPriority.NORMAL.ordinal();
+            activeDeadline = NO_DEADLINE;
+        }
+        elevatorRequests.remove(storey);
+    }
+
+    /**
+     * Finds the closest queued storey in the sweep direction, reversing the sweep if no request lies ahead.
+     */
+    private int nextOnSweep() {
+        var next = findClosestInDirection(sweepDirection);
+
+        if(next == StoreyRequestQueue.NONE) {
+            sweepDirection = sweepDirection == ElevatorAction.ASCENDING ? ElevatorAction.DESCENDING : ElevatorAction.ASCENDING;
+            next = findClosestInDirection(sweepDirection);
+        }
+
+        return next;
+    }
+
+    private int findClosestInDirection(ElevatorAction direction) {
+        if(direction == ElevatorAction.DESCENDING)
+            return elevatorRequests.closestAtOrBelow(elevator.getCurrentStorey());
+
+        return elevatorRequests.closestAtOrAbove(elevator.getCurrentStorey());
     }
 }
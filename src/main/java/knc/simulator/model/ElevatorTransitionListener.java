@@ -0,0 +1,16 @@
+package knc.simulator.model;
+
+/**
+ * An {@link ElevatorTransitionListener} is notified each time an {@link Elevator} changes {@link ElevatorAction}.
+ * Every detail of the transition is passed as arguments, so listeners never need to query the elevator.
+ */
+public interface ElevatorTransitionListener {
+    /**
+     * Called after the elevator has changed action.
+     * @param previousAction The action performed before the transition
+     * @param newAction The action performed from now on
+     * @param storey The storey the elevator is at, or last passed if moving
+     * @param cycle The elevator cycle at which the transition happened
+     */
+    void onTransition(ElevatorAction previousAction, ElevatorAction newAction, int storey, long cycle);
+}
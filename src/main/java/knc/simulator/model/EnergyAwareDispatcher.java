@@ -0,0 +1,54 @@
+package knc.simulator.model;
+
+/**
+ * An {@link EnergyAwareDispatcher} assigns each hall call to the elevator with the lowest combined cost of waiting and
+ * energy. The cost is the estimated time of arrival plus the estimated energy of reaching the calling storey,
+ * converted to cycles at a fixed exchange rate. A rate of 0 dispatches purely on time of arrival, while higher rates
+ * increasingly favour cars that can recover energy, or draw little, on their way to the call.
+ * Elevators without room for another passenger are skipped.
+ */
+public class EnergyAwareDispatcher implements Dispatcher {
+    private final double cyclesPerKilowattHour;
+
+    /**
+     * Constructs an {@link EnergyAwareDispatcher}.
+     * @param cyclesPerKilowattHour The number of cycles of waiting worth saving one kilowatt hour
+     * @throws IllegalArgumentException If cyclesPerKilowattHour < 0
+     */
+    public EnergyAwareDispatcher(double cyclesPerKilowattHour) throws IllegalArgumentException {
+        if(cyclesPerKilowattHour < 0)
+            throw new IllegalArgumentException("Cycles per kilowatt hour must be >= 0");
+
+        this.cyclesPerKilowattHour = cyclesPerKilowattHour;
+    }
+
+    /**
+     * Gets the number of cycles of waiting worth saving one kilowatt hour.
+     * @return The exchange rate
+     */
+    public double getCyclesPerKilowattHour() {
+        return cyclesPerKilowattHour;
+    }
+
+    @Override
+    public int selectElevator(ElevatorBank elevatorBank, int storey) {
+        var selected = 0;
+        var selectedCost = Double.MAX_VALUE;
+        var skipFull = !elevatorBank.isEveryElevatorFull();
+
+        for(int i = 0; i < elevatorBank.getElevatorCount(); i++) {
+            if(skipFull && elevatorBank.getElevator(i).isFull())
+                continue;
+
+            var manager = elevatorBank.getElevatorRequestManager(i);
+            var cost = manager.estimateCyclesToServe(storey) + cyclesPerKilowattHour * manager.estimateEnergyToServe(storey);
+
+            if(cost < selectedCost) {
+                selected = i;
+                selectedCost = cost;
+            }
+        }
+
+        return selected;
+    }
+}
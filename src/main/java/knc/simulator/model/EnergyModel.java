@@ -0,0 +1,116 @@
+package knc.simulator.model;
+
+/**
+ * An {@link EnergyModel} estimates the electrical energy used by a traction elevator.
+ * The car is balanced by a counterweight matching the empty car plus half its capacity in passengers, so the motor
+ * only lifts or lowers the difference between the load and half the capacity. Travelling a storey costs the change in
+ * potential energy of that difference plus a constant friction loss, drawn through the motor efficiency. When the
+ * heavier side descends the motor is driven instead, and the surplus is either recovered by a regenerative drive or
+ * dissipated. A car also draws a constant standby power for lighting, ventilation and controls.
+ */
+public class EnergyModel {
+    /**
+     * The number of joules in one kilowatt hour.
+     */
+    public static final double JOULES_PER_KILOWATT_HOUR = 3_600_000;
+
+    /**
+     * A mid-rise traction elevator without a regenerative drive, at 60 cycles per second.
+     */
+    public static final EnergyModel DEFAULT = new EnergyModel(75, 3.5, 2_000, 0.8, 0, 300, 60);
+
+    private static final double GRAVITY = 9.81;
+
+    private final double passengerMass;
+    private final double storeyHeight;
+    private final double frictionLoss;
+    private final double efficiency;
+    private final double regenerationEfficiency;
+    private final double standbyPower;
+    private final int cyclesPerSecond;
+
+    /**
+     * Constructs an {@link EnergyModel}.
+     * @param passengerMass The mass of a passenger in kilograms
+     * @param storeyHeight The height of a storey in metres
+     * @param frictionLoss The energy lost to friction while travelling one storey, in joules
+     * @param efficiency The share of the electrical energy drawn that moves the car, above 0 and at most 1
+     * @param regenerationEfficiency The share of the energy released by the load that is recovered, between 0 and 1
+     * @param standbyPower The power drawn at all times, in watts
+     * @param cyclesPerSecond The number of simulated cycles per second
+     * @throws IllegalArgumentException If any value is negative, efficiency or regenerationEfficiency is out of range,
+     * or cyclesPerSecond < 1
+     */
+    public EnergyModel(double passengerMass, double storeyHeight, double frictionLoss, double efficiency,
+                       double regenerationEfficiency, double standbyPower, int cyclesPerSecond) throws IllegalArgumentException {
+        if(passengerMass < 0 || storeyHeight < 0 || frictionLoss < 0 || standbyPower < 0)
+            throw new IllegalArgumentException("Masses, heights, losses and power must be >= 0");
+        if(efficiency <= 0 || efficiency > 1)
+            throw new IllegalArgumentException("Efficiency must be > 0 and <= 1");
+        if(regenerationEfficiency < 0 || regenerationEfficiency > 1)
+            throw new IllegalArgumentException("Regeneration efficiency must be >= 0 and <= 1");
+        if(cyclesPerSecond < 1)
+            throw new IllegalArgumentException("Cycles per second must be >= 1");
+
+        this.passengerMass = passengerMass;
+        this.storeyHeight = storeyHeight;
+        this.frictionLoss = frictionLoss;
+        this.efficiency = efficiency;
+        this.regenerationEfficiency = regenerationEfficiency;
+        this.standbyPower = standbyPower;
+        this.cyclesPerSecond = cyclesPerSecond;
+    }
+
+    public double getPassengerMass() {
+        return passengerMass;
+    }
+
+    public double getStoreyHeight() {
+        return storeyHeight;
+    }
+
+    public double getFrictionLoss() {
+        return frictionLoss;
+    }
+
+    public double getEfficiency() {
+        return efficiency;
+    }
+
+    public double getRegenerationEfficiency() {
+        return regenerationEfficiency;
+    }
+
+    public double getStandbyPower() {
+        return standbyPower;
+    }
+
+    public int getCyclesPerSecond() {
+        return cyclesPerSecond;
+    }
+
+    /**
+     * Gets the electrical energy drawn by a car travelling one storey.
+     * @param load The number of passengers in the car
+     * @param capacity The capacity of the car
+     * @param ascending True if the car travels up
+     * @return The energy in joules, negative if energy is recovered
+     */
+    public double getStoreyEnergy(int load, int capacity, boolean ascending) {
+        // Positive when the car side is heavier than the counterweight
+        var imbalance = (load - capacity / 2.0) * passengerMass;
+        var potentialEnergy = imbalance * GRAVITY * storeyHeight;
+        var mechanicalEnergy = (ascending ? potentialEnergy : -potentialEnergy) + frictionLoss;
+
+        return mechanicalEnergy >= 0 ? mechanicalEnergy / efficiency : mechanicalEnergy * regenerationEfficiency;
+    }
+
+    /**
+     * Gets the energy drawn in standby over the specified number of cycles.
+     * @param cycles The number of cycles
+     * @return The energy in joules
+     */
+    public double getStandbyEnergy(long cycles) {
+        return standbyPower * cycles / cyclesPerSecond;
+    }
+}
@@ -0,0 +1,29 @@
+package knc.simulator.model;
+
+/**
+ * An {@link EtaDispatcher} assigns each hall call to the elevator with the lowest estimated time of arrival,
+ * taking into account remaining hold time, travel time and every request already queued for the elevator.
+ * Elevators without room for another passenger are skipped.
+ */
+public class EtaDispatcher implements Dispatcher {
+    @Override
+    public int selectElevator(ElevatorBank elevatorBank, int storey) {
+        var selected = 0;
+        var selectedEta = Long.MAX_VALUE;
+        var skipFull = !elevatorBank.isEveryElevatorFull();
+
+        for(int i = 0; i < elevatorBank.getElevatorCount(); i++) {
+            if(skipFull && elevatorBank.getElevator(i).isFull())
+                continue;
+
+            var eta = elevatorBank.getElevatorRequestManager(i).estimateCyclesToServe(storey);
+
+            if(eta < selectedEta) {
+                selected = i;
+                selectedEta = eta;
+            }
+        }
+
+        return selected;
+    }
+}
@@ -0,0 +1,14 @@
+package knc.simulator.model;
+
+/**
+ * A {@link HallCallListener} is notified each time a hall call is made to an {@link ElevatorBank}.
+ */
+public interface HallCallListener {
+    /**
+     * Called when a hall call has been assigned to an elevator.
+     * @param storey The storey the call is made from
+     * @param elevatorIndex The index of the elevator serving the call, which may already have been serving the storey
+     * @param cycle The cycle at which the call was made
+     */
+    void onHallCall(int storey, int elevatorIndex, long cycle);
+}
@@ -0,0 +1,191 @@
+package knc.simulator.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A {@link LatencyHistogram} records non-negative cycle counts in a fixed amount of memory.
+ * Like an HdrHistogram, values are grouped into buckets whose width doubles with each power of two, and every
+ * bucket is split into {@value #SUB_BUCKET_HALF_COUNT} linear sub-buckets. Values are therefore kept with a relative
+ * error below 2%, recording is O(1) and never allocates, and percentiles can be queried at any time.
+ * Values above {@link #MAX_TRACKABLE_VALUE} are recorded as that value.
+ */
+public class LatencyHistogram {
+    /**
+     * The highest value that can be recorded exactly to the histogram precision.
+     */
+    public static final long MAX_TRACKABLE_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    private final long[] counts = new long[indexOf(MAX_TRACKABLE_VALUE) + 1];
+    private long totalCount = 0;
+    private long totalValue = 0;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue = 0;
+
+    /**
+     * Records a value.
+     * @param value The value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        value = Math.max(0, Math.min(value, MAX_TRACKABLE_VALUE));
+        counts[indexOf(value)]++;
+        totalCount++;
+        totalValue += value;
+        minValue = Math.min(minValue, value);
+        maxValue = Math.max(maxValue, value);
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one.
+     * @param other The histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        for(int i = 0; i < counts.length; i++)
+            counts[i] += other.counts[i];
+
+        totalCount += other.totalCount;
+        totalValue += other.totalValue;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    /**
+     * Removes every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalValue = 0;
+        minValue = Long.MAX_VALUE;
+        maxValue = 0;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     * @return The number of values
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the exact mean of the recorded values.
+     * @return The mean, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    /**
+     * Gets the exact lowest recorded value.
+     * @return The lowest value, or 0 if nothing has been recorded
+     */
+    public long getMin() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    /**
+     * Gets the exact highest recorded value.
+     * @return The highest value, or 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return maxValue;
+    }
+
+    /**
+     * Gets the value below or at which the specified percentage of recorded values fall.
+     * The result is the highest value of the bucket containing the percentile, capped at {@link #getMax()}.
+     * @param percentile The percentile, between 0 and 100
+     * @return The value, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if(totalCount == 0)
+            return 0;
+
+        var rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * totalCount));
+        long seen = 0;
+        for(int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= rank)
+                return Math.min(highestEquivalentValue(i), maxValue);
+        }
+
+        return maxValue;
+    }
+
+    /**
+     * Gets the number of bytes written by {@link #saveState(ByteBuffer)}.
+     * @return The number of bytes
+     */
+    public int getStateSize() {
+        var size = 4 * Long.BYTES + Integer.BYTES;
+        for(var count : counts) {
+            if(count != 0)
+                size += Integer.BYTES + Long.BYTES;
+        }
+
+        return size;
+    }
+
+    /**
+     * Writes every recorded value. Only non-empty buckets are written.
+     * @param buffer The buffer to write to
+     */
+    public void saveState(ByteBuffer buffer) {
+        buffer.putLong(totalCount);
+        buffer.putLong(totalValue);
+        buffer.putLong(minValue);
+        buffer.putLong(maxValue);
+
+        var countPosition = buffer.position();
+        buffer.putInt(0);
+        var buckets = 0;
+        for(int i = 0; i < counts.length; i++) {
+            if(counts[i] != 0) {
+                buffer.putInt(i);
+                buffer.putLong(counts[i]);
+                buckets++;
+            }
+        }
+        buffer.putInt(countPosition, buckets);
+    }
+
+    /**
+     * Replaces the recorded values with those written by {@link #saveState(ByteBuffer)}.
+     * @param buffer The buffer to read from
+     */
+    public void restoreState(ByteBuffer buffer) {
+        Arrays.fill(counts, 0);
+        totalCount = buffer.getLong();
+        totalValue = buffer.getLong();
+        minValue = buffer.getLong();
+        maxValue = buffer.getLong();
+
+        var buckets = buffer.getInt();
+        for(int i = 0; i < buckets; i++) {
+            var index = buffer.getInt();
+            counts[index] = buffer.getLong();
+        }
+    }
+
+    private static int indexOf(long value) {
+        if(value < SUB_BUCKET_COUNT)
+            return (int) value;
+
+        var shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if(index < SUB_BUCKET_COUNT)
+            return index;
+
+        var shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        var subBucket = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1L) << shift) - 1;
+    }
+}
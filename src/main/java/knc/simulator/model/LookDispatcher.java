@@ -0,0 +1,52 @@
+package knc.simulator.model;
+
+/**
+ * A {@link LookDispatcher} prefers elevators that will pass the calling storey on their current sweep.
+ * Idle elevators are scored by distance, elevators moving towards the call by the distance left to it,
+ * and elevators moving away by the distance to their target plus the distance back to the call.
+ * Every queued request adds the distance of a full sweep, so busy elevators are only chosen when they are much closer.
+ * Full elevators are not considered.
+ */
+public class LookDispatcher implements Dispatcher {
+    @Override
+    public int selectElevator(ElevatorBank elevatorBank, int storey) {
+        var selected = 0;
+        var selectedScore = Long.MAX_VALUE;
+        var skipFull = !elevatorBank.isEveryElevatorFull();
+
+        for(int i = 0; i < elevatorBank.getElevatorCount(); i++) {
+            if(skipFull && elevatorBank.getElevator(i).isFull())
+                continue;
+
+            var score = score(elevatorBank.getElevatorRequestManager(i), storey);
+
+            if(score < selectedScore) {
+                selected = i;
+                selectedScore = score;
+            }
+        }
+
+        return selected;
+    }
+
+    private long score(ElevatorRequestManager manager, int storey) {
+        var elevator = manager.getElevator();
+        var currentStorey = elevator.getCurrentStorey();
+        var targetStorey = elevator.getTargetStorey();
+        var sweep = elevator.getHighestStorey() - elevator.getLowestStorey();
+        long score = (long) manager.getElevatorRequestsSize() * sweep;
+
+        switch(elevator.getCurrentAction()) {
+            case ASCENDING:
+                if(storey > currentStorey && storey <= targetStorey)
+                    return score + storey - currentStorey;
+                return score + Math.abs(targetStorey - currentStorey) + Math.abs(targetStorey - storey);
+            case DESCENDING:
+                if(storey < currentStorey && storey >= targetStorey)
+                    return score + currentStorey - storey;
+                return score + Math.abs(targetStorey - currentStorey) + Math.abs(targetStorey - storey);
+            default:
+                return score + Math.abs(currentStorey - storey);
+        }
+    }
+}
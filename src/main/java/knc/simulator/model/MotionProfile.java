@@ -0,0 +1,91 @@
+package knc.simulator.model;
+
+/**
+ * {@link MotionProfile} describes the trapezoidal velocity profile of a car travelling between two storeys.
+ * The car accelerates uniformly from rest to its cruising speed of one storey per {@code cyclesToTraverseStorey},
+ * cruises, and decelerates uniformly to rest at its target, taking {@code accelerationCycles} to reach cruising speed
+ * and as long to stop. Runs too short to reach cruising speed accelerate to half way and decelerate from there.
+ * Without acceleration every storey takes exactly {@code cyclesToTraverseStorey}.
+ */
+final class MotionProfile {
+    private MotionProfile() {
+    }
+
+    /**
+     * Gets the time taken to travel from the start of a run to the specified position.
+     * @param runStoreys The number of storeys travelled by the whole run
+     * @param position The number of storeys from the start of the run, between 0 and runStoreys
+     * @param cyclesToTraverseStorey The cycles needed to traverse one storey at cruising speed
+     * @param accelerationCycles The cycles needed to reach cruising speed from rest
+     * @return The number of cycles
+     */
+    static double getTime(int runStoreys, double position, int cyclesToTraverseStorey, int accelerationCycles) {
+        if(accelerationCycles == 0)
+            return position * cyclesToTraverseStorey;
+
+        // Accelerating over x storeys from rest takes sqrt(2 * x * accelerationCycles * cyclesToTraverseStorey)
+        var scale = 2.0 * accelerationCycles * cyclesToTraverseStorey;
+        var accelerationStoreys = accelerationCycles / (2.0 * cyclesToTraverseStorey);
+        if(runStoreys >= 2 * accelerationStoreys) {
+            var totalTime = (double) runStoreys * cyclesToTraverseStorey + accelerationCycles;
+            if(position <= accelerationStoreys)
+                return Math.sqrt(scale * position);
+            if(position <= runStoreys - accelerationStoreys)
+                return accelerationCycles + (position - accelerationStoreys) * cyclesToTraverseStorey;
+            return totalTime - Math.sqrt(scale * (runStoreys - position));
+        }
+
+        var half = runStoreys / 2.0;
+        if(position <= half)
+            return Math.sqrt(scale * position);
+        return 2 * Math.sqrt(scale * half) - Math.sqrt(scale * (runStoreys - position));
+    }
+
+    /**
+     * Gets the position reached the specified time after the start of a run. This is the inverse of
+     * {@link #getTime(int, double, int, int)}.
+     * @param runStoreys The number of storeys travelled by the whole run
+     * @param time The number of cycles since the start of the run
+     * @param cyclesToTraverseStorey The cycles needed to traverse one storey at cruising speed
+     * @param accelerationCycles The cycles needed to reach cruising speed from rest
+     * @return The number of storeys from the start of the run
+     */
+    static double getPosition(int runStoreys, double time, int cyclesToTraverseStorey, int accelerationCycles) {
+        if(accelerationCycles == 0)
+            return Math.min(runStoreys, time / cyclesToTraverseStorey);
+
+        var scale = 2.0 * accelerationCycles * cyclesToTraverseStorey;
+        var accelerationStoreys = accelerationCycles / (2.0 * cyclesToTraverseStorey);
+        var totalTime = getTime(runStoreys, runStoreys, cyclesToTraverseStorey, accelerationCycles);
+        if(time >= totalTime)
+            return runStoreys;
+
+        if(runStoreys >= 2 * accelerationStoreys) {
+            if(time <= accelerationCycles)
+                return time * time / scale;
+            if(time <= totalTime - accelerationCycles)
+                return accelerationStoreys + (time - accelerationCycles) / cyclesToTraverseStorey;
+        } else if(time <= totalTime / 2) {
+            return time * time / scale;
+        }
+
+        var remaining = totalTime - time;
+        return runStoreys - remaining * remaining / scale;
+    }
+
+    /**
+     * Gets the whole number of cycles taken to travel from the start of a run to the specified storey of it.
+     * Rounding the time to each storey rather than the time of each storey keeps the sum over several storeys exact.
+     * @param runStoreys The number of storeys travelled by the whole run
+     * @param storeys The number of storeys from the start of the run
+     * @param cyclesToTraverseStorey The cycles needed to traverse one storey at cruising speed
+     * @param accelerationCycles The cycles needed to reach cruising speed from rest
+     * @return The number of cycles
+     */
+    static long getCycles(int runStoreys, int storeys, int cyclesToTraverseStorey, int accelerationCycles) {
+        if(accelerationCycles == 0)
+            return (long) storeys * cyclesToTraverseStorey;
+
+        return Math.round(getTime(runStoreys, storeys, cyclesToTraverseStorey, accelerationCycles));
+    }
+}
@@ -0,0 +1,35 @@
+package knc.simulator.model;
+
+/**
+ * A {@link NearestCarDispatcher} assigns each hall call to the elevator that is physically closest to the calling
+ * storey, regardless of what the elevator is currently doing.
+ * Ties are broken in favour of the elevator with the fewest queued requests, and full elevators are passed over.
+ */
+public class NearestCarDispatcher implements Dispatcher {
+    @Override
+    public int selectElevator(ElevatorBank elevatorBank, int storey) {
+        var selected = 0;
+        var selectedDistance = Double.MAX_VALUE;
+        var selectedQueueSize = Integer.MAX_VALUE;
+        var skipFull = !elevatorBank.isEveryElevatorFull();
+
+        for(int i = 0; i < elevatorBank.getElevatorCount(); i++) {
+            if(skipFull && elevatorBank.getElevator(i).isFull())
+                continue;
+
+            var manager = elevatorBank.getElevatorRequestManager(i);
+            var elevator = manager.getElevator();
+            var position = elevator.getLowestStorey() + elevator.getElevatorPositionAsStoriesFromBottom();
+            var distance = Math.abs(position - storey);
+            var queueSize = manager.getElevatorRequestsSize();
+
+            if(distance < selectedDistance || (distance == selectedDistance && queueSize < selectedQueueSize)) {
+                selected = i;
+                selectedDistance = distance;
+                selectedQueueSize = queueSize;
+            }
+        }
+
+        return selected;
+    }
+}
@@ -0,0 +1,307 @@
+package knc.simulator.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A {@link ParkingPolicy} learns where hall calls are made at each time of day and sends idle elevators of an
+ * {@link ElevatorBank} towards the storeys most likely to call next.
+ * <p>
+ * Calls are counted per storey in a fixed number of time of day buckets. Older calls count for less, halving in
+ * weight every half life, so the counts follow changes in traffic while using a fixed amount of memory. Rather than
+ * decaying every count as time passes, each new call is added with a weight that grows exponentially with its cycle,
+ * which makes recording a call O(1). The counts are rescaled on the rare occasion the weights grow too large.
+ * <p>
+ * An idle elevator is parked where it most shortens the expected distance from the next call to the nearest idle
+ * elevator, given the counts of the current bucket. Every candidate storey is weighed in constant time from running
+ * sums over the storeys, kept in buffers sized at construction, so a decision is linear in the number of storeys and
+ * does not allocate. An elevator heading to park is interrupted as soon as it receives a request.
+ */
+public class ParkingPolicy {
+    /**
+     * The number of cycles in a day, unless specified.
+     */
+    public static final long DEFAULT_CYCLES_PER_DAY = 60L * 60 * 60 * 24;
+
+    /**
+     * The number of time of day buckets, unless specified.
+     */
+    public static final int DEFAULT_BUCKETS_PER_DAY = 24;
+
+    /**
+     * The number of cycles after which a call counts half as much, unless specified.
+     */
+    public static final long DEFAULT_HALF_LIFE = 2 * DEFAULT_CYCLES_PER_DAY;
+
+    /**
+     * Returned by {@link #selectParkingStorey(ElevatorBank, int)} when the elevator should stay where it is.
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    // Weights are rescaled before they exceed 2^RESCALE_EXPONENT, far below the range of a double
+    private static final int RESCALE_EXPONENT = 256;
+
+    private final int lowestStorey;
+    private final int highestStorey;
+    private final long cyclesPerDay;
+    private final int bucketsPerDay;
+    private final long halfLife;
+    private final double[] weights;
+    private final int[] lowerIdleStoreys;
+    private final int[] upperIdleStoreys;
+    private final double[] cumulativeWeights;
+    private final double[] cumulativeMoments;
+    private final double[] cumulativeDistances;
+    private long weightOrigin = 0;
+
+    /**
+     * Constructs a {@link ParkingPolicy} for the specified storeys with the default day length, buckets and half life.
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey
+     */
+    public ParkingPolicy(int lowestStorey, int highestStorey) throws IllegalArgumentException {
+        this(lowestStorey, highestStorey, DEFAULT_CYCLES_PER_DAY, DEFAULT_BUCKETS_PER_DAY, DEFAULT_HALF_LIFE);
+    }
+
+    /**
+     * Constructs a {@link ParkingPolicy}.
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @param cyclesPerDay The number of cycles in a day
+     * @param bucketsPerDay The number of time of day buckets
+     * @param halfLife The number of cycles after which a call counts half as much
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey, bucketsPerDay < 1, cyclesPerDay < bucketsPerDay
+     * or halfLife < 1
+     */
+    public ParkingPolicy(int lowestStorey, int highestStorey, long cyclesPerDay, int bucketsPerDay, long halfLife)
+            throws IllegalArgumentException {
+        if(lowestStorey >= highestStorey)
+            throw new IllegalArgumentException("The highest storey must be at least one level above the lowest storey");
+        if(bucketsPerDay < 1)
+            throw new IllegalArgumentException("Buckets per day must be >= 1");
+        if(cyclesPerDay < bucketsPerDay)
+            throw new IllegalArgumentException("Cycles per day must be >= buckets per day");
+        if(halfLife < 1)
+            throw new IllegalArgumentException("Half life must be >= 1");
+
+        this.lowestStorey = lowestStorey;
+        this.highestStorey = highestStorey;
+        this.cyclesPerDay = cyclesPerDay;
+        this.bucketsPerDay = bucketsPerDay;
+        this.halfLife = halfLife;
+        var storeyCount = highestStorey - lowestStorey + 1;
+        this.weights = new double[bucketsPerDay * storeyCount];
+        this.lowerIdleStoreys = new int[storeyCount];
+        this.upperIdleStoreys = new int[storeyCount];
+        this.cumulativeWeights = new double[storeyCount + 1];
+        this.cumulativeMoments = new double[storeyCount + 1];
+        this.cumulativeDistances = new double[storeyCount + 1];
+    }
+
+    /**
+     * Gets the lowest storey calls are recorded for.
+     * @return The lowest storey
+     */
+    public int getLowestStorey() {
+        return lowestStorey;
+    }
+
+    /**
+     * Gets the highest storey calls are recorded for.
+     * @return The highest storey
+     */
+    public int getHighestStorey() {
+        return highestStorey;
+    }
+
+    /**
+     * Records a hall call.
+     * @param storey The storey the call was made from
+     * @param cycle The cycle at which the call was made
+     */
+    public void recordCall(int storey, long cycle) {
+        if(cycle - weightOrigin > (long) RESCALE_EXPONENT * halfLife)
+            rescale(cycle);
+
+        weights[getIndex(storey, cycle)] += getWeight(cycle);
+    }
+
+    /**
+     * Gets the number of calls recorded from the specified storey in the time of day bucket of the specified cycle,
+     * each counting half as much for every half life that has passed since it was made.
+     * @param storey The storey
+     * @param cycle The current cycle, which must not precede any recorded call
+     * @return The decayed number of calls
+     */
+    public double getExpectedCalls(int storey, long cycle) {
+        return weights[getIndex(storey, cycle)] / getWeight(cycle);
+    }
+
+    /**
+     * Gets the number of bytes written by {@link #saveState(ByteBuffer)}.
+     * @return The number of bytes
+     */
+    public int getStateSize() {
+        return Integer.BYTES + Long.BYTES + weights.length * Double.BYTES;
+    }
+
+    /**
+     * Writes the calls learned by this {@link ParkingPolicy}.
+     * The storeys, day length, buckets and half life are configuration and are not included.
+     * @param buffer The buffer to write to
+     */
+    public void saveState(ByteBuffer buffer) {
+        buffer.putInt(weights.length);
+        buffer.putLong(weightOrigin);
+        for(var weight : weights)
+            buffer.putDouble(weight);
+    }
+
+    /**
+     * Replaces the learned calls with those written by {@link #saveState(ByteBuffer)}.
+     * @param buffer The buffer to read from
+     * @throws IllegalArgumentException If the state was written by a policy with different storeys or buckets
+     */
+    public void restoreState(ByteBuffer buffer) throws IllegalArgumentException {
+        if(buffer.getInt() != weights.length)
+            throw new IllegalArgumentException("The state was saved from a policy with different storeys or buckets");
+
+        weightOrigin = buffer.getLong();
+        for(int i = 0; i < weights.length; i++)
+            weights[i] = buffer.getDouble();
+    }
+
+    /**
+     * Moves the buffer past a state written by {@link #saveState(ByteBuffer)} without reading it.
+     * @param buffer The buffer to read from
+     */
+    static void skipState(ByteBuffer buffer) {
+        var count = buffer.getInt();
+        buffer.position(buffer.position() + Long.BYTES + count * Double.BYTES);
+    }
+
+    /**
+     * Selects the storey the idle elevator at the specified index should park at, or {@link #NONE} if it should stay
+     * where it is.
+     * The storey chosen is the one that most reduces the expected distance from the next call to the nearest idle
+     * elevator, with the calls in the current bucket as the expected traffic. With no other idle elevators this is the
+     * weighted median of the calls. The elevator only moves if that saves at least one storey per expected call.
+     * @param elevatorBank The bank containing the elevator
+     * @param index The index of the elevator
+     * @return The storey to park at, or {@link #NONE}
+     */
+    public int selectParkingStorey(ElevatorBank elevatorBank, int index) {
+        var elevator = elevatorBank.getElevator(index);
+        var offset = getIndex(lowestStorey, elevator.getCurrentCycle());
+        var storeyCount = highestStorey - lowestStorey + 1;
+        findIdleStoreys(elevatorBank, index);
+
+        // Running sums of the calls, the calls times their storey and the calls times their distance to an idle elevator
+        for(int i = 0; i < storeyCount; i++) {
+            var weight = weights[offset + i];
+            var distance = storeyCount;
+            if(lowerIdleStoreys[i] >= 0)
+                distance = i - lowerIdleStoreys[i];
+            if(upperIdleStoreys[i] < storeyCount)
+                distance = Math.min(distance, upperIdleStoreys[i] - i);
+
+            cumulativeWeights[i + 1] = cumulativeWeights[i] + weight;
+            cumulativeMoments[i + 1] = cumulativeMoments[i] + weight * i;
+            cumulativeDistances[i + 1] = cumulativeDistances[i] + weight * distance;
+        }
+
+        var totalWeight = cumulativeWeights[storeyCount];
+        if(totalWeight == 0)
+            return NONE;
+
+        var selected = NONE;
+        var selectedGain = 0.0;
+        var currentGain = 0.0;
+        for(int candidate = 0; candidate < storeyCount; candidate++) {
+            var gain = getGain(candidate, storeyCount);
+            if(gain > selectedGain) {
+                selected = candidate + lowestStorey;
+                selectedGain = gain;
+            }
+            if(candidate + lowestStorey == elevator.getCurrentStorey())
+                currentGain = gain;
+        }
+
+        return (selectedGain - currentGain) / totalWeight >= 1 ? selected : NONE;
+    }
+
+    /**
+     * Finds the nearest storey at or below and at or above every storey that another idle elevator is parked at or
+     * heading to, as indices from the lowest storey.
+     * Storeys with no such elevator below are marked -1, and those with none above are marked with the storey count.
+     */
+    private void findIdleStoreys(ElevatorBank elevatorBank, int index) {
+        var storeyCount = highestStorey - lowestStorey + 1;
+        Arrays.fill(lowerIdleStoreys, -1);
+        Arrays.fill(upperIdleStoreys, storeyCount);
+
+        for(int i = 0; i < elevatorBank.getElevatorCount(); i++) {
+            if(i == index || elevatorBank.getElevatorRequestManager(i).hasRequests())
+                continue;
+
+            var elevator = elevatorBank.getElevator(i);
+            var action = elevator.getCurrentAction();
+            var parkedAt = action == ElevatorAction.ASCENDING || action == ElevatorAction.DESCENDING
+                    ? elevator.getTargetStorey() : elevator.getCurrentStorey();
+            lowerIdleStoreys[parkedAt - lowestStorey] = parkedAt - lowestStorey;
+            upperIdleStoreys[parkedAt - lowestStorey] = parkedAt - lowestStorey;
+        }
+
+        for(int i = 1; i < storeyCount; i++)
+            lowerIdleStoreys[i] = Math.max(lowerIdleStoreys[i], lowerIdleStoreys[i - 1]);
+        for(int i = storeyCount - 2; i >= 0; i--)
+            upperIdleStoreys[i] = Math.min(upperIdleStoreys[i], upperIdleStoreys[i + 1]);
+    }
+
+    /**
+     * Gets the weighted distance saved by parking at the specified storey index, from the running sums.
+     * Only the storeys closer to the candidate than to the idle elevators either side of it gain anything.
+     */
+    private double getGain(int candidate, int storeyCount) {
+        var lower = lowerIdleStoreys[candidate];
+        var upper = upperIdleStoreys[candidate];
+        if(lower == candidate)
+            return 0;
+
+        var first = lower < 0 ? 0 : (lower + candidate) / 2 + 1;
+        var last = upper == storeyCount ? storeyCount - 1 : (candidate + upper - 1) / 2;
+        var below = sum(cumulativeDistances, first, candidate) - candidate * sum(cumulativeWeights, first, candidate)
+                + sum(cumulativeMoments, first, candidate);
+        var above = sum(cumulativeDistances, candidate + 1, last) + candidate * sum(cumulativeWeights, candidate + 1, last)
+                - sum(cumulativeMoments, candidate + 1, last);
+        return below + above;
+    }
+
+    /**
+     * Gets the sum of the values from the first to the last index inclusive from their running sums.
+     */
+    private static double sum(double[] cumulative, int first, int last) {
+        return cumulative[last + 1] - cumulative[first];
+    }
+
+    private int getIndex(int storey, long cycle) {
+        var bucket = (int) (Math.floorMod(cycle, cyclesPerDay) * bucketsPerDay / cyclesPerDay);
+        return bucket * (highestStorey - lowestStorey + 1) + storey - lowestStorey;
+    }
+
+    private double getWeight(long cycle) {
+        return Math.pow(2, (double) (cycle - weightOrigin) / halfLife);
+    }
+
+    /**
+     * Divides every count by the weight of the specified cycle, making it the new origin of the weights.
+     */
+    private void rescale(long cycle) {
+        var scale = getWeight(cycle);
+        for(int i = 0; i < weights.length; i++)
+            weights[i] /= scale;
+
+        weightOrigin = cycle;
+    }
+}
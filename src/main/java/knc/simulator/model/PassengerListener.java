@@ -0,0 +1,16 @@
+package knc.simulator.model;
+
+/**
+ * A {@link PassengerListener} is notified each time a passenger reaches their destination in an {@link ElevatorBank}.
+ */
+public interface PassengerListener {
+    /**
+     * Called when a passenger has alighted at their destination.
+     * @param tag The tag the passenger was created with
+     * @param origin The storey the passenger arrived at
+     * @param destination The storey the passenger alighted at
+     * @param arrivalCycle The cycle at which the passenger arrived
+     * @param cycle The cycle at which the passenger alighted
+     */
+    void onPassengerDelivered(int tag, int origin, int destination, long arrivalCycle, long cycle);
+}
@@ -0,0 +1,369 @@
+package knc.simulator.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A {@link PassengerQueues} tracks every passenger in a building using only primitive arrays.
+ * Each passenger is an index into parallel arrays of origin, destination and timing. Passengers waiting at a storey
+ * and passengers riding in a car are kept in intrusive singly linked lists over those indices. Indices of passengers
+ * who have reached their destination are recycled through a free list, so the arrays only grow to the largest
+ * number of passengers in the building at once, and moving passengers never allocates.
+ * A passenger may be assigned to a car, in which case no other car will take them.
+ * Each passenger also carries a tag chosen by whoever created them, which identifies them beyond this bank.
+ */
+class PassengerQueues {
+    /**
+     * Returned when no passenger matches a query.
+     */
+    static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int PASSENGER_STATE_SIZE = 4 * Integer.BYTES + 2 * Long.BYTES;
+
+    private final int lowestStorey;
+    private final int[] waitingHeads;
+    private final int[] waitingTails;
+    private final int[] waitingCounts;
+    private final int[] ridingHeads;
+    private final int[] ridingCounts;
+    private int[] origins = new int[INITIAL_CAPACITY];
+    private int[] destinations = new int[INITIAL_CAPACITY];
+    private int[] assignedCars = new int[INITIAL_CAPACITY];
+    private int[] tags = new int[INITIAL_CAPACITY];
+    private long[] arrivalCycles = new long[INITIAL_CAPACITY];
+    private long[] boardingCycles = new long[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int freeHead = NONE;
+    private int used = 0;
+    private int waiting = 0;
+    private int riding = 0;
+
+    /**
+     * Constructs empty {@link PassengerQueues} for the specified storeys and number of cars.
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @param carCount The number of cars
+     */
+    PassengerQueues(int lowestStorey, int highestStorey, int carCount) {
+        var storeyCount = highestStorey - lowestStorey + 1;
+        this.lowestStorey = lowestStorey;
+        this.waitingHeads = new int[storeyCount];
+        this.waitingTails = new int[storeyCount];
+        this.waitingCounts = new int[storeyCount];
+        this.ridingHeads = new int[carCount];
+        this.ridingCounts = new int[carCount];
+        Arrays.fill(waitingHeads, NONE);
+        Arrays.fill(waitingTails, NONE);
+        Arrays.fill(ridingHeads, NONE);
+    }
+
+    /**
+     * Checks whether no passenger is waiting or riding.
+     * @return True if the building is empty
+     */
+    boolean isEmpty() {
+        return waiting + riding == 0;
+    }
+
+    /**
+     * Gets the number of passengers waiting at any storey.
+     * @return The number of waiting passengers
+     */
+    int getWaitingCount() {
+        return waiting;
+    }
+
+    /**
+     * Gets the number of passengers waiting at the specified storey.
+     * @param storey The storey
+     * @return The number of waiting passengers
+     */
+    int getWaitingCount(int storey) {
+        return waitingCounts[storey - lowestStorey];
+    }
+
+    /**
+     * Gets the number of passengers riding in any car.
+     * @return The number of riding passengers
+     */
+    int getRidingCount() {
+        return riding;
+    }
+
+    /**
+     * Gets the number of passengers riding in the specified car.
+     * @param car The index of the car
+     * @return The number of riding passengers
+     */
+    int getRidingCount(int car) {
+        return ridingCounts[car];
+    }
+
+    /**
+     * Adds a passenger to the back of the queue at its origin.
+     * @param origin The storey the passenger is waiting at
+     * @param destination The storey the passenger wants to travel to
+     * @param arrivalCycle The cycle at which the passenger arrived
+     * @param assignedCar The index of the only car the passenger may board, or {@link #NONE} for any car
+     * @param tag The tag of the passenger
+     */
+    void addWaiting(int origin, int destination, long arrivalCycle, int assignedCar, int tag) {
+        var passenger = allocate();
+        origins[passenger] = origin;
+        destinations[passenger] = destination;
+        assignedCars[passenger] = assignedCar;
+        tags[passenger] = tag;
+        arrivalCycles[passenger] = arrivalCycle;
+        appendWaiting(passenger);
+    }
+
+    /**
+     * Checks whether a passenger who may board the specified car is waiting at the specified storey.
+     * @param storey The storey
+     * @param car The index of the car, or {@link #NONE} to only consider passengers who may board any car
+     * @return True if such a passenger is waiting
+     */
+    boolean isWaitingFor(int storey, int car) {
+        for(var passenger = waitingHeads[storey - lowestStorey]; passenger != NONE; passenger = next[passenger]) {
+            if(assignedCars[passenger] == car)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether a passenger riding in the specified car is travelling to the specified storey.
+     * @param car The index of the car
+     * @param storey The storey
+     * @return True if such a passenger is riding
+     */
+    boolean isRidingTo(int car, int storey) {
+        for(var passenger = ridingHeads[car]; passenger != NONE; passenger = next[passenger]) {
+            if(destinations[passenger] == storey)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes the first passenger in the queue at the specified storey who may board a car, and places them in it.
+     * @param car The index of the car
+     * @param storey The storey the car is at
+     * @param cycle The cycle at which the passenger boards
+     * @return The boarding passenger, or {@link #NONE} if nobody is waiting for the car
+     */
+    int board(int car, int storey, long cycle) {
+        var index = storey - lowestStorey;
+        var previous = NONE;
+        var passenger = waitingHeads[index];
+        while(passenger != NONE && assignedCars[passenger] != NONE && assignedCars[passenger] != car) {
+            previous = passenger;
+            passenger = next[passenger];
+        }
+
+        if(passenger == NONE)
+            return NONE;
+
+        if(previous == NONE)
+            waitingHeads[index] = next[passenger];
+        else
+            next[previous] = next[passenger];
+        if(waitingTails[index] == passenger)
+            waitingTails[index] = previous;
+        waitingCounts[index]--;
+        waiting--;
+
+        boardingCycles[passenger] = cycle;
+        addRiding(car, passenger);
+        return passenger;
+    }
+
+    /**
+     * Removes one passenger travelling to the specified storey from a car.
+     * The passenger keeps their details until {@link #release(int)} is called.
+     * @param car The index of the car
+     * @param storey The storey the car is at
+     * @return The alighting passenger, or {@link #NONE} if nobody in the car is travelling to the storey
+     */
+    int alight(int car, int storey) {
+        var previous = NONE;
+        for(var passenger = ridingHeads[car]; passenger != NONE; passenger = next[passenger]) {
+            if(destinations[passenger] == storey) {
+                if(previous == NONE)
+                    ridingHeads[car] = next[passenger];
+                else
+                    next[previous] = next[passenger];
+
+                ridingCounts[car]--;
+                riding--;
+                return passenger;
+            }
+
+            previous = passenger;
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Returns the index of a passenger who has alighted to the free list.
+     * @param passenger The passenger
+     */
+    void release(int passenger) {
+        next[passenger] = freeHead;
+        freeHead = passenger;
+    }
+
+    int getOrigin(int passenger) {
+        return origins[passenger];
+    }
+
+    int getDestination(int passenger) {
+        return destinations[passenger];
+    }
+
+    int getAssignedCar(int passenger) {
+        return assignedCars[passenger];
+    }
+
+    int getTag(int passenger) {
+        return tags[passenger];
+    }
+
+    long getArrivalCycle(int passenger) {
+        return arrivalCycles[passenger];
+    }
+
+    long getBoardingCycle(int passenger) {
+        return boardingCycles[passenger];
+    }
+
+    /**
+     * Gets the number of bytes written by {@link #saveState(ByteBuffer)}.
+     * @return The number of bytes
+     */
+    int getStateSize() {
+        return (waitingHeads.length + ridingHeads.length) * Integer.BYTES + (waiting + riding) * PASSENGER_STATE_SIZE;
+    }
+
+    /**
+     * Writes every waiting and riding passenger, in queue order.
+     * @param buffer The buffer to write to
+     */
+    void saveState(ByteBuffer buffer) {
+        for(int i = 0; i < waitingHeads.length; i++) {
+            buffer.putInt(waitingCounts[i]);
+            for(var passenger = waitingHeads[i]; passenger != NONE; passenger = next[passenger])
+                savePassenger(passenger, buffer);
+        }
+
+        for(int car = 0; car < ridingHeads.length; car++) {
+            buffer.putInt(ridingCounts[car]);
+            for(var passenger = ridingHeads[car]; passenger != NONE; passenger = next[passenger])
+                savePassenger(passenger, buffer);
+        }
+    }
+
+    /**
+     * Replaces every passenger with those written by {@link #saveState(ByteBuffer)}.
+     * @param buffer The buffer to read from
+     */
+    void restoreState(ByteBuffer buffer) {
+        clear();
+
+        for(int i = 0; i < waitingHeads.length; i++) {
+            var count = buffer.getInt();
+            for(int j = 0; j < count; j++)
+                appendWaiting(restorePassenger(buffer));
+        }
+
+        for(int car = 0; car < ridingHeads.length; car++) {
+            var count = buffer.getInt();
+            // Riding lists are built by prepending, so restore in reverse to keep the saved order
+            var restored = new int[count];
+            for(int j = 0; j < count; j++)
+                restored[j] = restorePassenger(buffer);
+            for(int j = count - 1; j >= 0; j--)
+                addRiding(car, restored[j]);
+        }
+    }
+
+    /**
+     * Removes every passenger.
+     */
+    void clear() {
+        Arrays.fill(waitingHeads, NONE);
+        Arrays.fill(waitingTails, NONE);
+        Arrays.fill(waitingCounts, 0);
+        Arrays.fill(ridingHeads, NONE);
+        Arrays.fill(ridingCounts, 0);
+        freeHead = NONE;
+        used = 0;
+        waiting = 0;
+        riding = 0;
+    }
+
+    private void savePassenger(int passenger, ByteBuffer buffer) {
+        buffer.putInt(origins[passenger]);
+        buffer.putInt(destinations[passenger]);
+        buffer.putInt(assignedCars[passenger]);
+        buffer.putInt(tags[passenger]);
+        buffer.putLong(arrivalCycles[passenger]);
+        buffer.putLong(boardingCycles[passenger]);
+    }
+
+    private int restorePassenger(ByteBuffer buffer) {
+        var passenger = allocate();
+        origins[passenger] = buffer.getInt();
+        destinations[passenger] = buffer.getInt();
+        assignedCars[passenger] = buffer.getInt();
+        tags[passenger] = buffer.getInt();
+        arrivalCycles[passenger] = buffer.getLong();
+        boardingCycles[passenger] = buffer.getLong();
+        return passenger;
+    }
+
+    private void appendWaiting(int passenger) {
+        var index = origins[passenger] - lowestStorey;
+        next[passenger] = NONE;
+        if(waitingTails[index] == NONE)
+            waitingHeads[index] = passenger;
+        else
+            next[waitingTails[index]] = passenger;
+
+        waitingTails[index] = passenger;
+        waitingCounts[index]++;
+        waiting++;
+    }
+
+    private void addRiding(int car, int passenger) {
+        next[passenger] = ridingHeads[car];
+        ridingHeads[car] = passenger;
+        ridingCounts[car]++;
+        riding++;
+    }
+
+    private int allocate() {
+        if(freeHead != NONE) {
+            var passenger = freeHead;
+            freeHead = next[passenger];
+            return passenger;
+        }
+
+        if(used == origins.length) {
+            var capacity = used * 2;
+            origins = Arrays.copyOf(origins, capacity);
+            destinations = Arrays.copyOf(destinations, capacity);
+            assignedCars = Arrays.copyOf(assignedCars, capacity);
+            tags = Arrays.copyOf(tags, capacity);
+            arrivalCycles = Arrays.copyOf(arrivalCycles, capacity);
+            boardingCycles = Arrays.copyOf(boardingCycles, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+
+        return used++;
+    }
+}
@@ -0,0 +1,15 @@
+package knc.simulator.model;
+
+/**
+ * A {@link RequestListener} is notified each time an {@link ElevatorRequestManager} serves a request.
+ */
+public interface RequestListener {
+    /**
+     * Called when the elevator arrives at a requested storey.
+     * @param storey The requested storey
+     * @param creationCycle The cycle at which the request was made
+     * @param dispatchCycle The cycle at which the elevator was last sent towards the storey
+     * @param serviceCycle The cycle at which the elevator arrived
+     */
+    void onRequestServed(int storey, long creationCycle, long dispatchCycle, long serviceCycle);
+}
@@ -0,0 +1,20 @@
+package knc.simulator.model;
+
+/**
+ * The urgency of a request made to an {@link ElevatorRequestManager}.
+ * Requests above {@link #NORMAL} are served before any normal request, the highest priority first.
+ */
+public enum RequestPriority {
+    /**
+     * Served in the order given by the {@link SchedulingPolicy}.
+     */
+    NORMAL,
+    /**
+     * Served before normal requests, such as for accessibility or freight.
+     */
+    HIGH,
+    /**
+     * Served before every other request, such as for firefighters.
+     */
+    EMERGENCY;
+}
@@ -0,0 +1,17 @@
+package knc.simulator.model;
+
+/**
+ * The order in which an {@link ElevatorRequestManager} serves its queued requests.
+ */
+public enum SchedulingPolicy {
+    /**
+     * Requests are served strictly in the order they were made.
+     */
+    FIFO,
+    /**
+     * Requests are served in the order they are passed on the current sweep (SCAN/LOOK collective control).
+     * The elevator stops at every requested storey in its direction of travel and only reverses
+     * once no requests remain ahead of it.
+     */
+    COLLECTIVE;
+}
@@ -0,0 +1,295 @@
+package knc.simulator.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A {@link StoreyRequestQueue} holds at most one pending request per storey using only primitive arrays.
+ * A bitset answers whether a storey is pending, and an intrusive doubly linked list over storey indices keeps
+ * the order the requests were made in. Adding, checking and removing a request are O(1) and never allocate.
+ * The number of storeys travelled visiting every request in order is maintained as requests are added and removed,
+ * so the length of the queued trip is also known in O(1).
+ */
+class StoreyRequestQueue {
+    /**
+     * Returned when no storey matches a query.
+     */
+    static final int NONE = Integer.MIN_VALUE;
+
+    private static final int NO_INDEX = -1;
+
+    private final int lowestStorey;
+    private final long[] pendingBits;
+    private final long[] creationCycles;
+    private final int[] next;
+    private final int[] previous;
+    private int head = NO_INDEX;
+    private int tail = NO_INDEX;
+    private int size = 0;
+    private long pathLength = 0;
+
+    /**
+     * Constructs an empty {@link StoreyRequestQueue} for the specified range of storeys.
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     */
+    StoreyRequestQueue(int lowestStorey, int highestStorey) {
+        var storeyCount = highestStorey - lowestStorey + 1;
+        this.lowestStorey = lowestStorey;
+        this.pendingBits = new long[(storeyCount + 63) >>> 6];
+        this.creationCycles = new long[storeyCount];
+        this.next = new int[storeyCount];
+        this.previous = new int[storeyCount];
+    }
+
+    /**
+     * Appends a request for the specified storey unless one is already pending.
+     * @param storey The requested storey
+     * @param creationCycle The cycle at which the request was made
+     * @return True if the request was added, false if it was a duplicate
+     */
+    boolean add(int storey, long creationCycle) {
+        var index = storey - lowestStorey;
+        if(isPending(index))
+            return false;
+
+        pendingBits[index >>> 6] |= 1L << index;
+        creationCycles[index] = creationCycle;
+        previous[index] = tail;
+        next[index] = NO_INDEX;
+
+        if(tail == NO_INDEX) {
+            head = index;
+        } else {
+            next[tail] = index;
+            pathLength += Math.abs(index - tail);
+        }
+
+        tail = index;
+        size++;
+        return true;
+    }
+
+    /**
+     * Prepends a request for the specified storey unless one is already pending, making it the oldest request.
+     * @param storey The requested storey
+     * @param creationCycle The cycle at which the request was made
+     * @return True if the request was added, false if it was a duplicate
+     */
+    boolean addFirst(int storey, long creationCycle) {
+        var index = storey - lowestStorey;
+        if(isPending(index))
+            return false;
+
+        pendingBits[index >>> 6] |= 1L << index;
+        creationCycles[index] = creationCycle;
+        previous[index] = NO_INDEX;
+        next[index] = head;
+
+        if(head == NO_INDEX) {
+            tail = index;
+        } else {
+            previous[head] = index;
+            pathLength += Math.abs(head - index);
+        }
+
+        head = index;
+        size++;
+        return true;
+    }
+
+    /**
+     * Checks whether a request for the specified storey is pending.
+     * @param storey The storey to check
+     * @return True if the storey is pending
+     */
+    boolean contains(int storey) {
+        return isPending(storey - lowestStorey);
+    }
+
+    /**
+     * Removes the pending request for the specified storey, if any.
+     * @param storey The storey to remove
+     * @return True if a request was removed
+     */
+    boolean remove(int storey) {
+        var index = storey - lowestStorey;
+        if(!isPending(index))
+            return false;
+
+        pendingBits[index >>> 6] &= ~(1L << index);
+
+        // Replace the legs to and from the removed storey with a direct leg between its neighbours
+        var before = previous[index];
+        var after = next[index];
+        if(before != NO_INDEX)
+            pathLength -= Math.abs(index - before);
+        if(after != NO_INDEX)
+            pathLength -= Math.abs(after - index);
+        if(before != NO_INDEX && after != NO_INDEX)
+            pathLength += Math.abs(after - before);
+
+        if(previous[index] == NO_INDEX)
+            head = next[index];
+        else
+            next[previous[index]] = next[index];
+
+        if(next[index] == NO_INDEX)
+            tail = previous[index];
+        else
+            previous[next[index]] = previous[index];
+
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the storey of the oldest pending request.
+     * @return The storey, or {@link #NONE} if the queue is empty
+     */
+    int first() {
+        return head == NO_INDEX ? NONE : head + lowestStorey;
+    }
+
+    /**
+     * Gets the storey of the newest pending request.
+     * @return The storey, or {@link #NONE} if the queue is empty
+     */
+    int last() {
+        return tail == NO_INDEX ? NONE : tail + lowestStorey;
+    }
+
+    /**
+     * Gets the number of storeys travelled going from the oldest pending request to the newest, visiting every
+     * request in the order they were made.
+     * @return The number of storeys
+     */
+    long getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * Gets the storey of the request made after the specified pending storey.
+     * @param storey A pending storey
+     * @return The following storey, or {@link #NONE} if the specified storey is the newest request
+     */
+    int next(int storey) {
+        var index = next[storey - lowestStorey];
+        return index == NO_INDEX ? NONE : index + lowestStorey;
+    }
+
+    /**
+     * Gets the creation cycle of the pending request for the specified storey.
+     * @param storey A pending storey
+     * @return The cycle at which the request was made
+     */
+    long getCreationCycle(int storey) {
+        return creationCycles[storey - lowestStorey];
+    }
+
+    /**
+     * Finds the lowest pending storey at or above the specified storey.
+     * @param storey The storey to search from
+     * @return The pending storey, or {@link #NONE} if there is none
+     */
+    int closestAtOrAbove(int storey) {
+        var index = Math.max(0, storey - lowestStorey);
+        var word = index >>> 6;
+        if(word >= pendingBits.length)
+            return NONE;
+
+        var bits = pendingBits[word] & (-1L << index);
+        while(true) {
+            if(bits != 0)
+                return (word << 6) + Long.numberOfTrailingZeros(bits) + lowestStorey;
+            if(++word == pendingBits.length)
+                return NONE;
+            bits = pendingBits[word];
+        }
+    }
+
+    /**
+     * Finds the highest pending storey at or below the specified storey.
+     * @param storey The storey to search from
+     * @return The pending storey, or {@link #NONE} if there is none
+     */
+    int closestAtOrBelow(int storey) {
+        var index = Math.min(creationCycles.length - 1, storey - lowestStorey);
+        if(index < 0)
+            return NONE;
+
+        var word = index >>> 6;
+        var bits = pendingBits[word] & (-1L >>> (63 - (index & 63)));
+        while(true) {
+            if(bits != 0)
+                return (word << 6) + 63 - Long.numberOfLeadingZeros(bits) + lowestStorey;
+            if(--word < 0)
+                return NONE;
+            bits = pendingBits[word];
+        }
+    }
+
+    /**
+     * Gets the number of pending requests.
+     * @return The number of requests
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether no requests are pending.
+     * @return True if the queue is empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every pending request.
+     */
+    void clear() {
+        Arrays.fill(pendingBits, 0);
+        head = NO_INDEX;
+        tail = NO_INDEX;
+        size = 0;
+        pathLength = 0;
+    }
+
+    /**
+     * Gets the number of bytes written by {@link #saveState(ByteBuffer)}.
+     * @return The number of bytes
+     */
+    int getStateSize() {
+        return Integer.BYTES + size * (Integer.BYTES + Long.BYTES);
+    }
+
+    /**
+     * Writes every pending request, oldest first.
+     * @param buffer The buffer to write to
+     */
+    void saveState(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for(var index = head; index != NO_INDEX; index = next[index]) {
+            buffer.putInt(index + lowestStorey);
+            buffer.putLong(creationCycles[index]);
+        }
+    }
+
+    /**
+     * Replaces the pending requests with those written by {@link #saveState(ByteBuffer)}.
+     * @param buffer The buffer to read from
+     */
+    void restoreState(ByteBuffer buffer) {
+        clear();
+        var count = buffer.getInt();
+        for(int i = 0; i < count; i++) {
+            var storey = buffer.getInt();
+            add(storey, buffer.getLong());
+        }
+    }
+
+    private boolean isPending(int index) {
+        return (pendingBits[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,241 @@
+package knc.simulator.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An {@link UrgentRequestHeap} orders the urgent requests of an {@link ElevatorRequestManager} using only primitive
+ * arrays.
+ * It is a binary heap of storey indices with a second array holding the position of every storey in the heap, so a
+ * request can be found, escalated or removed by its storey. The most urgent request is the one with the highest
+ * priority, then the earliest deadline, then the earliest creation. Peeking is O(1); adding, escalating and removing
+ * are O(log n) and never allocate.
+ */
+class UrgentRequestHeap {
+    private static final int NO_INDEX = -1;
+
+    private final int lowestStorey;
+    private final int[] heap;
+    private final int[] positions;
+    private final int[] priorities;
+    private final long[] deadlines;
+    private final long[] creationCycles;
+    private int size = 0;
+
+    /**
+     * Constructs an empty {@link UrgentRequestHeap} for the specified range of storeys.
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     */
+    UrgentRequestHeap(int lowestStorey, int highestStorey) {
+        var storeyCount = highestStorey - lowestStorey + 1;
+        this.lowestStorey = lowestStorey;
+        this.heap = new int[storeyCount];
+        this.positions = new int[storeyCount];
+        this.priorities = new int[storeyCount];
+        this.deadlines = new long[storeyCount];
+        this.creationCycles = new long[storeyCount];
+        Arrays.fill(positions, NO_INDEX);
+    }
+
+    /**
+     * Compares the urgency of two requests.
+     * @return A negative number if the first request is more urgent, a positive number if the second is, otherwise 0
+     */
+    static int compare(int priority, long deadline, int otherPriority, long otherDeadline) {
+        if(priority != otherPriority)
+            return Integer.compare(otherPriority, priority);
+
+        return Long.compare(deadline, otherDeadline);
+    }
+
+    /**
+     * Adds a request for the specified storey. If one is already present it is escalated to the higher of the two
+     * priorities and the earlier of the two deadlines.
+     * @param storey The requested storey
+     * @param priority The ordinal of the {@link RequestPriority} of the request
+     * @param deadline The cycle by which the request should be served
+     * @param creationCycle The cycle at which the request was made
+     * @return True if the request was added, false if an existing request was escalated
+     */
+    boolean offer(int storey, int priority, long deadline, long creationCycle) {
+        var index = storey - lowestStorey;
+        if(positions[index] != NO_INDEX) {
+            priorities[index] = Math.max(priorities[index], priority);
+            deadlines[index] = Math.min(deadlines[index], deadline);
+            siftUp(positions[index]);
+            return false;
+        }
+
+        priorities[index] = priority;
+        deadlines[index] = deadline;
+        creationCycles[index] = creationCycle;
+        heap[size] = index;
+        positions[index] = size;
+        siftUp(size++);
+        return true;
+    }
+
+    /**
+     * Removes the request for the specified storey, if any.
+     * @param storey The storey to remove
+     * @return True if a request was removed
+     */
+    boolean remove(int storey) {
+        var index = storey - lowestStorey;
+        var position = positions[index];
+        if(position == NO_INDEX)
+            return false;
+
+        positions[index] = NO_INDEX;
+        if(position != --size) {
+            heap[position] = heap[size];
+            positions[heap[position]] = position;
+            siftDown(position);
+            siftUp(position);
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether a request for the specified storey is present.
+     * @param storey The storey to check
+     * @return True if the storey is present
+     */
+    boolean contains(int storey) {
+        return positions[storey - lowestStorey] != NO_INDEX;
+    }
+
+    /**
+     * Gets the storey of the most urgent request.
+     * @return The storey, or {@link StoreyRequestQueue#NONE} if the heap is empty
+     */
+    int peek() {
+        return size == 0 ? StoreyRequestQueue.NONE : heap[0] + lowestStorey;
+    }
+
+    /**
+     * Gets the priority of the request for the specified storey.
+     * @param storey A storey present in the heap
+     * @return The ordinal of the {@link RequestPriority}
+     */
+    int getPriority(int storey) {
+        return priorities[storey - lowestStorey];
+    }
+
+    /**
+     * Gets the deadline of the request for the specified storey.
+     * @param storey A storey present in the heap
+     * @return The cycle by which the request should be served
+     */
+    long getDeadline(int storey) {
+        return deadlines[storey - lowestStorey];
+    }
+
+    /**
+     * Gets the number of requests.
+     * @return The number of requests
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the heap is empty.
+     * @return True if no requests are present
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every request.
+     */
+    void clear() {
+        for(int i = 0; i < size; i++)
+            positions[heap[i]] = NO_INDEX;
+
+        size = 0;
+    }
+
+    /**
+     * Gets the number of bytes written by {@link #saveState(ByteBuffer)}.
+     * @return The number of bytes
+     */
+    int getStateSize() {
+        return Integer.BYTES + size * (2 * Integer.BYTES + 2 * Long.BYTES);
+    }
+
+    /**
+     * Writes every request in heap order.
+     * @param buffer The buffer to write to
+     */
+    void saveState(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for(int i = 0; i < size; i++) {
+            var index = heap[i];
+            buffer.putInt(index + lowestStorey);
+            buffer.putInt(priorities[index]);
+            buffer.putLong(deadlines[index]);
+            buffer.putLong(creationCycles[index]);
+        }
+    }
+
+    /**
+     * Replaces the requests with those written by {@link #saveState(ByteBuffer)}.
+     * @param buffer The buffer to read from
+     */
+    void restoreState(ByteBuffer buffer) {
+        clear();
+        var count = buffer.getInt();
+        for(int i = 0; i < count; i++)
+            offer(buffer.getInt(), buffer.getInt(), buffer.getLong(), buffer.getLong());
+    }
+
+    private boolean isMoreUrgent(int index, int otherIndex) {
+        var comparison = compare(priorities[index], deadlines[index], priorities[otherIndex], deadlines[otherIndex]);
+        if(comparison != 0)
+            return comparison < 0;
+        if(creationCycles[index] != creationCycles[otherIndex])
+            return creationCycles[index] < creationCycles[otherIndex];
+
+        return index < otherIndex;
+    }
+
+    private void siftUp(int position) {
+        var index = heap[position];
+        while(position > 0) {
+            var parent = (position - 1) >>> 1;
+            if(!isMoreUrgent(index, heap[parent]))
+                break;
+
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+
+        heap[position] = index;
+        positions[index] = position;
+    }
+
+    private void siftDown(int position) {
+        var index = heap[position];
+        while(true) {
+            var child = 2 * position + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && isMoreUrgent(heap[child + 1], heap[child]))
+                child++;
+            if(!isMoreUrgent(heap[child], index))
+                break;
+
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+
+        heap[position] = index;
+        positions[index] = position;
+    }
+}
@@ -0,0 +1,23 @@
+package knc.simulator.scenario;
+
+/**
+ * The {@link knc.simulator.model.Dispatcher} assigning the hall calls of a {@link Scenario}.
+ */
+public enum DispatcherType {
+    /**
+     * {@link knc.simulator.model.NearestCarDispatcher}.
+     */
+    NEAREST_CAR,
+    /**
+     * {@link knc.simulator.model.LookDispatcher}.
+     */
+    LOOK,
+    /**
+     * {@link knc.simulator.model.EtaDispatcher}.
+     */
+    ETA,
+    /**
+     * {@link knc.simulator.model.EnergyAwareDispatcher}, weighing energy at {@link Scenario#getCyclesPerKilowattHour()}.
+     */
+    ENERGY_AWARE;
+}
@@ -0,0 +1,525 @@
+package knc.simulator.scenario;
+
+import knc.simulator.engine.AdvanceMode;
+import knc.simulator.engine.SimulationEngine;
+import knc.simulator.model.DestinationDispatcher;
+import knc.simulator.model.Dispatcher;
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.EnergyAwareDispatcher;
+import knc.simulator.model.EtaDispatcher;
+import knc.simulator.model.LookDispatcher;
+import knc.simulator.model.NearestCarDispatcher;
+import knc.simulator.model.ParkingPolicy;
+import knc.simulator.model.SchedulingPolicy;
+import knc.simulator.traffic.TraceReader;
+import knc.simulator.traffic.TrafficGenerator;
+import knc.simulator.traffic.TrafficProfile;
+import knc.simulator.traffic.TrafficSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * A {@link Scenario} describes a complete simulation: the building, the cars, how calls are dispatched and the traffic.
+ * The traffic is either a recorded trace streamed by a {@link TraceReader}, or generated by a {@link TrafficGenerator}.
+ * <p>
+ * Scenarios are stored as properties files, with every key optional:
+ * <pre>
+ * building.lowestStorey = 1
+ * building.highestStorey = 20
+ * building.elevators = 4
+ * car.cyclesToTraverseStorey = 60
+ * car.cyclesToHold = 60
+ * car.accelerationCycles = 0
+ * car.capacity = 13
+ * car.cyclesPerPassenger = 60
+ * dispatcher = ETA
+ * dispatcher.cyclesPerKilowattHour = 0
+ * dispatcher.assignmentWindow = -1
+ * scheduling = COLLECTIVE
+ * parking = false
+ * passengers = false
+ * traffic.trace = calls.csv
+ * traffic.profile = FULL_DAY
+ * traffic.peakCallsPerCycle = 0.002
+ * traffic.seed = 0
+ * cycles = 5184000
+ * </pre>
+ * A trace path is resolved against the directory of the scenario file. A non-negative assignment window enables
+ * destination dispatch, which requires passengers.
+ */
+public class Scenario {
+    private static final String LOWEST_STOREY_KEY = "building.lowestStorey";
+    private static final String HIGHEST_STOREY_KEY = "building.highestStorey";
+
+    private int lowestStorey = 1;
+    private int highestStorey = 20;
+    private int elevatorCount = 4;
+    private int cyclesToTraverseStorey = 60;
+    private int cyclesToHold = 60;
+    private int accelerationCycles = 0;
+    private int capacity = 13;
+    private int cyclesPerPassenger = 60;
+    private DispatcherType dispatcherType = DispatcherType.ETA;
+    private double cyclesPerKilowattHour = 0;
+    private int assignmentWindow = -1;
+    private SchedulingPolicy schedulingPolicy = SchedulingPolicy.COLLECTIVE;
+    private boolean parking = false;
+    private boolean passengerTraffic = false;
+    private Path tracePath;
+    private TrafficProfile trafficProfile = TrafficProfile.FULL_DAY;
+    private double peakCallsPerCycle = 0.002;
+    private long seed = 0;
+    private long cycles = TrafficGenerator.DEFAULT_CYCLES_PER_DAY;
+
+    /**
+     * Reads a {@link Scenario} from a properties file.
+     * @param path The path of the scenario file
+     * @return The scenario
+     * @throws IOException If the file cannot be read
+     * @throws IllegalArgumentException If the file contains an unknown key or an invalid value
+     */
+    public static Scenario load(Path path) throws IOException, IllegalArgumentException {
+        var properties = new Properties();
+        try(var reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+
+        var scenario = new Scenario();
+        var directory = path.toAbsolutePath().getParent();
+        try {
+            // The storeys are validated together, so they are set before the other keys
+            scenario.setStoreys(Integer.parseInt(properties.getProperty(LOWEST_STOREY_KEY, Integer.toString(scenario.lowestStorey)).trim()),
+                    Integer.parseInt(properties.getProperty(HIGHEST_STOREY_KEY, Integer.toString(scenario.highestStorey)).trim()));
+        } catch(IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid storeys in " + path + ": " + e.getMessage(), e);
+        }
+
+        for(var key : properties.stringPropertyNames()) {
+            var value = properties.getProperty(key).trim();
+            try {
+                if(!key.equals(LOWEST_STOREY_KEY) && !key.equals(HIGHEST_STOREY_KEY))
+                    scenario.set(key, value, directory);
+            } catch(IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid value for " + key + " in " + path + ": " + e.getMessage(), e);
+            }
+        }
+
+        scenario.validate();
+        return scenario;
+    }
+
+    public int getLowestStorey() {
+        return lowestStorey;
+    }
+
+    public int getHighestStorey() {
+        return highestStorey;
+    }
+
+    /**
+     * Sets the storeys of the building.
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey
+     */
+    public void setStoreys(int lowestStorey, int highestStorey) throws IllegalArgumentException {
+        if(lowestStorey >= highestStorey)
+            throw new IllegalArgumentException("The highest storey must be at least one level above the lowest storey");
+
+        this.lowestStorey = lowestStorey;
+        this.highestStorey = highestStorey;
+    }
+
+    public int getElevatorCount() {
+        return elevatorCount;
+    }
+
+    /**
+     * Sets the number of elevators in the bank.
+     * @param elevatorCount The number of elevators
+     * @throws IllegalArgumentException If elevatorCount < 1
+     */
+    public void setElevatorCount(int elevatorCount) throws IllegalArgumentException {
+        if(elevatorCount < 1)
+            throw new IllegalArgumentException("Elevator count must be >= 1");
+
+        this.elevatorCount = elevatorCount;
+    }
+
+    public int getCyclesToTraverseStorey() {
+        return cyclesToTraverseStorey;
+    }
+
+    /**
+     * Sets the number of cycles every car takes to travel one storey at full speed.
+     * @param cyclesToTraverseStorey The number of cycles
+     * @throws IllegalArgumentException If cyclesToTraverseStorey < 1
+     */
+    public void setCyclesToTraverseStorey(int cyclesToTraverseStorey) throws IllegalArgumentException {
+        if(cyclesToTraverseStorey < 1)
+            throw new IllegalArgumentException("Cycles to traverse a storey must be >= 1");
+
+        this.cyclesToTraverseStorey = cyclesToTraverseStorey;
+    }
+
+    public int getCyclesToHold() {
+        return cyclesToHold;
+    }
+
+    /**
+     * Sets the number of cycles every car holds at a requested storey.
+     * @param cyclesToHold The number of cycles
+     * @throws IllegalArgumentException If cyclesToHold < 1
+     */
+    public void setCyclesToHold(int cyclesToHold) throws IllegalArgumentException {
+        if(cyclesToHold < 1)
+            throw new IllegalArgumentException("Cycles to hold must be >= 1");
+
+        this.cyclesToHold = cyclesToHold;
+    }
+
+    public int getAccelerationCycles() {
+        return accelerationCycles;
+    }
+
+    /**
+     * Sets the number of cycles every car takes to reach full speed.
+     * @param accelerationCycles The number of cycles
+     * @throws IllegalArgumentException If accelerationCycles < 0
+     */
+    public void setAccelerationCycles(int accelerationCycles) throws IllegalArgumentException {
+        if(accelerationCycles < 0)
+            throw new IllegalArgumentException("Acceleration cycles must be >= 0");
+
+        this.accelerationCycles = accelerationCycles;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the number of passengers every car can carry.
+     * @param capacity The capacity
+     * @throws IllegalArgumentException If capacity < 1
+     */
+    public void setCapacity(int capacity) throws IllegalArgumentException {
+        if(capacity < 1)
+            throw new IllegalArgumentException("Capacity must be >= 1");
+
+        this.capacity = capacity;
+    }
+
+    public int getCyclesPerPassenger() {
+        return cyclesPerPassenger;
+    }
+
+    /**
+     * Sets the number of cycles a car holds for each passenger boarding or alighting.
+     * @param cyclesPerPassenger The number of cycles
+     * @throws IllegalArgumentException If cyclesPerPassenger < 0
+     */
+    public void setCyclesPerPassenger(int cyclesPerPassenger) throws IllegalArgumentException {
+        if(cyclesPerPassenger < 0)
+            throw new IllegalArgumentException("Cycles per passenger must be >= 0");
+
+        this.cyclesPerPassenger = cyclesPerPassenger;
+    }
+
+    public DispatcherType getDispatcherType() {
+        return dispatcherType;
+    }
+
+    /**
+     * Sets the {@link DispatcherType} assigning hall calls.
+     * @param dispatcherType The dispatcher type
+     * @throws IllegalArgumentException If dispatcherType is null
+     */
+    public void setDispatcherType(DispatcherType dispatcherType) throws IllegalArgumentException {
+        if(dispatcherType == null)
+            throw new IllegalArgumentException("Dispatcher type must not be null");
+
+        this.dispatcherType = dispatcherType;
+    }
+
+    public double getCyclesPerKilowattHour() {
+        return cyclesPerKilowattHour;
+    }
+
+    /**
+     * Sets the number of cycles of waiting worth saving one kilowatt hour, used by {@link DispatcherType#ENERGY_AWARE}.
+     * @param cyclesPerKilowattHour The exchange rate
+     * @throws IllegalArgumentException If cyclesPerKilowattHour < 0
+     */
+    public void setCyclesPerKilowattHour(double cyclesPerKilowattHour) throws IllegalArgumentException {
+        if(!(cyclesPerKilowattHour >= 0))
+            throw new IllegalArgumentException("Cycles per kilowatt hour must be >= 0");
+
+        this.cyclesPerKilowattHour = cyclesPerKilowattHour;
+    }
+
+    public int getAssignmentWindow() {
+        return assignmentWindow;
+    }
+
+    /**
+     * Sets the assignment window of destination dispatch.
+     * @param assignmentWindow The number of cycles calls are collected for, or a negative number to disable
+     * destination dispatch
+     */
+    public void setAssignmentWindow(int assignmentWindow) {
+        this.assignmentWindow = assignmentWindow;
+    }
+
+    public SchedulingPolicy getSchedulingPolicy() {
+        return schedulingPolicy;
+    }
+
+    /**
+     * Sets the {@link SchedulingPolicy} of every car.
+     * @param schedulingPolicy The scheduling policy
+     * @throws IllegalArgumentException If schedulingPolicy is null
+     */
+    public void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) throws IllegalArgumentException {
+        if(schedulingPolicy == null)
+            throw new IllegalArgumentException("Scheduling policy must not be null");
+
+        this.schedulingPolicy = schedulingPolicy;
+    }
+
+    public boolean isParking() {
+        return parking;
+    }
+
+    /**
+     * Sets whether idle cars are parked by a {@link ParkingPolicy}.
+     * @param parking True to park idle cars
+     */
+    public void setParking(boolean parking) {
+        this.parking = parking;
+    }
+
+    public boolean isPassengerTraffic() {
+        return passengerTraffic;
+    }
+
+    /**
+     * Sets whether every call creates a passenger travelling to its destination.
+     * @param passengerTraffic True to create passengers
+     */
+    public void setPassengerTraffic(boolean passengerTraffic) {
+        this.passengerTraffic = passengerTraffic;
+    }
+
+    public Path getTracePath() {
+        return tracePath;
+    }
+
+    /**
+     * Sets the trace replayed by the scenario.
+     * @param tracePath The path of the trace, or null to generate traffic instead
+     */
+    public void setTracePath(Path tracePath) {
+        this.tracePath = tracePath;
+    }
+
+    public TrafficProfile getTrafficProfile() {
+        return trafficProfile;
+    }
+
+    /**
+     * Sets the {@link TrafficProfile} of generated traffic.
+     * @param trafficProfile The traffic profile
+     * @throws IllegalArgumentException If trafficProfile is null
+     */
+    public void setTrafficProfile(TrafficProfile trafficProfile) throws IllegalArgumentException {
+        if(trafficProfile == null)
+            throw new IllegalArgumentException("Traffic profile must not be null");
+
+        this.trafficProfile = trafficProfile;
+    }
+
+    public double getPeakCallsPerCycle() {
+        return peakCallsPerCycle;
+    }
+
+    /**
+     * Sets the mean number of calls per cycle at the peak of generated traffic.
+     * @param peakCallsPerCycle The number of calls per cycle
+     * @throws IllegalArgumentException If peakCallsPerCycle <= 0
+     */
+    public void setPeakCallsPerCycle(double peakCallsPerCycle) throws IllegalArgumentException {
+        if(!(peakCallsPerCycle > 0))
+            throw new IllegalArgumentException("Calls per cycle must be > 0");
+
+        this.peakCallsPerCycle = peakCallsPerCycle;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed of generated traffic.
+     * @param seed The seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getCycles() {
+        return cycles;
+    }
+
+    /**
+     * Sets the number of cycles simulated.
+     * @param cycles The number of cycles
+     * @throws IllegalArgumentException If cycles < 1
+     */
+    public void setCycles(long cycles) throws IllegalArgumentException {
+        if(cycles < 1)
+            throw new IllegalArgumentException("Cycles must be >= 1");
+
+        this.cycles = cycles;
+    }
+
+    /**
+     * Creates the {@link ElevatorBank} described by this scenario.
+     * @return The elevator bank
+     * @throws IllegalArgumentException If destination dispatch is enabled without passengers
+     */
+    public ElevatorBank createElevatorBank() throws IllegalArgumentException {
+        validate();
+
+        var elevatorBank = new ElevatorBank(lowestStorey, highestStorey, elevatorCount, createDispatcher());
+        elevatorBank.setSchedulingPolicy(schedulingPolicy);
+        for(var elevator : elevatorBank.getElevators()) {
+            elevator.setCyclesToTraverseStorey(cyclesToTraverseStorey);
+            elevator.setCyclesToHold(cyclesToHold);
+            elevator.setAccelerationCycles(accelerationCycles);
+            elevator.setCapacity(capacity);
+            elevator.setCyclesPerPassenger(cyclesPerPassenger);
+        }
+        if(assignmentWindow >= 0)
+            elevatorBank.setDestinationDispatcher(new DestinationDispatcher(assignmentWindow, DestinationDispatcher.DEFAULT_STOP_PENALTY));
+        if(parking)
+            elevatorBank.setParkingPolicy(new ParkingPolicy(lowestStorey, highestStorey));
+
+        return elevatorBank;
+    }
+
+    /**
+     * Opens the traffic of this scenario: a {@link TraceReader} if a trace is set, otherwise a {@link TrafficGenerator}.
+     * A trace reader must be closed once the simulation is done.
+     * @return The traffic source
+     * @throws IOException If the trace cannot be read
+     */
+    public TrafficSource openTrafficSource() throws IOException {
+        if(tracePath != null)
+            return new TraceReader(tracePath, lowestStorey, highestStorey);
+
+        return new TrafficGenerator(lowestStorey, highestStorey, trafficProfile, peakCallsPerCycle, seed);
+    }
+
+    /**
+     * Creates a {@link SimulationEngine} driving a new {@link ElevatorBank} with the specified traffic, ready to run
+     * for the cycles of this scenario.
+     * @param trafficSource The traffic, typically from {@link #openTrafficSource()}
+     * @return The simulation engine
+     * @throws IllegalArgumentException If destination dispatch is enabled without passengers
+     */
+    public SimulationEngine createSimulationEngine(TrafficSource trafficSource) throws IllegalArgumentException {
+        var engine = new SimulationEngine(createElevatorBank());
+        engine.setAdvanceMode(AdvanceMode.NEXT_EVENT);
+        engine.setTrafficSource(trafficSource);
+        engine.setPassengerTraffic(passengerTraffic);
+        engine.setCycleBudget(cycles);
+        return engine;
+    }
+
+    private Dispatcher createDispatcher() {
+        switch(dispatcherType) {
+            case NEAREST_CAR:
+                return new NearestCarDispatcher();
+            case LOOK:
+                return new LookDispatcher();
+            case ENERGY_AWARE:
+                return new EnergyAwareDispatcher(cyclesPerKilowattHour);
+            default:
+                return new EtaDispatcher();
+        }
+    }
+
+    private void validate() throws IllegalArgumentException {
+        if(assignmentWindow >= 0 && !passengerTraffic)
+            throw new IllegalArgumentException("Destination dispatch requires passengers");
+    }
+
+    private void set(String key, String value, Path directory) throws IllegalArgumentException {
+        switch(key) {
+            case "building.elevators":
+                setElevatorCount(Integer.parseInt(value));
+                break;
+            case "car.cyclesToTraverseStorey":
+                setCyclesToTraverseStorey(Integer.parseInt(value));
+                break;
+            case "car.cyclesToHold":
+                setCyclesToHold(Integer.parseInt(value));
+                break;
+            case "car.accelerationCycles":
+                setAccelerationCycles(Integer.parseInt(value));
+                break;
+            case "car.capacity":
+                setCapacity(Integer.parseInt(value));
+                break;
+            case "car.cyclesPerPassenger":
+                setCyclesPerPassenger(Integer.parseInt(value));
+                break;
+            case "dispatcher":
+                setDispatcherType(DispatcherType.valueOf(value));
+                break;
+            case "dispatcher.cyclesPerKilowattHour":
+                setCyclesPerKilowattHour(Double.parseDouble(value));
+                break;
+            case "dispatcher.assignmentWindow":
+                setAssignmentWindow(Integer.parseInt(value));
+                break;
+            case "scheduling":
+                setSchedulingPolicy(SchedulingPolicy.valueOf(value));
+                break;
+            case "parking":
+                setParking(parseBoolean(value));
+                break;
+            case "passengers":
+                setPassengerTraffic(parseBoolean(value));
+                break;
+            case "traffic.trace":
+                setTracePath(value.isEmpty() ? null : directory.resolve(value));
+                break;
+            case "traffic.profile":
+                setTrafficProfile(TrafficProfile.valueOf(value));
+                break;
+            case "traffic.peakCallsPerCycle":
+                setPeakCallsPerCycle(Double.parseDouble(value));
+                break;
+            case "traffic.seed":
+                setSeed(Long.parseLong(value));
+                break;
+            case "cycles":
+                setCycles(Long.parseLong(value));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown key");
+        }
+    }
+
+    private static boolean parseBoolean(String value) throws IllegalArgumentException {
+        if(!value.equals("true") && !value.equals("false"))
+            throw new IllegalArgumentException("Expected true or false");
+
+        return value.equals("true");
+    }
+}
@@ -0,0 +1,239 @@
+package knc.simulator.traffic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link TraceReader} streams recorded calls from a text trace, such as one converted from the access control log
+ * of a building.
+ * Each line holds one call as {@code cycle,origin,destination}, with cycles in non-decreasing order. Blank lines and
+ * lines starting with {@code #} are ignored. The file is memory-mapped one window at a time and every line is parsed
+ * in place as the call is reached, so traces far larger than the heap can be replayed and reading a call does not
+ * allocate.
+ */
+public class TraceReader implements TrafficSource, Closeable {
+    /**
+     * The number of bytes of the file mapped at once, unless specified.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private final int lowestStorey;
+    private final int highestStorey;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int nextLineStart = 0;
+    private int position;
+    private int lineEnd;
+    private long lineNumber = 0;
+    private long callCount = 0;
+    private long nextCallCycle = 0;
+    private int nextOrigin;
+    private int nextDestination;
+
+    /**
+     * Constructs a {@link TraceReader} positioned at the first call of the specified trace.
+     * @param path The path of the trace file
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @throws IOException If the file cannot be read or its first call is malformed
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey
+     */
+    public TraceReader(Path path, int lowestStorey, int highestStorey) throws IOException, IllegalArgumentException {
+        this(path, lowestStorey, highestStorey, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a {@link TraceReader} positioned at the first call of the specified trace.
+     * @param path The path of the trace file
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @param windowSize The number of bytes of the file mapped at once, which must exceed the longest line
+     * @throws IOException If the file cannot be read or its first call is malformed
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey or windowSize < 1
+     */
+    public TraceReader(Path path, int lowestStorey, int highestStorey, int windowSize) throws IOException, IllegalArgumentException {
+        if(lowestStorey >= highestStorey)
+            throw new IllegalArgumentException("The highest storey must be at least one level above the lowest storey");
+        if(windowSize < 1)
+            throw new IllegalArgumentException("Window size must be >= 1");
+
+        this.path = path;
+        this.lowestStorey = lowestStorey;
+        this.highestStorey = highestStorey;
+        this.windowSize = windowSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            this.fileSize = channel.size();
+            map(0);
+            readCall();
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long getNextCallCycle() {
+        return nextCallCycle;
+    }
+
+    @Override
+    public int getNextOrigin() {
+        return nextOrigin;
+    }
+
+    @Override
+    public int getNextDestination() {
+        return nextDestination;
+    }
+
+    /**
+     * Moves on to the following call.
+     * @throws UncheckedIOException If the file cannot be read or the following call is malformed
+     */
+    @Override
+    public void next() throws UncheckedIOException {
+        try {
+            readCall();
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the number of calls read so far, including the current one.
+     * @return The number of calls
+     */
+    public long getCallCount() {
+        return callCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Parses the next call into the current call, or marks the trace as exhausted at the end of the file.
+     */
+    private void readCall() throws IOException {
+        if(nextCallCycle == NO_MORE_CALLS)
+            return;
+
+        while(nextLine()) {
+            skipSpaces();
+            if(position == lineEnd || window.get(position) == '#')
+                continue;
+
+            var cycle = parseField(false);
+            var origin = parseField(false);
+            var destination = parseField(true);
+            if(cycle < nextCallCycle || cycle == NO_MORE_CALLS)
+                throw new IOException(describeLine("Calls out of cycle order"));
+            if(origin < lowestStorey || origin > highestStorey || destination < lowestStorey || destination > highestStorey)
+                throw new IOException(describeLine("Storey outside building"));
+            if(origin == destination)
+                throw new IOException(describeLine("Origin and destination must differ"));
+
+            nextCallCycle = cycle;
+            nextOrigin = (int) origin;
+            nextDestination = (int) destination;
+            callCount++;
+            return;
+        }
+
+        nextCallCycle = NO_MORE_CALLS;
+    }
+
+    /**
+     * Moves the position to the start of the next line and finds its end, mapping the following window if the line
+     * crosses the end of the current one.
+     * @return True if there was another line
+     */
+    private boolean nextLine() throws IOException {
+        var start = nextLineStart;
+        while(true) {
+            var end = start;
+            while(end < window.limit() && window.get(end) != '\n')
+                end++;
+
+            if(end == window.limit() && windowStart + end < fileSize) {
+                if(start == 0)
+                    throw new IOException("Line " + (lineNumber + 1) + " of " + path + " is longer than the mapped window");
+
+                map(windowStart + start);
+                start = 0;
+                continue;
+            }
+
+            if(start == window.limit())
+                return false;
+
+            nextLineStart = end < window.limit() ? end + 1 : end;
+            position = start;
+            lineEnd = end > start && window.get(end - 1) == '\r' ? end - 1 : end;
+            lineNumber++;
+            return true;
+        }
+    }
+
+    /**
+     * Parses a decimal integer at the position, followed by a comma or, for the last field, the end of the line.
+     */
+    private long parseField(boolean last) throws IOException {
+        skipSpaces();
+        var negative = position < lineEnd && window.get(position) == '-';
+        if(negative)
+            position++;
+
+        var start = position;
+        long value = 0;
+        while(position < lineEnd) {
+            var c = window.get(position);
+            if(c < '0' || c > '9')
+                break;
+            if(value > (Long.MAX_VALUE - (c - '0')) / 10)
+                throw new IOException(describeLine("Number too large"));
+
+            value = value * 10 + (c - '0');
+            position++;
+        }
+
+        if(position == start)
+            throw new IOException(describeLine("Expected cycle,origin,destination"));
+
+        skipSpaces();
+        if(last ? position != lineEnd : position == lineEnd || window.get(position++) != ',')
+            throw new IOException(describeLine("Expected cycle,origin,destination"));
+
+        return negative ? -value : value;
+    }
+
+    private void skipSpaces() {
+        while(position < lineEnd && (window.get(position) == ' ' || window.get(position) == '\t'))
+            position++;
+    }
+
+    private String describeLine(String message) {
+        return message + " at line " + lineNumber + " of " + path;
+    }
+
+    /**
+     * Maps the window starting at the specified offset of the file.
+     */
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, fileSize - start));
+    }
+}
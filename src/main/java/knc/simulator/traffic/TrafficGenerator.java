@@ -0,0 +1,163 @@
+package knc.simulator.traffic;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link TrafficGenerator} produces a seeded stream of calls following a {@link TrafficProfile}.
+ * Arrivals form a Poisson process whose rate varies over the day; it is sampled by thinning, so only the next
+ * call is ever held in memory and identical seeds always produce identical sequences.
+ */
+public class TrafficGenerator implements TrafficSource {
+    /**
+     * The number of cycles in a day when one cycle is simulated per frame at 60 frames per second.
+     */
+    public static final long DEFAULT_CYCLES_PER_DAY = 60L * 60 * 60 * 24;
+
+    /**
+     * The number of bytes written by {@link #saveState(ByteBuffer)}.
+     */
+    public static final int STATE_SIZE = 3 * Long.BYTES + 2 * Integer.BYTES;
+
+    private final int lowestStorey;
+    private final int highestStorey;
+    private final int lobbyStorey;
+    private final TrafficProfile trafficProfile;
+    private final double peakCallsPerCycle;
+    private final long cyclesPerDay;
+    private final TrafficRandom random;
+    private double arrivalTime = 0;
+    private long nextCallCycle;
+    private int nextOrigin;
+    private int nextDestination;
+
+    /**
+     * Constructs a {@link TrafficGenerator} for a building whose lobby is its lowest storey.
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @param trafficProfile The profile describing the traffic over the day
+     * @param peakCallsPerCycle The mean number of calls per cycle at the peak of the profile
+     * @param seed The seed
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey or peakCallsPerCycle <= 0
+     */
+    public TrafficGenerator(int lowestStorey, int highestStorey, TrafficProfile trafficProfile,
+                            double peakCallsPerCycle, long seed) throws IllegalArgumentException {
+        this(lowestStorey, highestStorey, lowestStorey, trafficProfile, peakCallsPerCycle, DEFAULT_CYCLES_PER_DAY, seed);
+    }
+
+    /**
+     * Constructs a {@link TrafficGenerator}.
+     * @param lowestStorey The level of the lowest storey
+     * @param highestStorey The level of the highest storey
+     * @param lobbyStorey The storey most passengers enter and leave the building through
+     * @param trafficProfile The profile describing the traffic over the day
+     * @param peakCallsPerCycle The mean number of calls per cycle at the peak of the profile
+     * @param cyclesPerDay The number of cycles in a simulated day
+     * @param seed The seed
+     * @throws IllegalArgumentException If lowestStorey >= highestStorey, the lobby is outside the building,
+     * peakCallsPerCycle <= 0 or cyclesPerDay < 1
+     */
+    public TrafficGenerator(int lowestStorey, int highestStorey, int lobbyStorey, TrafficProfile trafficProfile,
+                            double peakCallsPerCycle, long cyclesPerDay, long seed) throws IllegalArgumentException {
+        if(lowestStorey >= highestStorey)
+            throw new IllegalArgumentException("The highest storey must be at least one level above the lowest storey");
+        if(lobbyStorey < lowestStorey || lobbyStorey > highestStorey)
+            throw new IllegalArgumentException("Lobby storey outside building");
+        if(!(peakCallsPerCycle > 0))
+            throw new IllegalArgumentException("Calls per cycle must be > 0");
+        if(cyclesPerDay < 1)
+            throw new IllegalArgumentException("Cycles per day must be >= 1");
+
+        this.lowestStorey = lowestStorey;
+        this.highestStorey = highestStorey;
+        this.lobbyStorey = lobbyStorey;
+        this.trafficProfile = trafficProfile;
+        this.peakCallsPerCycle = peakCallsPerCycle;
+        this.cyclesPerDay = cyclesPerDay;
+        this.random = new TrafficRandom(seed);
+        next();
+    }
+
+    @Override
+    public long getNextCallCycle() {
+        return nextCallCycle;
+    }
+
+    @Override
+    public int getNextOrigin() {
+        return nextOrigin;
+    }
+
+    @Override
+    public int getNextDestination() {
+        return nextDestination;
+    }
+
+    @Override
+    public void next() {
+        double timeOfDay;
+
+        // Thinning: draw candidates at the peak rate and keep each with probability rate / peak rate
+        do {
+            arrivalTime += random.nextExponential(1 / peakCallsPerCycle);
+            timeOfDay = (arrivalTime % cyclesPerDay) / cyclesPerDay;
+        } while(random.nextDouble() >= trafficProfile.getRateMultiplier(timeOfDay));
+
+        nextCallCycle = (long) arrivalTime;
+        chooseOriginAndDestination(timeOfDay);
+    }
+
+    /**
+     * Gets the random generator, whose state determines every remaining call.
+     * @return The random generator
+     */
+    public TrafficRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Writes the random state and the next call of this {@link TrafficGenerator}.
+     * The profile and building are not included, so a restored generator may differ in those.
+     * @param buffer The buffer to write to
+     */
+    public void saveState(ByteBuffer buffer) {
+        buffer.putLong(random.getState());
+        buffer.putDouble(arrivalTime);
+        buffer.putLong(nextCallCycle);
+        buffer.putInt(nextOrigin);
+        buffer.putInt(nextDestination);
+    }
+
+    /**
+     * Replaces the random state and the next call of this {@link TrafficGenerator} with those written by
+     * {@link #saveState(ByteBuffer)}.
+     * @param buffer The buffer to read from
+     */
+    public void restoreState(ByteBuffer buffer) {
+        random.setState(buffer.getLong());
+        arrivalTime = buffer.getDouble();
+        nextCallCycle = buffer.getLong();
+        nextOrigin = buffer.getInt();
+        nextDestination = buffer.getInt();
+    }
+
+    private void chooseOriginAndDestination(double timeOfDay) {
+        var direction = random.nextDouble();
+        var upShare = trafficProfile.getUpShare(timeOfDay);
+
+        if(direction < upShare) {
+            nextOrigin = lobbyStorey;
+            nextDestination = randomStoreyExcept(lobbyStorey);
+        } else if(direction < upShare + trafficProfile.getDownShare(timeOfDay)) {
+            nextOrigin = randomStoreyExcept(lobbyStorey);
+            nextDestination = lobbyStorey;
+        } else {
+            nextOrigin = lowestStorey + random.nextInt(highestStorey - lowestStorey + 1);
+            nextDestination = randomStoreyExcept(nextOrigin);
+        }
+    }
+
+    private int randomStoreyExcept(int excludedStorey) {
+        var storey = lowestStorey + random.nextInt(highestStorey - lowestStorey);
+        return storey >= excludedStorey ? storey + 1 : storey;
+    }
+}
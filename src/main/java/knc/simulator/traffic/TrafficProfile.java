@@ -0,0 +1,105 @@
+package knc.simulator.traffic;
+
+/**
+ * A {@link TrafficProfile} describes how the call rate and the direction of travel vary over the day.
+ * Times of day are expressed as a fraction of the day, so 0.5 is noon.
+ */
+public enum TrafficProfile {
+    /**
+     * A constant call rate with origins and destinations spread evenly over the building.
+     */
+    UNIFORM(0, 0, 0, 0) {
+        @Override
+        public double getRateMultiplier(double timeOfDay) {
+            return 1;
+        }
+    },
+    /**
+     * Morning peak of passengers travelling up from the lobby.
+     */
+    UP_PEAK(8.5, 0.75, 0.85, 0.05),
+    /**
+     * Lunch time peak with similar amounts of traffic leaving and returning to the lobby.
+     */
+    LUNCH(12.5, 0.6, 0.45, 0.45),
+    /**
+     * Evening peak of passengers travelling down to the lobby.
+     */
+    DOWN_PEAK(17.25, 0.75, 0.05, 0.85),
+    /**
+     * A whole working day combining the up-peak, lunch and down-peak profiles.
+     */
+    FULL_DAY(0, 0, 0, 0) {
+        @Override
+        public double getRateMultiplier(double timeOfDay) {
+            return dominantPeak(timeOfDay).getRateMultiplier(timeOfDay);
+        }
+
+        @Override
+        public double getUpShare(double timeOfDay) {
+            return dominantPeak(timeOfDay).getUpShare(timeOfDay);
+        }
+
+        @Override
+        public double getDownShare(double timeOfDay) {
+            return dominantPeak(timeOfDay).getDownShare(timeOfDay);
+        }
+    };
+
+    private static final double OFF_PEAK_MULTIPLIER = 0.1;
+    private static final double HOURS_PER_DAY = 24;
+
+    private final double peakHour;
+    private final double peakWidthHours;
+    private final double upShare;
+    private final double downShare;
+
+    TrafficProfile(double peakHour, double peakWidthHours, double upShare, double downShare) {
+        this.peakHour = peakHour;
+        this.peakWidthHours = peakWidthHours;
+        this.upShare = upShare;
+        this.downShare = downShare;
+    }
+
+    /**
+     * Gets the call rate at the specified time of day relative to the peak rate.
+     * @param timeOfDay The time of day, between 0 and 1
+     * @return The multiplier, between 0 and 1
+     */
+    public double getRateMultiplier(double timeOfDay) {
+        var hoursFromPeak = (timeOfDay * HOURS_PER_DAY - peakHour) / peakWidthHours;
+        return OFF_PEAK_MULTIPLIER + (1 - OFF_PEAK_MULTIPLIER) * Math.exp(-hoursFromPeak * hoursFromPeak / 2);
+    }
+
+    /**
+     * Gets the share of calls made from the lobby towards an upper storey.
+     * @param timeOfDay The time of day, between 0 and 1
+     * @return The share, between 0 and 1
+     */
+    public double getUpShare(double timeOfDay) {
+        return upShare;
+    }
+
+    /**
+     * Gets the share of calls made from an upper storey towards the lobby.
+     * Calls that are neither up nor down travel between two random storeys.
+     * @param timeOfDay The time of day, between 0 and 1
+     * @return The share, between 0 and 1
+     */
+    public double getDownShare(double timeOfDay) {
+        return downShare;
+    }
+
+    private static TrafficProfile dominantPeak(double timeOfDay) {
+        // Compared directly, as this is called for every generated call
+        var dominant = UP_PEAK;
+        var dominantRate = UP_PEAK.getRateMultiplier(timeOfDay);
+        var lunchRate = LUNCH.getRateMultiplier(timeOfDay);
+        if(lunchRate > dominantRate) {
+            dominant = LUNCH;
+            dominantRate = lunchRate;
+        }
+
+        return DOWN_PEAK.getRateMultiplier(timeOfDay) > dominantRate ? DOWN_PEAK : dominant;
+    }
+}
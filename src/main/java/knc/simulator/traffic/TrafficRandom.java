@@ -0,0 +1,70 @@
+package knc.simulator.traffic;
+
+/**
+ * A {@link TrafficRandom} is a small SplitMix64 pseudo-random generator.
+ * Unlike {@link java.util.SplittableRandom} its whole state is a single long that can be read and restored,
+ * which makes traffic sequences reproducible from any point of a simulation.
+ */
+public class TrafficRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+
+    /**
+     * Constructs a {@link TrafficRandom} with the specified seed.
+     * @param seed The seed
+     */
+    public TrafficRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Gets the current state, from which the remaining sequence is fully determined.
+     * @return The state
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Restores a state previously returned by {@link #getState()}.
+     * @param state The state
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    public long nextLong() {
+        var z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a uniformly distributed value between 0 (inclusive) and 1 (exclusive).
+     * @return The value
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Returns a uniformly distributed value between 0 (inclusive) and bound (exclusive).
+     * @param bound The upper bound, must be positive
+     * @return The value
+     */
+    public int nextInt(int bound) {
+        return (int) ((nextLong() >>> 33) * bound >>> 31);
+    }
+
+    /**
+     * Returns an exponentially distributed value with the specified mean.
+     * @param mean The mean
+     * @return The value
+     */
+    public double nextExponential(double mean) {
+        return -Math.log(1 - nextDouble()) * mean;
+    }
+}
@@ -0,0 +1,36 @@
+package knc.simulator.traffic;
+
+/**
+ * A {@link TrafficSource} streams calls in cycle order, one at a time.
+ * The current call is described by {@link #getNextCallCycle()}, {@link #getNextOrigin()} and
+ * {@link #getNextDestination()}, and {@link #next()} moves on to the following call.
+ */
+public interface TrafficSource {
+    /**
+     * Returned by {@link #getNextCallCycle()} when the source is exhausted.
+     */
+    long NO_MORE_CALLS = Long.MAX_VALUE;
+
+    /**
+     * Gets the cycle at which the current call is made.
+     * @return The cycle, or {@link #NO_MORE_CALLS}
+     */
+    long getNextCallCycle();
+
+    /**
+     * Gets the storey the current call is made from.
+     * @return The origin storey
+     */
+    int getNextOrigin();
+
+    /**
+     * Gets the storey the passenger making the current call wants to travel to.
+     * @return The destination storey
+     */
+    int getNextDestination();
+
+    /**
+     * Moves on to the following call.
+     */
+    void next();
+}
@@ -0,0 +1,84 @@
+package knc.simulator.batch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+    private SweepSpec sweepSpec = createSweepSpec();
+
+    @Test
+    void testInvalidSweepValuesShouldThrow() {
+        assertThrows(Exception.class, () -> sweepSpec.setStoreyCounts(1));
+        assertThrows(Exception.class, () -> sweepSpec.setCyclesToHold());
+        assertThrows(Exception.class, () -> sweepSpec.setTrafficIntensities(0));
+        assertThrows(Exception.class, () -> sweepSpec.setRepetitions(0));
+    }
+
+    @Test
+    void testSweepCoversEveryCombination() {
+        assertEquals(4, sweepSpec.getPointCount());
+        assertEquals(12, sweepSpec.getRunCount());
+        assertEquals(10, sweepSpec.getPoint(3).getStoreyCount());
+        assertEquals(0.004, sweepSpec.getPoint(3).getTrafficIntensity());
+    }
+
+    @Test
+    void testResultsAreIndependentOfParallelism() throws Exception {
+        var sequential = new BatchRunner(1).run(sweepSpec);
+        var parallel = new BatchRunner(4).run(sweepSpec);
+
+        assertEquals(sweepSpec.getRunCount(), parallel.getRunResults().size());
+        for(int i = 0; i < sweepSpec.getRunCount(); i++) {
+            var expected = sequential.getRunResults().get(i);
+            var actual = parallel.getRunResults().get(i);
+            assertEquals(expected.getSeed(), actual.getSeed());
+            assertEquals(expected.getServedRequests(), actual.getServedRequests());
+            assertEquals(expected.getMeanWaitCycles(), actual.getMeanWaitCycles());
+            assertEquals(expected.getP99WaitCycles(), actual.getP99WaitCycles());
+            assertEquals(expected.getTrips(), actual.getTrips());
+        }
+    }
+
+    @Test
+    void testHigherIntensityReducesIdleRatio() throws Exception {
+        var result = new BatchRunner().run(sweepSpec);
+
+        for(int i = 0; i < result.getSweepPoints().size(); i++) {
+            assertTrue(result.getAverage(i, RunResult::getServedRequests) > 0);
+            var waitHistogram = result.getWaitHistogram(i);
+            assertTrue(waitHistogram.getValueAtPercentile(95) <= waitHistogram.getValueAtPercentile(99));
+        }
+
+        assertTrue(result.getAverage(0, RunResult::getIdleRatio) > result.getAverage(1, RunResult::getIdleRatio));
+    }
+
+    @Test
+    void testSweepPointPercentilesMergeRepetitions() throws Exception {
+        var result = new BatchRunner().run(sweepSpec);
+
+        for(int i = 0; i < result.getSweepPoints().size(); i++) {
+            var runResults = result.getRunResults(i);
+            var waitHistogram = result.getWaitHistogram(i);
+            assertEquals(runResults.stream().mapToLong(RunResult::getServedRequests).sum(), waitHistogram.getTotalCount());
+            assertEquals(runResults.stream().mapToLong(RunResult::getMaxWaitCycles).max().orElseThrow(), waitHistogram.getMax());
+            assertTrue(waitHistogram.getValueAtPercentile(99) >= runResults.stream().mapToLong(RunResult::getP99WaitCycles).min().orElseThrow());
+            assertTrue(waitHistogram.getValueAtPercentile(99) <= runResults.stream().mapToLong(RunResult::getP99WaitCycles).max().orElseThrow());
+        }
+
+        // Merging must not modify the histograms of the runs
+        var first = result.getRunResults(0).get(0).getServedRequests();
+        result.getWaitHistogram(0);
+        assertEquals(first, result.getRunResults(0).get(0).getServedRequests());
+    }
+
+    private static SweepSpec createSweepSpec() {
+        var spec = new SweepSpec();
+        spec.setStoreyCounts(4, 10);
+        spec.setTrafficIntensities(0.0005, 0.004);
+        spec.setRepetitions(3);
+        spec.setCyclesPerRun(200_000);
+        spec.setSeed(7);
+        return spec;
+    }
+}
@@ -0,0 +1,117 @@
+package knc.simulator.building;
+
+import knc.simulator.model.EtaDispatcher;
+import knc.simulator.model.SchedulingPolicy;
+import knc.simulator.traffic.TrafficGenerator;
+import knc.simulator.traffic.TrafficProfile;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildingTest {
+    private final int lobby = 0;
+    private final int skyLobby = 21;
+    private final int roof = 40;
+    private final int lowZone = 0;
+    private final int shuttleZone = 1;
+    private final int highZone = 2;
+
+    @Test
+    void testRoutesThroughSkyLobby() {
+        var topology = createTopology();
+
+        assertEquals(2, topology.getTransfers(lowZone, highZone));
+        assertEquals(lowZone, topology.selectZone(5, 30));
+        assertEquals(lobby, topology.getLegDestination(lowZone, 30));
+        assertEquals(shuttleZone, topology.selectZone(lobby, 30));
+        assertEquals(skyLobby, topology.getLegDestination(shuttleZone, 30));
+        assertEquals(highZone, topology.selectZone(skyLobby, 30));
+        assertEquals(30, topology.getLegDestination(highZone, 30));
+        assertEquals(lowZone, topology.selectZone(5, 10));
+    }
+
+    @Test
+    void testUnservedStoreyShouldThrow() {
+        var express = new Zone("Express", 0, 20, 1, new EtaDispatcher(), true);
+        assertThrows(IllegalArgumentException.class, () -> new BuildingTopology(express));
+        assertThrows(IllegalArgumentException.class, () -> new BuildingTopology());
+    }
+
+    @Test
+    void testDisconnectedZonesShouldThrow() {
+        var low = new Zone("Low", 0, 10, 1, new EtaDispatcher());
+        var high = new Zone("High", 11, 20, 1, new EtaDispatcher());
+        assertThrows(IllegalArgumentException.class, () -> new BuildingTopology(low, high));
+    }
+
+    @Test
+    void testInvalidArgumentsShouldThrow() {
+        var topology = createTopology();
+        assertThrows(IllegalArgumentException.class, () -> new Building(topology, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Building(topology, 1, 0));
+
+        var building = new Building(topology, 100, 1);
+        assertThrows(IllegalArgumentException.class, () -> building.createPassenger(5, 5));
+        assertThrows(IllegalArgumentException.class, () -> building.createPassenger(5, roof + 1));
+        assertThrows(IllegalArgumentException.class, () -> building.run(-1));
+    }
+
+    @Test
+    void testPassengerTransfersToDestination() throws Exception {
+        var building = new Building(createTopology(), 100, 1);
+        building.createPassenger(5, 30);
+        assertEquals(1, building.getPassengersInBuilding());
+
+        building.run(20_000);
+        assertEquals(1, building.getDeliveredPassengers());
+        assertEquals(2, building.getTransfers());
+        assertEquals(0, building.getPassengersInBuilding());
+        assertTrue(building.getJourneyHistogram().getMax() > 2 * 100);
+        for(int i = 0; i < building.getTopology().getZoneCount(); i++)
+            assertEquals(1, building.getTopology().getZone(i).getElevatorBank().getDeliveredPassengers());
+    }
+
+    @Test
+    void testResultsDoNotDependOnParallelismOrChunking() throws Exception {
+        var sequential = createBuilding(1);
+        sequential.run(200_000);
+
+        var parallel = createBuilding(3);
+        try(parallel) {
+            parallel.run(1_234);
+            parallel.run(98_765);
+            parallel.run(200_000 - 1_234 - 98_765);
+        }
+        assertThrows(IllegalStateException.class, () -> parallel.run(1));
+
+        assertTrue(sequential.getTransfers() > 0);
+        assertEquals(sequential.getCurrentCycle(), parallel.getCurrentCycle());
+        assertEquals(sequential.getDeliveredPassengers(), parallel.getDeliveredPassengers());
+        assertEquals(sequential.getTransfers(), parallel.getTransfers());
+        assertEquals(sequential.getPassengersInBuilding(), parallel.getPassengersInBuilding());
+        assertEquals(sequential.getJourneyHistogram().getMean(), parallel.getJourneyHistogram().getMean());
+        for(int i = 0; i < sequential.getTopology().getZoneCount(); i++) {
+            var expected = sequential.getTopology().getZone(i).getElevatorBank();
+            var actual = parallel.getTopology().getZone(i).getElevatorBank();
+            assertEquals(expected.getServedRequests(), actual.getServedRequests());
+            assertEquals(expected.getPassengerWaitHistogram().getMean(), actual.getPassengerWaitHistogram().getMean());
+        }
+    }
+
+    private Building createBuilding(int parallelism) {
+        var topology = createTopology();
+        for(int i = 0; i < topology.getZoneCount(); i++)
+            topology.getZone(i).getElevatorBank().setSchedulingPolicy(SchedulingPolicy.COLLECTIVE);
+
+        var building = new Building(topology, 120, parallelism);
+        building.setTrafficSource(new TrafficGenerator(lobby, roof, TrafficProfile.UNIFORM, 0.002, 42));
+        return building;
+    }
+
+    private BuildingTopology createTopology() {
+        return new BuildingTopology(
+                new Zone("Low", lobby, skyLobby - 1, 3, new EtaDispatcher()),
+                new Zone("Shuttle", lobby, skyLobby, 2, new EtaDispatcher(), true),
+                new Zone("High", skyLobby, roof, 3, new EtaDispatcher()));
+    }
+}
@@ -0,0 +1,79 @@
+package knc.simulator.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HallCallRingTest {
+    private final int defaultCapacity = 8;
+    private HallCallRing hallCallRing = new HallCallRing(defaultCapacity);
+
+    @Test
+    void testCapacityNotPowerOfTwoShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new HallCallRing(0));
+        assertThrows(IllegalArgumentException.class, () -> new HallCallRing(6));
+    }
+
+    @Test
+    void testDrainIsFifo() {
+        var drained = new ArrayList<Integer>();
+        for(int lap = 0; lap < 3; lap++) {
+            for(int i = 0; i < 5; i++)
+                assertTrue(hallCallRing.offer(lap * 10 + i));
+
+            assertEquals(5, hallCallRing.drain(drained::add));
+        }
+
+        assertEquals(15, drained.size());
+        for(int i = 0; i < drained.size(); i++)
+            assertEquals((i / 5) * 10 + i % 5, (int) drained.get(i));
+        assertTrue(hallCallRing.isEmpty());
+    }
+
+    @Test
+    void testFullRingRejectsOffers() {
+        for(int i = 0; i < defaultCapacity; i++)
+            assertTrue(hallCallRing.offer(i));
+
+        assertFalse(hallCallRing.offer(defaultCapacity));
+        assertEquals(defaultCapacity, hallCallRing.drain(storey -> { }));
+        assertTrue(hallCallRing.offer(defaultCapacity));
+    }
+
+    @Test
+    void testConcurrentProducersPreserveTheirOwnOrder() throws InterruptedException {
+        hallCallRing = new HallCallRing(1024);
+        var producers = new Thread[4];
+        var callsPerProducer = 50_000;
+        for(int i = 0; i < producers.length; i++) {
+            var producer = i;
+            producers[i] = new Thread(() -> {
+                for(int j = 0; j < callsPerProducer; j++) {
+                    while(!hallCallRing.offer(producer * callsPerProducer + j))
+                        Thread.yield();
+                }
+            });
+            producers[i].start();
+        }
+
+        var nextExpected = new int[producers.length];
+        List<AssertionError> errors = new ArrayList<>();
+        var total = 0;
+        while(total < producers.length * callsPerProducer) {
+            Thread.yield();
+            total += hallCallRing.drain(value -> {
+                var producer = value / callsPerProducer;
+                if(value % callsPerProducer != nextExpected[producer]++)
+                    errors.add(new AssertionError("Out of order: " + value));
+            });
+        }
+        for(var producer : producers)
+            producer.join();
+
+        assertTrue(errors.isEmpty());
+        assertTrue(hallCallRing.isEmpty());
+    }
+}
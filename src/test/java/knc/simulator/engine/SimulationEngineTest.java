@@ -0,0 +1,295 @@
+package knc.simulator.engine;
+
+import knc.simulator.model.DestinationDispatcher;
+import knc.simulator.model.Elevator;
+import knc.simulator.model.ElevatorAction;
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.ElevatorRequestManager;
+import knc.simulator.model.EtaDispatcher;
+import knc.simulator.traffic.TrafficGenerator;
+import knc.simulator.traffic.TrafficProfile;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationEngineTest {
+    private final int defaultLowestStorey = 1;
+    private final int defaultHighestStorey = 4;
+    private Elevator elevator = new Elevator(defaultLowestStorey, defaultHighestStorey);
+    private ElevatorRequestManager elevatorRequestManager = new ElevatorRequestManager(elevator);
+    private SimulationEngine simulationEngine = new SimulationEngine(elevator);
+
+    @Test
+    void testNoElevatorsShouldThrow() {
+        assertThrows(Exception.class, SimulationEngine::new);
+    }
+
+    @Test
+    void testNegativeBudgetShouldThrow() {
+        assertThrows(Exception.class, () -> simulationEngine.setCycleBudget(-1));
+    }
+
+    @Test
+    void testRunToBudgetWithoutBudgetShouldThrow() {
+        assertThrows(Exception.class, () -> simulationEngine.runToBudget());
+    }
+
+    @Test
+    void testStepAdvancesCycle() {
+        assertTrue(simulationEngine.step());
+        assertEquals(1, simulationEngine.getCurrentCycle());
+    }
+
+    @Test
+    void testRunStopsAtBudget() {
+        simulationEngine.setCycleBudget(100);
+
+        assertEquals(100, simulationEngine.run(250));
+        assertEquals(100, simulationEngine.getCurrentCycle());
+        assertTrue(simulationEngine.isBudgetExhausted());
+        assertFalse(simulationEngine.step());
+    }
+
+    @Test
+    void testRunMatchesRepeatedUpdates() {
+        var referenceElevator = new Elevator(defaultLowestStorey, defaultHighestStorey);
+        var referenceManager = new ElevatorRequestManager(referenceElevator);
+        referenceManager.createElevatorRequest(defaultHighestStorey);
+        elevatorRequestManager.createElevatorRequest(defaultHighestStorey);
+
+        for(int i = 0; i < 150; i++)
+            referenceElevator.update();
+        simulationEngine.run(150);
+
+        assertEquals(referenceElevator.getCurrentStorey(), elevator.getCurrentStorey());
+        assertEquals(referenceElevator.getCurrentAction(), elevator.getCurrentAction());
+        assertEquals(referenceElevator.getElevatorPositionAsStoriesFromBottom(), elevator.getElevatorPositionAsStoriesFromBottom());
+    }
+
+    @Test
+    void testRunToBudgetServesRequests() {
+        elevatorRequestManager.createElevatorRequest(defaultHighestStorey);
+        elevatorRequestManager.createElevatorRequest(defaultLowestStorey);
+        simulationEngine.setCycleBudget(10_000);
+
+        assertEquals(10_000, simulationEngine.runToBudget());
+        assertEquals(defaultLowestStorey, elevator.getCurrentStorey());
+        assertEquals(ElevatorAction.IDLE, elevator.getCurrentAction());
+        assertEquals(0, elevatorRequestManager.getElevatorRequestsSize());
+    }
+
+    @Test
+    void testNextEventModeMatchesTickMode() {
+        var tickBank = new ElevatorBank(1, 20, 3, new EtaDispatcher());
+        var eventBank = new ElevatorBank(1, 20, 3, new EtaDispatcher());
+        var tickEngine = new SimulationEngine(tickBank);
+        var eventEngine = new SimulationEngine(eventBank);
+        eventEngine.setAdvanceMode(AdvanceMode.NEXT_EVENT);
+        var random = new Random(42);
+
+        for(int i = 0; i < 500; i++) {
+            var storey = 1 + random.nextInt(20);
+            tickBank.createHallCall(storey);
+            eventBank.createHallCall(storey);
+
+            var cycles = random.nextInt(400);
+            tickEngine.run(cycles);
+            eventEngine.run(cycles);
+
+            assertEquals(tickEngine.getCurrentCycle(), eventEngine.getCurrentCycle());
+            for(int j = 0; j < tickBank.getElevatorCount(); j++) {
+                var expected = tickBank.getElevator(j);
+                var actual = eventBank.getElevator(j);
+                assertEquals(expected.getCurrentStorey(), actual.getCurrentStorey());
+                assertEquals(expected.getCurrentAction(), actual.getCurrentAction());
+                assertEquals(expected.getElevatorPositionAsStoriesFromBottom(), actual.getElevatorPositionAsStoriesFromBottom());
+            }
+        }
+
+        assertEquals(tickBank.getServedRequests(), eventBank.getServedRequests());
+        assertEquals(tickBank.getAverageWaitCycles(), eventBank.getAverageWaitCycles());
+    }
+
+    @Test
+    void testTrafficSourceRequiresBank() {
+        var generator = new TrafficGenerator(1, 4, TrafficProfile.UNIFORM, 0.01, 0);
+        assertThrows(Exception.class, () -> simulationEngine.setTrafficSource(generator));
+    }
+
+    @Test
+    void testTrafficIsIdenticalInBothModes() {
+        var tickBank = new ElevatorBank(1, 20, 4, new EtaDispatcher());
+        var eventBank = new ElevatorBank(1, 20, 4, new EtaDispatcher());
+        var tickEngine = new SimulationEngine(tickBank);
+        var eventEngine = new SimulationEngine(eventBank);
+        tickEngine.setTrafficSource(new TrafficGenerator(1, 20, TrafficProfile.UNIFORM, 0.005, 17));
+        eventEngine.setTrafficSource(new TrafficGenerator(1, 20, TrafficProfile.UNIFORM, 0.005, 17));
+        eventEngine.setAdvanceMode(AdvanceMode.NEXT_EVENT);
+
+        tickEngine.run(500_000);
+        eventEngine.run(500_000);
+
+        assertTrue(tickBank.getServedRequests() > 1_000);
+        assertEquals(tickBank.getServedRequests(), eventBank.getServedRequests());
+        assertEquals(tickBank.getAverageWaitCycles(), eventBank.getAverageWaitCycles());
+        assertEquals(tickEngine.getTrafficSource().getNextCallCycle(), eventEngine.getTrafficSource().getNextCallCycle());
+    }
+
+    @Test
+    void testDestinationDispatchIsIdenticalInBothModes() {
+        var tickBank = new ElevatorBank(1, 20, 4, new EtaDispatcher());
+        var eventBank = new ElevatorBank(1, 20, 4, new EtaDispatcher());
+        tickBank.setDestinationDispatcher(new DestinationDispatcher());
+        eventBank.setDestinationDispatcher(new DestinationDispatcher());
+        var tickEngine = new SimulationEngine(tickBank);
+        var eventEngine = new SimulationEngine(eventBank);
+        for(var engine : new SimulationEngine[] {tickEngine, eventEngine}) {
+            engine.setPassengerTraffic(true);
+            engine.setTrafficSource(new TrafficGenerator(1, 20, TrafficProfile.UP_PEAK, 0.01, 3));
+        }
+        eventEngine.setAdvanceMode(AdvanceMode.NEXT_EVENT);
+
+        tickEngine.run(TrafficGenerator.DEFAULT_CYCLES_PER_DAY / 2);
+        eventEngine.run(TrafficGenerator.DEFAULT_CYCLES_PER_DAY / 2);
+
+        assertTrue(tickBank.getDeliveredPassengers() > 1_000);
+        assertEquals(tickBank.getDeliveredPassengers(), eventBank.getDeliveredPassengers());
+        assertEquals(tickBank.getWaitingPassengers(), eventBank.getWaitingPassengers());
+        assertEquals(tickBank.getJourneyHistogram().getValueAtPercentile(99),
+                eventBank.getJourneyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    void testLeftBehindPassengersAreIdenticalInBothModes() {
+        var tickBank = createFullCarBank(2, 1);
+        var eventBank = createFullCarBank(2, 1);
+        var tickEngine = new SimulationEngine(tickBank);
+        var eventEngine = new SimulationEngine(eventBank);
+        eventEngine.setAdvanceMode(AdvanceMode.NEXT_EVENT);
+
+        tickBank.getElevatorRequestManager(1).createElevatorRequest(10);
+        eventBank.getElevatorRequestManager(1).createElevatorRequest(10);
+        tickEngine.run(1_000);
+        eventEngine.run(1_000);
+
+        // The first car leaves one passenger behind, whose new call sends the idle second car
+        for(var elevatorBank : new ElevatorBank[] {tickBank, eventBank}) {
+            elevatorBank.createPassenger(5, 9);
+            elevatorBank.createPassenger(5, 8);
+        }
+
+        for(int i = 0; i < 100; i++) {
+            tickEngine.run(50);
+            eventEngine.run(50);
+            assertSameElevators(tickBank, eventBank);
+        }
+        assertEquals(2, eventBank.getDeliveredPassengers());
+    }
+
+    @Test
+    void testFullCarsAreIdenticalInBothModes() {
+        var fleetBank = createFullCarBank(4, 2);
+        var managers = new ElevatorRequestManager[4];
+        for(int i = 0; i < managers.length; i++) {
+            var elevator = new Elevator(1, 20);
+            elevator.setCapacity(2);
+            managers[i] = new ElevatorRequestManager(elevator);
+        }
+        var standaloneBank = new ElevatorBank(new EtaDispatcher(), managers);
+
+        for(var eventBank : new ElevatorBank[] {fleetBank, standaloneBank}) {
+            var tickBank = createFullCarBank(4, 2);
+            var tickEngine = new SimulationEngine(tickBank);
+            var eventEngine = new SimulationEngine(eventBank);
+            for(var engine : new SimulationEngine[] {tickEngine, eventEngine}) {
+                engine.setPassengerTraffic(true);
+                engine.setTrafficSource(new TrafficGenerator(1, 20, TrafficProfile.UP_PEAK, 0.01, 9));
+            }
+            eventEngine.setAdvanceMode(AdvanceMode.NEXT_EVENT);
+
+            var random = new Random(13);
+            while(tickEngine.getCurrentCycle() < TrafficGenerator.DEFAULT_CYCLES_PER_DAY / 4) {
+                var cycles = 1 + random.nextInt(5_000);
+                tickEngine.run(cycles);
+                eventEngine.run(cycles);
+                assertSameElevators(tickBank, eventBank);
+            }
+
+            assertTrue(tickBank.getDeliveredPassengers() > 1_000);
+            assertEquals(tickBank.getDeliveredPassengers(), eventBank.getDeliveredPassengers());
+            assertEquals(tickBank.getWaitingPassengers(), eventBank.getWaitingPassengers());
+        }
+    }
+
+    @Test
+    void testSubmitHallCallRequiresBank() {
+        assertThrows(IllegalStateException.class, () -> simulationEngine.submitHallCall(defaultHighestStorey));
+    }
+
+    @Test
+    void testSubmittedCallsAreMadeAtNextCycle() {
+        var elevatorBank = new ElevatorBank(1, 20, 2, new EtaDispatcher());
+        var engine = new SimulationEngine(elevatorBank);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.submitHallCall(21));
+        assertTrue(engine.submitHallCall(10));
+        assertTrue(engine.submitHallCall(15));
+        assertEquals(0, elevatorBank.getHallCalls());
+
+        engine.step();
+        assertEquals(2, elevatorBank.getHallCalls());
+        assertTrue(elevatorBank.getElevatorRequestManager(0).isRequestPending(10)
+                || elevatorBank.getElevatorRequestManager(1).isRequestPending(10));
+    }
+
+    @Test
+    void testConcurrentSubmissionsAreAllMade() throws InterruptedException {
+        var elevatorBank = new ElevatorBank(1, 20, 4, new EtaDispatcher());
+        var engine = new SimulationEngine(elevatorBank);
+        var producers = new Thread[4];
+        var callsPerProducer = 10_000;
+        for(int i = 0; i < producers.length; i++) {
+            var seed = i;
+            producers[i] = new Thread(() -> {
+                var random = new Random(seed);
+                for(int j = 0; j < callsPerProducer; j++) {
+                    var storey = 1 + random.nextInt(20);
+                    while(!engine.submitHallCall(storey))
+                        Thread.yield();
+                }
+            });
+            producers[i].start();
+        }
+
+        var expectedCalls = (long) producers.length * callsPerProducer;
+        while(elevatorBank.getHallCalls() < expectedCalls)
+            engine.step();
+        for(var producer : producers)
+            producer.join();
+
+        engine.step();
+        assertEquals(expectedCalls, elevatorBank.getHallCalls());
+    }
+
+    private ElevatorBank createFullCarBank(int elevatorCount, int capacity) {
+        var elevatorBank = new ElevatorBank(1, 20, elevatorCount, new EtaDispatcher());
+        for(var elevator : elevatorBank.getElevators())
+            elevator.setCapacity(capacity);
+
+        return elevatorBank;
+    }
+
+    private void assertSameElevators(ElevatorBank expectedBank, ElevatorBank actualBank) {
+        for(int i = 0; i < expectedBank.getElevatorCount(); i++) {
+            var expected = expectedBank.getElevator(i);
+            var actual = actualBank.getElevator(i);
+            assertEquals(expected.getCurrentCycle(), actual.getCurrentCycle());
+            assertEquals(expected.getCurrentAction(), actual.getCurrentAction());
+            assertEquals(expected.getCurrentStorey(), actual.getCurrentStorey());
+            assertEquals(expected.getCurrentTraversalCycles(), actual.getCurrentTraversalCycles());
+            assertEquals(expected.getLoad(), actual.getLoad());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package knc.simulator.engine;
+
+import knc.simulator.model.DestinationDispatcher;
+import knc.simulator.model.ElevatorAction;
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.EtaDispatcher;
+import knc.simulator.model.ParkingPolicy;
+import knc.simulator.model.SchedulingPolicy;
+import knc.simulator.traffic.TrafficGenerator;
+import knc.simulator.traffic.TrafficProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationSnapshotTest {
+    private final int defaultLowestStorey = 1;
+    private final int defaultHighestStorey = 20;
+    private final int defaultElevatorCount = 4;
+    private Path path;
+
+    SimulationSnapshotTest() throws IOException {
+        path = Files.createTempFile("simulation", ".snapshot");
+    }
+
+    @AfterEach
+    void deleteSnapshot() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void testRestoredEngineContinuesIdentically() throws IOException {
+        var original = createEngine();
+        original.run(TrafficGenerator.DEFAULT_CYCLES_PER_DAY / 2);
+        SimulationSnapshot.save(original, path);
+
+        var restored = createEngine();
+        SimulationSnapshot.restore(restored, path);
+        assertEquals(original.getCurrentCycle(), restored.getCurrentCycle());
+        assertEquals(original.getElevatorBank().getServedRequests(), restored.getElevatorBank().getServedRequests());
+
+        original.run(1_000_000);
+        restored.run(1_000_000);
+
+        var originalBank = original.getElevatorBank();
+        var restoredBank = restored.getElevatorBank();
+        assertTrue(originalBank.getServedRequests() > 1_000);
+        assertEquals(originalBank.getServedRequests(), restoredBank.getServedRequests());
+        assertEquals(originalBank.getAverageWaitCycles(), restoredBank.getAverageWaitCycles());
+        assertEquals(originalBank.getWaitHistogram().getValueAtPercentile(99),
+                restoredBank.getWaitHistogram().getValueAtPercentile(99));
+        assertEquals(original.getTrafficSource().getNextCallCycle(), restored.getTrafficSource().getNextCallCycle());
+        for(int i = 0; i < defaultElevatorCount; i++) {
+            var expected = originalBank.getElevator(i);
+            var actual = restoredBank.getElevator(i);
+            assertEquals(expected.getCurrentAction(), actual.getCurrentAction());
+            assertEquals(expected.getElevatorPositionAsStoriesFromBottom(), actual.getElevatorPositionAsStoriesFromBottom());
+            assertEquals(expected.getCurrentCycle(), actual.getCurrentCycle());
+        }
+    }
+
+    @Test
+    void testRestoredPassengersContinueIdentically() throws IOException {
+        assertPassengersContinueIdentically(false);
+    }
+
+    @Test
+    void testRestoredDestinationCallsContinueIdentically() throws IOException {
+        assertPassengersContinueIdentically(true);
+    }
+
+    @Test
+    void testRestoredParkingContinuesIdentically() throws IOException {
+        var original = createParkingEngine();
+        original.run(TrafficGenerator.DEFAULT_CYCLES_PER_DAY / 3 + 17);
+        SimulationSnapshot.save(original, path);
+
+        // The restored policy has learned nothing until its calls are restored
+        var restored = createParkingEngine();
+        SimulationSnapshot.restore(restored, path);
+        original.run(1_000_000);
+        restored.run(1_000_000);
+
+        var originalBank = original.getElevatorBank();
+        var restoredBank = restored.getElevatorBank();
+        assertEquals(originalBank.getServedRequests(), restoredBank.getServedRequests());
+        assertEquals(originalBank.getAverageWaitCycles(), restoredBank.getAverageWaitCycles());
+        assertEquals(originalBank.getEnergyConsumption(), restoredBank.getEnergyConsumption());
+        for(int i = 0; i < defaultElevatorCount; i++) {
+            var expected = originalBank.getElevator(i);
+            var actual = restoredBank.getElevator(i);
+            assertEquals(expected.getCurrentAction(), actual.getCurrentAction());
+            assertEquals(expected.getElevatorPositionAsStoriesFromBottom(), actual.getElevatorPositionAsStoriesFromBottom());
+            assertEquals(expected.getCyclesInAction(ElevatorAction.ASCENDING), actual.getCyclesInAction(ElevatorAction.ASCENDING));
+        }
+        for(var storey = defaultLowestStorey; storey <= defaultHighestStorey; storey++) {
+            assertEquals(originalBank.getParkingPolicy().getExpectedCalls(storey, original.getCurrentCycle()),
+                    restoredBank.getParkingPolicy().getExpectedCalls(storey, restored.getCurrentCycle()));
+        }
+    }
+
+    @Test
+    void testRestoreIntoDifferentBankShouldThrow() throws IOException {
+        SimulationSnapshot.save(createEngine(), path);
+
+        var engine = new SimulationEngine(new ElevatorBank(defaultLowestStorey, defaultHighestStorey,
+                defaultElevatorCount + 1, new EtaDispatcher()));
+        engine.setTrafficSource(new TrafficGenerator(defaultLowestStorey, defaultHighestStorey, TrafficProfile.UNIFORM, 0.01, 0));
+        assertThrows(IllegalArgumentException.class, () -> SimulationSnapshot.restore(engine, path));
+    }
+
+    @Test
+    void testRestoreWithoutTrafficShouldThrow() throws IOException {
+        SimulationSnapshot.save(createEngine(), path);
+
+        var engine = new SimulationEngine(new ElevatorBank(defaultLowestStorey, defaultHighestStorey,
+                defaultElevatorCount, new EtaDispatcher()));
+        assertThrows(IllegalArgumentException.class, () -> SimulationSnapshot.restore(engine, path));
+    }
+
+    @Test
+    void testNotASnapshotShouldThrow() throws IOException {
+        Files.write(path, new byte[32]);
+        assertThrows(IOException.class, () -> SimulationSnapshot.restore(createEngine(), path));
+    }
+
+    private SimulationEngine createEngine() {
+        var elevatorBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey, defaultElevatorCount, new EtaDispatcher());
+        elevatorBank.setSchedulingPolicy(SchedulingPolicy.COLLECTIVE);
+        var engine = new SimulationEngine(elevatorBank);
+        engine.setAdvanceMode(AdvanceMode.NEXT_EVENT);
+        engine.setTrafficSource(new TrafficGenerator(defaultLowestStorey, defaultHighestStorey, TrafficProfile.FULL_DAY, 0.003, 5));
+        return engine;
+    }
+
+    private SimulationEngine createParkingEngine() {
+        var engine = createEngine();
+        // A single bucket, so the calls learned before a snapshot keep steering the cars after it
+        engine.getElevatorBank().setParkingPolicy(new ParkingPolicy(defaultLowestStorey, defaultHighestStorey,
+                TrafficGenerator.DEFAULT_CYCLES_PER_DAY, 1, ParkingPolicy.DEFAULT_HALF_LIFE));
+        return engine;
+    }
+
+    private void assertPassengersContinueIdentically(boolean destinationDispatch) throws IOException {
+        var original = createPassengerEngine(destinationDispatch);
+        original.run(TrafficGenerator.DEFAULT_CYCLES_PER_DAY / 3 + 17);
+        assertTrue(original.getElevatorBank().getWaitingPassengers() + original.getElevatorBank().getRidingPassengers() > 0);
+        SimulationSnapshot.save(original, path);
+
+        var restored = createPassengerEngine(destinationDispatch);
+        SimulationSnapshot.restore(restored, path);
+        original.run(1_000_000);
+        restored.run(1_000_000);
+
+        var originalBank = original.getElevatorBank();
+        var restoredBank = restored.getElevatorBank();
+        assertEquals(originalBank.getDeliveredPassengers(), restoredBank.getDeliveredPassengers());
+        assertEquals(originalBank.getWaitingPassengers(), restoredBank.getWaitingPassengers());
+        assertEquals(originalBank.getJourneyHistogram().getValueAtPercentile(95),
+                restoredBank.getJourneyHistogram().getValueAtPercentile(95));
+        for(int i = 0; i < defaultElevatorCount; i++) {
+            assertEquals(originalBank.getElevator(i).getLoad(), restoredBank.getElevator(i).getLoad());
+            assertEquals(originalBank.getAssignedPassengers(i), restoredBank.getAssignedPassengers(i));
+        }
+    }
+
+    private SimulationEngine createPassengerEngine(boolean destinationDispatch) {
+        var engine = createEngine();
+        engine.setPassengerTraffic(true);
+        if(destinationDispatch)
+            engine.getElevatorBank().setDestinationDispatcher(new DestinationDispatcher());
+        return engine;
+    }
+}
@@ -0,0 +1,145 @@
+package knc.simulator.eventlog;
+
+import knc.simulator.engine.SimulationEngine;
+import knc.simulator.model.ElevatorAction;
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.EtaDispatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogTest {
+    private final int defaultLowestStorey = 1;
+    private final int defaultHighestStorey = 15;
+    private ElevatorBank elevatorBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey, 3, new EtaDispatcher());
+    private SimulationEngine simulationEngine = new SimulationEngine(elevatorBank);
+    private Path path;
+
+    EventLogTest() throws IOException {
+        path = Files.createTempFile("events", ".log");
+    }
+
+    @AfterEach
+    void deleteLog() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void testReaderReturnsRecordedEvents() throws IOException {
+        try(var writer = new EventLogWriter(path, elevatorBank)) {
+            elevatorBank.createHallCall(3);
+            simulationEngine.run(1_000);
+            assertEquals(4, writer.getEventCount());
+        }
+
+        try(var reader = new EventLogReader(path)) {
+            assertEquals(defaultLowestStorey, reader.getLowestStorey());
+            assertEquals(defaultHighestStorey, reader.getHighestStorey());
+            assertEquals(3, reader.getElevatorCount());
+
+            assertTrue(reader.next());
+            assertEquals(EventType.HALL_CALL, reader.getType());
+            assertEquals(3, reader.getStorey());
+            assertEquals(0, reader.getCycle());
+
+            assertTrue(reader.next());
+            assertEquals(EventType.TRANSITION, reader.getType());
+            assertEquals(ElevatorAction.IDLE, reader.getPreviousAction());
+            assertEquals(ElevatorAction.ASCENDING, reader.getNewAction());
+
+            assertTrue(reader.next());
+            assertEquals(ElevatorAction.HOLD, reader.getNewAction());
+            assertEquals(3, reader.getStorey());
+            assertEquals(120, reader.getCycle());
+
+            assertTrue(reader.next());
+            assertEquals(ElevatorAction.IDLE, reader.getNewAction());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void testNotAnEventLogShouldThrow() throws IOException {
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6});
+        assertThrows(IOException.class, () -> new EventLogReader(path));
+    }
+
+    @Test
+    void testReplayMatchesSimulation() throws IOException {
+        var random = new Random(11);
+        var sampleCycles = new ArrayList<Long>();
+        var sampleActions = new ArrayList<ElevatorAction[]>();
+
+        try(var writer = new EventLogWriter(path, elevatorBank)) {
+            for(int i = 0; i < 2_000; i++) {
+                elevatorBank.createHallCall(defaultLowestStorey + random.nextInt(defaultHighestStorey));
+
+                var actions = new ElevatorAction[elevatorBank.getElevatorCount()];
+                for(int j = 0; j < actions.length; j++)
+                    actions[j] = elevatorBank.getElevator(j).getCurrentAction();
+                sampleCycles.add(simulationEngine.getCurrentCycle());
+                sampleActions.add(actions);
+
+                simulationEngine.run(1 + random.nextInt(300));
+            }
+
+            assertTrue(writer.getEventCount() > 2_000);
+        }
+
+        try(var replay = new EventLogReplay(path)) {
+            for(int i = 0; i < sampleCycles.size(); i++) {
+                replay.advanceTo(sampleCycles.get(i));
+                for(int j = 0; j < elevatorBank.getElevatorCount(); j++)
+                    assertEquals(sampleActions.get(i)[j], replay.getAction(j));
+            }
+
+            replay.advanceToEnd();
+            assertTrue(replay.isFinished());
+            assertEquals(elevatorBank.getServedRequests(), replay.getServedCalls());
+            assertEquals(elevatorBank.getElevatorRequestsSize() + countActiveRequests(), replay.getPendingCallCount());
+            for(int j = 0; j < elevatorBank.getElevatorCount(); j++)
+                assertEquals(elevatorBank.getElevator(j).getCurrentAction(), replay.getAction(j));
+        }
+    }
+
+    @Test
+    void testClosedWriterIsUnregistered() throws IOException {
+        var writer = new EventLogWriter(path, elevatorBank);
+        assertTrue(elevatorBank.unregisterHallCallListener(writer));
+        elevatorBank.registerHallCallListener(writer);
+        writer.close();
+
+        assertFalse(elevatorBank.unregisterHallCallListener(writer));
+    }
+
+    @Test
+    void testReplayBackwardsShouldThrow() throws IOException {
+        new EventLogWriter(path, elevatorBank).close();
+
+        try(var replay = new EventLogReplay(path)) {
+            replay.advanceTo(10);
+            assertThrows(Exception.class, () -> replay.advanceTo(5));
+        }
+    }
+
+    /**
+     * Counts elevators heading towards a requested storey, whose request is no longer queued.
+     */
+    private int countActiveRequests() {
+        var active = 0;
+        for(int i = 0; i < elevatorBank.getElevatorCount(); i++) {
+            var action = elevatorBank.getElevator(i).getCurrentAction();
+            if(action == ElevatorAction.ASCENDING || action == ElevatorAction.DESCENDING)
+                active++;
+        }
+
+        return active;
+    }
+}
@@ -0,0 +1,135 @@
+package knc.simulator.metrics;
+
+import knc.simulator.engine.SimulationEngine;
+import knc.simulator.model.Elevator;
+import knc.simulator.model.ElevatorBank;
+import knc.simulator.model.NearestCarDispatcher;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.ReflectionException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+    private final int defaultLowestStorey = 1;
+    private final int defaultHighestStorey = 10;
+
+    @Test
+    void testPrometheusTextGroupsFamilies() throws IOException {
+        var metricsRegistry = new MetricsRegistry();
+        metricsRegistry.gauge("share", "A share", "action", "IDLE").set(0.25);
+        metricsRegistry.counter("total", "A total").set(3);
+        metricsRegistry.gauge("share", "A share", "action", "MOVE_UP").set(0.75);
+
+        var text = new StringBuilder();
+        metricsRegistry.writePrometheusText(text);
+        assertEquals("# HELP share A share\n"
+                + "# TYPE share gauge\n"
+                + "share{action=\"IDLE\"} 0.25\n"
+                + "share{action=\"MOVE_UP\"} 0.75\n"
+                + "# HELP total A total\n"
+                + "# TYPE total counter\n"
+                + "total 3\n", text.toString());
+    }
+
+    @Test
+    void testDuplicateMetricShouldThrow() {
+        var metricsRegistry = new MetricsRegistry();
+        metricsRegistry.counter("total", "A total", "kind", "a");
+        metricsRegistry.counter("total", "A total", "kind", "b");
+        assertThrows(IllegalArgumentException.class, () -> metricsRegistry.counter("total", "A total", "kind", "a"));
+        assertThrows(IllegalArgumentException.class, () -> metricsRegistry.gauge("other", "Other", "kind"));
+    }
+
+    @Test
+    void testJmxAttributesIncludeLabelValues() throws Exception {
+        var metricsRegistry = new MetricsRegistry();
+        metricsRegistry.gauge("share", "A share", "action", "IDLE").set(0.5);
+        assertEquals(0.5, metricsRegistry.getAttribute("share_IDLE"));
+        assertEquals(1, metricsRegistry.getMBeanInfo().getAttributes().length);
+    }
+
+    @Test
+    void testSimulationMetricsReflectBank() {
+        var elevatorBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey, 2, new NearestCarDispatcher());
+        var engine = new SimulationEngine(elevatorBank);
+        var metricsRegistry = new MetricsRegistry();
+        var simulationMetrics = new SimulationMetrics(engine, metricsRegistry);
+
+        elevatorBank.createHallCall(5);
+        elevatorBank.createHallCall(5);
+        engine.run(1_000);
+        simulationMetrics.update(0);
+        engine.run(1_000);
+        simulationMetrics.update(1_000_000_000);
+
+        assertEquals(2_000, getValue(metricsRegistry, "elevator_simulator_cycles_total"));
+        assertEquals(1_000, getValue(metricsRegistry, "elevator_simulator_cycles_per_second"));
+        assertEquals(2, getValue(metricsRegistry, "elevator_simulator_hall_calls_total"));
+        assertEquals(1, getValue(metricsRegistry, "elevator_simulator_duplicate_hall_calls_total"));
+        assertEquals(1, getValue(metricsRegistry, "elevator_simulator_requests_served_total"));
+        assertEquals(0, getValue(metricsRegistry, "elevator_simulator_queue_depth"));
+
+        double totalShare = 0;
+        for(var metric : metricsRegistry.getMetrics()) {
+            if(metric.getName().equals("elevator_simulator_action_time_share"))
+                totalShare += metric.get();
+        }
+        assertEquals(1, totalShare, 1e-9);
+    }
+
+    @Test
+    void testSimulationMetricsWithoutBank() {
+        var engine = new SimulationEngine(new Elevator(defaultLowestStorey, defaultHighestStorey, 1));
+        var metricsRegistry = new MetricsRegistry();
+        var simulationMetrics = new SimulationMetrics(engine, metricsRegistry);
+
+        engine.run(10);
+        simulationMetrics.update();
+        assertEquals(10, getValue(metricsRegistry, "elevator_simulator_cycles_total"));
+        for(var metric : metricsRegistry.getMetrics())
+            assertFalse(metric.getName().contains("hall_calls"));
+    }
+
+    @Test
+    void testHttpServerServesMetrics() throws IOException {
+        var metricsRegistry = new MetricsRegistry();
+        metricsRegistry.counter("total", "A total").set(7);
+
+        try(var server = new MetricsHttpServer(metricsRegistry, 0)) {
+            var connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + MetricsHttpServer.PATH).openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/plain"));
+            try(InputStream in = connection.getInputStream()) {
+                var body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(body.contains("total 7\n"));
+            }
+        }
+    }
+
+    @Test
+    void testMBeanCanBeRegisteredAgainAfterUnregistering() throws JMException {
+        var metricsRegistry = new MetricsRegistry();
+        var objectName = metricsRegistry.registerMBean("knc.simulator:type=MetricsTest");
+        assertThrows(ReflectionException.class, () -> metricsRegistry.invoke("reset", new Object[0], new String[0]));
+        metricsRegistry.unregisterMBean(objectName);
+
+        var nextRegistry = new MetricsRegistry();
+        nextRegistry.unregisterMBean(nextRegistry.registerMBean("knc.simulator:type=MetricsTest"));
+    }
+
+    private static double getValue(MetricsRegistry metricsRegistry, String name) {
+        for(var metric : metricsRegistry.getMetrics()) {
+            if(metric.getName().equals(name))
+                return metric.get();
+        }
+
+        throw new AssertionError("No metric named " + name);
+    }
+}
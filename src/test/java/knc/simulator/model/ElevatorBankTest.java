@@ -0,0 +1,290 @@
+package knc.simulator.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElevatorBankTest {
+    private final int defaultLowestStorey = 1;
+    private final int defaultHighestStorey = 10;
+    private final int defaultElevatorCount = 3;
+    private ElevatorBank elevatorBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey,
+            defaultElevatorCount, new NearestCarDispatcher());
+
+    @Test
+    void testCreatesElevators() {
+        assertEquals(defaultElevatorCount, elevatorBank.getElevatorCount());
+    }
+
+    @Test
+    void testNoElevatorsShouldThrow() {
+        assertThrows(Exception.class, () -> new ElevatorBank(defaultLowestStorey, defaultHighestStorey, 0, new NearestCarDispatcher()));
+    }
+
+    @Test
+    void testMismatchedStoreysShouldThrow() {
+        var first = new ElevatorRequestManager(new Elevator(1, 4));
+        var second = new ElevatorRequestManager(new Elevator(1, 5));
+        assertThrows(Exception.class, () -> new ElevatorBank(new NearestCarDispatcher(), first, second));
+    }
+
+    @Test
+    void testHallCallOutOfRangeShouldThrow() {
+        assertThrows(Exception.class, () -> elevatorBank.createHallCall(defaultHighestStorey + 1));
+    }
+
+    @Test
+    void testDuplicateHallCallIsAssignedOnce() {
+        elevatorBank.createHallCall(defaultHighestStorey);
+        elevatorBank.createHallCall(defaultHighestStorey);
+
+        var busyElevators = 0;
+        for(int i = 0; i < elevatorBank.getElevatorCount(); i++) {
+            if(elevatorBank.getElevator(i).getCurrentAction() != ElevatorAction.IDLE)
+                busyElevators++;
+        }
+
+        assertEquals(1, busyElevators);
+        assertEquals(0, elevatorBank.getElevatorRequestsSize());
+        assertEquals(2, elevatorBank.getHallCalls());
+        assertEquals(1, elevatorBank.getDuplicateHallCalls());
+    }
+
+    @Test
+    void testNearestCarDispatcherSelectsClosestElevator() {
+        var low = new ElevatorRequestManager(new Elevator(1, 10, 1));
+        var high = new ElevatorRequestManager(new Elevator(1, 10, 9));
+        var bank = new ElevatorBank(new NearestCarDispatcher(), low, high);
+
+        bank.createHallCall(8);
+        assertEquals(8, high.getElevator().getTargetStorey());
+        assertEquals(ElevatorAction.IDLE, low.getElevator().getCurrentAction());
+    }
+
+    @Test
+    void testEnergyAwareDispatcherTradesWaitForEnergy() {
+        assertThrows(IllegalArgumentException.class, () -> new EnergyAwareDispatcher(-1));
+        var above = new ElevatorRequestManager(new Elevator(1, 10, 9));
+        var below = new ElevatorRequestManager(new Elevator(1, 10, 1));
+        var bank = new ElevatorBank(new EnergyAwareDispatcher(0), above, below);
+
+        // Both empty cars are four storeys away, but only the one below is helped by its counterweight
+        assertEquals(0, bank.getDispatcher().selectElevator(bank, 5));
+        bank.setDispatcher(new EnergyAwareDispatcher(1_000_000));
+        assertEquals(1, bank.getDispatcher().selectElevator(bank, 5));
+    }
+
+    @Test
+    void testLookDispatcherPrefersElevatorPassingTheCall() {
+        var passing = new ElevatorRequestManager(new Elevator(1, 10, 1));
+        var idle = new ElevatorRequestManager(new Elevator(1, 10, 1));
+        var bank = new ElevatorBank(new LookDispatcher(), passing, idle);
+        passing.getElevator().setCyclesToTraverseStorey(1);
+        passing.createElevatorRequest(10);
+        passing.getElevator().update();
+        passing.getElevator().update();
+
+        bank.createHallCall(5);
+        assertEquals(10, passing.getElevator().getTargetStorey());
+        assertEquals(1, passing.getElevatorRequestsSize());
+        assertEquals(ElevatorAction.IDLE, idle.getElevator().getCurrentAction());
+    }
+
+    @Test
+    void testEtaDispatcherAvoidsBusyElevator() {
+        var busy = new ElevatorRequestManager(new Elevator(1, 10, 5));
+        var distant = new ElevatorRequestManager(new Elevator(1, 10, 1));
+        var bank = new ElevatorBank(new EtaDispatcher(), busy, distant);
+        busy.createElevatorRequest(10);
+        busy.createElevatorRequest(1);
+        busy.createElevatorRequest(10);
+
+        bank.createHallCall(4);
+        assertEquals(4, distant.getElevator().getTargetStorey());
+    }
+
+    @Test
+    void testStatisticsAfterServingCalls() {
+        elevatorBank.createHallCall(defaultHighestStorey);
+        elevatorBank.createHallCall(defaultLowestStorey + 1);
+
+        for(int i = 0; i < 5_000; i++) {
+            for(var elevator : elevatorBank.getElevators())
+                elevator.update();
+        }
+
+        assertEquals(2, elevatorBank.getServedRequests());
+        assertTrue(elevatorBank.getAverageWaitCycles() > 0);
+        assertEquals(2.0 / 5_000, elevatorBank.getThroughput());
+    }
+
+    @Test
+    void testPassengerWithSameOriginAndDestinationShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> elevatorBank.createPassenger(5, 5));
+        assertThrows(IllegalArgumentException.class, () -> elevatorBank.createPassenger(defaultHighestStorey + 1, 5));
+    }
+
+    @Test
+    void testPassengerIsDelivered() {
+        elevatorBank.createPassenger(5, defaultHighestStorey);
+        assertEquals(1, elevatorBank.getWaitingPassengers());
+
+        runUntilIdle();
+        assertEquals(0, elevatorBank.getWaitingPassengers());
+        assertEquals(0, elevatorBank.getRidingPassengers());
+        assertEquals(1, elevatorBank.getDeliveredPassengers());
+        assertEquals(1, elevatorBank.getJourneyHistogram().getTotalCount());
+        for(var elevator : elevatorBank.getElevators())
+            assertEquals(0, elevator.getLoad());
+    }
+
+    @Test
+    void testBoardingExtendsHold() {
+        var elevator = elevatorBank.getElevator(0);
+        elevatorBank.createPassenger(defaultLowestStorey, defaultHighestStorey);
+
+        // An idle car at the origin holds and takes the passenger at once
+        assertEquals(ElevatorAction.HOLD, elevator.getCurrentAction());
+        assertEquals(1, elevator.getLoad());
+        assertEquals(elevator.getCyclesToHold() + elevator.getCyclesPerPassenger(), elevator.getCurrentHoldDuration());
+
+        elevatorBank.createPassenger(defaultLowestStorey, 5);
+        assertEquals(2, elevator.getLoad());
+        assertEquals(elevator.getCyclesToHold() + 2 * elevator.getCyclesPerPassenger(), elevator.getCurrentHoldDuration());
+    }
+
+    @Test
+    void testFullElevatorIsPassedOver() {
+        var first = elevatorBank.getElevator(0);
+        first.setCapacity(1);
+        elevatorBank.createPassenger(defaultLowestStorey, defaultHighestStorey);
+        assertTrue(first.isFull());
+
+        elevatorBank.createPassenger(defaultLowestStorey, 5);
+        assertEquals(1, first.getLoad());
+        assertEquals(1, elevatorBank.getRidingPassengers() - first.getLoad());
+        assertFalse(elevatorBank.isEveryElevatorFull());
+    }
+
+    @Test
+    void testPassengersLeftBehindAreCollectedLater() {
+        var singleCarBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey, 1, new EtaDispatcher());
+        singleCarBank.getElevator(0).setCapacity(2);
+        for(int i = 0; i < 5; i++)
+            singleCarBank.createPassenger(5, defaultHighestStorey - i);
+
+        var elevator = singleCarBank.getElevator(0);
+        for(int i = 0; i < 100_000 && singleCarBank.getDeliveredPassengers() < 5; i++) {
+            elevator.update();
+            assertTrue(elevator.getLoad() <= 2);
+        }
+
+        assertEquals(5, singleCarBank.getDeliveredPassengers());
+        assertEquals(5, singleCarBank.getPassengerWaitHistogram().getTotalCount());
+    }
+
+    @Test
+    void testDestinationDispatcherArgumentsBelow0ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new DestinationDispatcher(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DestinationDispatcher(0, -1));
+    }
+
+    @Test
+    void testDestinationCallsAreAssignedAfterWindow() {
+        elevatorBank.setDestinationDispatcher(new DestinationDispatcher(60, DestinationDispatcher.DEFAULT_STOP_PENALTY));
+        elevatorBank.createPassenger(5, defaultHighestStorey);
+        assertEquals(1, elevatorBank.getHallCalls());
+        assertEquals(1, elevatorBank.getWaitingPassengers());
+        assertEquals(60, elevatorBank.getNextAssignmentCycle());
+
+        for(int i = 0; i < 59; i++)
+            updateAll();
+        elevatorBank.assignDestinationCalls();
+        assertEquals(0, elevatorBank.getElevatorRequestsSize());
+        for(var elevator : elevatorBank.getElevators())
+            assertEquals(ElevatorAction.IDLE, elevator.getCurrentAction());
+
+        updateAll();
+        elevatorBank.assignDestinationCalls();
+        assertEquals(ElevatorBank.NO_ASSIGNMENT, elevatorBank.getNextAssignmentCycle());
+        var assignedCars = 0;
+        for(int i = 0; i < defaultElevatorCount; i++) {
+            if(elevatorBank.getAssignedPassengers(i) == 1) {
+                assignedCars++;
+                assertTrue(elevatorBank.isStopAssigned(i, 5));
+                assertTrue(elevatorBank.isStopAssigned(i, defaultHighestStorey));
+            }
+        }
+        assertEquals(1, assignedCars);
+    }
+
+    @Test
+    void testPassengersWithSameDestinationShareCar() {
+        elevatorBank.setDestinationDispatcher(new DestinationDispatcher(60, DestinationDispatcher.DEFAULT_STOP_PENALTY));
+        elevatorBank.createPassenger(5, 9);
+        elevatorBank.createPassenger(5, 2);
+        elevatorBank.createPassenger(5, 9);
+        elevatorBank.createPassenger(5, 2);
+        for(int i = 0; i < 60; i++)
+            updateAll();
+        elevatorBank.assignDestinationCalls();
+
+        for(int i = 0; i < defaultElevatorCount; i++) {
+            var assigned = elevatorBank.getAssignedPassengers(i);
+            assertTrue(assigned == 0 || assigned == 2 || assigned == 4);
+        }
+
+        runUntilIdle();
+        assertEquals(4, elevatorBank.getDeliveredPassengers());
+        for(int i = 0; i < defaultElevatorCount; i++) {
+            assertEquals(0, elevatorBank.getAssignedPassengers(i));
+            for(var storey = defaultLowestStorey; storey <= defaultHighestStorey; storey++)
+                assertFalse(elevatorBank.isStopAssigned(i, storey));
+        }
+    }
+
+    @Test
+    void testHallCallCanBeEscalatedAndCancelled() {
+        elevatorBank.createHallCall(defaultHighestStorey);
+        elevatorBank.createHallCall(defaultHighestStorey, RequestPriority.HIGH, 0);
+        assertEquals(2, elevatorBank.getHallCalls());
+        assertEquals(1, elevatorBank.getDuplicateHallCalls());
+
+        assertTrue(elevatorBank.cancelHallCall(defaultHighestStorey));
+        assertFalse(elevatorBank.cancelHallCall(defaultHighestStorey));
+        runUntilIdle();
+        assertEquals(0, elevatorBank.getServedRequests());
+        assertEquals(0, elevatorBank.getMissedDeadlines());
+
+        elevatorBank.createHallCall(defaultHighestStorey - 1, RequestPriority.NORMAL, 0);
+        runUntilIdle();
+        assertEquals(1, elevatorBank.getMissedDeadlines());
+    }
+
+    @Test
+    void testCancellingHallCallKeepsCarCalls() {
+        var elevatorBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey, 1, new NearestCarDispatcher());
+        elevatorBank.createPassenger(defaultLowestStorey, 9);
+        elevatorBank.createPassenger(defaultLowestStorey, 5);
+        assertEquals(2, elevatorBank.getRidingPassengers());
+
+        assertFalse(elevatorBank.cancelHallCall(5));
+        for(int i = 0; i < 100_000; i++)
+            elevatorBank.getElevator(0).update();
+
+        assertEquals(0, elevatorBank.getRidingPassengers());
+        assertEquals(2, elevatorBank.getDeliveredPassengers());
+    }
+
+    private void updateAll() {
+        for(var elevator : elevatorBank.getElevators())
+            elevator.update();
+    }
+
+    private void runUntilIdle() {
+        for(int i = 0; i < 100_000; i++) {
+            for(var elevator : elevatorBank.getElevators())
+                elevator.update();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package knc.simulator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElevatorFleetTest {
+    private final int defaultLowestStorey = 1;
+    private final int defaultHighestStorey = 12;
+    private final int defaultSize = 50;
+    private ElevatorFleet fleet = new ElevatorFleet(defaultLowestStorey, defaultHighestStorey, defaultSize);
+
+    @Test
+    void testEmptyFleetShouldThrow() {
+        assertThrows(Exception.class, () -> new ElevatorFleet(defaultLowestStorey, defaultHighestStorey, 0));
+    }
+
+    @Test
+    void testLowestStoreyEqualToHighestShouldThrow() {
+        assertThrows(Exception.class, () -> new ElevatorFleet(5, 5, defaultSize));
+    }
+
+    @Test
+    void testViewIsReused() {
+        var elevator = fleet.getElevator(7);
+
+        assertSame(elevator, fleet.getElevator(7));
+        assertSame(fleet, elevator.getFleet());
+        assertEquals(7, elevator.getFleetIndex());
+        assertEquals(defaultLowestStorey, elevator.getCurrentStorey());
+        assertEquals(ElevatorAction.IDLE, elevator.getCurrentAction());
+    }
+
+    @Test
+    void testStandaloneElevatorIsFleetOfOne() {
+        var elevator = new Elevator(defaultLowestStorey, defaultHighestStorey, 3);
+
+        assertEquals(1, elevator.getFleet().getSize());
+        assertSame(elevator, elevator.getFleet().getElevator(0));
+        assertEquals(3, elevator.getCurrentStorey());
+    }
+
+    @Test
+    void testUpdateMatchesStandaloneElevators() {
+        var random = new Random(3);
+        var standalone = new Elevator[defaultSize];
+        for(int i = 0; i < defaultSize; i++) {
+            standalone[i] = new Elevator(defaultLowestStorey, defaultHighestStorey);
+            var cyclesToTraverseStorey = 1 + random.nextInt(20);
+            var cyclesToHold = 1 + random.nextInt(20);
+            standalone[i].setCyclesToTraverseStorey(cyclesToTraverseStorey);
+            standalone[i].setCyclesToHold(cyclesToHold);
+            fleet.getElevator(i).setCyclesToTraverseStorey(cyclesToTraverseStorey);
+            fleet.getElevator(i).setCyclesToHold(cyclesToHold);
+        }
+
+        for(int cycle = 0; cycle < 5_000; cycle++) {
+            for(int i = 0; i < defaultSize; i++) {
+                if(standalone[i].getCurrentAction() == ElevatorAction.IDLE && random.nextInt(10) == 0) {
+                    var target = defaultLowestStorey + random.nextInt(defaultHighestStorey - defaultLowestStorey + 1);
+                    standalone[i].setTargetStorey(target);
+                    fleet.getElevator(i).setTargetStorey(target);
+                }
+
+                standalone[i].update();
+            }
+            fleet.update();
+
+            for(int i = 0; i < defaultSize; i++) {
+                var actual = fleet.getElevator(i);
+                assertEquals(standalone[i].getCurrentAction(), actual.getCurrentAction());
+                assertEquals(standalone[i].getElevatorPositionAsStoriesFromBottom(), actual.getElevatorPositionAsStoriesFromBottom());
+            }
+        }
+
+        for(int i = 0; i < defaultSize; i++) {
+            for(var action : ElevatorAction.values())
+                assertEquals(standalone[i].getCyclesInAction(action), fleet.getElevator(i).getCyclesInAction(action));
+        }
+    }
+
+    @Test
+    void testDependentElevatorsMatchStandaloneElevators() {
+        var standalone = new Elevator[defaultSize];
+        for(int i = 0; i < defaultSize; i++)
+            standalone[i] = new Elevator(defaultLowestStorey, defaultHighestStorey);
+        var advanced = new ElevatorFleet(defaultLowestStorey, defaultHighestStorey, defaultSize);
+        chainElevators(standalone);
+        chainElevators(fleet.getElevators());
+        chainElevators(advanced.getElevators());
+        standalone[0].setTargetStorey(defaultHighestStorey);
+        fleet.getElevator(0).setTargetStorey(defaultHighestStorey);
+        advanced.getElevator(0).setTargetStorey(defaultHighestStorey);
+
+        var random = new Random(5);
+        var cycle = 0;
+        while(cycle < 20_000) {
+            var cycles = 1 + random.nextInt(50);
+            for(int i = 0; i < cycles; i++) {
+                for(var elevator : standalone)
+                    elevator.update();
+                fleet.update();
+            }
+            advanced.advance(cycles);
+            cycle += cycles;
+
+            for(int i = 0; i < defaultSize; i++) {
+                assertEquals(standalone[i].getCurrentAction(), fleet.getElevator(i).getCurrentAction());
+                assertEquals(standalone[i].getElevatorPositionAsStoriesFromBottom(), fleet.getElevator(i).getElevatorPositionAsStoriesFromBottom());
+                assertEquals(standalone[i].getCurrentAction(), advanced.getElevator(i).getCurrentAction());
+                assertEquals(standalone[i].getElevatorPositionAsStoriesFromBottom(), advanced.getElevator(i).getElevatorPositionAsStoriesFromBottom());
+            }
+        }
+    }
+
+    @Test
+    void testAdvanceMatchesUpdate() {
+        var reference = new ElevatorFleet(defaultLowestStorey, defaultHighestStorey, defaultSize);
+        for(int i = 0; i < defaultSize; i++) {
+            var target = defaultLowestStorey + i % (defaultHighestStorey - defaultLowestStorey + 1);
+            reference.getElevator(i).setTargetStorey(target);
+            fleet.getElevator(i).setTargetStorey(target);
+        }
+
+        for(int i = 0; i < 1_000; i++)
+            reference.update();
+        fleet.advance(1_000);
+
+        for(int i = 0; i < defaultSize; i++) {
+            assertEquals(reference.getElevator(i).getCurrentStorey(), fleet.getElevator(i).getCurrentStorey());
+            assertEquals(reference.getElevator(i).getCurrentAction(), fleet.getElevator(i).getCurrentAction());
+            assertEquals(reference.getElevator(i).getCurrentCycle(), fleet.getElevator(i).getCurrentCycle());
+        }
+        assertEquals(Elevator.NO_TRANSITION, fleet.getCyclesUntilNextTransition());
+    }
+
+    @Test
+    void testListenersAreNotifiedDuringFleetUpdate() {
+        var elevator = fleet.getElevator(4);
+        var transitions = new int[1];
+        elevator.registerTransitionListener((previousAction, newAction, storey, cycle) -> transitions[0]++);
+        elevator.setCyclesToTraverseStorey(1);
+        elevator.setCyclesToHold(1);
+        elevator.setTargetStorey(defaultLowestStorey + 2);
+
+        for(int i = 0; i < 3; i++)
+            fleet.update();
+
+        // Ascending, hold, idle
+        assertEquals(3, transitions[0]);
+        assertEquals(ElevatorAction.IDLE, elevator.getCurrentAction());
+    }
+
+    /**
+     * Makes every elevator send the next one to a storey that depends on the cycle as it becomes idle.
+     */
+    private void chainElevators(Elevator[] elevators) {
+        var storeyCount = defaultHighestStorey - defaultLowestStorey + 1;
+        for(int i = 0; i < elevators.length; i++) {
+            var next = elevators[(i + 1) % elevators.length];
+            elevators[i].setCyclesToTraverseStorey(3 + i);
+            elevators[i].setCyclesToHold(5 + 2 * i);
+            elevators[i].registerTransitionListener((previousAction, newAction, storey, cycle) -> {
+                if(newAction == ElevatorAction.IDLE)
+                    next.setTargetStorey(defaultLowestStorey + (int) ((cycle * 7 + storey) % storeyCount));
+            });
+        }
+    }
+}
@@ -51,4 +51,205 @@ class ElevatorRequestManagerTest {
         elevator.updateUntilNextHold();
         assertEquals(secondTarget, elevatorRequestManager.getElevator().getCurrentStorey());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDefaultPolicyIsFifo() {
+        assertEquals(SchedulingPolicy.FIFO, elevatorRequestManager.getSchedulingPolicy());
+    }
+
+    @Test
+    void testFifoPassesPendingStoreys() {
+        var elevator = new Elevator(1, 8);
+        var manager = new ElevatorRequestManager(elevator);
+        manager.createElevatorRequest(8);
+        manager.createElevatorRequest(2);
+        manager.createElevatorRequest(7);
+
+        elevator.updateUntilNextHold();
+        assertEquals(8, elevator.getCurrentStorey());
+        elevator.updateUntilNextHold();
+        assertEquals(2, elevator.getCurrentStorey());
+        elevator.updateUntilNextHold();
+        assertEquals(7, elevator.getCurrentStorey());
+    }
+
+    @Test
+    void testCollectiveStopsAtPendingStoreysOnTheWay() {
+        var elevator = new Elevator(1, 8);
+        var manager = new ElevatorRequestManager(elevator);
+        manager.setSchedulingPolicy(SchedulingPolicy.COLLECTIVE);
+        manager.createElevatorRequest(8);
+        manager.createElevatorRequest(2);
+        manager.createElevatorRequest(7);
+
+        elevator.updateUntilNextHold();
+        assertEquals(2, elevator.getCurrentStorey());
+        elevator.updateUntilNextHold();
+        assertEquals(7, elevator.getCurrentStorey());
+        elevator.updateUntilNextHold();
+        assertEquals(8, elevator.getCurrentStorey());
+    }
+
+    @Test
+    void testCollectiveReversesWhenNothingIsAhead() {
+        var elevator = new Elevator(1, 8, 5);
+        var manager = new ElevatorRequestManager(elevator);
+        manager.setSchedulingPolicy(SchedulingPolicy.COLLECTIVE);
+        manager.createElevatorRequest(6);
+        manager.createElevatorRequest(3);
+        manager.createElevatorRequest(8);
+        manager.createElevatorRequest(1);
+
+        elevator.updateUntilNextHold();
+        assertEquals(6, elevator.getCurrentStorey());
+        elevator.updateUntilNextHold();
+        assertEquals(8, elevator.getCurrentStorey());
+        elevator.updateUntilNextHold();
+        assertEquals(3, elevator.getCurrentStorey());
+        elevator.updateUntilNextHold();
+        assertEquals(1, elevator.getCurrentStorey());
+    }
+
+    @Test
+    void testCollectiveUsesFewerCyclesThanFifo() {
+        assertTrue(cyclesToServe(SchedulingPolicy.COLLECTIVE) < cyclesToServe(SchedulingPolicy.FIFO));
+    }
+
+    private long cyclesToServe(SchedulingPolicy schedulingPolicy) {
+        var elevator = new Elevator(1, 8);
+        var manager = new ElevatorRequestManager(elevator);
+        manager.setSchedulingPolicy(schedulingPolicy);
+        manager.createElevatorRequest(8);
+        manager.createElevatorRequest(2);
+        manager.createElevatorRequest(7);
+
+        while(manager.getServedRequests() < 3)
+            elevator.update();
+
+        return elevator.getCurrentCycle();
+    }
+
+    @Test
+    void testServedRequestIsRecordedInHistograms() {
+        elevator.setCyclesToTraverseStorey(10);
+        elevator.setCyclesToHold(5);
+        elevatorRequestManager.createElevatorRequest(defaultLowestStorey + 1);
+        elevatorRequestManager.createElevatorRequest(defaultLowestStorey + 2);
+        elevator.updateUntilNextHold();
+        elevator.updateUntilNextHold();
+
+        assertEquals(2, elevatorRequestManager.getWaitHistogram().getTotalCount());
+        assertEquals(25, elevatorRequestManager.getWaitHistogram().getMax());
+        assertEquals(10, elevatorRequestManager.getServiceHistogram().getMax());
+    }
+
+    @Test
+    void testEstimateCoversEveryQueuedStop() {
+        elevator.setCyclesToTraverseStorey(10);
+        elevator.setCyclesToHold(5);
+        elevatorRequestManager.createElevatorRequest(4);
+        elevatorRequestManager.createElevatorRequest(2);
+        elevatorRequestManager.createElevatorRequest(3);
+        elevator.update();
+        elevator.update();
+
+        var remainingToFirst = 3 * 10 - elevator.getCurrentTraversalCycles() + 5;
+        var queuedStops = (2 + 1) * 10 + 2 * 5;
+        assertEquals(remainingToFirst + queuedStops + 2 * 10, elevatorRequestManager.estimateCyclesToServe(1));
+        assertEquals(remainingToFirst + queuedStops, elevatorRequestManager.estimateCyclesToServe(3));
+    }
+
+    @Test
+    void testUrgentRequestRedirectsNormalRequest() {
+        elevatorRequestManager.createElevatorRequest(4);
+        elevatorRequestManager.createElevatorRequest(2);
+        elevatorRequestManager.createElevatorRequest(3, RequestPriority.HIGH, ElevatorRequestManager.NO_DEADLINE);
+        assertEquals(3, elevator.getTargetStorey());
+
+        assertEquals(3, servedStoreyAfterNextHold());
+        assertEquals(4, servedStoreyAfterNextHold());
+        assertEquals(2, servedStoreyAfterNextHold());
+    }
+
+    @Test
+    void testHigherPriorityIsServedFirst() {
+        elevatorRequestManager.createElevatorRequest(4, RequestPriority.HIGH, ElevatorRequestManager.NO_DEADLINE);
+        elevator.update();
+        elevatorRequestManager.createElevatorRequest(3, RequestPriority.HIGH, ElevatorRequestManager.NO_DEADLINE);
+        elevatorRequestManager.createElevatorRequest(2, RequestPriority.EMERGENCY, ElevatorRequestManager.NO_DEADLINE);
+
+        assertEquals(2, servedStoreyAfterNextHold());
+        assertEquals(4, servedStoreyAfterNextHold());
+        assertEquals(3, servedStoreyAfterNextHold());
+    }
+
+    @Test
+    void testEarliestDeadlineIsServedFirst() {
+        elevatorRequestManager.createElevatorRequest(4, RequestPriority.NORMAL, 1_000);
+        elevatorRequestManager.createElevatorRequest(3, RequestPriority.NORMAL, 500);
+        elevatorRequestManager.createElevatorRequest(2, RequestPriority.NORMAL, 700);
+
+        assertEquals(3, servedStoreyAfterNextHold());
+        assertEquals(2, servedStoreyAfterNextHold());
+        assertEquals(4, servedStoreyAfterNextHold());
+    }
+
+    @Test
+    void testDuplicateRequestEscalates() {
+        elevatorRequestManager.createElevatorRequest(4);
+        elevatorRequestManager.createElevatorRequest(3);
+        elevatorRequestManager.createElevatorRequest(2);
+        elevatorRequestManager.createElevatorRequest(2, RequestPriority.HIGH, ElevatorRequestManager.NO_DEADLINE);
+
+        assertEquals(2, elevator.getTargetStorey());
+        assertEquals(2, elevatorRequestManager.getElevatorRequestsSize());
+    }
+
+    @Test
+    void testCancelQueuedRequest() {
+        elevatorRequestManager.createElevatorRequest(4);
+        elevatorRequestManager.createElevatorRequest(3, RequestPriority.HIGH, ElevatorRequestManager.NO_DEADLINE);
+        elevatorRequestManager.createElevatorRequest(2);
+
+        assertTrue(elevatorRequestManager.cancelElevatorRequest(4));
+        assertFalse(elevatorRequestManager.cancelElevatorRequest(4));
+        assertFalse(elevatorRequestManager.isRequestPending(4));
+        assertEquals(3, servedStoreyAfterNextHold());
+        assertEquals(2, servedStoreyAfterNextHold());
+        assertFalse(elevatorRequestManager.hasRequests());
+    }
+
+    @Test
+    void testCancelActiveRequestTurnsToNext() {
+        elevatorRequestManager.createElevatorRequest(4);
+        elevatorRequestManager.createElevatorRequest(2);
+        assertTrue(elevatorRequestManager.cancelElevatorRequest(4));
+
+        assertEquals(2, elevator.getTargetStorey());
+        assertEquals(2, servedStoreyAfterNextHold());
+        assertEquals(1, elevatorRequestManager.getServedRequests());
+    }
+
+    @Test
+    void testCancelOutOfRangeShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> elevatorRequestManager.cancelElevatorRequest(defaultHighestStorey + 1));
+        assertThrows(IllegalArgumentException.class, () -> elevatorRequestManager.createElevatorRequest(2, null, 0));
+    }
+
+    @Test
+    void testMissedDeadlinesAreCounted() {
+        elevator.setCyclesToTraverseStorey(10);
+        elevatorRequestManager.createElevatorRequest(4, RequestPriority.NORMAL, 20);
+        elevatorRequestManager.createElevatorRequest(3, RequestPriority.NORMAL, ElevatorRequestManager.NO_DEADLINE);
+        elevator.updateUntilNextHold();
+        elevator.updateUntilNextHold();
+
+        assertEquals(2, elevatorRequestManager.getServedRequests());
+        assertEquals(1, elevatorRequestManager.getMissedDeadlines());
+    }
+
+    private int servedStoreyAfterNextHold() {
+        elevator.updateUntilNextHold();
+        return elevator.getCurrentStorey();
+    }
+}
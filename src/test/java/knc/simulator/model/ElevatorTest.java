@@ -2,6 +2,10 @@ package knc.simulator.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ElevatorTest {
@@ -103,4 +107,234 @@ class ElevatorTest {
 
         assertEquals(ElevatorAction.IDLE, elevator.getCurrentAction());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testIdleHasNoTransition() {
+        assertEquals(Elevator.NO_TRANSITION, elevator.getCyclesUntilNextTransition());
+    }
+
+    @Test
+    void testCyclesUntilNextTransition() {
+        elevator.setCyclesToTraverseStorey(7);
+        elevator.setTargetStorey(defaultHighestStorey);
+        elevator.update();
+
+        var expected = 7L * (defaultHighestStorey - defaultStartingStorey) - 1;
+        assertEquals(expected, elevator.getCyclesUntilNextTransition());
+
+        for(long i = 0; i < expected; i++)
+            elevator.update();
+        assertEquals(ElevatorAction.HOLD, elevator.getCurrentAction());
+    }
+
+    @Test
+    void testAdvanceMatchesUpdate() {
+        var reference = new Elevator(defaultLowestStorey, defaultHighestStorey, defaultStartingStorey);
+        reference.setCyclesToTraverseStorey(13);
+        elevator.setCyclesToTraverseStorey(13);
+        reference.setTargetStorey(defaultHighestStorey);
+        elevator.setTargetStorey(defaultHighestStorey);
+
+        for(int step : new int[] {1, 5, 12, 13, 30, 40, 1, 200}) {
+            for(int i = 0; i < step; i++)
+                reference.update();
+            elevator.advance(step);
+
+            assertEquals(reference.getCurrentCycle(), elevator.getCurrentCycle());
+            assertEquals(reference.getCurrentStorey(), elevator.getCurrentStorey());
+            assertEquals(reference.getCurrentAction(), elevator.getCurrentAction());
+            assertEquals(reference.getCurrentTraversalCycles(), elevator.getCurrentTraversalCycles());
+            assertEquals(reference.getCurrentHoldCycles(), elevator.getCurrentHoldCycles());
+        }
+    }
+
+    @Test
+    void testTransitionListenerReceivesDetails() {
+        var transitions = new ArrayList<String>();
+        elevator.setCyclesToTraverseStorey(1);
+        elevator.registerTransitionListener((previousAction, newAction, storey, cycle) ->
+                transitions.add(previousAction + ">" + newAction + "@" + storey + ":" + cycle));
+
+        elevator.setTargetStorey(defaultStartingStorey + 1);
+        elevator.update();
+
+        assertEquals(List.of("IDLE>ASCENDING@1:0", "ASCENDING>HOLD@2:1"), transitions);
+    }
+
+    @Test
+    void testListenerCanUnregisterDuringNotification() {
+        var notifications = new int[2];
+        var first = new ElevatorTransitionListener() {
+            @Override
+            public void onTransition(ElevatorAction previousAction, ElevatorAction newAction, int storey, long cycle) {
+                notifications[0]++;
+                elevator.unregisterListener(this);
+            }
+        };
+        elevator.registerTransitionListener(first);
+        elevator.registerListener(action -> notifications[1]++);
+
+        elevator.setTargetStorey(defaultStartingStorey + 1);
+        elevator.setTargetStorey(defaultStartingStorey);
+
+        assertArrayEquals(new int[] {1, 2}, notifications);
+        assertFalse(elevator.unregisterListener(first));
+    }
+
+    @Test
+    void testEveryListenerSeesTransitionsInOrder() {
+        var before = new ArrayList<String>();
+        var after = new ArrayList<String>();
+        elevator.setCyclesToHold(1);
+        elevator.registerTransitionListener((previousAction, newAction, storey, cycle) ->
+                before.add(previousAction + ">" + newAction + "@" + storey + ":" + cycle));
+        elevator.registerListener(action -> {
+            if(action == ElevatorAction.IDLE)
+                elevator.setTargetStorey(defaultHighestStorey);
+        });
+        elevator.registerTransitionListener((previousAction, newAction, storey, cycle) ->
+                after.add(previousAction + ">" + newAction + "@" + storey + ":" + cycle));
+
+        elevator.setTargetStorey(defaultStartingStorey);
+        elevator.update();
+
+        assertEquals(List.of("IDLE>HOLD@1:0", "HOLD>IDLE@1:1", "IDLE>ASCENDING@1:1"), before);
+        assertEquals(before, after);
+    }
+
+    @Test
+    void testInterpolatedPositionLiesBetweenCycles() {
+        elevator.setCyclesToTraverseStorey(4);
+        elevator.setTargetStorey(defaultStartingStorey + 1);
+        elevator.update();
+
+        assertEquals(0.25, elevator.getElevatorPositionAsStoriesFromBottom());
+        assertEquals(0.375, elevator.getElevatorPositionAsStoriesFromBottom(0.5));
+
+        elevator.setTargetStorey(defaultStartingStorey);
+        assertEquals(0.25, elevator.getElevatorPositionAsStoriesFromBottom(0.5));
+    }
+
+    @Test
+    void testCapacityBelow1ShouldThrowException() {
+        assertThrows(Exception.class, () -> elevator.setCapacity(0));
+        assertThrows(Exception.class, () -> elevator.setCyclesPerPassenger(-1));
+    }
+
+    @Test
+    void testExtendHold() {
+        assertThrows(IllegalStateException.class, () -> elevator.extendHold(10));
+
+        elevator.setCyclesToHold(5);
+        elevator.setTargetStorey(elevator.getCurrentStorey());
+        elevator.extendHold(10);
+        assertEquals(15, elevator.getCurrentHoldDuration());
+        assertEquals(15, elevator.getCyclesUntilNextTransition());
+
+        for(int i = 0; i < 14; i++)
+            elevator.update();
+        assertEquals(ElevatorAction.HOLD, elevator.getCurrentAction());
+        elevator.update();
+        assertEquals(ElevatorAction.IDLE, elevator.getCurrentAction());
+    }
+
+    @Test
+    void testAccelerationMakesLongRunsFasterPerStorey() {
+        var tower = new Elevator(1, 40);
+        tower.setCyclesToTraverseStorey(60);
+        tower.setAccelerationCycles(120);
+        assertThrows(IllegalArgumentException.class, () -> tower.setAccelerationCycles(-1));
+
+        tower.setTargetStorey(2);
+        var hop = tower.getCyclesUntilNextTransition();
+        tower.advance(hop);
+        tower.advance(tower.getCyclesUntilNextTransition());
+
+        tower.setTargetStorey(12);
+        var run = tower.getCyclesUntilNextTransition();
+        assertEquals(10 * 60 + 120, run);
+        assertEquals(170, hop);
+        assertTrue(run / 10 < hop);
+    }
+
+    @Test
+    void testAdvanceMatchesUpdateWithAcceleration() {
+        var updated = createTravellingElevator();
+        var advanced = createTravellingElevator();
+        var random = new Random(3);
+
+        for(int i = 0; i < 200; i++) {
+            var cycles = 1 + random.nextInt(400);
+            for(int j = 0; j < cycles; j++)
+                updated.update();
+            advanced.advance(cycles);
+
+            assertEquals(updated.getCurrentAction(), advanced.getCurrentAction());
+            assertEquals(updated.getCurrentStorey(), advanced.getCurrentStorey());
+            assertEquals(updated.getCurrentTraversalCycles(), advanced.getCurrentTraversalCycles());
+            assertEquals(updated.getEnergyConsumption(), advanced.getEnergyConsumption(), 1e-9);
+        }
+    }
+
+    @Test
+    void testPositionFollowsMotionProfile() {
+        var tower = new Elevator(1, 40);
+        tower.setCyclesToTraverseStorey(60);
+        tower.setAccelerationCycles(600);
+        tower.setTargetStorey(21);
+
+        var total = tower.getCyclesUntilNextTransition();
+        var previous = 0.0;
+        for(long cycle = 1; cycle <= total; cycle++) {
+            tower.update();
+            var position = tower.getElevatorPositionAsStoriesFromBottom();
+            assertTrue(position >= previous);
+            if(cycle == total / 4)
+                assertTrue(position < 20 / 4.0);
+            if(cycle == total / 2)
+                assertEquals(10, position, 0.05);
+            previous = position;
+        }
+        assertEquals(20, previous);
+    }
+
+    @Test
+    void testEnergyDependsOnLoadAndDirection() {
+        var model = new EnergyModel(75, 3.5, 0, 1, 1, 0, 60);
+        var empty = new Elevator(1, 10);
+        var full = new Elevator(1, 10);
+        empty.setEnergyModel(model);
+        full.setEnergyModel(model);
+        full.setLoad(full.getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> empty.setEnergyModel(null));
+
+        empty.setTargetStorey(10);
+        full.setTargetStorey(10);
+        empty.advance(empty.getCyclesUntilNextTransition());
+        full.advance(full.getCyclesUntilNextTransition());
+        // An empty car going up is pulled by the counterweight, while a full car has to be lifted
+        assertTrue(empty.getEnergyConsumption() < 0);
+        assertTrue(full.getEnergyConsumption() > 0);
+        assertEquals(-empty.getEnergyConsumption(), full.getEnergyConsumption(), 1e-12);
+
+        var standby = new Elevator(1, 10);
+        standby.advance(60 * 60 * 60);
+        assertEquals(EnergyModel.DEFAULT.getStandbyPower() / 1000, standby.getEnergyConsumption(), 1e-12);
+    }
+
+    private static Elevator createTravellingElevator() {
+        var travelling = new Elevator(1, 30);
+        travelling.setCyclesToTraverseStorey(7);
+        travelling.setCyclesToHold(11);
+        travelling.setAccelerationCycles(25);
+        travelling.registerListener(action -> {
+            if(action == ElevatorAction.IDLE) {
+                var storey = travelling.getCurrentStorey();
+                travelling.setLoad(storey % travelling.getCapacity());
+                travelling.setTargetStorey(storey > 15 ? storey - 1 - storey % 13 : storey + 3 + storey % 11);
+            }
+        });
+        travelling.setTargetStorey(30);
+        return travelling;
+    }
+}
@@ -0,0 +1,81 @@
+package knc.simulator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    private LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void testEmptyHistogram() {
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMin());
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        for(int i = 1; i <= 100; i++)
+            histogram.record(i);
+
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(95, histogram.getValueAtPercentile(95));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+        assertEquals(50.5, histogram.getMean());
+    }
+
+    @Test
+    void testLargeValuesWithinPrecision() {
+        for(int i = 1; i <= 100_000; i++)
+            histogram.record(i * 10L);
+
+        assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 * 0.02);
+        assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 * 0.02);
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(10, histogram.getMin());
+    }
+
+    @Test
+    void testValuesAboveRangeAreClamped() {
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_VALUE, histogram.getMax());
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testAddAndReset() {
+        var other = new LatencyHistogram();
+        histogram.record(5);
+        other.record(500);
+        histogram.add(other);
+
+        assertEquals(2, histogram.getTotalCount());
+        assertEquals(500, histogram.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    void testStateRoundTrip() {
+        for(int i = 0; i < 1_000; i++)
+            histogram.record(i * 37L);
+
+        var buffer = ByteBuffer.allocate(histogram.getStateSize());
+        histogram.saveState(buffer);
+        assertEquals(0, buffer.remaining());
+
+        var restored = new LatencyHistogram();
+        restored.record(3);
+        restored.restoreState(buffer.flip());
+
+        assertEquals(histogram.getTotalCount(), restored.getTotalCount());
+        assertEquals(histogram.getMean(), restored.getMean());
+        assertEquals(histogram.getMin(), restored.getMin());
+        assertEquals(histogram.getValueAtPercentile(90), restored.getValueAtPercentile(90));
+    }
+}
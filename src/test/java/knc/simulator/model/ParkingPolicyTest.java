@@ -0,0 +1,126 @@
+package knc.simulator.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingPolicyTest {
+    private final int defaultLowestStorey = 1;
+    private final int defaultHighestStorey = 10;
+    private final long defaultCyclesPerDay = 1_000;
+    private final long defaultHalfLife = 100;
+
+    @Test
+    void testCallsHalveEveryHalfLife() {
+        var parkingPolicy = createParkingPolicy(1);
+        parkingPolicy.recordCall(5, 0);
+        assertEquals(1, parkingPolicy.getExpectedCalls(5, 0), 1e-9);
+        assertEquals(0.5, parkingPolicy.getExpectedCalls(5, defaultHalfLife), 1e-9);
+
+        parkingPolicy.recordCall(5, defaultHalfLife);
+        assertEquals(1.5, parkingPolicy.getExpectedCalls(5, defaultHalfLife), 1e-9);
+        assertEquals(0, parkingPolicy.getExpectedCalls(6, defaultHalfLife));
+    }
+
+    @Test
+    void testRescalingKeepsCounts() {
+        var parkingPolicy = new ParkingPolicy(defaultLowestStorey, defaultHighestStorey, defaultCyclesPerDay, 1, 1);
+        parkingPolicy.recordCall(5, 0);
+        for(long cycle = 1; cycle <= 1_000; cycle++)
+            parkingPolicy.recordCall(5, cycle);
+
+        assertEquals(2, parkingPolicy.getExpectedCalls(5, 1_000), 1e-9);
+        assertEquals(1, parkingPolicy.getExpectedCalls(5, 1_001), 1e-9);
+    }
+
+    @Test
+    void testCallsAreCountedPerBucket() {
+        var parkingPolicy = createParkingPolicy(2);
+        parkingPolicy.recordCall(3, 0);
+        assertEquals(0, parkingPolicy.getExpectedCalls(3, defaultCyclesPerDay / 2));
+        assertEquals(Math.pow(2, -10), parkingPolicy.getExpectedCalls(3, defaultCyclesPerDay), 1e-12);
+    }
+
+    @Test
+    void testInvalidParametersShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new ParkingPolicy(5, 5));
+        assertThrows(IllegalArgumentException.class, () -> new ParkingPolicy(1, 10, 10, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ParkingPolicy(1, 10, 10, 11, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ParkingPolicy(1, 10, 10, 1, 0));
+    }
+
+    @Test
+    void testMismatchedStoreysShouldThrow() {
+        var elevatorBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey, 1, new NearestCarDispatcher());
+        assertThrows(IllegalArgumentException.class, () -> elevatorBank.setParkingPolicy(new ParkingPolicy(defaultLowestStorey, 9)));
+    }
+
+    @Test
+    void testStaysWithoutCalls() {
+        var elevatorBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey, 1, new NearestCarDispatcher());
+        elevatorBank.setParkingPolicy(new ParkingPolicy(defaultLowestStorey, defaultHighestStorey));
+        assertEquals(ElevatorAction.IDLE, elevatorBank.getElevator(0).getCurrentAction());
+    }
+
+    @Test
+    void testIdleElevatorParksAtBusiestStorey() {
+        var elevatorBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey, 1, new NearestCarDispatcher());
+        var parkingPolicy = new ParkingPolicy(defaultLowestStorey, defaultHighestStorey);
+        parkingPolicy.recordCall(8, 0);
+        parkingPolicy.recordCall(8, 0);
+        parkingPolicy.recordCall(2, 0);
+        elevatorBank.setParkingPolicy(parkingPolicy);
+
+        var elevator = elevatorBank.getElevator(0);
+        assertEquals(ElevatorAction.ASCENDING, elevator.getCurrentAction());
+        assertEquals(8, elevator.getTargetStorey());
+        assertFalse(elevatorBank.getElevatorRequestManager(0).hasRequests());
+    }
+
+    @Test
+    void testParkingIsInterruptedByRequest() {
+        var elevatorBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey, 1, new NearestCarDispatcher());
+        var parkingPolicy = new ParkingPolicy(defaultLowestStorey, defaultHighestStorey);
+        parkingPolicy.recordCall(defaultHighestStorey, 0);
+        parkingPolicy.recordCall(defaultHighestStorey, 0);
+        elevatorBank.setParkingPolicy(parkingPolicy);
+
+        var elevator = elevatorBank.getElevator(0);
+        for(int i = 0; i < 200; i++)
+            elevator.update();
+        elevatorBank.createHallCall(defaultLowestStorey);
+        assertEquals(defaultLowestStorey, elevator.getTargetStorey());
+
+        var estimate = elevatorBank.getElevatorRequestManager(0).estimateCyclesToServe(defaultLowestStorey);
+        var cycles = 0;
+        while(elevatorBank.getServedRequests() == 0) {
+            elevator.update();
+            cycles++;
+        }
+        assertTrue(cycles <= estimate);
+
+        // Parks again once the request is served
+        while(elevator.getCurrentAction() != ElevatorAction.ASCENDING)
+            elevator.update();
+        assertEquals(defaultHighestStorey, elevator.getTargetStorey());
+    }
+
+    @Test
+    void testIdleElevatorsSpreadOut() {
+        var elevatorBank = new ElevatorBank(defaultLowestStorey, defaultHighestStorey, 2, new NearestCarDispatcher());
+        var parkingPolicy = new ParkingPolicy(defaultLowestStorey, defaultHighestStorey);
+        for(int i = 0; i < 3; i++) {
+            parkingPolicy.recordCall(3, 0);
+            parkingPolicy.recordCall(9, 0);
+        }
+        elevatorBank.setParkingPolicy(parkingPolicy);
+
+        // The first elevator covers the calls far from the second, which then moves closer to the rest
+        assertEquals(9, elevatorBank.getElevator(0).getTargetStorey());
+        assertEquals(3, elevatorBank.getElevator(1).getTargetStorey());
+    }
+
+    private ParkingPolicy createParkingPolicy(int bucketsPerDay) {
+        return new ParkingPolicy(defaultLowestStorey, defaultHighestStorey, defaultCyclesPerDay, bucketsPerDay, defaultHalfLife);
+    }
+}
@@ -0,0 +1,91 @@
+package knc.simulator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PassengerQueuesTest {
+    private final int defaultLowestStorey = -2;
+    private final int defaultHighestStorey = 10;
+    private final int defaultCarCount = 2;
+    private PassengerQueues passengerQueues = new PassengerQueues(defaultLowestStorey, defaultHighestStorey, defaultCarCount);
+
+    @Test
+    void testBoardsInArrivalOrder() {
+        passengerQueues.addWaiting(3, 7, 10, PassengerQueues.NONE, PassengerQueues.NONE);
+        passengerQueues.addWaiting(3, -2, 20, PassengerQueues.NONE, PassengerQueues.NONE);
+        passengerQueues.addWaiting(4, 7, 30, PassengerQueues.NONE, PassengerQueues.NONE);
+        assertEquals(2, passengerQueues.getWaitingCount(3));
+
+        var first = passengerQueues.board(0, 3, 40);
+        var second = passengerQueues.board(0, 3, 41);
+        assertEquals(10, passengerQueues.getArrivalCycle(first));
+        assertEquals(20, passengerQueues.getArrivalCycle(second));
+        assertEquals(41, passengerQueues.getBoardingCycle(second));
+        assertEquals(PassengerQueues.NONE, passengerQueues.board(0, 3, 42));
+        assertEquals(2, passengerQueues.getRidingCount(0));
+        assertEquals(1, passengerQueues.getWaitingCount());
+    }
+
+    @Test
+    void testAlightsOnlyAtDestination() {
+        passengerQueues.addWaiting(0, 5, 0, PassengerQueues.NONE, PassengerQueues.NONE);
+        passengerQueues.addWaiting(0, 8, 0, PassengerQueues.NONE, PassengerQueues.NONE);
+        passengerQueues.board(1, 0, 1);
+        passengerQueues.board(1, 0, 1);
+
+        assertEquals(PassengerQueues.NONE, passengerQueues.alight(1, 6));
+        assertEquals(PassengerQueues.NONE, passengerQueues.alight(0, 5));
+        var passenger = passengerQueues.alight(1, 5);
+        assertEquals(5, passengerQueues.getDestination(passenger));
+        assertEquals(PassengerQueues.NONE, passengerQueues.alight(1, 5));
+        assertEquals(1, passengerQueues.getRidingCount(1));
+    }
+
+    @Test
+    void testReleasedPassengersAreReused() {
+        for(int i = 0; i < 1_000; i++) {
+            passengerQueues.addWaiting(1, 2, i, PassengerQueues.NONE, PassengerQueues.NONE);
+            passengerQueues.board(0, 1, i);
+            passengerQueues.release(passengerQueues.alight(0, 2));
+        }
+
+        passengerQueues.addWaiting(1, 2, 0, PassengerQueues.NONE, PassengerQueues.NONE);
+        assertEquals(0, passengerQueues.board(0, 1, 0));
+        assertFalse(passengerQueues.isEmpty());
+    }
+
+    @Test
+    void testRestoredQueuesKeepOrder() {
+        for(int i = 0; i < 100; i++)
+            passengerQueues.addWaiting(defaultLowestStorey + i % 13, defaultHighestStorey - i % 5, i, PassengerQueues.NONE, i);
+        for(int i = 0; i < 4; i++)
+            passengerQueues.board(1, defaultLowestStorey, 100 + i);
+
+        var buffer = ByteBuffer.allocate(passengerQueues.getStateSize());
+        passengerQueues.saveState(buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+
+        var restored = new PassengerQueues(defaultLowestStorey, defaultHighestStorey, defaultCarCount);
+        restored.restoreState(buffer);
+        assertEquals(passengerQueues.getWaitingCount(), restored.getWaitingCount());
+        assertEquals(4, restored.getRidingCount(1));
+        for(int storey = defaultLowestStorey; storey <= defaultHighestStorey; storey++) {
+            for(var expected = passengerQueues.board(0, storey, 0); expected != PassengerQueues.NONE;
+                    expected = passengerQueues.board(0, storey, 0)) {
+                var actual = restored.board(0, storey, 0);
+                assertEquals(passengerQueues.getArrivalCycle(expected), restored.getArrivalCycle(actual));
+                assertEquals(passengerQueues.getDestination(expected), restored.getDestination(actual));
+                assertEquals(passengerQueues.getTag(expected), restored.getTag(actual));
+            }
+        }
+        for(var storey = defaultHighestStorey; storey > defaultHighestStorey - 5; storey--) {
+            for(var expected = passengerQueues.alight(1, storey); expected != PassengerQueues.NONE;
+                    expected = passengerQueues.alight(1, storey))
+                assertEquals(passengerQueues.getBoardingCycle(expected), restored.getBoardingCycle(restored.alight(1, storey)));
+        }
+    }
+}
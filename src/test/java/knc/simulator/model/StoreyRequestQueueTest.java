@@ -0,0 +1,135 @@
+package knc.simulator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoreyRequestQueueTest {
+    private final int defaultLowestStorey = -5;
+    private final int defaultHighestStorey = 150;
+    private StoreyRequestQueue queue = new StoreyRequestQueue(defaultLowestStorey, defaultHighestStorey);
+
+    @Test
+    void testDuplicateIsRejected() {
+        assertTrue(queue.add(3, 0));
+        assertFalse(queue.add(3, 1));
+        assertEquals(1, queue.size());
+        assertEquals(0, queue.getCreationCycle(3));
+    }
+
+    @Test
+    void testKeepsInsertionOrder() {
+        queue.add(100, 0);
+        queue.add(-5, 1);
+        queue.add(64, 2);
+
+        assertEquals(100, queue.first());
+        assertEquals(-5, queue.next(100));
+        assertEquals(64, queue.next(-5));
+        assertEquals(StoreyRequestQueue.NONE, queue.next(64));
+    }
+
+    @Test
+    void testAddFirstBecomesOldest() {
+        queue.add(5, 1);
+        queue.add(7, 2);
+        assertTrue(queue.addFirst(3, 0));
+        assertFalse(queue.addFirst(7, 0));
+
+        assertEquals(3, queue.first());
+        assertEquals(5, queue.next(3));
+        assertEquals(7, queue.last());
+        assertEquals(2 + 2, queue.getPathLength());
+    }
+
+    @Test
+    void testRemoveFromMiddle() {
+        queue.add(1, 0);
+        queue.add(2, 0);
+        queue.add(3, 0);
+
+        assertTrue(queue.remove(2));
+        assertFalse(queue.remove(2));
+        assertFalse(queue.contains(2));
+        assertEquals(3, queue.next(1));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void testCanBeReaddedAfterRemoval() {
+        queue.add(1, 0);
+        queue.add(2, 0);
+        queue.remove(1);
+        queue.add(1, 5);
+
+        assertEquals(2, queue.first());
+        assertEquals(1, queue.next(2));
+        assertEquals(5, queue.getCreationCycle(1));
+    }
+
+    @Test
+    void testEmptiedQueue() {
+        queue.add(defaultHighestStorey, 0);
+        queue.remove(defaultHighestStorey);
+
+        assertTrue(queue.isEmpty());
+        assertEquals(StoreyRequestQueue.NONE, queue.first());
+    }
+
+    @Test
+    void testClosestSearchesAcrossWords() {
+        queue.add(-4, 0);
+        queue.add(70, 0);
+        queue.add(140, 0);
+
+        assertEquals(70, queue.closestAtOrAbove(-3));
+        assertEquals(70, queue.closestAtOrAbove(70));
+        assertEquals(140, queue.closestAtOrAbove(71));
+        assertEquals(StoreyRequestQueue.NONE, queue.closestAtOrAbove(141));
+        assertEquals(70, queue.closestAtOrBelow(139));
+        assertEquals(-4, queue.closestAtOrBelow(69));
+        assertEquals(StoreyRequestQueue.NONE, queue.closestAtOrBelow(-5));
+        assertEquals(140, queue.closestAtOrBelow(defaultHighestStorey + 10));
+        assertEquals(-4, queue.closestAtOrAbove(defaultLowestStorey - 10));
+    }
+
+    @Test
+    void testPathLengthFollowsAddsAndRemovals() {
+        queue.add(10, 0);
+        queue.add(-5, 0);
+        queue.add(20, 0);
+        queue.add(0, 0);
+        assertEquals(15 + 25 + 20, queue.getPathLength());
+        assertEquals(0, queue.last());
+
+        queue.remove(20);
+        assertEquals(15 + 5, queue.getPathLength());
+        queue.remove(10);
+        assertEquals(5, queue.getPathLength());
+        queue.remove(0);
+        assertEquals(0, queue.getPathLength());
+        assertEquals(-5, queue.last());
+    }
+
+    @Test
+    void testPathLengthMatchesWalkingTheQueue() {
+        var random = new Random(7);
+        for(int i = 0; i < 10_000; i++) {
+            var storey = defaultLowestStorey + random.nextInt(defaultHighestStorey - defaultLowestStorey + 1);
+            var operation = random.nextInt(4);
+            if(operation == 0)
+                queue.addFirst(storey, i);
+            else if(operation == 1)
+                queue.add(storey, i);
+            else
+                queue.remove(storey);
+
+            long walked = 0;
+            for(var s = queue.first(); s != StoreyRequestQueue.NONE && queue.next(s) != StoreyRequestQueue.NONE; s = queue.next(s))
+                walked += Math.abs(queue.next(s) - s);
+            assertEquals(walked, queue.getPathLength());
+        }
+    }
+}
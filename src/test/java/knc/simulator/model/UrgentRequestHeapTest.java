@@ -0,0 +1,74 @@
+package knc.simulator.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrgentRequestHeapTest {
+    private final int defaultLowestStorey = -5;
+    private final int defaultHighestStorey = 150;
+    private UrgentRequestHeap heap = new UrgentRequestHeap(defaultLowestStorey, defaultHighestStorey);
+
+    @Test
+    void testOrdersByPriorityThenDeadline() {
+        heap.offer(10, RequestPriority.HIGH.ordinal(), 500, 0);
+        heap.offer(20, RequestPriority.HIGH.ordinal(), 300, 1);
+        heap.offer(30, RequestPriority.EMERGENCY.ordinal(), ElevatorRequestManager.NO_DEADLINE, 2);
+        heap.offer(40, RequestPriority.NORMAL.ordinal(), 100, 3);
+
+        assertEquals(30, heap.peek());
+        heap.remove(30);
+        assertEquals(20, heap.peek());
+        heap.remove(20);
+        assertEquals(10, heap.peek());
+        heap.remove(10);
+        assertEquals(40, heap.peek());
+        heap.remove(40);
+        assertEquals(StoreyRequestQueue.NONE, heap.peek());
+    }
+
+    @Test
+    void testDuplicateEscalates() {
+        heap.offer(10, RequestPriority.HIGH.ordinal(), 500, 0);
+        heap.offer(20, RequestPriority.HIGH.ordinal(), 300, 1);
+        assertFalse(heap.offer(10, RequestPriority.NORMAL.ordinal(), 200, 2));
+
+        assertEquals(10, heap.peek());
+        assertEquals(RequestPriority.HIGH.ordinal(), heap.getPriority(10));
+        assertEquals(200, heap.getDeadline(10));
+        assertEquals(2, heap.size());
+    }
+
+    @Test
+    void testMatchesSortedReference() {
+        var random = new Random(11);
+        long[][] requests = new long[defaultHighestStorey - defaultLowestStorey + 1][];
+        var reference = new TreeSet<Integer>(Comparator
+                .<Integer>comparingLong(storey -> -requests[storey - defaultLowestStorey][0])
+                .thenComparingLong(storey -> requests[storey - defaultLowestStorey][1])
+                .thenComparingLong(storey -> requests[storey - defaultLowestStorey][2])
+                .thenComparingInt(storey -> storey));
+
+        for(int i = 0; i < 10_000; i++) {
+            var storey = defaultLowestStorey + random.nextInt(requests.length);
+            var index = storey - defaultLowestStorey;
+            if(random.nextInt(3) > 0 && requests[index] == null) {
+                var priority = random.nextInt(RequestPriority.values().length);
+                var deadline = random.nextBoolean() ? ElevatorRequestManager.NO_DEADLINE : random.nextInt(1_000);
+                requests[index] = new long[] {priority, deadline, i};
+                assertTrue(heap.offer(storey, priority, deadline, i));
+                reference.add(storey);
+            } else {
+                assertEquals(requests[index] != null && reference.remove(storey), heap.remove(storey));
+                requests[index] = null;
+            }
+
+            assertEquals(reference.size(), heap.size());
+            assertEquals(reference.isEmpty() ? StoreyRequestQueue.NONE : reference.first(), heap.peek());
+        }
+    }
+}
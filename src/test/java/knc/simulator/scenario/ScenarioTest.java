@@ -0,0 +1,115 @@
+package knc.simulator.scenario;
+
+import knc.simulator.model.EnergyAwareDispatcher;
+import knc.simulator.model.SchedulingPolicy;
+import knc.simulator.traffic.TraceReader;
+import knc.simulator.traffic.TrafficGenerator;
+import knc.simulator.traffic.TrafficProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioTest {
+    private Path directory;
+    private Path scenarioPath;
+    private Path tracePath;
+
+    ScenarioTest() throws IOException {
+        directory = Files.createTempDirectory("scenario");
+        scenarioPath = directory.resolve("scenario.properties");
+        tracePath = directory.resolve("calls.csv");
+    }
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        Files.deleteIfExists(scenarioPath);
+        Files.deleteIfExists(tracePath);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void testDefaults() {
+        var scenario = new Scenario();
+        assertEquals(DispatcherType.ETA, scenario.getDispatcherType());
+        assertEquals(SchedulingPolicy.COLLECTIVE, scenario.getSchedulingPolicy());
+        assertNull(scenario.getTracePath());
+        assertEquals(TrafficGenerator.DEFAULT_CYCLES_PER_DAY, scenario.getCycles());
+    }
+
+    @Test
+    void testLoadsEveryKey() throws IOException {
+        Files.writeString(scenarioPath, "building.highestStorey = 12\n"
+                + "building.lowestStorey = -2\n"
+                + "building.elevators = 3\n"
+                + "car.cyclesToTraverseStorey = 30\n"
+                + "car.cyclesToHold = 40\n"
+                + "car.accelerationCycles = 10\n"
+                + "car.capacity = 8\n"
+                + "car.cyclesPerPassenger = 5\n"
+                + "dispatcher = ENERGY_AWARE\n"
+                + "dispatcher.cyclesPerKilowattHour = 500\n"
+                + "dispatcher.assignmentWindow = 30\n"
+                + "scheduling = FIFO\n"
+                + "parking = true\n"
+                + "passengers = true\n"
+                + "traffic.profile = UP_PEAK\n"
+                + "traffic.peakCallsPerCycle = 0.01\n"
+                + "traffic.seed = 9\n"
+                + "cycles = 1000\n");
+
+        var scenario = Scenario.load(scenarioPath);
+        assertEquals(-2, scenario.getLowestStorey());
+        assertEquals(12, scenario.getHighestStorey());
+        assertEquals(TrafficProfile.UP_PEAK, scenario.getTrafficProfile());
+        assertEquals(9, scenario.getSeed());
+
+        var elevatorBank = scenario.createElevatorBank();
+        assertEquals(3, elevatorBank.getElevatorCount());
+        assertTrue(elevatorBank.getDispatcher() instanceof EnergyAwareDispatcher);
+        assertEquals(30, elevatorBank.getDestinationDispatcher().getAssignmentWindow());
+        assertNotNull(elevatorBank.getParkingPolicy());
+        var elevator = elevatorBank.getElevator(2);
+        assertEquals(30, elevator.getCyclesToTraverseStorey());
+        assertEquals(40, elevator.getCyclesToHold());
+        assertEquals(10, elevator.getAccelerationCycles());
+        assertEquals(8, elevator.getCapacity());
+        assertEquals(SchedulingPolicy.FIFO, elevatorBank.getElevatorRequestManager(2).getSchedulingPolicy());
+    }
+
+    @Test
+    void testReplaysTraceNextToScenario() throws IOException {
+        Files.writeString(scenarioPath, "building.highestStorey = 10\ntraffic.trace = calls.csv\npassengers = true\ncycles = 100000\n");
+        Files.writeString(tracePath, "0,1,10\n100,5,1\n100,10,2\n5000,3,4\n");
+
+        var scenario = Scenario.load(scenarioPath);
+        assertEquals(tracePath, scenario.getTracePath());
+        try(var traceReader = (TraceReader) scenario.openTrafficSource()) {
+            var engine = scenario.createSimulationEngine(traceReader);
+            engine.runToBudget();
+
+            assertEquals(4, traceReader.getCallCount());
+            assertEquals(4, engine.getElevatorBank().getDeliveredPassengers());
+        }
+    }
+
+    @Test
+    void testInvalidScenarioShouldThrow() throws IOException {
+        Files.writeString(scenarioPath, "building.elevator = 3\n");
+        assertThrows(IllegalArgumentException.class, () -> Scenario.load(scenarioPath));
+        Files.writeString(scenarioPath, "building.elevators = 0\n");
+        assertThrows(IllegalArgumentException.class, () -> Scenario.load(scenarioPath));
+        Files.writeString(scenarioPath, "building.lowestStorey = 30\n");
+        assertThrows(IllegalArgumentException.class, () -> Scenario.load(scenarioPath));
+        Files.writeString(scenarioPath, "dispatcher = FASTEST\n");
+        assertThrows(IllegalArgumentException.class, () -> Scenario.load(scenarioPath));
+        Files.writeString(scenarioPath, "parking = yes\n");
+        assertThrows(IllegalArgumentException.class, () -> Scenario.load(scenarioPath));
+        Files.writeString(scenarioPath, "dispatcher.assignmentWindow = 30\n");
+        assertThrows(IllegalArgumentException.class, () -> Scenario.load(scenarioPath));
+    }
+}
@@ -0,0 +1,111 @@
+package knc.simulator.traffic;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceReaderTest {
+    private final int defaultLowestStorey = 1;
+    private final int defaultHighestStorey = 20;
+    private Path path;
+
+    TraceReaderTest() throws IOException {
+        path = Files.createTempFile("trace", ".csv");
+    }
+
+    @AfterEach
+    void deleteTrace() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void testReadsCallsSkippingCommentsAndBlankLines() throws IOException {
+        Files.writeString(path, "# cycle,origin,destination\n\n10,1,5\r\n  20 , 7 ,2\n\n# end\n30,20,1");
+
+        try(var traceReader = new TraceReader(path, defaultLowestStorey, defaultHighestStorey)) {
+            assertCall(traceReader, 10, 1, 5);
+            traceReader.next();
+            assertCall(traceReader, 20, 7, 2);
+            traceReader.next();
+            assertCall(traceReader, 30, 20, 1);
+            traceReader.next();
+            assertEquals(TrafficSource.NO_MORE_CALLS, traceReader.getNextCallCycle());
+            traceReader.next();
+            assertEquals(TrafficSource.NO_MORE_CALLS, traceReader.getNextCallCycle());
+            assertEquals(3, traceReader.getCallCount());
+        }
+    }
+
+    @Test
+    void testEmptyTraceHasNoCalls() throws IOException {
+        try(var traceReader = new TraceReader(path, defaultLowestStorey, defaultHighestStorey)) {
+            assertEquals(TrafficSource.NO_MORE_CALLS, traceReader.getNextCallCycle());
+            assertEquals(0, traceReader.getCallCount());
+        }
+    }
+
+    @Test
+    void testSmallWindowReadsTheSameCalls() throws IOException {
+        var random = new Random(5);
+        var trace = new StringBuilder();
+        long cycle = 0;
+        for(int i = 0; i < 5_000; i++) {
+            cycle += random.nextInt(100);
+            var origin = defaultLowestStorey + random.nextInt(defaultHighestStorey);
+            var destination = origin == defaultHighestStorey ? defaultLowestStorey : origin + 1;
+            trace.append(cycle).append(',').append(origin).append(',').append(destination).append('\n');
+        }
+        Files.writeString(path, trace);
+
+        try(var mapped = new TraceReader(path, defaultLowestStorey, defaultHighestStorey);
+            var windowed = new TraceReader(path, defaultLowestStorey, defaultHighestStorey, 16)) {
+            while(mapped.getNextCallCycle() != TrafficSource.NO_MORE_CALLS) {
+                assertCall(windowed, mapped.getNextCallCycle(), mapped.getNextOrigin(), mapped.getNextDestination());
+                mapped.next();
+                windowed.next();
+            }
+
+            assertEquals(TrafficSource.NO_MORE_CALLS, windowed.getNextCallCycle());
+            assertEquals(5_000, windowed.getCallCount());
+        }
+    }
+
+    @Test
+    void testLineLongerThanWindowShouldThrow() throws IOException {
+        Files.writeString(path, "1,2,3\n1000000,2,3\n");
+        try(var traceReader = new TraceReader(path, defaultLowestStorey, defaultHighestStorey, 8)) {
+            assertThrows(UncheckedIOException.class, traceReader::next);
+        }
+    }
+
+    @Test
+    void testMalformedTraceShouldThrow() throws IOException {
+        Files.writeString(path, "1,2\n");
+        assertThrows(IOException.class, () -> new TraceReader(path, defaultLowestStorey, defaultHighestStorey));
+        Files.writeString(path, "1,2,x\n");
+        assertThrows(IOException.class, () -> new TraceReader(path, defaultLowestStorey, defaultHighestStorey));
+        Files.writeString(path, "1,2,21\n");
+        assertThrows(IOException.class, () -> new TraceReader(path, defaultLowestStorey, defaultHighestStorey));
+        Files.writeString(path, "1,2,2\n");
+        assertThrows(IOException.class, () -> new TraceReader(path, defaultLowestStorey, defaultHighestStorey));
+
+        Files.writeString(path, "5,2,3\n4,2,3\n");
+        try(var traceReader = new TraceReader(path, defaultLowestStorey, defaultHighestStorey)) {
+            var e = assertThrows(UncheckedIOException.class, traceReader::next);
+            assertTrue(e.getCause().getMessage().contains("line 2"));
+        }
+    }
+
+    private static void assertCall(TrafficSource trafficSource, long cycle, int origin, int destination) {
+        assertEquals(cycle, trafficSource.getNextCallCycle());
+        assertEquals(origin, trafficSource.getNextOrigin());
+        assertEquals(destination, trafficSource.getNextDestination());
+    }
+}
@@ -0,0 +1,94 @@
+package knc.simulator.traffic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficGeneratorTest {
+    private final int defaultLowestStorey = 1;
+    private final int defaultHighestStorey = 20;
+    private final long defaultCyclesPerDay = 240_000;
+
+    @Test
+    void testInvalidArgumentsShouldThrow() {
+        assertThrows(Exception.class, () -> new TrafficGenerator(5, 5, TrafficProfile.UNIFORM, 0.01, 0));
+        assertThrows(Exception.class, () -> new TrafficGenerator(1, 5, TrafficProfile.UNIFORM, 0, 0));
+        assertThrows(Exception.class, () -> new TrafficGenerator(1, 5, 6, TrafficProfile.UNIFORM, 0.01, 100, 0));
+    }
+
+    @Test
+    void testIdenticalSeedsGiveIdenticalSequences() {
+        var first = createGenerator(TrafficProfile.FULL_DAY, 3);
+        var second = createGenerator(TrafficProfile.FULL_DAY, 3);
+
+        for(int i = 0; i < 10_000; i++) {
+            assertEquals(first.getNextCallCycle(), second.getNextCallCycle());
+            assertEquals(first.getNextOrigin(), second.getNextOrigin());
+            assertEquals(first.getNextDestination(), second.getNextDestination());
+            first.next();
+            second.next();
+        }
+    }
+
+    @Test
+    void testCallsAreOrderedAndInsideBuilding() {
+        var generator = createGenerator(TrafficProfile.UNIFORM, 11);
+        var previousCycle = 0L;
+
+        for(int i = 0; i < 10_000; i++) {
+            assertTrue(generator.getNextCallCycle() >= previousCycle);
+            assertTrue(generator.getNextOrigin() >= defaultLowestStorey && generator.getNextOrigin() <= defaultHighestStorey);
+            assertNotEquals(generator.getNextOrigin(), generator.getNextDestination());
+            previousCycle = generator.getNextCallCycle();
+            generator.next();
+        }
+    }
+
+    @Test
+    void testUniformRateMatchesIntensity() {
+        var generator = createGenerator(TrafficProfile.UNIFORM, 5);
+        var calls = 0;
+        while(generator.getNextCallCycle() < defaultCyclesPerDay) {
+            calls++;
+            generator.next();
+        }
+
+        assertEquals(0.01 * defaultCyclesPerDay, calls, 0.05 * 0.01 * defaultCyclesPerDay);
+    }
+
+    @Test
+    void testUpPeakCallsAreMadeFromLobbyInTheMorning() {
+        var generator = createGenerator(TrafficProfile.UP_PEAK, 9);
+        var morningCalls = 0;
+        var lobbyCalls = 0;
+
+        while(generator.getNextCallCycle() < defaultCyclesPerDay) {
+            var hour = generator.getNextCallCycle() * 24 / defaultCyclesPerDay;
+            if(hour == 8) {
+                morningCalls++;
+                if(generator.getNextOrigin() == defaultLowestStorey)
+                    lobbyCalls++;
+            }
+            generator.next();
+        }
+
+        assertTrue(lobbyCalls > 0.8 * morningCalls);
+    }
+
+    @Test
+    void testDownPeakIsQuietInTheMorning() {
+        var generator = createGenerator(TrafficProfile.DOWN_PEAK, 9);
+        var callsPerHour = new int[24];
+        while(generator.getNextCallCycle() < defaultCyclesPerDay) {
+            callsPerHour[(int) (generator.getNextCallCycle() * 24 / defaultCyclesPerDay)]++;
+            generator.next();
+        }
+
+        assertTrue(callsPerHour[17] > 5 * callsPerHour[8]);
+    }
+
+    private TrafficGenerator createGenerator(TrafficProfile trafficProfile, long seed) {
+        return new TrafficGenerator(defaultLowestStorey, defaultHighestStorey, defaultLowestStorey, trafficProfile,
+                0.01, defaultCyclesPerDay, seed);
+    }
+}